@@ -0,0 +1,145 @@
+package com.rewards.archive;
+
+import com.rewards.repository.TransactionRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * The archived months of the transactions table: one {@link TransactionSegment} per month in
+ * {@code rewards.archive.directory}, opened at startup. A month's rows can be in its segment and, until the
+ * archival job has deleted them, in the table too, so readers that combine both drop table rows by id.
+ */
+@Component
+public class TransactionArchive implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionArchive.class );
+
+    private static final String PREFIX = "transactions-";
+    private static final String SUFFIX = ".seg";
+    private static final Comparator<TransactionRow> DATE_ORDER =
+            Comparator.comparing( TransactionRow::transactionDate ).thenComparing( TransactionRow::id );
+
+    private final Path directory;
+    private final ConcurrentSkipListMap<YearMonth, TransactionSegment> segments = new ConcurrentSkipListMap<>( );
+
+    public TransactionArchive(@Value("${rewards.archive.directory:archive/transactions}") Path directory) {
+        this.directory = directory;
+        if ( !Files.isDirectory( directory ) ) {
+            return;
+        }
+        try ( DirectoryStream<Path> files = Files.newDirectoryStream( directory, PREFIX + "*" ) ) {
+            for ( Path file : files ) {
+                String name = file.getFileName( ).toString( );
+                if ( name.endsWith( SUFFIX + ".tmp" ) ) {
+                    Files.delete( file );
+                } else if ( name.endsWith( SUFFIX ) ) {
+                    TransactionSegment segment = TransactionSegment.open( file );
+                    segments.put( segment.month( ), segment );
+                }
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( "Cannot open the transaction archive in " + directory, e );
+        }
+        if ( !segments.isEmpty( ) ) {
+            log.info( "Opened {} archived transaction months, {} to {}", segments.size( ), segments.firstKey( ), segments.lastKey( ) );
+        }
+    }
+
+    public boolean contains(YearMonth month) {
+        return segments.containsKey( month );
+    }
+
+    public Optional<TransactionSegment> segment(YearMonth month) {
+        return Optional.ofNullable( segments.get( month ) );
+    }
+
+    /** Whether any archived month overlaps {@code [from, to]}; a null end is open. */
+    public boolean covers(LocalDate from, LocalDate to) {
+        return !overlapping( from, to ).isEmpty( );
+    }
+
+    private NavigableMap<YearMonth, TransactionSegment> overlapping(LocalDate from, LocalDate to) {
+        if ( segments.isEmpty( ) ) {
+            return segments;
+        }
+        YearMonth first = from == null ? segments.firstKey( ) : YearMonth.from( from );
+        YearMonth last = to == null ? segments.lastKey( ) : YearMonth.from( to );
+        return first.isAfter( last ) ? new ConcurrentSkipListMap<>( ) : segments.subMap( first, true, last, true );
+    }
+
+    /** The customer's archived rows dated within {@code [from, to]}, in date and id order. */
+    public void forEachRow(Long customerId, LocalDate from, LocalDate to, Consumer<TransactionRow> consumer) {
+        for ( TransactionSegment segment : overlapping( from, to ).values( ) ) {
+            segment.forEachRow( customerId, from, to, consumer );
+        }
+    }
+
+    /** Archived rows of customers with ids in {@code (afterCustomerId, toCustomerId]}, month by month. */
+    public void forEachRow(long afterCustomerId, long toCustomerId, Consumer<TransactionRow> consumer) {
+        for ( TransactionSegment segment : segments.values( ) ) {
+            segment.forEachRow( afterCustomerId, toCustomerId, consumer );
+        }
+    }
+
+    /**
+     * The customer's rows in {@code [from, to]}: {@code live} rows read from the table plus the archived ones,
+     * in date and id order. Returns {@code live} itself when no archived month is in range, or when an end is
+     * null, which the table's {@code between} matches nothing for either.
+     */
+    public List<TransactionRow> merge(Long customerId, LocalDate from, LocalDate to, List<TransactionRow> live) {
+        if ( from == null || to == null || !covers( from, to ) ) {
+            return live;
+        }
+        Set<Long> liveIds = new HashSet<>( );
+        live.forEach( row -> liveIds.add( row.id( ) ) );
+        List<TransactionRow> rows = new ArrayList<>( live );
+        forEachRow( customerId, from, to, row -> {
+            if ( !liveIds.contains( row.id( ) ) ) {
+                rows.add( row );
+            }
+        } );
+        rows.sort( DATE_ORDER );
+        return rows;
+    }
+
+    /** Writes the month's segment, replacing an older one, and starts serving reads from it. */
+    public TransactionSegment install(TransactionSegmentWriter writer) throws IOException {
+        Files.createDirectories( directory );
+        Path file = directory.resolve( PREFIX + writer.month( ) + SUFFIX );
+        writer.write( file );
+        TransactionSegment segment = TransactionSegment.open( file );
+        segments.put( segment.month( ), segment );
+        return segment;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder( "rewards.archive.months", segments, NavigableMap::size ).register( registry );
+        Gauge.builder( "rewards.archive.transactions", segments,
+                s -> s.values( ).stream( ).mapToLong( TransactionSegment::rows ).sum( ) ).register( registry );
+        Gauge.builder( "rewards.archive.bytes", segments,
+                s -> s.values( ).stream( ).mapToLong( TransactionSegment::sizeBytes ).sum( ) ).baseUnit( "bytes" ).register( registry );
+    }
+}
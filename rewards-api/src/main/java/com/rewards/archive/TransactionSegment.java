@@ -0,0 +1,188 @@
+package com.rewards.archive;
+
+import com.rewards.repository.TransactionRow;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One month of archived transactions in a memory-mapped, read-only columnar file written by
+ * {@link TransactionSegmentWriter}. Rows are sorted by customer, date and id; a customer directory points at each
+ * customer's run, so a lookup is a binary search plus a sequential read of that run, straight from the page cache.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header     magic, version, month (yyyyMM), rows, customers                      5 ints
+ * categories count (short), then per category its UTF-8 length (short) and bytes
+ * directory  per customer: id (long), first row, id offset, cents offset, rows (ints), by ascending id
+ * days       one byte per row: day of month
+ * category   one byte per row: 0 for none, else 1 + index into the categories
+ * ids        zig-zag varints, per run the first id and then the difference to the previous row's id
+ * cents      zig-zag varints of the whole-cent amounts
+ * trailer    CRC32 of everything before it (int)
+ * </pre>
+ * Instances are immutable and safe to share: every read uses absolute offsets.
+ */
+public final class TransactionSegment {
+
+    static final int MAGIC = 0x52545853;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 5 * Integer.BYTES;
+    static final int DIRECTORY_ENTRY_BYTES = Long.BYTES + 4 * Integer.BYTES;
+
+    private final Path path;
+    private final YearMonth month;
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int customers;
+    private final String[] categories;
+    private final int directoryOffset;
+    private final int daysOffset;
+    private final int categoryOffset;
+
+    private TransactionSegment(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if ( buffer.capacity( ) < HEADER_BYTES + Integer.BYTES || buffer.getInt( 0 ) != MAGIC ) {
+            throw new IllegalStateException( "Not a transaction segment: " + path );
+        }
+        if ( buffer.getInt( 4 ) != VERSION ) {
+            throw new IllegalStateException( "Unsupported transaction segment version " + buffer.getInt( 4 ) + ": " + path );
+        }
+        CRC32 crc = new CRC32( );
+        crc.update( buffer.slice( 0, buffer.capacity( ) - Integer.BYTES ) );
+        if ( (int) crc.getValue( ) != buffer.getInt( buffer.capacity( ) - Integer.BYTES ) ) {
+            throw new IllegalStateException( "Corrupt transaction segment, checksum mismatch: " + path );
+        }
+        int yyyyMM = buffer.getInt( 8 );
+        this.month = YearMonth.of( yyyyMM / 100, yyyyMM % 100 );
+        this.rows = buffer.getInt( 12 );
+        this.customers = buffer.getInt( 16 );
+
+        int offset = HEADER_BYTES;
+        this.categories = new String[buffer.getShort( offset )];
+        offset += Short.BYTES;
+        for ( int i = 0; i < categories.length; i++ ) {
+            byte[] bytes = new byte[buffer.getShort( offset )];
+            buffer.get( offset + Short.BYTES, bytes );
+            categories[i] = new String( bytes, StandardCharsets.UTF_8 );
+            offset += Short.BYTES + bytes.length;
+        }
+        this.directoryOffset = offset;
+        this.daysOffset = directoryOffset + customers * DIRECTORY_ENTRY_BYTES;
+        this.categoryOffset = daysOffset + rows;
+    }
+
+    /** Maps the file and verifies its checksum, which reads it once. */
+    public static TransactionSegment open(Path path) throws IOException {
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) ) {
+            return new TransactionSegment( path, channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size( ) ) );
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public YearMonth month() {
+        return month;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int customers() {
+        return customers;
+    }
+
+    public long sizeBytes() {
+        return buffer.capacity( );
+    }
+
+    /** The customer's rows dated within {@code [from, to]}, either end open when null, in date and id order. */
+    public void forEachRow(long customerId, LocalDate from, LocalDate to, Consumer<TransactionRow> consumer) {
+        int entry = firstEntryAbove( customerId - 1 );
+        if ( entry < customers && customerId( entry ) == customerId ) {
+            readRun( entry, from, to, consumer );
+        }
+    }
+
+    /** The rows of customers with ids in {@code (afterCustomerId, toCustomerId]}, by customer, date and id. */
+    public void forEachRow(long afterCustomerId, long toCustomerId, Consumer<TransactionRow> consumer) {
+        for ( int entry = firstEntryAbove( afterCustomerId ); entry < customers && customerId( entry ) <= toCustomerId; entry++ ) {
+            readRun( entry, null, null, consumer );
+        }
+    }
+
+    public void forEachRow(Consumer<TransactionRow> consumer) {
+        forEachRow( Long.MIN_VALUE, Long.MAX_VALUE, consumer );
+    }
+
+    private long customerId(int entry) {
+        return buffer.getLong( directoryOffset + entry * DIRECTORY_ENTRY_BYTES );
+    }
+
+    /** Index of the first directory entry with a customer id greater than {@code customerId}. */
+    private int firstEntryAbove(long customerId) {
+        int low = 0;
+        int high = customers;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( customerId( mid ) <= customerId ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void readRun(int entry, LocalDate from, LocalDate to, Consumer<TransactionRow> consumer) {
+        int base = directoryOffset + entry * DIRECTORY_ENTRY_BYTES;
+        long customerId = buffer.getLong( base );
+        int firstRow = buffer.getInt( base + 8 );
+        int[] idCursor = {buffer.getInt( base + 12 )};
+        int[] centsCursor = {buffer.getInt( base + 16 )};
+        int runRows = buffer.getInt( base + 20 );
+
+        long id = 0;
+        for ( int row = firstRow; row < firstRow + runRows; row++ ) {
+            id += zigZag( readVarint( idCursor ) );
+            long cents = zigZag( readVarint( centsCursor ) );
+            LocalDate date = month.atDay( buffer.get( daysOffset + row ) );
+            if ( to != null && date.isAfter( to ) ) {
+                return;
+            }
+            if ( from == null || !date.isBefore( from ) ) {
+                int category = Byte.toUnsignedInt( buffer.get( categoryOffset + row ) );
+                consumer.accept( new TransactionRow( id, customerId, BigDecimal.valueOf( cents, 2 ), cents, date,
+                        category == 0 ? null : categories[category - 1] ) );
+            }
+        }
+    }
+
+    private long readVarint(int[] cursor) {
+        long value = 0;
+        for ( int shift = 0; ; shift += 7 ) {
+            byte b = buffer.get( cursor[0]++ );
+            value |= (long) (b & 0x7F) << shift;
+            if ( b >= 0 ) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigZag(long encoded) {
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+}
@@ -0,0 +1,237 @@
+package com.rewards.archive;
+
+import com.rewards.repository.TransactionRow;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Collects one month of transactions, in any order, and writes them as a {@link TransactionSegment}. Rows are
+ * kept in primitive columns until written; rows with the same id are written once, so a month can be rebuilt
+ * from its old segment plus rows that are still in the table.
+ */
+public final class TransactionSegmentWriter {
+
+    /** Category column values are one byte, 0 meaning none. */
+    private static final int MAX_CATEGORIES = 255;
+
+    private final YearMonth month;
+    private long[] ids = new long[1024];
+    private long[] customerIds = new long[1024];
+    private long[] cents = new long[1024];
+    private byte[] days = new byte[1024];
+    private byte[] categoryCodes = new byte[1024];
+    private final Map<String, Integer> categories = new HashMap<>( );
+    private final List<String> categoryNames = new ArrayList<>( );
+    private int size;
+
+    public TransactionSegmentWriter(YearMonth month) {
+        this.month = month;
+    }
+
+    public YearMonth month() {
+        return month;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a row of the writer's month. Returns false, leaving the row out, when its amount has no whole-cent
+     * representation in a long or its category would be one more than a segment can name.
+     */
+    public boolean add(TransactionRow row) {
+        if ( !YearMonth.from( row.transactionDate( ) ).equals( month ) ) {
+            throw new IllegalArgumentException( "Transaction " + row.id( ) + " is not in " + month );
+        }
+        Long amountCents = row.amountCents( ) != null ? row.amountCents( ) : toCents( row.amount( ) );
+        Integer category = row.category( ) == null ? Integer.valueOf( 0 ) : categories.get( row.category( ) );
+        if ( amountCents == null || (category == null && categories.size( ) == MAX_CATEGORIES) ) {
+            return false;
+        }
+        if ( category == null ) {
+            categoryNames.add( row.category( ) );
+            category = categoryNames.size( );
+            categories.put( row.category( ), category );
+        }
+        if ( size == ids.length ) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf( ids, capacity );
+            customerIds = Arrays.copyOf( customerIds, capacity );
+            cents = Arrays.copyOf( cents, capacity );
+            days = Arrays.copyOf( days, capacity );
+            categoryCodes = Arrays.copyOf( categoryCodes, capacity );
+        }
+        ids[size] = row.id( );
+        customerIds[size] = row.customerId( );
+        cents[size] = amountCents;
+        days[size] = (byte) row.transactionDate( ).getDayOfMonth( );
+        categoryCodes[size] = (byte) (int) category;
+        size++;
+        return true;
+    }
+
+    /** Same truncation as {@code Transaction#toCents}; null when the amount does not fit a long. */
+    private static Long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight( 2 ).setScale( 0, RoundingMode.DOWN ).longValueExact( );
+        } catch ( ArithmeticException ex ) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the segment next to {@code target}, forces it to disk and moves it into place atomically, so readers
+     * only ever open a complete file.
+     */
+    public void write(Path target) throws IOException {
+        Integer[] order = new Integer[size];
+        for ( int i = 0; i < size; i++ ) {
+            order[i] = i;
+        }
+        Arrays.sort( order, Comparator.<Integer>comparingLong( i -> customerIds[i] )
+                .thenComparingInt( i -> days[i] )
+                .thenComparingLong( i -> ids[i] ) );
+
+        Columns columns = new Columns( );
+        List<long[]> directory = new ArrayList<>( );
+        long lastCustomer = 0;
+        long lastId = 0;
+        int rows = 0;
+        for ( int n = 0; n < size; n++ ) {
+            int i = order[n];
+            boolean newRun = directory.isEmpty( ) || customerIds[i] != lastCustomer;
+            if ( !newRun && ids[i] == lastId ) {
+                continue;
+            }
+            if ( newRun ) {
+                directory.add( new long[]{customerIds[i], rows, columns.ids.size, columns.cents.size, 0} );
+                lastCustomer = customerIds[i];
+                lastId = 0;
+            }
+            columns.days.write( days[i] );
+            columns.categories.write( categoryCodes[i] );
+            columns.ids.writeVarint( zigZag( ids[i] - lastId ) );
+            columns.cents.writeVarint( zigZag( cents[i] ) );
+            lastId = ids[i];
+            directory.get( directory.size( ) - 1 )[4]++;
+            rows++;
+        }
+
+        Bytes header = new Bytes( );
+        header.writeInt( TransactionSegment.MAGIC );
+        header.writeInt( TransactionSegment.VERSION );
+        header.writeInt( month.getYear( ) * 100 + month.getMonthValue( ) );
+        header.writeInt( rows );
+        header.writeInt( directory.size( ) );
+        header.writeShort( categoryNames.size( ) );
+        for ( String name : categoryNames ) {
+            byte[] bytes = name.getBytes( StandardCharsets.UTF_8 );
+            header.writeShort( bytes.length );
+            header.write( bytes, bytes.length );
+        }
+        long varintStart = (long) header.size + (long) directory.size( ) * TransactionSegment.DIRECTORY_ENTRY_BYTES + 2L * rows;
+        if ( varintStart + columns.ids.size + columns.cents.size + Integer.BYTES > Integer.MAX_VALUE ) {
+            throw new IllegalStateException( "Transaction segment for " + month + " would exceed 2 GB" );
+        }
+        for ( long[] entry : directory ) {
+            header.writeLong( entry[0] );
+            header.writeInt( (int) entry[1] );
+            header.writeInt( (int) (varintStart + entry[2]) );
+            header.writeInt( (int) (varintStart + columns.ids.size + entry[3]) );
+            header.writeInt( (int) entry[4] );
+        }
+
+        Path temp = target.resolveSibling( target.getFileName( ) + ".tmp" );
+        CRC32 crc = new CRC32( );
+        try ( FileChannel channel = FileChannel.open( temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING ) ) {
+            for ( Bytes part : List.of( header, columns.days, columns.categories, columns.ids, columns.cents ) ) {
+                crc.update( part.bytes, 0, part.size );
+                part.writeTo( channel );
+            }
+            Bytes trailer = new Bytes( );
+            trailer.writeInt( (int) crc.getValue( ) );
+            trailer.writeTo( channel );
+            channel.force( true );
+        }
+        Files.move( temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static final class Columns {
+        final Bytes days = new Bytes( );
+        final Bytes categories = new Bytes( );
+        final Bytes ids = new Bytes( );
+        final Bytes cents = new Bytes( );
+    }
+
+    /** Growable big-endian byte array. */
+    private static final class Bytes {
+        byte[] bytes = new byte[4096];
+        int size;
+
+        void write(int b) {
+            if ( size == bytes.length ) {
+                bytes = Arrays.copyOf( bytes, bytes.length * 2 );
+            }
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] source, int length) {
+            for ( int i = 0; i < length; i++ ) {
+                write( source[i] );
+            }
+        }
+
+        void writeShort(int value) {
+            write( value >>> 8 );
+            write( value );
+        }
+
+        void writeInt(int value) {
+            writeShort( value >>> 16 );
+            writeShort( value );
+        }
+
+        void writeLong(long value) {
+            writeInt( (int) (value >>> 32) );
+            writeInt( (int) value );
+        }
+
+        void writeVarint(long value) {
+            while ( (value & ~0x7FL) != 0 ) {
+                write( (int) (value & 0x7F) | 0x80 );
+                value >>>= 7;
+            }
+            write( (int) value );
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap( bytes, 0, size );
+            while ( buffer.hasRemaining( ) ) {
+                channel.write( buffer );
+            }
+        }
+    }
+}
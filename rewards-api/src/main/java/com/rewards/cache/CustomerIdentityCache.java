@@ -0,0 +1,163 @@
+package com.rewards.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rewards.model.Customer;
+import com.rewards.repository.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-process map of customer identities (id to customer, email to id) for the transaction write paths, so that
+ * resolving the customer of a new transaction does not cost a database round trip.
+ * <p>
+ * Entries are detached snapshots holding only the identity columns. Every lookup returns a fresh copy; Hibernate
+ * needs only the id of a {@code @ManyToOne} target to write the foreign key, so attaching a copy to a new
+ * {@code Transaction} issues no SELECT, and the copy still serializes like a loaded customer in API responses.
+ * Customers are never updated or deleted through the API, so {@link #put} on creation keeps the cache coherent.
+ */
+@Component
+public class CustomerIdentityCache {
+
+    private static final Logger log = LoggerFactory.getLogger( CustomerIdentityCache.class );
+    private static final int WARM_PAGE_SIZE = 1000;
+
+    private final CustomerRepository customerRepository;
+    private final Cache<Long, Customer> customersById;
+    private final Cache<String, Long> idsByEmail;
+    private final long maximumSize;
+
+    public CustomerIdentityCache(CustomerRepository customerRepository,
+                                 @Value("${rewards.cache.customers.maximum-size:100000}") long maximumSize) {
+        this.customerRepository = customerRepository;
+        this.maximumSize = maximumSize;
+        this.customersById = Caffeine.newBuilder( ).maximumSize( maximumSize ).build( );
+        this.idsByEmail = Caffeine.newBuilder( ).maximumSize( maximumSize ).build( );
+    }
+
+    public Optional<Customer> findById(Long id) {
+        Customer cached = customersById.getIfPresent( id );
+        if ( cached != null ) {
+            return Optional.of( copy( cached ) );
+        }
+        return customerRepository.findById( id ).map( this::cache );
+    }
+
+    public Optional<Customer> findByEmail(String email) {
+        Long id = idsByEmail.getIfPresent( email );
+        Customer cached = id != null ? customersById.getIfPresent( id ) : null;
+        if ( cached != null ) {
+            return Optional.of( copy( cached ) );
+        }
+        return customerRepository.findByCustomerEmail( email ).map( this::cache );
+    }
+
+    /**
+     * Resolves several ids, loading only the ones not cached with a single IN query.
+     */
+    public Map<Long, Customer> findAllById(Collection<Long> ids) {
+        Map<Long, Customer> found = new HashMap<>( );
+        Set<Long> missing = new HashSet<>( );
+        for ( Long id : ids ) {
+            Customer cached = customersById.getIfPresent( id );
+            if ( cached != null ) {
+                found.put( id, copy( cached ) );
+            } else {
+                missing.add( id );
+            }
+        }
+        if ( !missing.isEmpty( ) ) {
+            customerRepository.findAllById( missing ).forEach( c -> found.put( c.getId( ), cache( c ) ) );
+        }
+        return found;
+    }
+
+    /**
+     * Resolves several emails, loading only the ones not cached with a single IN query.
+     */
+    public Map<String, Customer> findAllByEmail(Collection<String> emails) {
+        Map<String, Customer> found = new HashMap<>( );
+        Set<String> missing = new HashSet<>( );
+        for ( String email : emails ) {
+            Long id = idsByEmail.getIfPresent( email );
+            Customer cached = id != null ? customersById.getIfPresent( id ) : null;
+            if ( cached != null ) {
+                found.put( email, copy( cached ) );
+            } else {
+                missing.add( email );
+            }
+        }
+        if ( !missing.isEmpty( ) ) {
+            customerRepository.findByCustomerEmailIn( missing ).forEach( c -> found.put( c.getCustomerEmail( ), cache( c ) ) );
+        }
+        return found;
+    }
+
+    /** Records a newly saved customer. */
+    public void put(Customer customer) {
+        cache( customer );
+    }
+
+    /** Copies of every cached customer, for the reward state snapshot. */
+    public List<Customer> customers() {
+        return customersById.asMap( ).values( ).stream( ).map( CustomerIdentityCache::copy ).toList( );
+    }
+
+    /**
+     * Loads customers in id order until the cache is full, so the first transactions after startup do not miss.
+     * Starts after the highest id already cached, e.g. restored from the reward state snapshot.
+     */
+    public void warm() {
+        long loaded = customersById.estimatedSize( );
+        long afterId = customersById.asMap( ).keySet( ).stream( ).mapToLong( Long::longValue ).max( ).orElse( 0 );
+        List<Customer> page;
+        do {
+            page = customerRepository.findByIdGreaterThanOrderByIdAsc( afterId, Limit.of( WARM_PAGE_SIZE ) );
+            for ( Customer customer : page ) {
+                if ( loaded++ >= maximumSize ) {
+                    log.info( "Customer identity cache warmed with {} customers (full)", maximumSize );
+                    return;
+                }
+                cache( customer );
+                afterId = customer.getId( );
+            }
+        } while ( page.size( ) == WARM_PAGE_SIZE );
+        log.info( "Customer identity cache warmed with {} customers", loaded );
+    }
+
+    public long size() {
+        return customersById.estimatedSize( );
+    }
+
+    /** Stores a detached snapshot of the customer and returns a copy for the caller. */
+    private Customer cache(Customer customer) {
+        Customer snapshot = copy( customer );
+        if ( snapshot.getId( ) != null ) {
+            customersById.put( snapshot.getId( ), snapshot );
+            if ( snapshot.getCustomerEmail( ) != null ) {
+                idsByEmail.put( snapshot.getCustomerEmail( ), snapshot.getId( ) );
+            }
+        }
+        return copy( snapshot );
+    }
+
+    private static Customer copy(Customer customer) {
+        Customer copy = new Customer( );
+        copy.setId( customer.getId( ) );
+        copy.setCustomerName( customer.getCustomerName( ) );
+        copy.setCustomerEmail( customer.getCustomerEmail( ) );
+        copy.setCustomerContactNumber( customer.getCustomerContactNumber( ) );
+        return copy;
+    }
+}
@@ -0,0 +1,171 @@
+package com.rewards.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Customer months whose {@code monthly_rewards} row is behind committed transactions, for the write-behind ledger
+ * mode. Writes only mark their month here, with the number of transactions it is behind by; a flush recomputes
+ * each marked month of a {@link #snapshot} from the raw transactions and {@link #acknowledgeAtCommit takes back}
+ * what it covered. Since a flush sets months instead of adding to them, a month another instance or a rollup
+ * rebuild already brought up to date is not counted twice.
+ * <p>
+ * A customer's months are guarded by their own monitor, held only to update a small map. Customers left without
+ * months are dropped; an add that races the drop notices it and retries on a fresh entry.
+ */
+@Component
+public class PendingRollupMonths implements MeterBinder {
+
+    private static final class Pending {
+        private final NavigableMap<LocalDate, Integer> months = new TreeMap<>( );
+        private boolean retired;
+    }
+
+    private final ConcurrentMap<Long, Pending> customers = new ConcurrentHashMap<>( );
+    /**
+     * Held exclusively from just before a flush commits until its months are taken back, so that a {@link #read}
+     * never counts a transaction both in the rollup and here, yet never waits for the recomputation itself.
+     */
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock( );
+
+    /** Marks the month starting {@code rewardMonth} as behind by {@code transactions} more transactions. */
+    public void add(Long customerId, LocalDate rewardMonth, int transactions) {
+        while ( true ) {
+            Pending pending = customers.computeIfAbsent( customerId, id -> new Pending( ) );
+            synchronized ( pending ) {
+                if ( !pending.retired ) {
+                    pending.months.merge( rewardMonth, transactions, Integer::sum );
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Transactions of the customer not yet in their rollup, to be added to the rollup's count. */
+    public int pendingTransactions(Long customerId) {
+        Pending pending = customers.get( customerId );
+        if ( pending == null ) {
+            return 0;
+        }
+        synchronized ( pending ) {
+            return pending.months.values( ).stream( ).mapToInt( Integer::intValue ).sum( );
+        }
+    }
+
+    /** The customer's months that are behind, in month order. */
+    public List<LocalDate> pendingMonths(Long customerId) {
+        Pending pending = customers.get( customerId );
+        if ( pending == null ) {
+            return List.of( );
+        }
+        synchronized ( pending ) {
+            return List.copyOf( pending.months.keySet( ) );
+        }
+    }
+
+    /** Customers that currently have months behind. */
+    public List<Long> customerIds() {
+        return List.copyOf( customers.keySet( ) );
+    }
+
+    /** A copy of the given customers' months that are behind, for a flush to recompute. */
+    public Map<Long, Map<LocalDate, Integer>> snapshot(Collection<Long> customerIds) {
+        Map<Long, Map<LocalDate, Integer>> snapshot = new HashMap<>( );
+        for ( Long customerId : customerIds ) {
+            Pending pending = customers.get( customerId );
+            if ( pending != null ) {
+                synchronized ( pending ) {
+                    if ( !pending.months.isEmpty( ) ) {
+                        snapshot.put( customerId, Map.copyOf( pending.months ) );
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /** Reads the rollup together with the months still behind it, never between a flush's commit and its take-back. */
+    public <T> T read(Supplier<T> read) {
+        flushLock.readLock( ).lock( );
+        try {
+            return read.get( );
+        } finally {
+            flushLock.readLock( ).unlock( );
+        }
+    }
+
+    /**
+     * Takes back the counts of a {@link #snapshot} once the current DB transaction, which recomputes its months,
+     * commits; immediately when none is active. Readers wait only for the commit itself. Transactions marked since
+     * keep their months behind for the next flush; a rolled-back recomputation takes back nothing.
+     */
+    public void acknowledgeAtCommit(Map<Long, Map<LocalDate, Integer>> snapshot) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            flushLock.writeLock( ).lock( );
+            try {
+                acknowledge( snapshot );
+            } finally {
+                flushLock.writeLock( ).unlock( );
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+            @Override
+            public void beforeCompletion() {
+                flushLock.writeLock( ).lock( );
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if ( !flushLock.isWriteLockedByCurrentThread( ) ) {
+                    return;
+                }
+                try {
+                    if ( status == STATUS_COMMITTED ) {
+                        acknowledge( snapshot );
+                    }
+                } finally {
+                    flushLock.writeLock( ).unlock( );
+                }
+            }
+        } );
+    }
+
+    private void acknowledge(Map<Long, Map<LocalDate, Integer>> flushed) {
+        flushed.forEach( (customerId, months) -> {
+            Pending pending = customers.get( customerId );
+            if ( pending == null ) {
+                return;
+            }
+            synchronized ( pending ) {
+                months.forEach( (month, transactions) ->
+                        pending.months.computeIfPresent( month, (m, count) -> count > transactions ? count - transactions : null ) );
+                if ( pending.months.isEmpty( ) ) {
+                    pending.retired = true;
+                    customers.remove( customerId, pending );
+                }
+            }
+        } );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder( "rewards.rollup.pending.customers", customers, Map::size ).register( registry );
+    }
+}
@@ -0,0 +1,127 @@
+package com.rewards.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Points earned by committed transactions that are not yet in the customers' stored balances, for the
+ * write-behind ledger mode. Each customer has a striped counter, so concurrent writers for one hot customer add
+ * to different cache lines instead of contending on one value, and a flush drains a customer in one pass.
+ * <p>
+ * Unlike {@link java.util.concurrent.atomic.LongAdder#sumThenReset()}, draining swaps each stripe to 0
+ * atomically, so an add that races a drain is counted by exactly one of them. Idle counters are dropped by the
+ * drain; an add that still reaches a dropped counter notices it afterwards and moves its points to a fresh one.
+ */
+@Component
+public class PointsAccumulator implements MeterBinder {
+
+    /** Longs per stripe, so that neighbouring stripes never share a 64-byte cache line. */
+    private static final int PAD = 8;
+
+    private static final class StripedCounter {
+        private final AtomicLongArray cells;
+        private final int mask;
+        private volatile boolean retired;
+
+        StripedCounter(int stripes) {
+            this.cells = new AtomicLongArray( stripes * PAD );
+            this.mask = stripes - 1;
+        }
+
+        void add(long points) {
+            long id = Thread.currentThread( ).threadId( );
+            int stripe = (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16 & mask;
+            cells.getAndAdd( stripe * PAD, points );
+        }
+
+        long sum() {
+            long sum = 0;
+            for ( int i = 0; i < cells.length( ); i += PAD ) {
+                sum += cells.get( i );
+            }
+            return sum;
+        }
+
+        long drain() {
+            long sum = 0;
+            for ( int i = 0; i < cells.length( ); i += PAD ) {
+                sum += cells.getAndSet( i, 0 );
+            }
+            return sum;
+        }
+    }
+
+    private final ConcurrentMap<Long, StripedCounter> counters = new ConcurrentHashMap<>( );
+    private final int stripes;
+
+    public PointsAccumulator(@Value("${rewards.ledger.write-behind.stripes:0}") int stripes) {
+        int requested = stripes > 0 ? stripes : Runtime.getRuntime( ).availableProcessors( );
+        this.stripes = requested <= 1 ? 1 : Integer.highestOneBit( (requested - 1) << 1 );
+    }
+
+    public void add(Long customerId, long points) {
+        while ( points != 0 ) {
+            StripedCounter counter = counters.computeIfAbsent( customerId, id -> new StripedCounter( stripes ) );
+            counter.add( points );
+            if ( !counter.retired ) {
+                return;
+            }
+            // The counter was dropped around our add: whatever the drain missed is moved to the new counter.
+            points = counter.drain( );
+        }
+    }
+
+    /** Points added for the customer and not yet drained. */
+    public long pending(Long customerId) {
+        StripedCounter counter = counters.get( customerId );
+        return counter == null ? 0 : counter.sum( );
+    }
+
+    /** Customers that currently have a counter, possibly with nothing pending. */
+    public List<Long> customerIds() {
+        return List.copyOf( counters.keySet( ) );
+    }
+
+    /**
+     * Takes the pending points of the given customers out of the accumulator. Customers with nothing pending lose
+     * their counter; callers that fail to store the drained points must {@link #restore} them.
+     */
+    public Map<Long, Long> drain(Collection<Long> customerIds) {
+        Map<Long, Long> drained = new HashMap<>( );
+        for ( Long customerId : customerIds ) {
+            StripedCounter counter = counters.get( customerId );
+            if ( counter == null ) {
+                continue;
+            }
+            long points = counter.drain( );
+            if ( points == 0 && counters.remove( customerId, counter ) ) {
+                counter.retired = true;
+                points = counter.drain( );
+            }
+            if ( points != 0 ) {
+                drained.merge( customerId, points, Math::addExact );
+            }
+        }
+        return drained;
+    }
+
+    public void restore(Map<Long, Long> drained) {
+        drained.forEach( this::add );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder( "rewards.ledger.pending.customers", counters, Map::size ).register( registry );
+    }
+}
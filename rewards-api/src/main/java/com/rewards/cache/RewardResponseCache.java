@@ -0,0 +1,159 @@
+package com.rewards.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rewards.dto.RewardCacheStatsDTO;
+import com.rewards.dto.RewardResponseDTO;
+import com.rewards.util.RewardDateRange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of computed reward responses, grouped per customer so that a new transaction evicts exactly the
+ * affected customer's entries in one step.
+ * <p>
+ * A reader takes the customer's entry before it queries the database and stores its result into that same entry.
+ * Eviction replaces the entry, so a result computed from data read before a commit can only land in a detached
+ * entry and is never served afterwards.
+ * <p>
+ * Entries also carry the customer's rollup version (see {@link com.rewards.service.RewardService#rewardsETag}), read
+ * by the caller before it loads anything. A reader that sees a newer version replaces the entry itself, so a
+ * response is never served for an older version than the one the reader saw, even before the after-commit
+ * eviction of another instance's or thread's write has run.
+ */
+@Component
+public class RewardResponseCache implements MeterBinder {
+
+    /** Responses of one customer, keyed by resolved range and output flags. */
+    private static final class CustomerEntry {
+        private final long version;
+        private final ConcurrentMap<Key, RewardResponseDTO> responses = new ConcurrentHashMap<>( );
+
+        CustomerEntry(long version) {
+            this.version = version;
+        }
+    }
+
+    private record Key(RewardDateRange range, boolean includeEmptyMonths) {
+    }
+
+    private final Cache<Long, CustomerEntry> customers;
+    private final int maxRangesPerCustomer;
+    private final boolean enabled;
+    private final LongAdder hits = new LongAdder( );
+    private final LongAdder misses = new LongAdder( );
+    private final LongAdder invalidations = new LongAdder( );
+
+    public RewardResponseCache(@Value("${rewards.cache.rewards.maximum-customers:10000}") long maximumCustomers,
+                               @Value("${rewards.cache.rewards.max-ranges-per-customer:8}") int maxRangesPerCustomer,
+                               @Value("${rewards.cache.rewards.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.enabled = maximumCustomers > 0;
+        this.maxRangesPerCustomer = maxRangesPerCustomer;
+        this.customers = Caffeine.newBuilder( )
+                .maximumSize( Math.max( maximumCustomers, 0 ) )
+                .expireAfterWrite( expireAfterWrite )
+                .recordStats( )
+                .build( );
+    }
+
+    /**
+     * Returns the cached response for the customer and range at {@code version}, computing and caching it on a
+     * miss. Exceptions from {@code loader} propagate and nothing is cached.
+     */
+    public RewardResponseDTO get(Long customerId, RewardDateRange range, boolean includeEmptyMonths, long version,
+                                 Supplier<RewardResponseDTO> loader) {
+        if ( !enabled ) {
+            return loader.get( );
+        }
+        CustomerEntry entry = customers.get( customerId, id -> new CustomerEntry( version ) );
+        if ( entry.version < version ) {
+            entry = customers.asMap( ).merge( customerId, new CustomerEntry( version ),
+                    (current, fresh) -> current.version >= fresh.version ? current : fresh );
+        }
+        if ( entry.version != version ) {
+            // Another reader already saw a newer version; ours may be older than what is cached.
+            misses.increment( );
+            return loader.get( );
+        }
+        Key key = new Key( range, includeEmptyMonths );
+        RewardResponseDTO cached = entry.responses.get( key );
+        if ( cached != null ) {
+            hits.increment( );
+            return cached;
+        }
+
+        misses.increment( );
+        RewardResponseDTO response = loader.get( );
+        if ( entry.responses.size( ) < maxRangesPerCustomer ) {
+            entry.responses.putIfAbsent( key, response );
+        }
+        return response;
+    }
+
+    /**
+     * Evicts the customer's responses once the current DB transaction commits, or immediately when none is
+     * active. Evicting before commit would let a concurrent reader cache the pre-commit state again.
+     */
+    public void evictCustomerAfterCommit(Long customerId) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            evictCustomer( customerId );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+            @Override
+            public void afterCommit() {
+                evictCustomer( customerId );
+            }
+        } );
+    }
+
+    public void evictCustomer(Long customerId) {
+        invalidations.increment( );
+        customers.invalidate( customerId );
+    }
+
+    /** Drops every cached response, e.g. after the reward rules change. */
+    public void evictAll() {
+        invalidations.increment( );
+        customers.invalidateAll( );
+    }
+
+    /** Publishes the same counters as {@link #stats()} as {@code rewards.cache.*} meters. */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder( "rewards.cache.requests", hits, LongAdder::sum ).tag( "result", "hit" ).register( registry );
+        FunctionCounter.builder( "rewards.cache.requests", misses, LongAdder::sum ).tag( "result", "miss" ).register( registry );
+        FunctionCounter.builder( "rewards.cache.invalidations", invalidations, LongAdder::sum ).register( registry );
+        FunctionCounter.builder( "rewards.cache.evictions", customers, c -> c.stats( ).evictionCount( ) ).register( registry );
+        Gauge.builder( "rewards.cache.customers", customers, Cache::estimatedSize ).register( registry );
+    }
+
+    public RewardCacheStatsDTO stats() {
+        long hitCount = hits.sum( );
+        long missCount = misses.sum( );
+        long requests = hitCount + missCount;
+
+        RewardCacheStatsDTO stats = new RewardCacheStatsDTO( );
+        stats.setEnabled( enabled );
+        stats.setHitCount( hitCount );
+        stats.setMissCount( missCount );
+        stats.setHitRate( requests == 0 ? 0.0 : (double) hitCount / requests );
+        stats.setEvictionCount( customers.stats( ).evictionCount( ) );
+        stats.setInvalidationCount( invalidations.sum( ) );
+        stats.setCachedCustomers( customers.estimatedSize( ) );
+        stats.setCachedResponses( customers.asMap( ).values( ).stream( ).mapToLong( e -> e.responses.size( ) ).sum( ) );
+        return stats;
+    }
+}
@@ -0,0 +1,110 @@
+package com.rewards.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most {@code maxConcurrentConnections} connections be checked out of the target pool at once. Further
+ * callers park on a fair semaphore, which costs a virtual thread nothing, instead of piling up inside the pool's
+ * own wait queue. A permit is returned when the connection is closed.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConcurrentConnections;
+    private final long acquireTimeoutNanos;
+
+    public BoundedDataSource(DataSource target, int maxConcurrentConnections, Duration acquireTimeout) {
+        super( target );
+        if ( maxConcurrentConnections <= 0 ) {
+            throw new IllegalArgumentException( "maxConcurrentConnections must be greater than 0" );
+        }
+        this.permits = new Semaphore( maxConcurrentConnections, true );
+        this.maxConcurrentConnections = maxConcurrentConnections;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos( );
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire( );
+        try {
+            return releasingOnClose( super.getConnection( ) );
+        } catch ( SQLException | RuntimeException | Error e ) {
+            permits.release( );
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire( );
+        try {
+            return releasingOnClose( super.getConnection( username, password ) );
+        } catch ( SQLException | RuntimeException | Error e ) {
+            permits.release( );
+            throw e;
+        }
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits( );
+    }
+
+    /** Estimated number of threads waiting for a permit. */
+    public int getQueueLength() {
+        return permits.getQueueLength( );
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if ( !permits.tryAcquire( acquireTimeoutNanos, TimeUnit.NANOSECONDS ) ) {
+                throw new SQLTransientConnectionException( "Timed out after " + Duration.ofNanos( acquireTimeoutNanos )
+                        + " waiting for one of " + maxConcurrentConnections + " database connections" );
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread( ).interrupt( );
+            throw new SQLTransientConnectionException( "Interrupted while waiting for a database connection", e );
+        }
+    }
+
+    /**
+     * Wraps the connection so that its first {@code close()} returns the permit; later calls only reach the pool.
+     */
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean( );
+        return (Connection) Proxy.newProxyInstance( Connection.class.getClassLoader( ), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ( "close".equals( method.getName( ) ) && method.getParameterCount( ) == 0 ) {
+                        try {
+                            connection.close( );
+                        } finally {
+                            if ( released.compareAndSet( false, true ) ) {
+                                permits.release( );
+                            }
+                        }
+                        return null;
+                    }
+                    if ( "equals".equals( method.getName( ) ) && method.getParameterCount( ) == 1 ) {
+                        return proxy == args[0];
+                    }
+                    if ( "hashCode".equals( method.getName( ) ) && method.getParameterCount( ) == 0 ) {
+                        return System.identityHashCode( proxy );
+                    }
+                    try {
+                        return method.invoke( connection, args );
+                    } catch ( InvocationTargetException e ) {
+                        throw e.getCause( );
+                    }
+                } );
+    }
+}
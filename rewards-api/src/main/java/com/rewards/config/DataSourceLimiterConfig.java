@@ -0,0 +1,37 @@
+package com.rewards.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link BoundedDataSource} in front of the application's DataSource when
+ * {@code rewards.datasource.max-concurrent-connections} is set. Meant for the virtual-threads profile, where
+ * request concurrency is no longer capped by the Tomcat thread pool. Only connection pools are wrapped, so with a
+ * read replica each pool gets its own limit and the routing proxy in front of them none.
+ */
+@Configuration
+@ConditionalOnExpression("${rewards.datasource.max-concurrent-connections:0} > 0")
+public class DataSourceLimiterConfig {
+
+    @Bean
+    static BeanPostProcessor boundedDataSourcePostProcessor(
+            @Value("${rewards.datasource.max-concurrent-connections}") int maxConcurrentConnections,
+            @Value("${rewards.datasource.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor( ) {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ( bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource) ) {
+                    return new BoundedDataSource( dataSource, maxConcurrentConnections, acquireTimeout );
+                }
+                return bean;
+            }
+        };
+    }
+}
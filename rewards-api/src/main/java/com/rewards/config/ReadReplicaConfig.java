@@ -0,0 +1,71 @@
+package com.rewards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Splits the application's DataSource into a primary and a replica pool when {@code rewards.datasource.replica.url}
+ * is set. Connections are fetched lazily, on a transaction's first statement, so a read-only transaction can opt in
+ * to the replica through {@link ReplicaStalenessGuard} after it began. Hibernate releases the connection after each
+ * transaction instead of holding it for the open-session-in-view request, so that a write following a replica read
+ * in the same request gets a primary connection of its own.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rewards.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder( ).type( HikariDataSource.class ).build( );
+        dataSource.setPoolName( "rewards-primary" );
+        return dataSource;
+    }
+
+    /** Same credentials and driver as the primary unless {@code rewards.datasource.replica.*} overrides them. */
+    @Bean
+    @ConfigurationProperties("rewards.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                       @Value("${rewards.datasource.replica.url}") String url,
+                                       @Value("${rewards.datasource.replica.username:}") String username,
+                                       @Value("${rewards.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create( )
+                .type( HikariDataSource.class )
+                .driverClassName( properties.determineDriverClassName( ) )
+                .url( url )
+                .username( username.isEmpty( ) ? properties.determineUsername( ) : username )
+                .password( username.isEmpty( ) ? properties.determinePassword( ) : password )
+                .build( );
+        dataSource.setPoolName( "rewards-replica" );
+        dataSource.setReadOnly( true );
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaStalenessGuard stalenessGuard) {
+        return new LazyConnectionDataSourceProxy( new ReplicaRoutingDataSource( primary, replica, stalenessGuard ) );
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put( AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION );
+    }
+}
@@ -0,0 +1,30 @@
+package com.rewards.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions the {@link ReplicaStalenessGuard} allows on the
+ * replica, and primary connections to everything else.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaStalenessGuard stalenessGuard;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaStalenessGuard stalenessGuard) {
+        this.stalenessGuard = stalenessGuard;
+        setTargetDataSources( Map.of( Target.PRIMARY, primary, Target.REPLICA, replica ) );
+        setDefaultTargetDataSource( primary );
+        setLenientFallback( false );
+        afterPropertiesSet( );
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return stalenessGuard.replicaAllowed( ) ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -0,0 +1,105 @@
+package com.rewards.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Decides which read-only transactions may use the read replica. A transaction opts in by calling
+ * {@link #readFor} before its first query, naming the customers it reads; it stays on the primary if any of them
+ * was written in the last {@code rewards.datasource.replica.pin-window}, so customers see their own writes.
+ * Everything else, including Spring Data's implicitly read-only repository calls, stays on the primary.
+ * {@link ReplicaRoutingDataSource} asks {@link #replicaAllowed()} when the transaction's connection is fetched.
+ */
+@Component
+public class ReplicaStalenessGuard {
+
+    private final Cache<Long, Boolean> pinnedCustomers;
+    private final ThreadLocal<Boolean> replicaAllowed = new ThreadLocal<>( );
+
+    @Autowired
+    public ReplicaStalenessGuard(@Value("${rewards.datasource.replica.pin-window:5s}") Duration pinWindow) {
+        this( pinWindow, Ticker.systemTicker( ) );
+    }
+
+    ReplicaStalenessGuard(Duration pinWindow, Ticker ticker) {
+        this.pinnedCustomers = Caffeine.newBuilder( )
+                .expireAfterWrite( pinWindow )
+                .ticker( ticker )
+                .build( );
+    }
+
+    /**
+     * Pins the customer's reads to the primary now, and for a full window again once the current DB transaction
+     * commits, so a long write does not use up the window before its rows are visible anywhere.
+     */
+    public void pinAfterWrite(Long customerId) {
+        if ( customerId == null ) {
+            return;
+        }
+        pinnedCustomers.put( customerId, Boolean.TRUE );
+        if ( TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+                @Override
+                public void afterCommit() {
+                    pinnedCustomers.put( customerId, Boolean.TRUE );
+                }
+            } );
+        }
+    }
+
+    public boolean isPinned(Long customerId) {
+        return customerId != null && pinnedCustomers.getIfPresent( customerId ) != null;
+    }
+
+    /**
+     * Lets the current read-only transaction use the replica unless the customer is pinned. Must run before the
+     * transaction's first query, which is when its connection is chosen; a no-op outside read-only transactions.
+     */
+    public void readFor(Long customerId) {
+        decide( !isPinned( customerId ) );
+    }
+
+    /** Like {@link #readFor(Long)}, keeping the transaction on the primary if any of the customers is pinned. */
+    public void readFor(Collection<Long> customerIds) {
+        boolean anyPinned = false;
+        for ( Long customerId : customerIds ) {
+            if ( isPinned( customerId ) ) {
+                anyPinned = true;
+                break;
+            }
+        }
+        decide( !anyPinned );
+    }
+
+    /** Whether the current transaction opted in to the replica and reads no pinned customer. */
+    public boolean replicaAllowed() {
+        return Boolean.TRUE.equals( replicaAllowed.get( ) );
+    }
+
+    private void decide(boolean replica) {
+        if ( !TransactionSynchronizationManager.isCurrentTransactionReadOnly( )
+                || !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            return;
+        }
+        Boolean current = replicaAllowed.get( );
+        if ( current == null ) {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+                @Override
+                public void afterCompletion(int status) {
+                    replicaAllowed.remove( );
+                }
+            } );
+        }
+        // Once one read of the transaction needs the primary, all of them do.
+        replicaAllowed.set( replica && !Boolean.FALSE.equals( current ) );
+    }
+}
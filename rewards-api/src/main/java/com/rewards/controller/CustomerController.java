@@ -1,11 +1,20 @@
 package com.rewards.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewards.dto.CustomerPage;
 import com.rewards.model.Customer;
 import com.rewards.service.CustomerService;
+import com.rewards.util.CustomerCursor;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 
@@ -14,10 +23,15 @@ import java.util.List;
 @RequestMapping("/api/customers")
 public class CustomerController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, ObjectMapper objectMapper) {
         this.customerService = customerService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/add")
@@ -26,9 +40,55 @@ public class CustomerController {
         return ResponseEntity.created( URI.create( "/api/customers/" + saved.getId( ) ) ).body( saved );
     }
 
+    /**
+     * Lists customers in id order, one keyset page at a time. The body stays a JSON array; when more customers
+     * follow, the {@value #NEXT_CURSOR_HEADER} header and a {@code Link: rel="next"} header carry the token for
+     * the next page.
+     */
     @GetMapping("/get")
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        return ResponseEntity.ok( customerService.getAllCustomers( ) );
+    public ResponseEntity<List<Customer>> getCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        if ( after != null && cursor != null ) {
+            throw new IllegalArgumentException( "Provide either 'after' or 'cursor', not both." );
+        }
+        if ( limit < 1 || limit > MAX_PAGE_SIZE ) {
+            throw new IllegalArgumentException( "'limit' must be between 1 and " + MAX_PAGE_SIZE );
+        }
+
+        Long afterId = cursor != null ? Long.valueOf( CustomerCursor.decode( cursor ) ) : after;
+        CustomerPage page = customerService.getCustomersAfter( afterId, limit );
+        if ( !page.hasNext( ) ) {
+            return ResponseEntity.ok( page.customers( ) );
+        }
+        String next = CustomerCursor.encode( page.nextAfterId( ) );
+        return ResponseEntity.ok( )
+                .header( NEXT_CURSOR_HEADER, next )
+                .header( HttpHeaders.LINK, "</api/customers/get?cursor=" + next + "&limit=" + limit + ">; rel=\"next\"" )
+                .body( page.customers( ) );
+    }
+
+    /**
+     * Streams every customer as NDJSON, reading the table in keyset pages so memory use stays flat.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        StreamingResponseBody body = out -> {
+            try ( JsonGenerator generator = objectMapper.createGenerator( out ) ) {
+                generator.setRootValueSeparator( null );
+                customerService.forEachCustomer( customer -> {
+                    try {
+                        generator.writeObject( customer );
+                        generator.writeRaw( '\n' );
+                    } catch ( IOException ex ) {
+                        throw new UncheckedIOException( ex );
+                    }
+                } );
+            }
+        };
+        return ResponseEntity.ok( ).contentType( MediaType.APPLICATION_NDJSON ).body( body );
     }
 
     @GetMapping("/{id}")
@@ -1,31 +1,166 @@
 package com.rewards.controller;
 
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.dto.RewardBatchRequestDTO;
+import com.rewards.dto.RewardBatchResponseDTO;
+import com.rewards.dto.LedgerReconciliationDTO;
+import com.rewards.dto.PointsBalanceDTO;
+import com.rewards.dto.RewardCacheStatsDTO;
 import com.rewards.dto.RewardResponseDTO;
+import com.rewards.service.PointsLedgerService;
+import com.rewards.service.RewardExportService;
 import com.rewards.service.RewardService;
+import com.rewards.util.RewardProjection;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 @RestController
-@RequestMapping("/api/rewards/customer")
+@RequestMapping("/api/rewards")
 public class RewardController {
+    static final int MAX_BATCH_CUSTOMERS = 5000;
+
     private final RewardService rewardService;
+    private final RewardExportService rewardExportService;
+    private final RewardResponseCache rewardResponseCache;
+    private final PointsLedgerService pointsLedgerService;
 
-    public RewardController(RewardService rewardService) {
+    public RewardController(RewardService rewardService, RewardExportService rewardExportService,
+                            RewardResponseCache rewardResponseCache, PointsLedgerService pointsLedgerService) {
         this.rewardService = rewardService;
+        this.rewardExportService = rewardExportService;
+        this.rewardResponseCache = rewardResponseCache;
+        this.pointsLedgerService = pointsLedgerService;
     }
 
-    @GetMapping("/{customerId}")
+    /**
+     * Reward response with an ETag of the customer's reward version; a matching {@code If-None-Match} is answered
+     * with 304 before the customer or any transaction is loaded. {@code fields} selects the parts to return and
+     * {@code limit}/{@code cursor} page the embedded transactions; the next page's token is also sent in the
+     * {@value CustomerController#NEXT_CURSOR_HEADER} header.
+     */
+    @GetMapping("/customer/{customerId}")
     public ResponseEntity<?> getRewards(
             @PathVariable Long customerId,
+            @RequestParam(required = false) Integer months,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean includeEmptyMonths,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+
+        validateRange( months, from, to );
+        RewardProjection projection = RewardProjection.parse( fields, cursor, limit );
+
+        String eTag = rewardService.rewardsETag( customerId, months, from, to, includeEmptyMonths, projection );
+        if ( eTag != null && request.checkNotModified( eTag ) ) {
+            return ResponseEntity.status( HttpStatus.NOT_MODIFIED ).eTag( eTag ).build( );
+        }
+
+        RewardResponseDTO dto = rewardService.calculateRewards( customerId, months, from, to, includeEmptyMonths, projection );
+        if ( dto.getTotalRewards( ) == 0 && (dto.getTransactions( ) == null || dto.getTransactions( ).isEmpty( ))
+                && (dto.getTransactionCount( ) == null || dto.getTransactionCount( ) == 0) ) {
+            return noRewardsFound( );
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok( ).cacheControl( CacheControl.noCache( ).cachePrivate( ) );
+        if ( dto.getNextCursor( ) != null ) {
+            ok.header( CustomerController.NEXT_CURSOR_HEADER, dto.getNextCursor( ) );
+        }
+        return (eTag == null ? ok : ok.eTag( eTag )).body( dto );
+    }
+
+    @GetMapping("/customer/{customerId}/summary")
+    public ResponseEntity<?> getRewardSummary(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) Integer months,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean includeEmptyMonths) {
+
+        validateRange( months, from, to );
+
+        RewardResponseDTO dto = rewardService.calculateRewardSummary( customerId, months, from, to, includeEmptyMonths );
+        if ( dto.getTotalRewards( ) == 0 && dto.getMonthlyRewards( ).isEmpty( ) ) {
+            return noRewardsFound( );
+        }
+        return ResponseEntity.ok( dto );
+    }
+
+    /**
+     * The customer's lifetime points balance, read from the running balance kept by the points ledger.
+     */
+    @GetMapping("/customer/{customerId}/balance")
+    public ResponseEntity<PointsBalanceDTO> getPointsBalance(@PathVariable Long customerId) {
+        return ResponseEntity.ok( pointsLedgerService.getBalance( customerId ) );
+    }
+
+    /**
+     * Rewards of up to {@value #MAX_BATCH_CUSTOMERS} customers in one call, in request order. Ids without a
+     * customer are listed in {@code notFound} instead of failing the whole request.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<RewardBatchResponseDTO> getRewardsBatch(@RequestBody RewardBatchRequestDTO request) {
+        if ( request.getCustomerIds( ) == null || request.getCustomerIds( ).isEmpty( ) ) {
+            throw new IllegalArgumentException( "'customerIds' must not be empty" );
+        }
+        if ( request.getCustomerIds( ).size( ) > MAX_BATCH_CUSTOMERS ) {
+            throw new IllegalArgumentException( "At most " + MAX_BATCH_CUSTOMERS + " 'customerIds' per request" );
+        }
+        validateRange( request.getMonths( ), request.getFrom( ), request.getTo( ) );
+
+        Map<Long, RewardResponseDTO> rewards = rewardService.calculateRewardsBulk( request.getCustomerIds( ),
+                request.getMonths( ), request.getFrom( ), request.getTo( ), request.isIncludeEmptyMonths( ) );
+
+        RewardBatchResponseDTO response = new RewardBatchResponseDTO( );
+        response.getRewards( ).addAll( rewards.values( ) );
+        for ( Long id : new LinkedHashSet<>( request.getCustomerIds( ) ) ) {
+            if ( id != null && !rewards.containsKey( id ) ) {
+                response.getNotFound( ).add( id );
+            }
+        }
+        return ResponseEntity.ok( response );
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRewards(
             @RequestParam(required = false) Integer months,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
 
+        validateRange( months, from, to );
+        if ( months == null && (from == null || to == null) ) {
+            throw new IllegalArgumentException( "Provide either 'months' or both 'from' and 'to'." );
+        }
+
+        StreamingResponseBody body = out -> rewardExportService.exportRewards( months, from, to, out );
+        return ResponseEntity.ok( ).contentType( MediaType.APPLICATION_NDJSON ).body( body );
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<RewardCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok( rewardResponseCache.stats( ) );
+    }
+
+    /**
+     * Checks every customer's ledger against their transactions; {@code repair=true} also corrects mismatches.
+     */
+    @PostMapping("/ledger/reconcile")
+    public ResponseEntity<LedgerReconciliationDTO> reconcileLedger(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok( pointsLedgerService.reconcile( repair ) );
+    }
+
+    private void validateRange(Integer months, LocalDate from, LocalDate to) {
         if ( months != null && (from != null || to != null) ) {
             throw new IllegalArgumentException( "Provide either 'months' OR ('from' and 'to'), not both." );
         }
@@ -35,13 +170,11 @@ public class RewardController {
         if ( from != null && to != null && from.isAfter( to ) ) {
             throw new IllegalArgumentException( "'from' date cannot be after 'to' date" );
         }
+    }
 
-        RewardResponseDTO dto = rewardService.calculateRewards( customerId, months, from, to );
-        if ( dto.getTotalRewards( ) == 0 && (dto.getTransactions( ) == null || dto.getTransactions( ).isEmpty( )) ) {
-            return ResponseEntity.status( HttpStatus.NOT_FOUND )
-                    .body( Map.of( "message", "No rewards found" ) );
-        }
-        return ResponseEntity.ok( dto );
+    private ResponseEntity<Map<String, String>> noRewardsFound() {
+        return ResponseEntity.status( HttpStatus.NOT_FOUND )
+                .body( Map.of( "message", "No rewards found" ) );
     }
 
 }
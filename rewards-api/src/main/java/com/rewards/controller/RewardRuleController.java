@@ -0,0 +1,58 @@
+package com.rewards.controller;
+
+import com.rewards.dto.RewardRecomputeProgressDTO;
+import com.rewards.dto.RewardRulesDTO;
+import com.rewards.rules.RewardRuleDefinition;
+import com.rewards.service.RewardRecomputeService;
+import com.rewards.service.RewardRuleService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/rewards/rules")
+public class RewardRuleController {
+
+    private final RewardRuleService rewardRuleService;
+    private final RewardRecomputeService rewardRecomputeService;
+
+    public RewardRuleController(RewardRuleService rewardRuleService, RewardRecomputeService rewardRecomputeService) {
+        this.rewardRuleService = rewardRuleService;
+        this.rewardRecomputeService = rewardRecomputeService;
+    }
+
+    @GetMapping
+    public ResponseEntity<RewardRulesDTO> getRules() {
+        return ResponseEntity.ok( rewardRuleService.getRules( ) );
+    }
+
+    /**
+     * Stores a rule version and swaps the recompiled rules in; returns the rules now in force.
+     */
+    @PostMapping
+    public ResponseEntity<RewardRulesDTO> saveVersion(@RequestBody RewardRuleDefinition version) {
+        return ResponseEntity.status( HttpStatus.CREATED ).body( rewardRuleService.saveVersion( version ) );
+    }
+
+    /**
+     * Re-reads configured and stored versions, e.g. after another instance stored one.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<RewardRulesDTO> reload() {
+        return ResponseEntity.ok( rewardRuleService.reload( ) );
+    }
+
+    /**
+     * Starts recomputing every customer's monthly rollups under the installed rules, resuming an interrupted run
+     * under the same rules; 409 while a run is in progress.
+     */
+    @PostMapping("/recompute")
+    public ResponseEntity<RewardRecomputeProgressDTO> startRecompute() {
+        return ResponseEntity.status( HttpStatus.ACCEPTED ).body( rewardRecomputeService.start( ) );
+    }
+
+    @GetMapping("/recompute")
+    public ResponseEntity<RewardRecomputeProgressDTO> getRecomputeProgress() {
+        return ResponseEntity.ok( rewardRecomputeService.getProgress( ) );
+    }
+}
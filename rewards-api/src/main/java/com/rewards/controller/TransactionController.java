@@ -1,14 +1,18 @@
 package com.rewards.controller;
 
+import com.rewards.dto.BatchIngestResponseDTO;
 import com.rewards.dto.TransactionRequestDTO;
 import com.rewards.model.Transaction;
+import com.rewards.service.TransactionBatchService;
 import com.rewards.service.TransactionService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
 import java.net.URI;
 
 @RestController
@@ -16,9 +20,12 @@ import java.net.URI;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionBatchService transactionBatchService) {
         this.transactionService = transactionService;
+        this.transactionBatchService = transactionBatchService;
     }
 
     @PostMapping
@@ -28,4 +35,9 @@ public class TransactionController {
                 .created( URI.create( "/api/transactions/" + saved.getId( ) ) )
                 .body( saved );
     }
+
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchIngestResponseDTO> createTransactions(InputStream body) {
+        return ResponseEntity.ok( transactionBatchService.createTransactions( body ) );
+    }
 }
@@ -0,0 +1,69 @@
+package com.rewards.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchIngestResponseDTO {
+    private int received;
+    private int accepted;
+    private int rejected;
+    private List<BatchRowErrorDTO> rejectedRows = new ArrayList<>( );
+    private boolean completed = true;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(int accepted) {
+        this.accepted = accepted;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BatchRowErrorDTO> getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(List<BatchRowErrorDTO> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public void reject(int index, String reason) {
+        rejectedRows.add( new BatchRowErrorDTO( index, reason ) );
+        rejected++;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rewards.dto;
+
+public class BatchRowErrorDTO {
+    private int index;
+    private String reason;
+
+    public BatchRowErrorDTO() {
+    }
+
+    public BatchRowErrorDTO(int index, String reason) {
+        this.index = index;
+        this.reason = reason;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
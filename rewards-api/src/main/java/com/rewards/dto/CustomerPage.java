@@ -0,0 +1,16 @@
+package com.rewards.dto;
+
+import com.rewards.model.Customer;
+
+import java.util.List;
+
+/**
+ * One keyset page of customers ordered by id. {@code nextAfterId} is the id to continue after, or null on the
+ * last page.
+ */
+public record CustomerPage(List<Customer> customers, Long nextAfterId) {
+
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+}
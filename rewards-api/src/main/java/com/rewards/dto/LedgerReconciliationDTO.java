@@ -0,0 +1,62 @@
+package com.rewards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LedgerReconciliationDTO {
+    static final int MAX_SAMPLE_IDS = 100;
+
+    private long customersChecked;
+    private long mismatches;
+    private long repaired;
+    private List<Long> mismatchedCustomerIds = new ArrayList<>( );
+    private long durationMs;
+
+    public long getCustomersChecked() {
+        return customersChecked;
+    }
+
+    public void setCustomersChecked(long customersChecked) {
+        this.customersChecked = customersChecked;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(long mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(long repaired) {
+        this.repaired = repaired;
+    }
+
+    /** The first {@value #MAX_SAMPLE_IDS} mismatched customers found, in no particular order. */
+    public List<Long> getMismatchedCustomerIds() {
+        return mismatchedCustomerIds;
+    }
+
+    public void setMismatchedCustomerIds(List<Long> mismatchedCustomerIds) {
+        this.mismatchedCustomerIds = mismatchedCustomerIds;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public void addMismatch(Long customerId) {
+        mismatches++;
+        if ( mismatchedCustomerIds.size( ) < MAX_SAMPLE_IDS ) {
+            mismatchedCustomerIds.add( customerId );
+        }
+    }
+}
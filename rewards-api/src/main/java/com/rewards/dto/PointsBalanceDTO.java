@@ -0,0 +1,30 @@
+package com.rewards.dto;
+
+public class PointsBalanceDTO {
+    private Long customerId;
+    private long pointsBalance;
+
+    public PointsBalanceDTO() {
+    }
+
+    public PointsBalanceDTO(Long customerId, long pointsBalance) {
+        this.customerId = customerId;
+        this.pointsBalance = pointsBalance;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getPointsBalance() {
+        return pointsBalance;
+    }
+
+    public void setPointsBalance(long pointsBalance) {
+        this.pointsBalance = pointsBalance;
+    }
+}
@@ -0,0 +1,52 @@
+package com.rewards.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class RewardBatchRequestDTO {
+    private List<Long> customerIds;
+    private Integer months;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean includeEmptyMonths;
+
+    public List<Long> getCustomerIds() {
+        return customerIds;
+    }
+
+    public void setCustomerIds(List<Long> customerIds) {
+        this.customerIds = customerIds;
+    }
+
+    public Integer getMonths() {
+        return months;
+    }
+
+    public void setMonths(Integer months) {
+        this.months = months;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public boolean isIncludeEmptyMonths() {
+        return includeEmptyMonths;
+    }
+
+    public void setIncludeEmptyMonths(boolean includeEmptyMonths) {
+        this.includeEmptyMonths = includeEmptyMonths;
+    }
+}
@@ -0,0 +1,25 @@
+package com.rewards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RewardBatchResponseDTO {
+    private List<RewardResponseDTO> rewards = new ArrayList<>( );
+    private List<Long> notFound = new ArrayList<>( );
+
+    public List<RewardResponseDTO> getRewards() {
+        return rewards;
+    }
+
+    public void setRewards(List<RewardResponseDTO> rewards) {
+        this.rewards = rewards;
+    }
+
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<Long> notFound) {
+        this.notFound = notFound;
+    }
+}
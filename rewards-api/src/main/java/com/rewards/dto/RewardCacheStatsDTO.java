@@ -0,0 +1,76 @@
+package com.rewards.dto;
+
+public class RewardCacheStatsDTO {
+    private boolean enabled;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long invalidationCount;
+    private long cachedCustomers;
+    private long cachedResponses;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    public void setInvalidationCount(long invalidationCount) {
+        this.invalidationCount = invalidationCount;
+    }
+
+    public long getCachedCustomers() {
+        return cachedCustomers;
+    }
+
+    public void setCachedCustomers(long cachedCustomers) {
+        this.cachedCustomers = cachedCustomers;
+    }
+
+    public long getCachedResponses() {
+        return cachedResponses;
+    }
+
+    public void setCachedResponses(long cachedResponses) {
+        this.cachedResponses = cachedResponses;
+    }
+}
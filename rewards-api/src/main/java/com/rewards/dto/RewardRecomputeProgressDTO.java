@@ -0,0 +1,109 @@
+package com.rewards.dto;
+
+import java.time.LocalDateTime;
+
+public class RewardRecomputeProgressDTO {
+    private Long jobId;
+    private String status;
+    private String rulesFingerprint;
+    private int partitions;
+    private int partitionsDone;
+    private int partitionsResumed;
+    private long transactions;
+    private long months;
+    private LocalDateTime startedAt;
+    private long elapsedMs;
+    private Long estimatedRemainingMs;
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    /** {@code IDLE} before the first run of this process, otherwise the status of the latest run. */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getRulesFingerprint() {
+        return rulesFingerprint;
+    }
+
+    public void setRulesFingerprint(String rulesFingerprint) {
+        this.rulesFingerprint = rulesFingerprint;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /** Finished partitions, including those taken over from an interrupted run. */
+    public int getPartitionsDone() {
+        return partitionsDone;
+    }
+
+    public void setPartitionsDone(int partitionsDone) {
+        this.partitionsDone = partitionsDone;
+    }
+
+    /** Partitions an interrupted run had already checkpointed, skipped by this one. */
+    public int getPartitionsResumed() {
+        return partitionsResumed;
+    }
+
+    public void setPartitionsResumed(int partitionsResumed) {
+        this.partitionsResumed = partitionsResumed;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    public long getMonths() {
+        return months;
+    }
+
+    public void setMonths(long months) {
+        this.months = months;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    /** Projected from the pace of the partitions this run processed; null until it finished one. */
+    public Long getEstimatedRemainingMs() {
+        return estimatedRemainingMs;
+    }
+
+    public void setEstimatedRemainingMs(Long estimatedRemainingMs) {
+        this.estimatedRemainingMs = estimatedRemainingMs;
+    }
+}
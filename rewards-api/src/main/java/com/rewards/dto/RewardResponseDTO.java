@@ -1,5 +1,7 @@
 package com.rewards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -10,9 +12,15 @@ public class RewardResponseDTO {
     private String customerEmail;
     private LocalDate from;
     private LocalDate to;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<TransactionResponseDTO> transactions;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Map<String, Integer> monthlyRewards;
     private double totalRewards;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long transactionCount;
 
     public Long getCustomerId() {
         return customerId;
@@ -62,6 +70,15 @@ public class RewardResponseDTO {
         this.transactions = transactions;
     }
 
+    /** Token for the next page of {@link #getTransactions()}, or null on the last page or when unpaged. */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     public Map<String, Integer> getMonthlyRewards() {
         return monthlyRewards;
     }
@@ -77,4 +94,13 @@ public class RewardResponseDTO {
     public void setTotalRewards(double totalRewards) {
         this.totalRewards = totalRewards;
     }
+
+    /** Transactions in the whole range, set on responses that are projected or paged. */
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
 }
@@ -0,0 +1,35 @@
+package com.rewards.dto;
+
+import com.rewards.rules.RewardRuleDefinition;
+
+import java.util.List;
+
+public class RewardRulesDTO {
+    private String fingerprint;
+    private List<RewardRuleDefinition> versions;
+
+    public RewardRulesDTO() {
+    }
+
+    public RewardRulesDTO(String fingerprint, List<RewardRuleDefinition> versions) {
+        this.fingerprint = fingerprint;
+        this.versions = versions;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /** The base version (no {@code effectiveFrom}) first, then the dated versions in effective order. */
+    public List<RewardRuleDefinition> getVersions() {
+        return versions;
+    }
+
+    public void setVersions(List<RewardRuleDefinition> versions) {
+        this.versions = versions;
+    }
+}
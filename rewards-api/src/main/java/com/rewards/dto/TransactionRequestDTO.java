@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
 
 public class TransactionRequestDTO {
     private Long customerId;
@@ -21,6 +22,9 @@ public class TransactionRequestDTO {
     @NotNull
     private LocalDate transactionDate;
 
+    @Size(max = 32)
+    private String category;
+
     public Long getCustomerId() {
         return customerId;
     }
@@ -60,4 +64,12 @@ public class TransactionRequestDTO {
     public void setTransactionDate(LocalDate transactionDate) {
         this.transactionDate = transactionDate;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
 }
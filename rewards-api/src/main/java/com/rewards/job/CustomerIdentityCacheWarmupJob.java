@@ -0,0 +1,26 @@
+package com.rewards.job;
+
+import com.rewards.cache.CustomerIdentityCache;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the customer identity cache at startup so transaction writes resolve customers without a lookup query.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.cache.customers.warm-on-startup", havingValue = "true", matchIfMissing = true)
+public class CustomerIdentityCacheWarmupJob implements ApplicationRunner {
+
+    private final CustomerIdentityCache customerIdentityCache;
+
+    public CustomerIdentityCacheWarmupJob(CustomerIdentityCache customerIdentityCache) {
+        this.customerIdentityCache = customerIdentityCache;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        customerIdentityCache.warm( );
+    }
+}
@@ -0,0 +1,76 @@
+package com.rewards.job;
+
+import com.rewards.service.PointsLedgerService;
+import com.rewards.service.RewardRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes the write-behind points accumulator into the stored balances, and recomputes the monthly rollups marked
+ * behind, every {@code rewards.ledger.write-behind.flush-interval} and once more on shutdown. Nothing that never
+ * gets flushed is lost: the transactions are committed, a ledger repair restores their points once write-behind is
+ * off, and the next rollup rebuild their months.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.ledger.write-behind.enabled", havingValue = "true")
+public class PendingPointsFlushJob implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger( PendingPointsFlushJob.class );
+
+    private final PointsLedgerService pointsLedgerService;
+    private final RewardRollupService rewardRollupService;
+    private final Duration flushInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform( ).name( "points-flush" ).daemon( ).factory( ) );
+
+    public PendingPointsFlushJob(PointsLedgerService pointsLedgerService,
+                                 RewardRollupService rewardRollupService,
+                                 @Value("${rewards.ledger.write-behind.flush-interval:1s}") Duration flushInterval) {
+        this.pointsLedgerService = pointsLedgerService;
+        this.rewardRollupService = rewardRollupService;
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler.scheduleWithFixedDelay( this::flush, flushInterval.toMillis( ), flushInterval.toMillis( ), TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown( );
+        scheduler.awaitTermination( 30, TimeUnit.SECONDS );
+        flush( );
+    }
+
+    /** A failed flush keeps its points in the accumulator, or its months marked; the schedule carries on. */
+    private void flush() {
+        try {
+            long customers = pointsLedgerService.flushPendingPoints( );
+            if ( customers > 0 ) {
+                log.debug( "Flushed pending points of {} customers", customers );
+            }
+        } catch ( RuntimeException ex ) {
+            log.warn( "Flushing pending points failed, retrying in {}", flushInterval, ex );
+        }
+        try {
+            long customers = rewardRollupService.flushPendingMonths( );
+            if ( customers > 0 ) {
+                log.debug( "Recomputed pending rollup months of {} customers", customers );
+            }
+        } catch ( RuntimeException ex ) {
+            log.warn( "Recomputing pending rollup months failed, retrying in {}", flushInterval, ex );
+        }
+    }
+}
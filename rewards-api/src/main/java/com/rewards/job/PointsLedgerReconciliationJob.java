@@ -0,0 +1,31 @@
+package com.rewards.job;
+
+import com.rewards.service.PointsLedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies the points ledger against the raw transactions at startup, and with
+ * {@code rewards.ledger.reconcile-repair=true} backfills or corrects the customers that disagree.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.ledger.reconcile-on-startup", havingValue = "true")
+public class PointsLedgerReconciliationJob implements ApplicationRunner {
+
+    private final PointsLedgerService pointsLedgerService;
+    private final boolean repair;
+
+    public PointsLedgerReconciliationJob(PointsLedgerService pointsLedgerService,
+                                         @Value("${rewards.ledger.reconcile-repair:false}") boolean repair) {
+        this.pointsLedgerService = pointsLedgerService;
+        this.repair = repair;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        pointsLedgerService.reconcile( repair );
+    }
+}
@@ -0,0 +1,27 @@
+package com.rewards.job;
+
+import com.rewards.service.RewardRollupService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the monthly reward rollups at startup whenever the configured {@code rewards.*} rules differ
+ * from the rules the rollups were last built under.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.rollup.rebuild-on-startup", havingValue = "true", matchIfMissing = true)
+public class RewardRollupRebuildJob implements ApplicationRunner {
+
+    private final RewardRollupService rewardRollupService;
+
+    public RewardRollupRebuildJob(RewardRollupService rewardRollupService) {
+        this.rewardRollupService = rewardRollupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rewardRollupService.rebuildIfRulesChanged( );
+    }
+}
@@ -0,0 +1,57 @@
+package com.rewards.job;
+
+import com.rewards.service.TransactionArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves aged transaction months into the archive at startup and every {@code rewards.archive.check-interval}
+ * afterwards, in the background.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.archive.enabled", havingValue = "true")
+public class TransactionArchiveJob implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionArchiveJob.class );
+
+    private final TransactionArchiveService archiveService;
+    private final Duration checkInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform( ).name( "transaction-archive" ).daemon( ).factory( ) );
+
+    public TransactionArchiveJob(TransactionArchiveService archiveService,
+                                 @Value("${rewards.archive.check-interval:24h}") Duration checkInterval) {
+        this.archiveService = archiveService;
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler.scheduleWithFixedDelay( this::archive, 0, checkInterval.toMillis( ), TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow( );
+    }
+
+    /** A failed run is retried at the next check; months it did not finish are still read from the table. */
+    private void archive() {
+        try {
+            archiveService.archiveAgedMonths( );
+        } catch ( RuntimeException ex ) {
+            log.error( "Archiving transactions failed, retrying in {}", checkInterval, ex );
+        }
+    }
+}
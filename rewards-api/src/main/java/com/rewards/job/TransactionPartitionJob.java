@@ -0,0 +1,58 @@
+package com.rewards.job;
+
+import com.rewards.service.TransactionPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the monthly partitions of the transactions table at startup and every
+ * {@code rewards.partitioning.check-interval} afterwards. The first run converts a flat table, which copies it
+ * once and blocks writes to it meanwhile; it runs in the background so the API starts regardless.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.partitioning.enabled", havingValue = "true")
+public class TransactionPartitionJob implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionPartitionJob.class );
+
+    private final TransactionPartitionService partitionService;
+    private final Duration checkInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform( ).name( "transaction-partitions" ).daemon( ).factory( ) );
+
+    public TransactionPartitionJob(TransactionPartitionService partitionService,
+                                   @Value("${rewards.partitioning.check-interval:12h}") Duration checkInterval) {
+        this.partitionService = partitionService;
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        scheduler.scheduleWithFixedDelay( this::maintain, 0, checkInterval.toMillis( ), TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow( );
+    }
+
+    /** A failed run is retried at the next check; the catch-all partition takes new rows meanwhile. */
+    private void maintain() {
+        try {
+            partitionService.maintainPartitions( );
+        } catch ( RuntimeException ex ) {
+            log.error( "Maintaining transaction partitions failed, retrying in {}", checkInterval, ex );
+        }
+    }
+}
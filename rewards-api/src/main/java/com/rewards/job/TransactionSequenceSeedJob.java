@@ -0,0 +1,53 @@
+package com.rewards.job;
+
+import com.rewards.model.Transaction;
+import com.rewards.repository.TransactionSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds {@code transactions_seq} above the existing transaction ids. Ids used to come from an identity column, so on
+ * a database from before the switch the sequence that {@code ddl-auto} creates starts at 1 and its ids would collide
+ * with existing rows. It runs once the schema is up to date and before the web server accepts requests, and only
+ * ever moves the sequence up; once seeded, the sequence stays ahead of every id it handed out and later starts
+ * change nothing.
+ * <p>
+ * The pooled optimizer reserves the {@link Transaction#ID_ALLOCATION_SIZE} ids up to and including the value it
+ * draws, so the sequence is raised to the highest id plus the allocation size rather than plus one.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.ingest.seed-id-sequence", havingValue = "true", matchIfMissing = true)
+public class TransactionSequenceSeedJob implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionSequenceSeedJob.class );
+
+    private final TransactionSequenceRepository sequenceRepository;
+
+    public TransactionSequenceSeedJob(TransactionSequenceRepository sequenceRepository) {
+        this.sequenceRepository = sequenceRepository;
+    }
+
+    /** Fails startup when the sequence is behind and cannot be raised, rather than failing every insert later. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product = sequenceRepository.databaseProductName( );
+        boolean mysql = product.toLowerCase( ).contains( "mysql" );
+        if ( !mysql && !product.toLowerCase( ).contains( "h2" ) ) {
+            log.warn( "Not seeding transactions_seq on {}; make sure it is above the highest transaction id", product );
+            return;
+        }
+        Long next = sequenceRepository.nextValue( mysql );
+        if ( next == null ) {
+            throw new IllegalStateException( "transactions_seq does not exist; create the schema before starting" );
+        }
+        long maxId = sequenceRepository.maxTransactionId( );
+        long seed = maxId + Transaction.ID_ALLOCATION_SIZE;
+        if ( maxId > 0 && next < seed ) {
+            sequenceRepository.raiseTo( mysql, seed );
+            log.info( "Seeded transactions_seq from {} to {}, above the highest transaction id {}", next, seed, maxId );
+        }
+    }
+}
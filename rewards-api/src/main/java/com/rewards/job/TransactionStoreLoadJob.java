@@ -0,0 +1,84 @@
+package com.rewards.job;
+
+import com.rewards.store.RewardStateSnapshot;
+import com.rewards.store.TransactionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the in-memory transaction store in the background at startup, then adds rows committed by other writers
+ * every {@code rewards.store.catch-up-interval}. Rewards are read from the database until the load completes.
+ * <p>
+ * With a reward state snapshot, the store starts from the snapshot instead and only catches up; it is restored
+ * before the other startup jobs run, so the customer identity cache warm-up finds the restored customers. The
+ * snapshot is written again on shutdown.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "rewards.store.enabled", havingValue = "true")
+public class TransactionStoreLoadJob implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionStoreLoadJob.class );
+
+    private static final Duration SHUTDOWN_WAIT = Duration.ofSeconds( 10 );
+
+    private final TransactionStore transactionStore;
+    private final RewardStateSnapshot rewardStateSnapshot;
+    private final Duration catchUpInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform( ).name( "transaction-store" ).daemon( ).factory( ) );
+
+    public TransactionStoreLoadJob(TransactionStore transactionStore,
+                                   RewardStateSnapshot rewardStateSnapshot,
+                                   @Value("${rewards.store.catch-up-interval:1s}") Duration catchUpInterval) {
+        this.transactionStore = transactionStore;
+        this.rewardStateSnapshot = rewardStateSnapshot;
+        this.catchUpInterval = catchUpInterval;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RewardStateSnapshot.Restored restored = rewardStateSnapshot.restore( );
+        if ( restored != null ) {
+            scheduler.execute( ( ) -> transactionStore.load( restored.columns( ), restored.highestId( ), restored.recordedThrough( ) ) );
+        } else {
+            scheduler.execute( transactionStore::load );
+        }
+        scheduler.scheduleWithFixedDelay( this::catchUp, catchUpInterval.toMillis( ), catchUpInterval.toMillis( ), TimeUnit.MILLISECONDS );
+    }
+
+    /** Stops loading and catching up, then writes the snapshot of what was loaded. */
+    @Override
+    public void destroy() throws InterruptedException {
+        scheduler.shutdownNow( );
+        if ( !scheduler.awaitTermination( SHUTDOWN_WAIT.toMillis( ), TimeUnit.MILLISECONDS ) ) {
+            log.warn( "The transaction store job did not stop within {}", SHUTDOWN_WAIT );
+        }
+        rewardStateSnapshot.save( );
+    }
+
+    /** A failed catch-up is retried at the next one, which re-reads from the same id. */
+    private void catchUp() {
+        try {
+            int added = transactionStore.catchUp( );
+            if ( added > 0 ) {
+                log.debug( "Added {} transactions committed elsewhere to the in-memory store", added );
+            }
+        } catch ( RuntimeException ex ) {
+            log.warn( "Catching up the in-memory transaction store failed, retrying in {}", catchUpInterval, ex );
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.rewards.dto.TransactionResponseDTO;
 import com.rewards.dto.RewardResponseDTO;
 import com.rewards.model.Customer;
 import com.rewards.model.Transaction;
+import com.rewards.repository.TransactionRow;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -13,6 +14,13 @@ import java.util.Map;
 @Component
 public class RewardMapper {
 
+    /**
+     * Formats the Year-Month grouping key used in monthly reward summaries.
+     */
+    public static String monthKey(LocalDate date) {
+        return String.format( "%04d-%02d", date.getYear( ), date.getMonthValue( ) );
+    }
+
     public TransactionResponseDTO maptoTransactionDTO(Transaction transaction,
                                                       int points) {
         TransactionResponseDTO transactionResponseDTO = new TransactionResponseDTO( );
@@ -23,6 +31,16 @@ public class RewardMapper {
         return transactionResponseDTO;
     }
 
+    public TransactionResponseDTO maptoTransactionDTO(TransactionRow row,
+                                                      int points) {
+        TransactionResponseDTO transactionResponseDTO = new TransactionResponseDTO( );
+        transactionResponseDTO.setTransactionId( row.id( ) );
+        transactionResponseDTO.setTransactionDate( row.transactionDate( ) );
+        transactionResponseDTO.setTransactionAmount( row.amount( ) );
+        transactionResponseDTO.setPoints( points );
+        return transactionResponseDTO;
+    }
+
     public RewardResponseDTO maptoRewardResponse(Customer customer,
                                                  LocalDate transactionDateFrom,
                                                  LocalDate transactionDateTo,
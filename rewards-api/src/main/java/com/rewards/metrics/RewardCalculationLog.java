@@ -0,0 +1,79 @@
+package com.rewards.metrics;
+
+import com.rewards.util.RewardDateRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled, structured log events for reward calculations. A {@code sampleRate} share of calculations is logged
+ * at INFO; calculations slower than {@code slowThreshold} are always logged at WARN. Each event carries its fields
+ * as SLF4J key-value pairs (including {@code sampleRate}, to scale counts back up) next to the readable message.
+ */
+@Component
+public class RewardCalculationLog {
+
+    private static final Logger log = LoggerFactory.getLogger( RewardCalculationLog.class );
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RewardCalculationLog(@Value("${rewards.logging.calculation-sample-rate:1.0}") double sampleRate,
+                                @Value("${rewards.logging.slow-calculation-threshold:500ms}") Duration slowThreshold) {
+        if ( sampleRate < 0 || sampleRate > 1 ) {
+            throw new IllegalArgumentException( "rewards.logging.calculation-sample-rate must be between 0 and 1" );
+        }
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos( );
+    }
+
+    public void rewardsCalculated(Long customerId, RewardDateRange range, int transactions, int totalRewards,
+                                  long nanos) {
+        LoggingEventBuilder event = event( nanos );
+        if ( event != null ) {
+            event.addKeyValue( "event", "reward.calculated" )
+                    .addKeyValue( "transactions", transactions )
+                    .setMessage( "Calculated rewards for customer {} from {} to {} => total {} points" );
+            emit( event, customerId, range, totalRewards, nanos );
+        }
+    }
+
+    public void summaryCalculated(Long customerId, RewardDateRange range, int totalRewards, long nanos) {
+        LoggingEventBuilder event = event( nanos );
+        if ( event != null ) {
+            event.addKeyValue( "event", "reward.summary.calculated" )
+                    .setMessage( "Calculated reward summary for customer {} from {} to {} => total {} points" );
+            emit( event, customerId, range, totalRewards, nanos );
+        }
+    }
+
+    /** WARN builder for slow calculations, INFO builder for sampled ones, otherwise null. */
+    private LoggingEventBuilder event(long nanos) {
+        if ( nanos >= slowThresholdNanos ) {
+            return log.isWarnEnabled( ) ? log.atWarn( ) : null;
+        }
+        if ( !log.isInfoEnabled( ) || sampleRate == 0 ) {
+            return null;
+        }
+        return sampleRate >= 1 || ThreadLocalRandom.current( ).nextDouble( ) < sampleRate ? log.atInfo( ) : null;
+    }
+
+    private void emit(LoggingEventBuilder event, Long customerId, RewardDateRange range, int totalRewards, long nanos) {
+        event.addKeyValue( "customerId", customerId )
+                .addKeyValue( "from", range.start( ) )
+                .addKeyValue( "to", range.end( ) )
+                .addKeyValue( "totalRewards", totalRewards )
+                .addKeyValue( "durationMs", nanos / 1_000_000.0 )
+                .addKeyValue( "sampleRate", sampleRate )
+                .addArgument( customerId )
+                .addArgument( range.start( ) )
+                .addArgument( range.end( ) )
+                .addArgument( totalRewards )
+                .log( );
+    }
+}
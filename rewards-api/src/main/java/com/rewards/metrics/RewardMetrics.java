@@ -0,0 +1,77 @@
+package com.rewards.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the reward calculation and transaction write paths. All timers and summaries publish percentile
+ * histograms, so p99 per stage can be computed across instances from the Prometheus buckets.
+ */
+@Component
+public class RewardMetrics {
+
+    /** Stages of a reward calculation, timed separately under {@code rewards.calculate.stage}. */
+    public enum Stage {
+        FETCH, SCORE, AGGREGATE, MAP;
+
+        private final String tag = name( ).toLowerCase( );
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>( Stage.class );
+    private final Timer calculateTimer;
+    private final Timer createTransactionTimer;
+    private final DistributionSummary transactionsPerRequest;
+    private final DistributionSummary responseBytes;
+
+    public RewardMetrics(MeterRegistry registry) {
+        for ( Stage stage : Stage.values( ) ) {
+            stageTimers.put( stage, Timer.builder( "rewards.calculate.stage" )
+                    .description( "Time spent in one stage of a reward calculation" )
+                    .tag( "stage", stage.tag )
+                    .publishPercentileHistogram( )
+                    .register( registry ) );
+        }
+        calculateTimer = Timer.builder( "rewards.calculate" )
+                .description( "Reward calculations that missed the response cache, end to end" )
+                .publishPercentileHistogram( )
+                .register( registry );
+        createTransactionTimer = Timer.builder( "rewards.transaction.create" )
+                .description( "Single transaction writes, including customer lookup and rollup" )
+                .publishPercentileHistogram( )
+                .register( registry );
+        transactionsPerRequest = DistributionSummary.builder( "rewards.calculate.transactions" )
+                .description( "Transactions read per reward calculation" )
+                .baseUnit( "transactions" )
+                .publishPercentileHistogram( )
+                .register( registry );
+        responseBytes = DistributionSummary.builder( "rewards.response.size" )
+                .description( "Bytes written for reward responses" )
+                .baseUnit( "bytes" )
+                .publishPercentileHistogram( )
+                .register( registry );
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get( stage ).record( nanos, TimeUnit.NANOSECONDS );
+    }
+
+    public void recordCalculation(long nanos, int transactions) {
+        calculateTimer.record( nanos, TimeUnit.NANOSECONDS );
+        transactionsPerRequest.record( transactions );
+    }
+
+    public <T> T timeCreateTransaction(Supplier<T> write) {
+        return createTransactionTimer.record( write );
+    }
+
+    public void recordResponseSize(long bytes) {
+        responseBytes.record( bytes );
+    }
+}
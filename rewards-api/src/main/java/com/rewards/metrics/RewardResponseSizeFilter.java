@@ -0,0 +1,95 @@
+package com.rewards.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the body bytes of reward responses into {@code rewards.response.size}. Streaming exports are excluded;
+ * their size is bounded by the customer base, not by a request.
+ */
+@Component
+public class RewardResponseSizeFilter extends OncePerRequestFilter {
+
+    private final RewardMetrics rewardMetrics;
+
+    public RewardResponseSizeFilter(RewardMetrics rewardMetrics) {
+        this.rewardMetrics = rewardMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI( ).substring( request.getContextPath( ).length( ) );
+        return !path.startsWith( "/api/rewards/customer/" ) && !path.equals( "/api/rewards/batch" );
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CountingResponse counting = new CountingResponse( response );
+        try {
+            chain.doFilter( request, counting );
+        } finally {
+            rewardMetrics.recordResponseSize( counting.bytes );
+        }
+    }
+
+    /** Counts what is written through {@link #getOutputStream()}, which is what the JSON converters use. */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long bytes;
+        private ServletOutputStream stream;
+
+        CountingResponse(HttpServletResponse response) {
+            super( response );
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if ( stream == null ) {
+                ServletOutputStream target = super.getOutputStream( );
+                stream = new ServletOutputStream( ) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        target.write( b );
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        target.write( b, off, len );
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        target.flush( );
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        target.close( );
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady( );
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        target.setWriteListener( listener );
+                    }
+                };
+            }
+            return stream;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +29,22 @@ public class Customer {
     @JsonIgnore
     private List<Transaction> transactions = new ArrayList<>( );
 
+    /**
+     * Running total of the customer's {@code points_ledger} entries, moved in the same DB transaction as each
+     * entry is appended. Guarded by {@link #version} so concurrent writers cannot lose an update. Defaults to 0
+     * in the schema for rows inserted outside JPA, which the ledger reconciliation then backfills.
+     */
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "points_balance", nullable = false)
+    private long pointsBalance;
+
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     public Customer(String alice, String mail, String number) {
         this.customerName = customerName;
         this.customerEmail = customerEmail;
@@ -69,6 +86,18 @@ public class Customer {
         this.customerEmail = customerEmail;
     }
 
+    public long getPointsBalance() {
+        return pointsBalance;
+    }
+
+    public void setPointsBalance(long pointsBalance) {
+        this.pointsBalance = pointsBalance;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
     public List<Transaction> getTransactions() {
         return transactions;
     }
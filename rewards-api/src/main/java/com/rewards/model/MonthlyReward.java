@@ -0,0 +1,86 @@
+package com.rewards.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Per-customer, per-calendar-month rollup of reward points, maintained on every transaction write.
+ * {@code rewardMonth} is always the first day of the month.
+ */
+@Entity
+@Table(name = "monthly_rewards")
+@IdClass(MonthlyRewardId.class)
+public class MonthlyReward {
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Id
+    @Column(name = "reward_month")
+    private LocalDate rewardMonth;
+
+    @Column(nullable = false)
+    private long points;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalSpend = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private int transactionCount;
+
+    public MonthlyReward() {
+    }
+
+    public MonthlyReward(Long customerId, LocalDate rewardMonth) {
+        this.customerId = customerId;
+        this.rewardMonth = rewardMonth;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public LocalDate getRewardMonth() {
+        return rewardMonth;
+    }
+
+    public void setRewardMonth(LocalDate rewardMonth) {
+        this.rewardMonth = rewardMonth;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public void setPoints(long points) {
+        this.points = points;
+    }
+
+    public BigDecimal getTotalSpend() {
+        return totalSpend;
+    }
+
+    public void setTotalSpend(BigDecimal totalSpend) {
+        this.totalSpend = totalSpend;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(int transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public void addTransaction(int transactionPoints, BigDecimal amount) {
+        this.points += transactionPoints;
+        this.totalSpend = this.totalSpend.add( amount );
+        this.transactionCount++;
+    }
+}
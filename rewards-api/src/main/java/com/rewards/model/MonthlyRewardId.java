@@ -0,0 +1,38 @@
+package com.rewards.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class MonthlyRewardId implements Serializable {
+    private Long customerId;
+    private LocalDate rewardMonth;
+
+    public MonthlyRewardId() {
+    }
+
+    public MonthlyRewardId(Long customerId, LocalDate rewardMonth) {
+        this.customerId = customerId;
+        this.rewardMonth = rewardMonth;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDate getRewardMonth() {
+        return rewardMonth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if ( this == o ) return true;
+        if ( !(o instanceof MonthlyRewardId that) ) return false;
+        return Objects.equals( customerId, that.customerId ) && Objects.equals( rewardMonth, that.rewardMonth );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash( customerId, rewardMonth );
+    }
+}
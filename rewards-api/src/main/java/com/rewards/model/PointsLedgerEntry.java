@@ -0,0 +1,95 @@
+package com.rewards.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of a change to a customer's points balance. {@code balanceAfter} is the customer's
+ * {@code points_balance} once this entry is applied, so the entries of a customer in id order replay the balance.
+ */
+@Entity
+@Table(name = "points_ledger",
+        indexes = @Index(name = "idx_points_ledger_customer", columnList = "customer_id, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_points_ledger_transaction", columnNames = "transaction_id"))
+public class PointsLedgerEntry {
+
+    public enum EntryType {
+        /** Points earned by a purchase transaction. */
+        EARN,
+        /** Correction posted by the ledger reconciliation, not tied to a transaction. */
+        ADJUSTMENT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_ledger_seq")
+    @SequenceGenerator(name = "points_ledger_seq", sequenceName = "points_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 16)
+    private EntryType entryType;
+
+    @Column(nullable = false)
+    private long points;
+
+    @Column(name = "balance_after", nullable = false)
+    private long balanceAfter;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public PointsLedgerEntry() {
+    }
+
+    private PointsLedgerEntry(Long customerId, Long transactionId, EntryType entryType, long points, long balanceAfter) {
+        this.customerId = customerId;
+        this.transactionId = transactionId;
+        this.entryType = entryType;
+        this.points = points;
+        this.balanceAfter = balanceAfter;
+        this.createdAt = LocalDateTime.now( );
+    }
+
+    public static PointsLedgerEntry earned(Long customerId, Long transactionId, long points, long balanceAfter) {
+        return new PointsLedgerEntry( customerId, transactionId, EntryType.EARN, points, balanceAfter );
+    }
+
+    public static PointsLedgerEntry adjustment(Long customerId, long points, long balanceAfter) {
+        return new PointsLedgerEntry( customerId, null, EntryType.ADJUSTMENT, points, balanceAfter );
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public EntryType getEntryType() {
+        return entryType;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    public long getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
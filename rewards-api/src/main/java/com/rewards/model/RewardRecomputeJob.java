@@ -0,0 +1,104 @@
+package com.rewards.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of the historical reward recomputation. Customers {@code 1..maxCustomerId} are split into
+ * {@code partitions} id ranges of {@code partitionSize}; finished ranges are checkpointed as
+ * {@link RewardRecomputePartition} rows, so an interrupted run under the same rules resumes where it stopped.
+ */
+@Entity
+@Table(name = "reward_recompute_jobs")
+public class RewardRecomputeJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /** Stopped because other rules were installed while it ran; a new run takes over. */
+        SUPERSEDED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rules_fingerprint", nullable = false)
+    private String rulesFingerprint;
+
+    @Column(name = "partition_size", nullable = false)
+    private int partitionSize;
+
+    @Column(name = "max_customer_id", nullable = false)
+    private long maxCustomerId;
+
+    @Column(nullable = false)
+    private int partitions;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public RewardRecomputeJob() {
+    }
+
+    public RewardRecomputeJob(String rulesFingerprint, int partitionSize, long maxCustomerId) {
+        this.rulesFingerprint = rulesFingerprint;
+        this.partitionSize = partitionSize;
+        this.maxCustomerId = maxCustomerId;
+        this.partitions = Math.toIntExact( (maxCustomerId + partitionSize - 1) / partitionSize );
+        this.status = Status.RUNNING;
+        this.startedAt = LocalDateTime.now( );
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRulesFingerprint() {
+        return rulesFingerprint;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    public long getMaxCustomerId() {
+        return maxCustomerId;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void finish(Status status) {
+        this.status = status;
+        this.finishedAt = LocalDateTime.now( );
+    }
+
+    /** Reopens an interrupted or failed run for resumption. */
+    public void resume() {
+        this.status = Status.RUNNING;
+        this.finishedAt = null;
+    }
+}
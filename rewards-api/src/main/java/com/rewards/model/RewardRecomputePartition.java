@@ -0,0 +1,62 @@
+package com.rewards.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of one finished customer id range of a {@link RewardRecomputeJob}, written in the same DB transaction
+ * as the range's rollups.
+ */
+@Entity
+@Table(name = "reward_recompute_partitions")
+@IdClass(RewardRecomputePartitionId.class)
+public class RewardRecomputePartition {
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Id
+    @Column(name = "partition_index")
+    private Integer partitionIndex;
+
+    @Column(nullable = false)
+    private long transactions;
+
+    @Column(nullable = false)
+    private long months;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    public RewardRecomputePartition() {
+    }
+
+    public RewardRecomputePartition(Long jobId, Integer partitionIndex, long transactions, long months) {
+        this.jobId = jobId;
+        this.partitionIndex = partitionIndex;
+        this.transactions = transactions;
+        this.months = months;
+        this.completedAt = LocalDateTime.now( );
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Integer getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public long getMonths() {
+        return months;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
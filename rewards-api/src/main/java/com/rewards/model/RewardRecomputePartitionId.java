@@ -0,0 +1,37 @@
+package com.rewards.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class RewardRecomputePartitionId implements Serializable {
+    private Long jobId;
+    private Integer partitionIndex;
+
+    public RewardRecomputePartitionId() {
+    }
+
+    public RewardRecomputePartitionId(Long jobId, Integer partitionIndex) {
+        this.jobId = jobId;
+        this.partitionIndex = partitionIndex;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Integer getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if ( this == o ) return true;
+        if ( !(o instanceof RewardRecomputePartitionId that) ) return false;
+        return Objects.equals( jobId, that.jobId ) && Objects.equals( partitionIndex, that.partitionIndex );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash( jobId, partitionIndex );
+    }
+}
@@ -0,0 +1,50 @@
+package com.rewards.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records which reward rules a persisted rollup was last rebuilt under.
+ */
+@Entity
+@Table(name = "reward_rollup_state")
+public class RewardRollupState {
+    @Id
+    private String rollupName;
+
+    private String rulesFingerprint;
+
+    private LocalDateTime rebuiltAt;
+
+    public RewardRollupState() {
+    }
+
+    public RewardRollupState(String rollupName, String rulesFingerprint, LocalDateTime rebuiltAt) {
+        this.rollupName = rollupName;
+        this.rulesFingerprint = rulesFingerprint;
+        this.rebuiltAt = rebuiltAt;
+    }
+
+    public String getRollupName() {
+        return rollupName;
+    }
+
+    public String getRulesFingerprint() {
+        return rulesFingerprint;
+    }
+
+    public void setRulesFingerprint(String rulesFingerprint) {
+        this.rulesFingerprint = rulesFingerprint;
+    }
+
+    public LocalDateTime getRebuiltAt() {
+        return rebuiltAt;
+    }
+
+    public void setRebuiltAt(LocalDateTime rebuiltAt) {
+        this.rebuiltAt = rebuiltAt;
+    }
+}
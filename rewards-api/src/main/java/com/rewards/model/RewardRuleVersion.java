@@ -0,0 +1,49 @@
+package com.rewards.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A reward rule version stored as the JSON form of a {@link com.rewards.rules.RewardRuleDefinition}, keyed by the
+ * date it takes effect. Overrides a configured version with the same date.
+ */
+@Entity
+@Table(name = "reward_rule_versions")
+public class RewardRuleVersion {
+    @Id
+    @Column(name = "effective_from")
+    private LocalDate effectiveFrom;
+
+    @Lob
+    @Column(nullable = false)
+    private String definition;
+
+    private LocalDateTime createdAt;
+
+    public RewardRuleVersion() {
+    }
+
+    public RewardRuleVersion(LocalDate effectiveFrom, String definition, LocalDateTime createdAt) {
+        this.effectiveFrom = effectiveFrom;
+        this.definition = definition;
+        this.createdAt = createdAt;
+    }
+
+    public LocalDate getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
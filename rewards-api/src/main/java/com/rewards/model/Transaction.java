@@ -1,28 +1,64 @@
 package com.rewards.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_customer_date", columnList = "customer_id, transaction_date"),
+                @Index(name = "idx_transactions_recorded_at", columnList = "recorded_at")
+        })
 public class Transaction {
+    /** Ids each instance draws from {@code transactions_seq} at a time, so inserts can be batched. */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
     @Min(1)
     private BigDecimal amount;
 
+    /**
+     * {@link #amount} truncated to whole cents, kept in step by the constructor and {@link #setAmount}. Null for
+     * rows written before the column existed, and for amounts too large to fit a long.
+     */
+    @JsonIgnore
+    @Column(name = "amount_cents")
+    private Long amountCents;
+
     @NotNull
     private LocalDate transactionDate;
 
+    /** Optional purchase category, matched against the category multipliers and promotions of the reward rules. */
+    @Column(length = 32)
+    private String category;
+
+    /**
+     * When the row was inserted, stamped by the database. The in-memory store catches up on rows other writers
+     * committed by this column rather than by id, which is allocated in per-instance blocks.
+     */
+    @JsonIgnore
+    @Column(name = "recorded_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime recordedAt;
+
+    /**
+     * No database foreign key: MySQL does not allow one on the partitioned table (see
+     * {@code rewards.partitioning}). Existing flat tables keep theirs until partitioned.
+     */
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "customer_id", nullable = false)
+    @JoinColumn(name = "customer_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Customer customer;
 
     public Transaction() {
@@ -30,6 +66,7 @@ public class Transaction {
 
     public Transaction(BigDecimal amount, LocalDate transactionDate, Customer customer) {
         this.amount = amount;
+        this.amountCents = toCents( amount );
         this.transactionDate = transactionDate;
         this.customer = customer;
     }
@@ -48,6 +85,21 @@ public class Transaction {
 
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
+        this.amountCents = toCents( amount );
+    }
+
+    public Long getAmountCents() {
+        return amountCents;
+    }
+
+    /** Converts an amount to whole cents, or null when it cannot be represented exactly as a long. */
+    private static Long toCents(BigDecimal amount) {
+        if ( amount == null ) return null;
+        try {
+            return amount.movePointRight( 2 ).setScale( 0, RoundingMode.DOWN ).longValueExact( );
+        } catch ( ArithmeticException ex ) {
+            return null;
+        }
     }
 
     public LocalDate getTransactionDate() {
@@ -58,6 +110,19 @@ public class Transaction {
         this.transactionDate = transactionDate;
     }
 
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    /** Null on an entity saved in the current persistence context until it is read back. */
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
     public Customer getCustomer() {
         return customer;
     }
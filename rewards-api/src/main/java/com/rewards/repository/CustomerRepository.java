@@ -1,12 +1,37 @@
 package com.rewards.repository;
 
 import com.rewards.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByCustomerEmail(String email);
 
     boolean existsByCustomerEmail(String email);
+
+    List<Customer> findByCustomerEmailIn(Collection<String> emails);
+
+    /**
+     * Keyset page: the next {@code limit} customers after {@code id}, walking the primary key index instead of
+     * counting past an offset.
+     */
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /** Ids-only variant of {@link #findByIdGreaterThanOrderByIdAsc}, for jobs that batch by customer. */
+    @Query("select c.id from Customer c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /** Highest customer id, or null without customers; bounds the id ranges of partitioned jobs. */
+    @Query("select max(c.id) from Customer c")
+    Long findMaxId();
+
+    /** The customer's points balance as a primary-key read, without loading the entity. */
+    @Query("select c.pointsBalance from Customer c where c.id = :id")
+    Optional<Long> findPointsBalanceById(@Param("id") Long id);
 }
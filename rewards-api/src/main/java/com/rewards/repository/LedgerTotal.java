@@ -0,0 +1,8 @@
+package com.rewards.repository;
+
+/**
+ * A customer's stored points balance next to the sum of their ledger entries; the two agree unless the ledger
+ * was bypassed.
+ */
+public record LedgerTotal(Long customerId, long balance, long ledgerPoints) {
+}
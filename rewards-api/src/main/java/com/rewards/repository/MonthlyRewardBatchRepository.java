@@ -0,0 +1,54 @@
+package com.rewards.repository;
+
+import com.rewards.model.MonthlyReward;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Set-based writes of whole ranges of {@code monthly_rewards}, for the recomputation job. The statements are sent
+ * as JDBC batches, which Connector/J rewrites into multi-row statements ({@code rewriteBatchedStatements}).
+ */
+@Repository
+public class MonthlyRewardBatchRepository {
+
+    private static final String DELETE_RANGE_SQL =
+            "DELETE FROM monthly_rewards WHERE customer_id > ? AND customer_id <= ?";
+
+    /**
+     * Sets rather than adds, so that a row a live write created in the range after the delete is overwritten
+     * with the recomputed total instead of failing the batch; with InnoDB the delete's range locks hold such
+     * writes back until commit, after which they add on top.
+     */
+    private static final String UPSERT_SQL =
+            "INSERT INTO monthly_rewards (customer_id, reward_month, points, total_spend, transaction_count) "
+                    + "VALUES (?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE points = VALUES(points), "
+                    + "total_spend = VALUES(total_spend), "
+                    + "transaction_count = VALUES(transaction_count)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MonthlyRewardBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Removes the months of customers with ids in {@code (afterCustomerId, toCustomerId]}. */
+    public int deleteCustomerRange(long afterCustomerId, long toCustomerId) {
+        return jdbcTemplate.update( DELETE_RANGE_SQL, afterCustomerId, toCustomerId );
+    }
+
+    public void upsertAll(List<MonthlyReward> months) {
+        jdbcTemplate.batchUpdate( UPSERT_SQL, months, BATCH_SIZE, (ps, month) -> {
+            ps.setLong( 1, month.getCustomerId( ) );
+            ps.setDate( 2, Date.valueOf( month.getRewardMonth( ) ) );
+            ps.setLong( 3, month.getPoints( ) );
+            ps.setBigDecimal( 4, month.getTotalSpend( ) );
+            ps.setInt( 5, month.getTransactionCount( ) );
+        } );
+    }
+}
@@ -0,0 +1,58 @@
+package com.rewards.repository;
+
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.MonthlyRewardId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface MonthlyRewardRepository extends JpaRepository<MonthlyReward, MonthlyRewardId> {
+    List<MonthlyReward> findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(Long customerId, LocalDate fromMonth, LocalDate toMonth);
+
+    /** The customer's first month with transactions, to close a range without a start. */
+    Optional<MonthlyReward> findFirstByCustomerIdOrderByRewardMonthAsc(Long customerId);
+
+    /** The customer's last month with transactions, to close a range without an end. */
+    Optional<MonthlyReward> findFirstByCustomerIdOrderByRewardMonthDesc(Long customerId);
+
+    /**
+     * Adds to a customer's month in one statement, creating the row on the month's first transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_rewards (customer_id, reward_month, points, total_spend, transaction_count) "
+            + "VALUES (:customerId, :rewardMonth, :points, :spend, :count) "
+            + "ON DUPLICATE KEY UPDATE points = points + VALUES(points), "
+            + "total_spend = total_spend + VALUES(total_spend), "
+            + "transaction_count = transaction_count + VALUES(transaction_count)",
+            nativeQuery = true)
+    int addToMonth(@Param("customerId") Long customerId,
+                   @Param("rewardMonth") LocalDate rewardMonth,
+                   @Param("points") long points,
+                   @Param("spend") BigDecimal spend,
+                   @Param("count") int count);
+
+    /**
+     * Transactions the customer has in the rollup. Every write adds to it in the writing DB transaction, so it
+     * grows with each committed transaction and serves as the customer's reward version.
+     */
+    @Query("select coalesce(sum(m.transactionCount), 0) from MonthlyReward m where m.customerId = :customerId")
+    long sumTransactionCountByCustomerId(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("delete from MonthlyReward m where m.customerId = :customerId")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
+
+    /**
+     * Removes one month before it is recomputed. On InnoDB the delete locks the row, or the gap it would take, until
+     * commit, so recomputations of the same month wait for each other instead of overwriting a newer total.
+     */
+    @Modifying
+    @Query("delete from MonthlyReward m where m.customerId = :customerId and m.rewardMonth = :rewardMonth")
+    int deleteMonth(@Param("customerId") Long customerId, @Param("rewardMonth") LocalDate rewardMonth);
+}
@@ -0,0 +1,24 @@
+package com.rewards.repository;
+
+import com.rewards.model.PointsLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PointsLedgerRepository extends JpaRepository<PointsLedgerEntry, Long> {
+
+    @Query("select coalesce(sum(e.points), 0) from PointsLedgerEntry e where e.customerId = :customerId")
+    long sumPointsByCustomerId(@Param("customerId") Long customerId);
+
+    /**
+     * Balance and ledger sum of each given customer, including customers without ledger entries.
+     */
+    @Query("select new com.rewards.repository.LedgerTotal(c.id, c.pointsBalance, coalesce(sum(e.points), 0)) "
+            + "from Customer c left join PointsLedgerEntry e on e.customerId = c.id "
+            + "where c.id in :customerIds "
+            + "group by c.id, c.pointsBalance")
+    List<LedgerTotal> findTotalsByCustomerIdIn(@Param("customerIds") Collection<Long> customerIds);
+}
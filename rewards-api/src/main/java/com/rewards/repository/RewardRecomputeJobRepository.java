@@ -0,0 +1,10 @@
+package com.rewards.repository;
+
+import com.rewards.model.RewardRecomputeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface RewardRecomputeJobRepository extends JpaRepository<RewardRecomputeJob, Long> {
+    Optional<RewardRecomputeJob> findFirstByOrderByIdDesc();
+}
@@ -0,0 +1,11 @@
+package com.rewards.repository;
+
+import com.rewards.model.RewardRecomputePartition;
+import com.rewards.model.RewardRecomputePartitionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface RewardRecomputePartitionRepository extends JpaRepository<RewardRecomputePartition, RewardRecomputePartitionId> {
+    List<RewardRecomputePartition> findByJobId(Long jobId);
+}
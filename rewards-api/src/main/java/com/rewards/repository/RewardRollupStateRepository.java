@@ -0,0 +1,7 @@
+package com.rewards.repository;
+
+import com.rewards.model.RewardRollupState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RewardRollupStateRepository extends JpaRepository<RewardRollupState, String> {
+}
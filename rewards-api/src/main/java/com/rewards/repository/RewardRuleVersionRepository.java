@@ -0,0 +1,9 @@
+package com.rewards.repository;
+
+import com.rewards.model.RewardRuleVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+
+public interface RewardRuleVersionRepository extends JpaRepository<RewardRuleVersion, LocalDate> {
+}
@@ -0,0 +1,102 @@
+package com.rewards.repository;
+
+import com.rewards.util.TransactionPartitionPlan;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * MySQL DDL for the monthly range partitions of the transactions table. Every statement here rebuilds or locks
+ * part of the table, so it is only run by the partition maintenance job.
+ */
+@Repository
+public class TransactionPartitionRepository {
+
+    private static final String PARTITIONS_SQL = "SELECT partition_name FROM information_schema.partitions "
+            + "WHERE table_schema = DATABASE() AND table_name = 'transactions' AND partition_name IS NOT NULL "
+            + "ORDER BY partition_ordinal_position";
+
+    private static final String FOREIGN_KEYS_SQL = "SELECT constraint_name FROM information_schema.referential_constraints "
+            + "WHERE constraint_schema = DATABASE() AND table_name = 'transactions'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String databaseProductName() {
+        return jdbcTemplate.execute( (ConnectionCallback<String>) con -> con.getMetaData( ).getDatabaseProductName( ) );
+    }
+
+    /** Partition names in range order; empty while the table is not partitioned. */
+    public List<String> partitionNames() {
+        return jdbcTemplate.queryForList( PARTITIONS_SQL, String.class );
+    }
+
+    public Optional<LocalDate> earliestTransactionDate() {
+        return Optional.ofNullable( jdbcTemplate.queryForObject(
+                "SELECT MIN(transaction_date) FROM transactions", LocalDate.class ) );
+    }
+
+    /**
+     * Converts the flat table into one partition per month plus {@link TransactionPartitionPlan#FUTURE}, copying
+     * every row once. MySQL requires the partitioning column in the primary key and allows no foreign keys on a
+     * partitioned table, so the key becomes {@code (id, transaction_date)} and the customer foreign key is dropped;
+     * ids stay unique through their sequence.
+     */
+    public void partitionByMonth(List<YearMonth> months) {
+        for ( String foreignKey : jdbcTemplate.queryForList( FOREIGN_KEYS_SQL, String.class ) ) {
+            jdbcTemplate.execute( "ALTER TABLE transactions DROP FOREIGN KEY `" + foreignKey + "`" );
+        }
+        jdbcTemplate.execute( "ALTER TABLE transactions DROP PRIMARY KEY, ADD PRIMARY KEY (id, transaction_date) "
+                + "PARTITION BY RANGE COLUMNS (transaction_date) (" + definitions( months ) + ")" );
+    }
+
+    /** Splits new months off the empty end of {@link TransactionPartitionPlan#FUTURE}. */
+    public void addMonths(List<YearMonth> months) {
+        jdbcTemplate.execute( "ALTER TABLE transactions REORGANIZE PARTITION " + TransactionPartitionPlan.FUTURE
+                + " INTO (" + definitions( months ) + ")" );
+    }
+
+    /**
+     * Moves a month's rows into the standalone table {@code transactions_archive_pYYYYMM} and drops its partition.
+     * The exchange swaps tablespaces instead of copying rows. An archive table left over from an interrupted run
+     * is reused when the partition is already empty.
+     */
+    public void archive(YearMonth month) {
+        String partition = TransactionPartitionPlan.partitionName( month );
+        String archive = "transactions_archive_" + partition;
+        jdbcTemplate.execute( "CREATE TABLE IF NOT EXISTS " + archive + " LIKE transactions" );
+        if ( !jdbcTemplate.queryForList( "SELECT partition_name FROM information_schema.partitions "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL", String.class, archive ).isEmpty( ) ) {
+            jdbcTemplate.execute( "ALTER TABLE " + archive + " REMOVE PARTITIONING" );
+        }
+        if ( hasRows( "transactions PARTITION (" + partition + ")" ) ) {
+            if ( hasRows( archive ) ) {
+                throw new IllegalStateException( "Cannot archive " + partition + ": " + archive + " already holds rows" );
+            }
+            jdbcTemplate.execute( "ALTER TABLE transactions EXCHANGE PARTITION " + partition + " WITH TABLE " + archive );
+        }
+        jdbcTemplate.execute( "ALTER TABLE transactions DROP PARTITION " + partition );
+    }
+
+    private boolean hasRows(String table) {
+        return !jdbcTemplate.queryForList( "SELECT 1 FROM " + table + " LIMIT 1", Integer.class ).isEmpty( );
+    }
+
+    private static String definitions(List<YearMonth> months) {
+        Stream<String> monthly = months.stream( )
+                .map( month -> "PARTITION " + TransactionPartitionPlan.partitionName( month )
+                        + " VALUES LESS THAN ('" + TransactionPartitionPlan.upperBound( month ) + "')" );
+        return Stream.concat( monthly, Stream.of( "PARTITION " + TransactionPartitionPlan.FUTURE + " VALUES LESS THAN (MAXVALUE)" ) )
+                .collect( Collectors.joining( ", " ) );
+    }
+}
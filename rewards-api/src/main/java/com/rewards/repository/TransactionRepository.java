@@ -1,11 +1,103 @@
 package com.rewards.repository;
 
 import com.rewards.model.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Range queries compare the bare {@code transaction_date} column with their bounds, so that on the partitioned
+ * table (see {@link TransactionPartitionRepository}) MySQL reads only the monthly partitions in range.
+ */
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    /** A row's amount in dollars, from the cents column when set. */
+    String AMOUNT = "coalesce(t.amountCents / 100.0, t.amount)";
+    /** {@link #AMOUNT} truncated towards zero, as points are computed on whole dollars. */
+    String WHOLE_DOLLARS = "case when " + AMOUNT + " < 0 then ceiling(" + AMOUNT + ") else floor(" + AMOUNT + ") end";
+
     List<Transaction> findByCustomerIdAndTransactionDateBetween(Long customerId, LocalDate from, LocalDate to);
+
+    List<Transaction> findByCustomerId(Long customerId);
+
+    /**
+     * Projection of {@link #findByCustomerIdAndTransactionDateBetween} for read paths. Filters on the
+     * {@code customer_id} column directly (no join) so it is served by {@code idx_transactions_customer_date}.
+     */
+    @Query("select new com.rewards.repository.TransactionRow(t.id, t.customer.id, t.amount, t.amountCents, t.transactionDate, t.category) "
+            + "from Transaction t "
+            + "where t.customer.id = :customerId and t.transactionDate between :from and :to "
+            + "order by t.transactionDate, t.id")
+    List<TransactionRow> findRowsByCustomerIdAndTransactionDateBetween(@Param("customerId") Long customerId,
+                                                                      @Param("from") LocalDate from,
+                                                                      @Param("to") LocalDate to);
+
+    /**
+     * One keyset page of {@link #findRowsByCustomerIdAndTransactionDateBetween}: the rows ordered after
+     * ({@code afterDate}, {@code afterId}). The separate {@code >= :afterDate} bound lets later pages skip the
+     * months, and partitions, before the cursor.
+     */
+    @Query("select new com.rewards.repository.TransactionRow(t.id, t.customer.id, t.amount, t.amountCents, t.transactionDate, t.category) "
+            + "from Transaction t "
+            + "where t.customer.id = :customerId and t.transactionDate between :from and :to and t.transactionDate >= :afterDate "
+            + "and (t.transactionDate > :afterDate or (t.transactionDate = :afterDate and t.id > :afterId)) "
+            + "order by t.transactionDate, t.id")
+    List<TransactionRow> findRowsAfter(@Param("customerId") Long customerId,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       @Param("afterDate") LocalDate afterDate,
+                                       @Param("afterId") long afterId,
+                                       Limit limit);
+
+    /**
+     * The customer's transactions in the range counted per day, category and whole-dollar amount, so the range
+     * can be scored without reading its rows.
+     */
+    @Query("select new com.rewards.repository.TransactionSpendGroup(t.transactionDate, t.category, " + WHOLE_DOLLARS + ", count(t)) "
+            + "from Transaction t "
+            + "where t.customer.id = :customerId and t.transactionDate between :from and :to "
+            + "group by t.transactionDate, t.category, " + WHOLE_DOLLARS)
+    List<TransactionSpendGroup> countSpendGroups(@Param("customerId") Long customerId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to);
+
+    /**
+     * Rows of many customers in one statement, grouped by customer and in the same per-customer order as
+     * {@link #findRowsByCustomerIdAndTransactionDateBetween}. Callers bound the size of {@code customerIds}.
+     */
+    @Query("select new com.rewards.repository.TransactionRow(t.id, t.customer.id, t.amount, t.amountCents, t.transactionDate, t.category) "
+            + "from Transaction t "
+            + "where t.customer.id in :customerIds and t.transactionDate between :from and :to "
+            + "order by t.customer.id, t.transactionDate, t.id")
+    List<TransactionRow> findRowsByCustomerIdInAndTransactionDateBetween(@Param("customerIds") Collection<Long> customerIds,
+                                                                        @Param("from") LocalDate from,
+                                                                        @Param("to") LocalDate to);
+
+    /**
+     * Every transaction row of the given customers, for checks over a customer's whole history.
+     */
+    @Query("select new com.rewards.repository.TransactionRow(t.id, t.customer.id, t.amount, t.amountCents, t.transactionDate, t.category) "
+            + "from Transaction t where t.customer.id in :customerIds")
+    List<TransactionRow> findRowsByCustomerIdIn(@Param("customerIds") Collection<Long> customerIds);
+
+    @Query("select min(t.transactionDate) from Transaction t")
+    Optional<LocalDate> findEarliestTransactionDate();
+
+    /** Highest transaction id, or null without transactions; where the in-memory store's catch-up starts. */
+    @Query("select max(t.id) from Transaction t")
+    Long findMaxId();
+
+    /**
+     * Deletes rows that were copied to the archive. The date range keeps the delete to the archived month's
+     * partition when the table is partitioned.
+     */
+    @Modifying
+    @Query("delete from Transaction t where t.transactionDate between :from and :to and t.id in :ids")
+    int deleteArchived(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,16 @@
+package com.rewards.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of the transaction columns reward calculations need. Built by JPQL constructor expressions, so
+ * no entity, customer proxy or persistence-context snapshot is created per row.
+ */
+public record TransactionRow(Long id, Long customerId, BigDecimal amount, Long amountCents, LocalDate transactionDate,
+                             String category) {
+
+    public TransactionRow(Long id, Long customerId, BigDecimal amount, Long amountCents, LocalDate transactionDate) {
+        this( id, customerId, amount, amountCents, transactionDate, null );
+    }
+}
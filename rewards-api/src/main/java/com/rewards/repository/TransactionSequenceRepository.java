@@ -0,0 +1,52 @@
+package com.rewards.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads and raises {@code transactions_seq}, the pooled id sequence of {@link com.rewards.model.Transaction}.
+ * Hibernate emulates it with a one-row table ({@code next_val}) on MySQL and creates a native sequence on H2.
+ */
+@Repository
+public class TransactionSequenceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionSequenceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String databaseProductName() {
+        return jdbcTemplate.execute( (ConnectionCallback<String>) con -> con.getMetaData( ).getDatabaseProductName( ) );
+    }
+
+    /** Highest id in the transactions table, or 0 when it is empty. */
+    public long maxTransactionId() {
+        Long maxId = jdbcTemplate.queryForObject( "SELECT MAX(id) FROM transactions", Long.class );
+        return maxId == null ? 0 : maxId;
+    }
+
+    /** The value the sequence hands out next, or null when it does not exist yet. */
+    public Long nextValue(boolean mysql) {
+        List<Long> values = mysql
+                ? jdbcTemplate.queryForList( "SELECT next_val FROM transactions_seq", Long.class )
+                : jdbcTemplate.queryForList( "SELECT base_value FROM information_schema.sequences "
+                + "WHERE UPPER(sequence_name) = 'TRANSACTIONS_SEQ'", Long.class );
+        return values.isEmpty( ) ? null : values.getFirst( );
+    }
+
+    /**
+     * Moves the sequence up to {@code value}. On MySQL the update only applies while the sequence is still below
+     * it, so an instance that started meanwhile and already drew ids is never moved back.
+     */
+    public void raiseTo(boolean mysql, long value) {
+        if ( mysql ) {
+            jdbcTemplate.update( "UPDATE transactions_seq SET next_val = ? WHERE next_val < ?", value, value );
+        } else {
+            jdbcTemplate.execute( "ALTER SEQUENCE transactions_seq RESTART WITH " + value );
+        }
+    }
+}
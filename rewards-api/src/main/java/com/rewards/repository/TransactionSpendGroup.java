@@ -0,0 +1,10 @@
+package com.rewards.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Number of a customer's transactions sharing a day, category and whole-dollar amount, the only inputs of a
+ * transaction's points. Lets a range be scored per group instead of per row.
+ */
+public record TransactionSpendGroup(LocalDate transactionDate, String category, Number wholeDollars, Long transactions) {
+}
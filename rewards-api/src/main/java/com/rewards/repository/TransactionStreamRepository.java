@@ -0,0 +1,166 @@
+package com.rewards.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only JDBC cursors over the transactions table, for jobs that must visit every row without
+ * materializing entities or whole result sets.
+ */
+@Repository
+public class TransactionStreamRepository {
+
+    private static final String CUSTOMER_TRANSACTIONS_SQL =
+            "SELECT c.id, c.customer_name, c.customer_email, t.id, t.amount, t.amount_cents, t.transaction_date, t.category "
+                    + "FROM customers c "
+                    + "LEFT JOIN transactions t ON t.customer_id = c.id AND t.transaction_date BETWEEN ? AND ? "
+                    + "ORDER BY c.id, t.transaction_date";
+
+    private static final String CUSTOMER_RANGE_SQL =
+            "SELECT t.id, t.customer_id, t.amount, t.amount_cents, t.transaction_date, t.category "
+                    + "FROM transactions t "
+                    + "WHERE t.customer_id > ? AND t.customer_id <= ? "
+                    + "ORDER BY t.customer_id, t.transaction_date";
+
+    private static final String DATE_RANGE_SQL =
+            "SELECT t.id, t.customer_id, t.amount, t.amount_cents, t.transaction_date, t.category "
+                    + "FROM transactions t "
+                    + "WHERE t.transaction_date BETWEEN ? AND ?";
+
+    private static final String RECORDED_SINCE_SQL =
+            "SELECT t.id, t.customer_id, t.amount, t.amount_cents, t.transaction_date, t.category, t.recorded_at "
+                    + "FROM transactions t "
+                    + "WHERE t.recorded_at >= ? "
+                    + "ORDER BY t.recorded_at";
+
+    private static final String MAX_RECORDED_AT_SQL = "SELECT MAX(recorded_at) FROM transactions";
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionStreamRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One row per transaction in range; customers without transactions in range appear once with a null transaction.
+     */
+    public record CustomerTransactionRow(long customerId, String customerName, String customerEmail,
+                                         Long transactionId, BigDecimal amount, Long amountCents,
+                                         LocalDate transactionDate, String category) {
+    }
+
+    /**
+     * Streams every customer with their transactions in the range, ordered by customer id and transaction date.
+     */
+    public void streamCustomerTransactions(LocalDate from, LocalDate to, Consumer<CustomerTransactionRow> consumer) {
+        jdbcTemplate.query( con -> {
+            PreparedStatement ps = forwardOnly( con, CUSTOMER_TRANSACTIONS_SQL );
+            ps.setDate( 1, Date.valueOf( from ) );
+            ps.setDate( 2, Date.valueOf( to ) );
+            return ps;
+        }, rs -> {
+            long transactionId = rs.getLong( 4 );
+            boolean hasTransaction = !rs.wasNull( );
+            long amountCents = rs.getLong( 6 );
+            boolean hasCents = !rs.wasNull( );
+            consumer.accept( new CustomerTransactionRow(
+                    rs.getLong( 1 ),
+                    rs.getString( 2 ),
+                    rs.getString( 3 ),
+                    hasTransaction ? transactionId : null,
+                    hasTransaction ? rs.getBigDecimal( 5 ) : null,
+                    hasCents ? amountCents : null,
+                    hasTransaction ? rs.getObject( 7, LocalDate.class ) : null,
+                    rs.getString( 8 ) ) );
+        } );
+    }
+
+    /**
+     * Streams the transactions of customers with ids in {@code (afterCustomerId, toCustomerId]}, ordered by
+     * customer id and date, walking {@code idx_transactions_customer_date}.
+     */
+    public void streamCustomerRange(long afterCustomerId, long toCustomerId, Consumer<TransactionRow> consumer) {
+        jdbcTemplate.query( con -> {
+            PreparedStatement ps = forwardOnly( con, CUSTOMER_RANGE_SQL );
+            ps.setLong( 1, afterCustomerId );
+            ps.setLong( 2, toCustomerId );
+            return ps;
+        }, rs -> {
+            consumer.accept( toRow( rs ) );
+        } );
+    }
+
+    /**
+     * Streams every transaction dated within {@code [from, to]}, in no particular order. Without partitioning this
+     * scans the whole table; on the partitioned table it reads the months in range.
+     */
+    public void streamDateRange(LocalDate from, LocalDate to, Consumer<TransactionRow> consumer) {
+        jdbcTemplate.query( con -> {
+            PreparedStatement ps = forwardOnly( con, DATE_RANGE_SQL );
+            ps.setDate( 1, Date.valueOf( from ) );
+            ps.setDate( 2, Date.valueOf( to ) );
+            return ps;
+        }, rs -> {
+            consumer.accept( toRow( rs ) );
+        } );
+    }
+
+    /**
+     * Streams the transactions recorded at or after {@code since}, in {@code recorded_at} order, walking
+     * {@code idx_transactions_recorded_at}. Returns the latest {@code recorded_at} streamed, or null for none.
+     */
+    public Instant streamRecordedSince(Instant since, Consumer<TransactionRow> consumer) {
+        Instant[] latest = new Instant[1];
+        jdbcTemplate.query( con -> {
+            PreparedStatement ps = forwardOnly( con, RECORDED_SINCE_SQL );
+            ps.setTimestamp( 1, Timestamp.from( since ) );
+            return ps;
+        }, rs -> {
+            consumer.accept( toRow( rs ) );
+            latest[0] = rs.getTimestamp( 7 ).toInstant( );
+        } );
+        return latest[0];
+    }
+
+    /** The latest {@code recorded_at} in the table, or null when it is empty. */
+    public Instant findMaxRecordedAt() {
+        Timestamp max = jdbcTemplate.queryForObject( MAX_RECORDED_AT_SQL, Timestamp.class );
+        return max == null ? null : max.toInstant( );
+    }
+
+    private static TransactionRow toRow(ResultSet rs) throws SQLException {
+        long amountCents = rs.getLong( 4 );
+        boolean hasCents = !rs.wasNull( );
+        return new TransactionRow(
+                rs.getLong( 1 ),
+                rs.getLong( 2 ),
+                rs.getBigDecimal( 3 ),
+                hasCents ? amountCents : null,
+                rs.getObject( 5, LocalDate.class ),
+                rs.getString( 6 ) );
+    }
+
+    /**
+     * Prepares a read-only, forward-only statement. MySQL Connector/J only streams rows instead of buffering the
+     * whole result when the fetch size is {@link Integer#MIN_VALUE}; other drivers take a regular fetch size.
+     */
+    static PreparedStatement forwardOnly(Connection con, String sql) throws SQLException {
+        PreparedStatement ps = con.prepareStatement( sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY );
+        boolean mysql = con.getMetaData( ).getDatabaseProductName( ).toLowerCase( ).contains( "mysql" );
+        ps.setFetchSize( mysql ? Integer.MIN_VALUE : DEFAULT_FETCH_SIZE );
+        return ps;
+    }
+}
@@ -0,0 +1,283 @@
+package com.rewards.rules;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Every rule version flattened into primitive arrays, so that scoring a transaction is a segment lookup, a fixed
+ * number of compares and one multiply-add with no branching on the rule shape.
+ * <p>
+ * The timeline is cut into segments wherever a version or a promotion starts or ends; within a segment the tiers
+ * and every category's combined multiplier are constant. Each segment holds {@code stride} tier slots: slot 0 is a
+ * zero-rate tier below every amount, and unused slots sit at {@link Integer#MAX_VALUE} so no amount reaches them.
+ * Arithmetic stays in {@code int}, wrapping exactly like the original fixed two-tier formula.
+ * <p>
+ * Instances are immutable; a rule change compiles a new one and swaps it in whole.
+ */
+public final class CompiledRewardRules {
+
+    private static final int UNCATEGORISED = 0;
+    /** Longest timeline, in days, mapped by a direct day-to-segment table instead of a binary search. */
+    private static final int MAX_DAY_TABLE = 1 << 16;
+
+    private final List<RewardRuleDefinition> versions;
+    private final String fingerprint;
+    private final int[] segmentStarts;
+    private final int firstDay;
+    private final int[] daySegments;
+    private final int stride;
+    private final int[] thresholds;
+    private final int[] rates;
+    private final int[] bases;
+    private final Map<String, Integer> categoryIndex;
+    private final int categoryCount;
+    private final int[] multipliers;
+
+    private CompiledRewardRules(List<RewardRuleDefinition> versions, String fingerprint, int[] segmentStarts,
+                                int stride, int[] thresholds, int[] rates, int[] bases,
+                                Map<String, Integer> categoryIndex, int[] multipliers) {
+        this.versions = versions;
+        this.fingerprint = fingerprint;
+        this.segmentStarts = segmentStarts;
+        this.firstDay = segmentStarts.length > 1 ? segmentStarts[1] : 0;
+        this.daySegments = daySegments( segmentStarts );
+        this.stride = stride;
+        this.thresholds = thresholds;
+        this.rates = rates;
+        this.bases = bases;
+        this.categoryIndex = categoryIndex;
+        this.categoryCount = categoryIndex.size( ) + 1;
+        this.multipliers = multipliers;
+    }
+
+    /**
+     * Compiles the base version (applying before any dated version) and the dated versions. Throws
+     * {@link IllegalArgumentException} for a definition that cannot be evaluated.
+     */
+    public static CompiledRewardRules compile(RewardRuleDefinition base, List<RewardRuleDefinition> dated) {
+        List<RewardRuleDefinition> all = new ArrayList<>( dated.size( ) + 1 );
+        all.add( base );
+        dated.stream( )
+                .sorted( Comparator.comparing( RewardRuleDefinition::getEffectiveFrom,
+                        Comparator.nullsFirst( Comparator.naturalOrder( ) ) ) )
+                .forEach( all::add );
+        for ( int v = 1; v < all.size( ); v++ ) {
+            LocalDate from = all.get( v ).getEffectiveFrom( );
+            if ( from == null ) {
+                throw new IllegalArgumentException( "Every rule version needs an 'effectiveFrom' date" );
+            }
+            if ( v > 1 && from.equals( all.get( v - 1 ).getEffectiveFrom( ) ) ) {
+                throw new IllegalArgumentException( "Two rule versions are effective from " + from );
+            }
+        }
+        all.forEach( CompiledRewardRules::validate );
+
+        Map<String, Integer> categoryIndex = new HashMap<>( );
+        for ( RewardRuleDefinition version : all ) {
+            version.getCategoryMultipliers( ).keySet( ).forEach( c -> categoryIndex.putIfAbsent( c, categoryIndex.size( ) + 1 ) );
+            version.getPromotions( ).stream( )
+                    .filter( p -> p.getCategory( ) != null )
+                    .forEach( p -> categoryIndex.putIfAbsent( p.getCategory( ), categoryIndex.size( ) + 1 ) );
+        }
+        int categoryCount = categoryIndex.size( ) + 1;
+        int stride = 1 + all.stream( ).mapToInt( v -> v.getTiers( ).size( ) ).max( ).orElse( 0 );
+
+        List<Integer> segmentStarts = new ArrayList<>( );
+        List<Integer> segmentVersions = new ArrayList<>( );
+        for ( int v = 0; v < all.size( ); v++ ) {
+            long start = v == 0 ? Integer.MIN_VALUE : all.get( v ).getEffectiveFrom( ).toEpochDay( );
+            long end = v + 1 < all.size( ) ? all.get( v + 1 ).getEffectiveFrom( ).toEpochDay( ) : Long.MAX_VALUE;
+            TreeSet<Long> cuts = new TreeSet<>( );
+            cuts.add( start );
+            for ( RewardRuleDefinition.Promotion promotion : all.get( v ).getPromotions( ) ) {
+                for ( long cut : new long[]{promotion.getFrom( ).toEpochDay( ), promotion.getTo( ).toEpochDay( ) + 1} ) {
+                    if ( cut > start && cut < end ) {
+                        cuts.add( cut );
+                    }
+                }
+            }
+            for ( long cut : cuts ) {
+                segmentStarts.add( Math.toIntExact( cut ) );
+                segmentVersions.add( v );
+            }
+        }
+
+        int segments = segmentStarts.size( );
+        int[] thresholds = new int[segments * stride];
+        int[] rates = new int[segments * stride];
+        int[] bases = new int[segments * stride];
+        int[] multipliers = new int[segments * categoryCount];
+        for ( int s = 0; s < segments; s++ ) {
+            RewardRuleDefinition version = all.get( segmentVersions.get( s ) );
+            fillTiers( version, s * stride, stride, thresholds, rates, bases );
+            fillMultipliers( version, segmentStarts.get( s ), categoryIndex, s * categoryCount, multipliers );
+        }
+
+        return new CompiledRewardRules( List.copyOf( all ), fingerprint( all ),
+                segmentStarts.stream( ).mapToInt( Integer::intValue ).toArray( ), stride,
+                thresholds, rates, bases, categoryIndex, multipliers );
+    }
+
+    /**
+     * Points for a whole-dollar amount spent on the given day, in the given category (null for none).
+     */
+    public int points(int dollars, int epochDay, String category) {
+        int segment = segment( epochDay );
+        int offset = segment * stride;
+        int tier = 0;
+        for ( int i = 1; i < stride; i++ ) {
+            tier += dollars > thresholds[offset + i] ? 1 : 0;
+        }
+        int slot = offset + tier;
+        int points = bases[slot] + (dollars - thresholds[slot]) * rates[slot];
+        return points * multipliers[segment * categoryCount + category( category )];
+    }
+
+    /** Base version first, then the dated versions in effective order. */
+    public List<RewardRuleDefinition> versions() {
+        return versions;
+    }
+
+    /**
+     * Identifies the rules, so that persisted aggregates can tell when they were computed under different ones.
+     * A lone two-tier base version keeps the original {@code points:bonus:multiplier} form.
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    private int segment(int epochDay) {
+        int last = segmentStarts.length - 1;
+        if ( epochDay >= segmentStarts[last] ) {
+            return last;
+        }
+        if ( epochDay < firstDay ) {
+            return 0;
+        }
+        if ( daySegments != null ) {
+            return daySegments[epochDay - firstDay];
+        }
+        int found = Arrays.binarySearch( segmentStarts, 0, last, epochDay );
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /** Segment of every day from the second segment's start to the last one's, or null when that span is too long. */
+    private static int[] daySegments(int[] segmentStarts) {
+        int last = segmentStarts.length - 1;
+        if ( last < 1 || (long) segmentStarts[last] - segmentStarts[1] > MAX_DAY_TABLE ) {
+            return null;
+        }
+        int[] table = new int[segmentStarts[last] - segmentStarts[1]];
+        for ( int s = 1; s < last; s++ ) {
+            Arrays.fill( table, segmentStarts[s] - segmentStarts[1], segmentStarts[s + 1] - segmentStarts[1], s );
+        }
+        return table;
+    }
+
+    private int category(String category) {
+        if ( category == null ) {
+            return UNCATEGORISED;
+        }
+        Integer index = categoryIndex.get( category );
+        return index == null ? UNCATEGORISED : index;
+    }
+
+    private static void validate(RewardRuleDefinition version) {
+        int previous = Integer.MIN_VALUE;
+        for ( RewardRuleDefinition.Tier tier : version.getTiers( ) ) {
+            if ( tier.getOver( ) < previous ) {
+                throw new IllegalArgumentException( "Tiers must be listed by ascending 'over' amount" );
+            }
+            if ( tier.getPointsPerDollar( ) < 0 ) {
+                throw new IllegalArgumentException( "'pointsPerDollar' must not be negative" );
+            }
+            previous = tier.getOver( );
+        }
+        version.getCategoryMultipliers( ).forEach( (category, multiplier) -> {
+            if ( multiplier == null || multiplier < 0 ) {
+                throw new IllegalArgumentException( "Multiplier of category '" + category + "' must not be negative" );
+            }
+        } );
+        for ( RewardRuleDefinition.Promotion promotion : version.getPromotions( ) ) {
+            if ( promotion.getFrom( ) == null || promotion.getTo( ) == null || promotion.getFrom( ).isAfter( promotion.getTo( ) ) ) {
+                throw new IllegalArgumentException( "Promotion '" + promotion.getName( ) + "' needs 'from' on or before 'to'" );
+            }
+            if ( promotion.getMultiplier( ) < 0 ) {
+                throw new IllegalArgumentException( "Multiplier of promotion '" + promotion.getName( ) + "' must not be negative" );
+            }
+        }
+    }
+
+    private static void fillTiers(RewardRuleDefinition version, int offset, int stride,
+                                  int[] thresholds, int[] rates, int[] bases) {
+        thresholds[offset] = Integer.MIN_VALUE;
+        List<RewardRuleDefinition.Tier> tiers = version.getTiers( );
+        for ( int i = 1; i < stride; i++ ) {
+            if ( i <= tiers.size( ) ) {
+                thresholds[offset + i] = tiers.get( i - 1 ).getOver( );
+                rates[offset + i] = tiers.get( i - 1 ).getPointsPerDollar( );
+                bases[offset + i] = bases[offset + i - 1]
+                        + (thresholds[offset + i] - thresholds[offset + i - 1]) * rates[offset + i - 1];
+            } else {
+                thresholds[offset + i] = Integer.MAX_VALUE;
+            }
+        }
+    }
+
+    private static void fillMultipliers(RewardRuleDefinition version, int epochDay, Map<String, Integer> categoryIndex,
+                                        int offset, int[] multipliers) {
+        multipliers[offset + UNCATEGORISED] = promotionMultiplier( version, epochDay, null );
+        categoryIndex.forEach( (category, index) -> multipliers[offset + index] = Math.multiplyExact(
+                version.getCategoryMultipliers( ).getOrDefault( category, 1 ),
+                promotionMultiplier( version, epochDay, category ) ) );
+    }
+
+    /** Product of the version's promotions running on the day that apply to the category. */
+    private static int promotionMultiplier(RewardRuleDefinition version, long epochDay, String category) {
+        int multiplier = 1;
+        for ( RewardRuleDefinition.Promotion promotion : version.getPromotions( ) ) {
+            boolean running = promotion.getFrom( ).toEpochDay( ) <= epochDay && epochDay <= promotion.getTo( ).toEpochDay( );
+            boolean applies = promotion.getCategory( ) == null || promotion.getCategory( ).equals( category );
+            if ( running && applies ) {
+                multiplier = Math.multiplyExact( multiplier, promotion.getMultiplier( ) );
+            }
+        }
+        return multiplier;
+    }
+
+    private static String fingerprint(List<RewardRuleDefinition> versions) {
+        RewardRuleDefinition base = versions.get( 0 );
+        if ( versions.size( ) == 1 && base.getTiers( ).size( ) == 2 && base.getTiers( ).get( 0 ).getPointsPerDollar( ) == 1
+                && base.getCategoryMultipliers( ).isEmpty( ) && base.getPromotions( ).isEmpty( ) ) {
+            return base.getTiers( ).get( 0 ).getOver( ) + ":" + base.getTiers( ).get( 1 ).getOver( ) + ":"
+                    + base.getTiers( ).get( 1 ).getPointsPerDollar( );
+        }
+        StringBuilder canonical = new StringBuilder( );
+        for ( RewardRuleDefinition version : versions ) {
+            canonical.append( version.getEffectiveFrom( ) ).append( '|' );
+            version.getTiers( ).forEach( t -> canonical.append( t.getOver( ) ).append( '*' ).append( t.getPointsPerDollar( ) ).append( ',' ) );
+            version.getCategoryMultipliers( ).entrySet( ).stream( )
+                    .sorted( Map.Entry.comparingByKey( ) )
+                    .forEach( e -> canonical.append( e.getKey( ) ).append( '=' ).append( e.getValue( ) ).append( ',' ) );
+            version.getPromotions( ).forEach( p -> canonical.append( p.getFrom( ) ).append( '~' ).append( p.getTo( ) )
+                    .append( '/' ).append( p.getCategory( ) ).append( '*' ).append( p.getMultiplier( ) ).append( ',' ) );
+            canonical.append( ';' );
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( canonical.toString( ).getBytes( StandardCharsets.UTF_8 ) );
+            return "v" + versions.size( ) + ":" + HexFormat.of( ).formatHex( digest, 0, 16 );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.rewards.rules;
+
+import com.rewards.util.RewardProperties;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One version of the reward rules, in force from {@link #effectiveFrom} until the next version starts. Points are
+ * earned per whole dollar through {@link #tiers}: each tier pays {@code pointsPerDollar} for every dollar above
+ * {@code over}, up to the next tier. The tier result is then multiplied by the transaction category's multiplier
+ * and by every promotion running on the transaction date.
+ * <p>
+ * Bound from {@code rewards.rule-versions} and stored as JSON in {@code reward_rule_versions}.
+ */
+public class RewardRuleDefinition {
+
+    /** First transaction date the version applies to; null for the base version that applies since forever. */
+    private LocalDate effectiveFrom;
+    private List<Tier> tiers = new ArrayList<>( );
+    /** Multiplier per transaction category; categories not listed, and transactions without one, use 1. */
+    private Map<String, Integer> categoryMultipliers = new LinkedHashMap<>( );
+    private List<Promotion> promotions = new ArrayList<>( );
+
+    public static class Tier {
+        private int over;
+        private int pointsPerDollar;
+
+        public Tier() {
+        }
+
+        public Tier(int over, int pointsPerDollar) {
+            this.over = over;
+            this.pointsPerDollar = pointsPerDollar;
+        }
+
+        public int getOver() {
+            return over;
+        }
+
+        public void setOver(int over) {
+            this.over = over;
+        }
+
+        public int getPointsPerDollar() {
+            return pointsPerDollar;
+        }
+
+        public void setPointsPerDollar(int pointsPerDollar) {
+            this.pointsPerDollar = pointsPerDollar;
+        }
+    }
+
+    /** A multiplier for transactions dated {@code from}..{@code to} inclusive, optionally of one category only. */
+    public static class Promotion {
+        private String name;
+        private LocalDate from;
+        private LocalDate to;
+        private String category;
+        private int multiplier;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public void setFrom(LocalDate from) {
+            this.from = from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public void setTo(LocalDate to) {
+            this.to = to;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public int getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(int multiplier) {
+            this.multiplier = multiplier;
+        }
+    }
+
+    /**
+     * The fixed two-tier rules of {@code rewards.min-amt-spend-for-points}, {@code min-amt-spend-for-bonus} and
+     * {@code multiplier}, as the base version.
+     */
+    public static RewardRuleDefinition fromProperties(RewardProperties properties) {
+        RewardRuleDefinition base = new RewardRuleDefinition( );
+        base.tiers.add( new Tier( properties.getMinAmtSpendForPoints( ), 1 ) );
+        base.tiers.add( new Tier( properties.getMinAmtSpendForBonus( ), properties.getMultiplier( ) ) );
+        return base;
+    }
+
+    public LocalDate getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    public void setEffectiveFrom(LocalDate effectiveFrom) {
+        this.effectiveFrom = effectiveFrom;
+    }
+
+    public List<Tier> getTiers() {
+        return tiers;
+    }
+
+    public void setTiers(List<Tier> tiers) {
+        this.tiers = tiers;
+    }
+
+    public Map<String, Integer> getCategoryMultipliers() {
+        return categoryMultipliers;
+    }
+
+    public void setCategoryMultipliers(Map<String, Integer> categoryMultipliers) {
+        this.categoryMultipliers = categoryMultipliers;
+    }
+
+    public List<Promotion> getPromotions() {
+        return promotions;
+    }
+
+    public void setPromotions(List<Promotion> promotions) {
+        this.promotions = promotions;
+    }
+}
@@ -1,14 +1,24 @@
 package com.rewards.service;
 
+import com.rewards.dto.CustomerPage;
 import com.rewards.model.Customer;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerService {
     Customer createCustomer(Customer customer);
 
+    /**
+     * @deprecated loads the whole customers table; use {@link #getCustomersAfter} or {@link #forEachCustomer}.
+     */
+    @Deprecated
     List<Customer> getAllCustomers();
 
+    CustomerPage getCustomersAfter(Long afterId, int limit);
+
+    void forEachCustomer(Consumer<Customer> action);
+
     Customer getCustomerById(Long id);
 
     Customer getCustomerByEmail(String email);
@@ -0,0 +1,19 @@
+package com.rewards.service;
+
+import com.rewards.dto.LedgerReconciliationDTO;
+import com.rewards.dto.PointsBalanceDTO;
+import com.rewards.model.Transaction;
+
+import java.util.List;
+
+public interface PointsLedgerService {
+    void recordTransaction(Transaction transaction);
+
+    void recordTransactions(List<Transaction> transactions);
+
+    PointsBalanceDTO getBalance(Long customerId);
+
+    long flushPendingPoints();
+
+    LedgerReconciliationDTO reconcile(boolean repair);
+}
@@ -0,0 +1,8 @@
+package com.rewards.service;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface RewardExportService {
+    void exportRewards(Integer months, LocalDate from, LocalDate to, OutputStream out);
+}
@@ -0,0 +1,11 @@
+package com.rewards.service;
+
+import com.rewards.dto.RewardRecomputeProgressDTO;
+
+public interface RewardRecomputeService {
+    RewardRecomputeProgressDTO recompute();
+
+    RewardRecomputeProgressDTO start();
+
+    RewardRecomputeProgressDTO getProgress();
+}
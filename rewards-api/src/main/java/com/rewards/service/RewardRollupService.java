@@ -0,0 +1,17 @@
+package com.rewards.service;
+
+import com.rewards.model.Transaction;
+
+import java.util.List;
+
+public interface RewardRollupService {
+    void recordTransaction(Transaction transaction);
+
+    void recordTransactions(List<Transaction> transactions);
+
+    long flushPendingMonths();
+
+    void rebuildAll();
+
+    boolean rebuildIfRulesChanged();
+}
@@ -0,0 +1,12 @@
+package com.rewards.service;
+
+import com.rewards.dto.RewardRulesDTO;
+import com.rewards.rules.RewardRuleDefinition;
+
+public interface RewardRuleService {
+    RewardRulesDTO getRules();
+
+    RewardRulesDTO saveVersion(RewardRuleDefinition version);
+
+    RewardRulesDTO reload();
+}
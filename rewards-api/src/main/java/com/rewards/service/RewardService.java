@@ -1,9 +1,29 @@
 package com.rewards.service;
 
 import com.rewards.dto.RewardResponseDTO;
+import com.rewards.util.RewardProjection;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
 
 public interface RewardService {
-    RewardResponseDTO calculateRewards(Long customerId, Integer months, LocalDate from, LocalDate to);
+    RewardResponseDTO calculateRewards(Long customerId, Integer months, LocalDate from, LocalDate to,
+                                       boolean includeEmptyMonths);
+
+    RewardResponseDTO calculateRewards(Long customerId, Integer months, LocalDate from, LocalDate to,
+                                       boolean includeEmptyMonths, RewardProjection projection);
+
+    /**
+     * Entity tag of the response {@link #calculateRewards} returns for the same arguments, computed without
+     * loading the customer or transactions; null when the customer has no transactions.
+     */
+    String rewardsETag(Long customerId, Integer months, LocalDate from, LocalDate to, boolean includeEmptyMonths,
+                       RewardProjection projection);
+
+    RewardResponseDTO calculateRewardSummary(Long customerId, Integer months, LocalDate from, LocalDate to,
+                                             boolean includeEmptyMonths);
+
+    Map<Long, RewardResponseDTO> calculateRewardsBulk(Collection<Long> customerIds, Integer months, LocalDate from,
+                                                      LocalDate to, boolean includeEmptyMonths);
 }
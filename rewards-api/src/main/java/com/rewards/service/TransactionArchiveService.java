@@ -0,0 +1,8 @@
+package com.rewards.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface TransactionArchiveService {
+    List<YearMonth> archiveAgedMonths();
+}
@@ -0,0 +1,9 @@
+package com.rewards.service;
+
+import com.rewards.dto.BatchIngestResponseDTO;
+
+import java.io.InputStream;
+
+public interface TransactionBatchService {
+    BatchIngestResponseDTO createTransactions(InputStream body);
+}
@@ -0,0 +1,7 @@
+package com.rewards.service;
+
+import com.rewards.util.TransactionPartitionPlan;
+
+public interface TransactionPartitionService {
+    TransactionPartitionPlan maintainPartitions();
+}
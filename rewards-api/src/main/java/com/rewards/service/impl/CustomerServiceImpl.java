@@ -1,20 +1,33 @@
 package com.rewards.service.impl;
 
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.config.ReplicaStalenessGuard;
+import com.rewards.dto.CustomerPage;
 import com.rewards.model.Customer;
 import com.rewards.repository.CustomerRepository;
 import com.rewards.service.CustomerService;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final int STREAM_PAGE_SIZE = 1000;
+
     private final CustomerRepository customerRepository;
+    private final CustomerIdentityCache customerIdentityCache;
+    private final ReplicaStalenessGuard stalenessGuard;
 
-    public CustomerServiceImpl(CustomerRepository customerRepository) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerIdentityCache customerIdentityCache,
+                               ReplicaStalenessGuard stalenessGuard) {
         this.customerRepository = customerRepository;
+        this.customerIdentityCache = customerIdentityCache;
+        this.stalenessGuard = stalenessGuard;
     }
 
     @Override
@@ -23,16 +36,52 @@ public class CustomerServiceImpl implements CustomerService {
         if ( customerRepository.existsByCustomerEmail( customer.getCustomerEmail( ) ) ) {
             throw new IllegalArgumentException( "Customer with email already exists" );
         }
-        return customerRepository.save( customer );
+        Customer saved = customerRepository.save( customer );
+        customerIdentityCache.put( saved );
+        stalenessGuard.pinAfterWrite( saved.getId( ) );
+        return saved;
     }
 
     @Override
+    @Deprecated
     public List<Customer> getAllCustomers() {
         return customerRepository.findAll( );
     }
 
+    /**
+     * Returns up to {@code limit} customers with an id greater than {@code afterId} (from the start when null).
+     * One extra row is read to tell whether another page follows.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPage getCustomersAfter(Long afterId, int limit) {
+        List<Customer> rows = customerRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? 0L : afterId, Limit.of( limit + 1 ) );
+        if ( rows.size( ) <= limit ) {
+            return new CustomerPage( rows, null );
+        }
+        List<Customer> page = rows.subList( 0, limit );
+        return new CustomerPage( page, page.get( limit - 1 ).getId( ) );
+    }
+
+    /**
+     * Visits every customer in id order, holding one keyset page in memory at a time.
+     */
+    @Override
+    public void forEachCustomer(Consumer<Customer> action) {
+        Long afterId = null;
+        CustomerPage page;
+        do {
+            page = getCustomersAfter( afterId, STREAM_PAGE_SIZE );
+            page.customers( ).forEach( action );
+            afterId = page.nextAfterId( );
+        } while ( page.hasNext( ) );
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public Customer getCustomerById(Long id) {
+        stalenessGuard.readFor( id );
         return customerRepository.findById( id )
                 .orElseThrow( () -> new NoSuchElementException( "Customer not found with id " + id ) );
     }
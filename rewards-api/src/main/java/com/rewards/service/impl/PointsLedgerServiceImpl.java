@@ -0,0 +1,450 @@
+package com.rewards.service.impl;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.cache.PointsAccumulator;
+import com.rewards.dto.LedgerReconciliationDTO;
+import com.rewards.dto.PointsBalanceDTO;
+import com.rewards.model.Customer;
+import com.rewards.model.PointsLedgerEntry;
+import com.rewards.model.Transaction;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.LedgerTotal;
+import com.rewards.repository.PointsLedgerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.service.PointsLedgerService;
+import com.rewards.util.OptimisticRetryTemplate;
+import com.rewards.util.RewardPointsCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class PointsLedgerServiceImpl implements PointsLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger( PointsLedgerServiceImpl.class );
+
+    static final int RECONCILE_PAGE_SIZE = 1000;
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    private final PointsLedgerRepository ledgerRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive transactionArchive;
+    private final RewardPointsCalculator pointsCalculator;
+    private final OptimisticRetryTemplate retryTemplate;
+    private final TransactionTemplate readOnlyTemplate;
+    private final int reconcileParallelism;
+    private final PointsAccumulator pointsAccumulator;
+    private final boolean writeBehind;
+    /** Points drained from the accumulator by a flush that has not committed yet, still counted by balance reads. */
+    private final ConcurrentMap<Long, Long> flushingPoints = new ConcurrentHashMap<>( );
+    /**
+     * Held exclusively while pending points are drained, and again from just before their flush commits until they
+     * are taken back, so that a balance read never sees them in both places or in neither, yet never waits for the
+     * flush's writes.
+     */
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock( );
+
+    public PointsLedgerServiceImpl(PointsLedgerRepository ledgerRepository,
+                                   CustomerRepository customerRepository,
+                                   TransactionRepository transactionRepository,
+                                   TransactionArchive transactionArchive,
+                                   RewardPointsCalculator pointsCalculator,
+                                   OptimisticRetryTemplate retryTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${rewards.ledger.reconcile-parallelism:4}") int reconcileParallelism,
+                                   PointsAccumulator pointsAccumulator,
+                                   @Value("${rewards.ledger.write-behind.enabled:false}") boolean writeBehind) {
+        if ( reconcileParallelism < 1 ) {
+            throw new IllegalArgumentException( "rewards.ledger.reconcile-parallelism must be at least 1" );
+        }
+        this.ledgerRepository = ledgerRepository;
+        this.customerRepository = customerRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionArchive = transactionArchive;
+        this.pointsCalculator = pointsCalculator;
+        this.retryTemplate = retryTemplate;
+        this.readOnlyTemplate = new TransactionTemplate( transactionManager );
+        this.readOnlyTemplate.setReadOnly( true );
+        this.reconcileParallelism = reconcileParallelism;
+        this.pointsAccumulator = pointsAccumulator;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Appends an EARN entry for a newly saved transaction and moves the customer's balance, inside the caller's
+     * DB transaction. The balance update carries the customer's version, so a concurrent writer makes the caller's
+     * commit fail with an optimistic lock exception rather than overwrite it.
+     * <p>
+     * In write-behind mode the customer row is not touched: the points go to the accumulator once the caller
+     * commits and reach the balance with the next {@link #flushPendingPoints() flush}.
+     */
+    @Override
+    @Transactional
+    public void recordTransaction(Transaction transaction) {
+        if ( writeBehind ) {
+            accumulateAfterCommit( Map.of( transaction.getCustomer( ).getId( ),
+                    (long) pointsCalculator.calculatePoints( transaction ) ) );
+            return;
+        }
+        Customer customer = loadCustomer( transaction.getCustomer( ).getId( ) );
+        long points = pointsCalculator.calculatePoints( transaction );
+        long balance = Math.addExact( customer.getPointsBalance( ), points );
+        customer.setPointsBalance( balance );
+        ledgerRepository.save( PointsLedgerEntry.earned( customer.getId( ), transaction.getId( ), points, balance ) );
+    }
+
+    /**
+     * Ledger entries for a chunk of saved transactions, with one balance update per customer.
+     */
+    @Override
+    @Transactional
+    public void recordTransactions(List<Transaction> transactions) {
+        if ( writeBehind ) {
+            Map<Long, Long> points = new HashMap<>( );
+            for ( Transaction tx : transactions ) {
+                points.merge( tx.getCustomer( ).getId( ), (long) pointsCalculator.calculatePoints( tx ), Math::addExact );
+            }
+            accumulateAfterCommit( points );
+            return;
+        }
+        Map<Long, List<Transaction>> byCustomer = new LinkedHashMap<>( );
+        for ( Transaction tx : transactions ) {
+            byCustomer.computeIfAbsent( tx.getCustomer( ).getId( ), id -> new ArrayList<>( ) ).add( tx );
+        }
+        Map<Long, Customer> customers = new HashMap<>( );
+        customerRepository.findAllById( byCustomer.keySet( ) ).forEach( c -> customers.put( c.getId( ), c ) );
+
+        List<PointsLedgerEntry> entries = new ArrayList<>( transactions.size( ) );
+        byCustomer.forEach( (customerId, customerTransactions) -> {
+            Customer customer = customers.get( customerId );
+            if ( customer == null ) {
+                throw new NoSuchElementException( "Customer not found with id: " + customerId );
+            }
+            long balance = customer.getPointsBalance( );
+            for ( Transaction tx : customerTransactions ) {
+                long points = pointsCalculator.calculatePoints( tx );
+                balance = Math.addExact( balance, points );
+                entries.add( PointsLedgerEntry.earned( customerId, tx.getId( ), points, balance ) );
+            }
+            customer.setPointsBalance( balance );
+        } );
+        ledgerRepository.saveAll( entries );
+    }
+
+    /**
+     * The stored balance plus, in write-behind mode, the points committed since the last flush and those of a flush
+     * still in progress.
+     */
+    @Override
+    public PointsBalanceDTO getBalance(Long customerId) {
+        flushLock.readLock( ).lock( );
+        try {
+            return customerRepository.findPointsBalanceById( customerId )
+                    .map( balance -> new PointsBalanceDTO( customerId, balance + pointsAccumulator.pending( customerId )
+                            + flushingPoints.getOrDefault( customerId, 0L ) ) )
+                    .orElseThrow( () -> new NoSuchElementException( "Customer not found with id: " + customerId ) );
+        } finally {
+            flushLock.readLock( ).unlock( );
+        }
+    }
+
+    /**
+     * Moves the accumulated points into the stored balances, {@value #FLUSH_BATCH_SIZE} customers per retried DB
+     * transaction, with one balance update and one coalesced EARN entry per customer. Balance reads wait only while
+     * a batch is drained and while it commits; a batch that cannot be written goes back into the accumulator for
+     * the next flush.
+     */
+    @Override
+    public long flushPendingPoints() {
+        List<Long> customerIds = pointsAccumulator.customerIds( );
+        long flushed = 0;
+        for ( int from = 0; from < customerIds.size( ); from += FLUSH_BATCH_SIZE ) {
+            List<Long> batch = customerIds.subList( from, Math.min( from + FLUSH_BATCH_SIZE, customerIds.size( ) ) );
+            Map<Long, Long> drained;
+            flushLock.writeLock( ).lock( );
+            try {
+                drained = pointsAccumulator.drain( batch );
+                drained.forEach( (customerId, points) -> flushingPoints.merge( customerId, points, Long::sum ) );
+            } finally {
+                flushLock.writeLock( ).unlock( );
+            }
+            if ( drained.isEmpty( ) ) {
+                continue;
+            }
+            try {
+                retryTemplate.execute( status -> {
+                    applyPendingPoints( drained );
+                    customerRepository.flush( );
+                    takeBackAtCommit( drained );
+                    return null;
+                } );
+            } catch ( RuntimeException ex ) {
+                flushLock.writeLock( ).lock( );
+                try {
+                    takeBack( drained );
+                    pointsAccumulator.restore( drained );
+                } finally {
+                    flushLock.writeLock( ).unlock( );
+                }
+                throw ex;
+            }
+            flushed += drained.size( );
+        }
+        return flushed;
+    }
+
+    /**
+     * Checks every customer's stored balance against the sum of their ledger entries and the ledger against the
+     * points their raw transactions earn under the current rules. Customers are read in id pages of
+     * {@value #RECONCILE_PAGE_SIZE}, checked on {@code rewards.ledger.reconcile-parallelism} threads in read-only
+     * DB transactions. With {@code repair}, each mismatched customer is rewritten in its own retried DB
+     * transaction: the balance is set to the expected points and the difference is posted as an ADJUSTMENT entry.
+     * <p>
+     * In write-behind mode only this instance's pending points are flushed first, so the check may report customers
+     * whose points are still pending elsewhere, and {@code repair} is refused: the expected points already include
+     * those transactions, so their points would be credited a second time when the other instance flushes.
+     */
+    @Override
+    public LedgerReconciliationDTO reconcile(boolean repair) {
+        if ( repair && writeBehind ) {
+            throw new IllegalStateException( "Ledger repair is not available while rewards.ledger.write-behind.enabled "
+                    + "is on: points still pending in an instance's accumulator would be credited twice" );
+        }
+        long start = System.nanoTime( );
+        if ( writeBehind ) {
+            flushPendingPoints( );
+        }
+        LedgerReconciliationDTO result = new LedgerReconciliationDTO( );
+        Deque<Future<PageResult>> inFlight = new ArrayDeque<>( );
+
+        try ( ExecutorService workers = Executors.newFixedThreadPool( reconcileParallelism ) ) {
+            long afterId = 0;
+            List<Long> ids;
+            do {
+                ids = customerRepository.findIdsAfter( afterId, Limit.of( RECONCILE_PAGE_SIZE ) );
+                if ( ids.isEmpty( ) ) {
+                    break;
+                }
+                List<Long> page = ids;
+                inFlight.add( workers.submit( ( ) -> checkPage( page, repair ) ) );
+                afterId = ids.get( ids.size( ) - 1 );
+                // Keep at most one page queued per worker so a large table is not held in memory.
+                if ( inFlight.size( ) > reconcileParallelism ) {
+                    merge( inFlight.poll( ), result );
+                }
+            } while ( ids.size( ) == RECONCILE_PAGE_SIZE );
+
+            while ( !inFlight.isEmpty( ) ) {
+                merge( inFlight.poll( ), result );
+            }
+        }
+
+        result.setDurationMs( (System.nanoTime( ) - start) / 1_000_000 );
+        if ( result.getMismatches( ) > 0 ) {
+            log.warn( "Points ledger reconciliation checked {} customers => {} mismatched, {} repaired, e.g. {}",
+                    result.getCustomersChecked( ), result.getMismatches( ), result.getRepaired( ),
+                    result.getMismatchedCustomerIds( ) );
+        } else {
+            log.info( "Points ledger reconciliation checked {} customers in {} ms, no mismatches",
+                    result.getCustomersChecked( ), result.getDurationMs( ) );
+        }
+        return result;
+    }
+
+    private record PageResult(int checked, List<Long> mismatched, int repaired) {
+    }
+
+    /**
+     * Registers the points to be added to the accumulator once the current DB transaction commits, so that a
+     * rolled-back write never reaches a balance.
+     */
+    private void accumulateAfterCommit(Map<Long, Long> points) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            points.forEach( pointsAccumulator::add );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+            @Override
+            public void afterCommit() {
+                points.forEach( pointsAccumulator::add );
+            }
+        } );
+    }
+
+    /**
+     * Takes flushed points back out of the in-progress ones as the current DB transaction commits, with the flush
+     * lock held from just before the commit, so that a balance read sees them either here or in the stored balance;
+     * a rolled-back attempt takes back nothing.
+     */
+    private void takeBackAtCommit(Map<Long, Long> points) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            flushLock.writeLock( ).lock( );
+            try {
+                takeBack( points );
+            } finally {
+                flushLock.writeLock( ).unlock( );
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+            @Override
+            public void beforeCompletion() {
+                flushLock.writeLock( ).lock( );
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if ( !flushLock.isWriteLockedByCurrentThread( ) ) {
+                    return;
+                }
+                try {
+                    if ( status == STATUS_COMMITTED ) {
+                        takeBack( points );
+                    }
+                } finally {
+                    flushLock.writeLock( ).unlock( );
+                }
+            }
+        } );
+    }
+
+    private void takeBack(Map<Long, Long> points) {
+        points.forEach( (customerId, taken) ->
+                flushingPoints.computeIfPresent( customerId, (id, flushing) -> flushing > taken ? flushing - taken : null ) );
+    }
+
+    private void applyPendingPoints(Map<Long, Long> points) {
+        List<PointsLedgerEntry> entries = new ArrayList<>( points.size( ) );
+        for ( Customer customer : customerRepository.findAllById( points.keySet( ) ) ) {
+            long earned = points.get( customer.getId( ) );
+            long balance = Math.addExact( customer.getPointsBalance( ), earned );
+            customer.setPointsBalance( balance );
+            entries.add( PointsLedgerEntry.earned( customer.getId( ), null, earned, balance ) );
+        }
+        if ( entries.size( ) < points.size( ) ) {
+            log.warn( "Dropped pending points of {} customers that no longer exist", points.size( ) - entries.size( ) );
+        }
+        ledgerRepository.saveAll( entries );
+    }
+
+    private PageResult checkPage(List<Long> customerIds, boolean repair) {
+        List<Long> mismatched = readOnlyTemplate.execute( status -> findMismatches( customerIds ) );
+        int repaired = 0;
+        if ( repair ) {
+            for ( Long customerId : mismatched ) {
+                if ( Boolean.TRUE.equals( retryTemplate.execute( status -> repairCustomer( customerId ) ) ) ) {
+                    repaired++;
+                }
+            }
+        }
+        return new PageResult( customerIds.size( ), mismatched, repaired );
+    }
+
+    /**
+     * Customers of the page whose balance, ledger sum and transaction points do not all agree.
+     */
+    private List<Long> findMismatches(Collection<Long> customerIds) {
+        Map<Long, Long> expected = expectedPoints( customerIds );
+        List<Long> mismatched = new ArrayList<>( );
+        for ( LedgerTotal total : ledgerRepository.findTotalsByCustomerIdIn( customerIds ) ) {
+            long earned = expected.getOrDefault( total.customerId( ), 0L );
+            long pending = pointsAccumulator.pending( total.customerId( ) );
+            if ( total.balance( ) != total.ledgerPoints( ) || total.ledgerPoints( ) + pending != earned ) {
+                mismatched.add( total.customerId( ) );
+            }
+        }
+        return mismatched;
+    }
+
+    /**
+     * Re-checks one customer under their current version and brings balance and ledger back to the points their
+     * transactions earn. Returns false when a concurrent write already made them agree. Only used without
+     * write-behind, where every committed transaction's points are already in the ledger and the balance, so a
+     * concurrent write fails this DB transaction's optimistic lock instead of being counted twice.
+     */
+    private boolean repairCustomer(Long customerId) {
+        Customer customer = loadCustomer( customerId );
+        long ledgerPoints = ledgerRepository.sumPointsByCustomerId( customerId );
+        long earned = expectedPoints( List.of( customerId ) ).getOrDefault( customerId, 0L );
+        if ( customer.getPointsBalance( ) == ledgerPoints && ledgerPoints == earned ) {
+            return false;
+        }
+        if ( ledgerPoints != earned ) {
+            ledgerRepository.save( PointsLedgerEntry.adjustment( customerId, earned - ledgerPoints, earned ) );
+        }
+        customer.setPointsBalance( earned );
+        return true;
+    }
+
+    /** Points of the customers' whole history, in the table and in the archive, each transaction counted once. */
+    private Map<Long, Long> expectedPoints(Collection<Long> customerIds) {
+        Map<Long, Long> points = new HashMap<>( );
+        Set<Long> liveArchivedIds = new HashSet<>( );
+        for ( TransactionRow row : transactionRepository.findRowsByCustomerIdIn( customerIds ) ) {
+            if ( transactionArchive.contains( YearMonth.from( row.transactionDate( ) ) ) ) {
+                liveArchivedIds.add( row.id( ) );
+            }
+            points.merge( row.customerId( ), (long) pointsCalculator.calculatePoints( row ), Math::addExact );
+        }
+        for ( Long customerId : customerIds ) {
+            transactionArchive.forEachRow( customerId, null, null, row -> {
+                if ( !liveArchivedIds.contains( row.id( ) ) ) {
+                    points.merge( customerId, (long) pointsCalculator.calculatePoints( row ), Math::addExact );
+                }
+            } );
+        }
+        return points;
+    }
+
+    private Customer loadCustomer(Long customerId) {
+        return customerRepository.findById( customerId )
+                .orElseThrow( () -> new NoSuchElementException( "Customer not found with id: " + customerId ) );
+    }
+
+    private static void merge(Future<PageResult> future, LedgerReconciliationDTO result) {
+        PageResult page;
+        try {
+            page = future.get( );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread( ).interrupt( );
+            throw new IllegalStateException( "Interrupted during points ledger reconciliation", e );
+        } catch ( ExecutionException e ) {
+            if ( e.getCause( ) instanceof RuntimeException cause ) {
+                throw cause;
+            }
+            throw new IllegalStateException( "Points ledger reconciliation failed", e.getCause( ) );
+        }
+        result.setCustomersChecked( result.getCustomersChecked( ) + page.checked( ) );
+        result.setRepaired( result.getRepaired( ) + page.repaired( ) );
+        page.mismatched( ).forEach( result::addMismatch );
+    }
+}
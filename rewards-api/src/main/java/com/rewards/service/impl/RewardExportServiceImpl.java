@@ -0,0 +1,138 @@
+package com.rewards.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.rewards.archive.TransactionArchive;
+import com.rewards.mapper.RewardMapper;
+import com.rewards.model.Customer;
+import com.rewards.repository.TransactionStreamRepository;
+import com.rewards.repository.TransactionStreamRepository.CustomerTransactionRow;
+import com.rewards.service.RewardExportService;
+import com.rewards.util.MonthlyRewardAggregator;
+import com.rewards.util.RewardDateRange;
+import com.rewards.util.RewardPointsCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Service
+public class RewardExportServiceImpl implements RewardExportService {
+
+    private static final Logger log = LoggerFactory.getLogger( RewardExportServiceImpl.class );
+
+    private final TransactionStreamRepository transactionStreamRepository;
+    private final RewardMapper rewardMapper;
+    private final RewardPointsCalculator pointsCalculator;
+    private final ObjectMapper objectMapper;
+    private final TransactionArchive transactionArchive;
+
+    public RewardExportServiceImpl(TransactionStreamRepository transactionStreamRepository,
+                                   RewardMapper rewardMapper,
+                                   RewardPointsCalculator pointsCalculator,
+                                   ObjectMapper objectMapper,
+                                   TransactionArchive transactionArchive) {
+        this.transactionStreamRepository = transactionStreamRepository;
+        this.rewardMapper = rewardMapper;
+        this.pointsCalculator = pointsCalculator;
+        this.objectMapper = objectMapper;
+        this.transactionArchive = transactionArchive;
+    }
+
+    /**
+     * Accumulates the current customer's rewards while the cursor is on that customer's rows, and writes the
+     * summary out as soon as the cursor moves on to the next customer. When the range reaches into archived
+     * months, the customer's archived rows are added before the summary is written, skipping those the table
+     * still holds.
+     */
+    private final class ExportCursor implements Consumer<CustomerTransactionRow> {
+        private final SequenceWriter writer;
+        private final RewardDateRange range;
+        private final MonthlyRewardAggregator monthlyRewards;
+        private final boolean archived;
+        private final Set<Long> liveArchivedIds = new HashSet<>( );
+        private Customer customer;
+        private long customers;
+
+        private ExportCursor(SequenceWriter writer, RewardDateRange range) {
+            this.writer = writer;
+            this.range = range;
+            this.monthlyRewards = new MonthlyRewardAggregator( range.start( ), range.end( ) );
+            this.archived = transactionArchive.covers( range.start( ), range.end( ) );
+        }
+
+        @Override
+        public void accept(CustomerTransactionRow row) {
+            if ( customer == null || customer.getId( ) != row.customerId( ) ) {
+                flush( );
+                customer = new Customer( );
+                customer.setId( row.customerId( ) );
+                customer.setCustomerName( row.customerName( ) );
+                customer.setCustomerEmail( row.customerEmail( ) );
+                monthlyRewards.reset( );
+                liveArchivedIds.clear( );
+                customers++;
+            }
+            if ( row.transactionId( ) != null ) {
+                if ( archived && transactionArchive.contains( YearMonth.from( row.transactionDate( ) ) ) ) {
+                    liveArchivedIds.add( row.transactionId( ) );
+                }
+                int points = pointsCalculator.calculatePoints( row.amountCents( ), row.amount( ),
+                        row.transactionDate( ), row.category( ) );
+                monthlyRewards.add( row.transactionDate( ), points );
+            }
+        }
+
+        private void flush() {
+            if ( customer == null ) {
+                return;
+            }
+            if ( archived ) {
+                transactionArchive.forEachRow( customer.getId( ), range.start( ), range.end( ), row -> {
+                    if ( !liveArchivedIds.contains( row.id( ) ) ) {
+                        monthlyRewards.add( row.transactionDate( ), pointsCalculator.calculatePoints( row ) );
+                    }
+                } );
+            }
+            try {
+                writer.write( rewardMapper.maptoRewardResponse(
+                        customer, range.start( ), range.end( ), null,
+                        monthlyRewards.toMonthlyRewards( false ), monthlyRewards.totalPoints( ) ) );
+            } catch ( IOException ex ) {
+                throw new UncheckedIOException( ex );
+            }
+        }
+    }
+
+    /**
+     * Writes one reward summary per customer as NDJSON. Rows arrive ordered by customer, so only the current
+     * customer's monthly totals, and the ids of their rows in archived months, are held in memory regardless of
+     * how many customers are exported.
+     */
+    @Override
+    public void exportRewards(Integer months, LocalDate from, LocalDate to, OutputStream out) {
+        RewardDateRange range = RewardDateRange.resolveBounded( months, from, to );
+
+        try ( SequenceWriter writer = objectMapper.writer( ).withRootValueSeparator( "\n" ).writeValues( out ) ) {
+            ExportCursor cursor = new ExportCursor( writer, range );
+            transactionStreamRepository.streamCustomerTransactions( range.start( ), range.end( ), cursor );
+            cursor.flush( );
+            writer.flush( );
+            if ( cursor.customers > 0 ) {
+                out.write( '\n' );
+            }
+
+            log.info( "Exported rewards for {} customers from {} to {}", cursor.customers, range.start( ), range.end( ) );
+        } catch ( IOException ex ) {
+            throw new UncheckedIOException( ex );
+        }
+    }
+}
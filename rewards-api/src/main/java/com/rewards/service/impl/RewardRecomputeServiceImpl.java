@@ -0,0 +1,373 @@
+package com.rewards.service.impl;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.dto.RewardRecomputeProgressDTO;
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.MonthlyRewardId;
+import com.rewards.model.RewardRecomputeJob;
+import com.rewards.model.RewardRecomputePartition;
+import com.rewards.model.RewardRollupState;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.MonthlyRewardBatchRepository;
+import com.rewards.repository.RewardRecomputeJobRepository;
+import com.rewards.repository.RewardRecomputePartitionRepository;
+import com.rewards.repository.RewardRollupStateRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.service.RewardRecomputeService;
+import com.rewards.util.RewardPointsCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Recomputes the {@code monthly_rewards} rollup of every customer from the raw transactions, for rule changes
+ * that reach back over years of history. Customers are split into id ranges of {@code partition-size}; a
+ * {@link ForkJoinPool} of {@code parallelism} workers splits the ranges recursively and recomputes each one in
+ * its own DB transaction: delete the range's months, stream its transactions through a forward-only cursor and
+ * read its archived ones from the {@link TransactionArchive}, write the new months with batched upserts and checkpoint the range.
+ * <p>
+ * A run scores the whole history under the rules installed when it started. If other rules are installed while
+ * it runs, it stops as {@code SUPERSEDED} and leaves the rollup state alone for the next run. A run under the
+ * same rules and partition size as an unfinished one resumes it, skipping the checkpointed ranges. Runs are not
+ * coordinated across instances; start them on one instance only.
+ */
+@Service
+public class RewardRecomputeServiceImpl implements RewardRecomputeService, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger( RewardRecomputeServiceImpl.class );
+
+    private final TransactionStreamRepository transactionStreamRepository;
+    private final TransactionArchive transactionArchive;
+    private final MonthlyRewardBatchRepository monthlyRewardBatchRepository;
+    private final CustomerRepository customerRepository;
+    private final RewardRecomputeJobRepository jobRepository;
+    private final RewardRecomputePartitionRepository partitionRepository;
+    private final RewardRollupStateRepository rollupStateRepository;
+    private final RewardPointsCalculator pointsCalculator;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final int partitionSize;
+    /** One run at a time; a semaphore rather than a lock, so {@link #start()} can hand its permit to the worker. */
+    private final Semaphore runPermit = new Semaphore( 1 );
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform( ).name( "reward-recompute" ).daemon( ).factory( ) );
+    private volatile Run current;
+
+    public RewardRecomputeServiceImpl(TransactionStreamRepository transactionStreamRepository,
+                                      TransactionArchive transactionArchive,
+                                      MonthlyRewardBatchRepository monthlyRewardBatchRepository,
+                                      CustomerRepository customerRepository,
+                                      RewardRecomputeJobRepository jobRepository,
+                                      RewardRecomputePartitionRepository partitionRepository,
+                                      RewardRollupStateRepository rollupStateRepository,
+                                      RewardPointsCalculator pointsCalculator,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${rewards.recompute.parallelism:4}") int parallelism,
+                                      @Value("${rewards.recompute.partition-size:1000}") int partitionSize) {
+        if ( parallelism < 1 ) {
+            throw new IllegalArgumentException( "rewards.recompute.parallelism must be at least 1" );
+        }
+        if ( partitionSize < 1 ) {
+            throw new IllegalArgumentException( "rewards.recompute.partition-size must be at least 1" );
+        }
+        this.transactionStreamRepository = transactionStreamRepository;
+        this.transactionArchive = transactionArchive;
+        this.monthlyRewardBatchRepository = monthlyRewardBatchRepository;
+        this.customerRepository = customerRepository;
+        this.jobRepository = jobRepository;
+        this.partitionRepository = partitionRepository;
+        this.rollupStateRepository = rollupStateRepository;
+        this.pointsCalculator = pointsCalculator;
+        this.transactionTemplate = new TransactionTemplate( transactionManager );
+        this.parallelism = parallelism;
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Runs a recomputation on the calling thread, after any run in progress, and returns its final progress.
+     */
+    @Override
+    public RewardRecomputeProgressDTO recompute() {
+        runPermit.acquireUninterruptibly( );
+        try {
+            Run run = begin( );
+            execute( run );
+            return run.toDTO( );
+        } finally {
+            runPermit.release( );
+        }
+    }
+
+    /**
+     * Starts a recomputation in the background and returns its initial progress. Throws
+     * {@link IllegalStateException} while another run is in progress.
+     */
+    @Override
+    public RewardRecomputeProgressDTO start() {
+        if ( !runPermit.tryAcquire( ) ) {
+            throw new IllegalStateException( "A reward recomputation is already running" );
+        }
+        try {
+            Run run = begin( );
+            RewardRecomputeProgressDTO started = run.toDTO( );
+            launcher.submit( ( ) -> {
+                try {
+                    execute( run );
+                } catch ( RuntimeException ex ) {
+                    // already logged and recorded as FAILED
+                } finally {
+                    runPermit.release( );
+                }
+            } );
+            return started;
+        } catch ( RuntimeException ex ) {
+            runPermit.release( );
+            throw ex;
+        }
+    }
+
+    @Override
+    public RewardRecomputeProgressDTO getProgress() {
+        Run run = current;
+        if ( run == null ) {
+            RewardRecomputeProgressDTO idle = new RewardRecomputeProgressDTO( );
+            idle.setStatus( "IDLE" );
+            return idle;
+        }
+        return run.toDTO( );
+    }
+
+    @Override
+    public void destroy() {
+        launcher.shutdownNow( );
+    }
+
+    /** Opens a new job, or reopens the latest one when it is unfinished and was started under the same rules. */
+    private Run begin() {
+        CompiledRewardRules rules = pointsCalculator.rules( );
+        RewardRecomputeJob resumable = jobRepository.findFirstByOrderByIdDesc( )
+                .filter( job -> job.getStatus( ) != RewardRecomputeJob.Status.COMPLETED )
+                .filter( job -> job.getRulesFingerprint( ).equals( rules.fingerprint( ) ) )
+                .filter( job -> job.getPartitionSize( ) == partitionSize )
+                .orElse( null );
+
+        RewardRecomputeJob job;
+        List<RewardRecomputePartition> finished;
+        if ( resumable != null ) {
+            resumable.resume( );
+            job = jobRepository.save( resumable );
+            finished = partitionRepository.findByJobId( job.getId( ) );
+        } else {
+            Long maxCustomerId = customerRepository.findMaxId( );
+            job = jobRepository.save( new RewardRecomputeJob( rules.fingerprint( ), partitionSize,
+                    maxCustomerId == null ? 0 : maxCustomerId ) );
+            finished = List.of( );
+        }
+
+        Run run = new Run( job, rules, finished );
+        current = run;
+        log.info( "Recomputing reward rollups under rules {}: job {}, {} partitions of {} customer ids, {} already done",
+                rules.fingerprint( ), job.getId( ), job.getPartitions( ), partitionSize, finished.size( ) );
+        return run;
+    }
+
+    private void execute(Run run) {
+        try {
+            if ( run.job.getPartitions( ) > 0 ) {
+                ForkJoinPool pool = new ForkJoinPool( parallelism );
+                try {
+                    pool.invoke( new PartitionRange( run, 0, run.job.getPartitions( ) ) );
+                } finally {
+                    pool.shutdown( );
+                }
+            }
+        } catch ( RuntimeException ex ) {
+            jobRepository.save( run.finish( RewardRecomputeJob.Status.FAILED ) );
+            log.error( "Reward recomputation job {} failed after {} of {} partitions",
+                    run.job.getId( ), run.done.get( ), run.job.getPartitions( ), ex );
+            throw ex;
+        }
+
+        if ( run.superseded ) {
+            jobRepository.save( run.finish( RewardRecomputeJob.Status.SUPERSEDED ) );
+            log.info( "Reward recomputation job {} stopped: rules changed from {} to {}",
+                    run.job.getId( ), run.rules.fingerprint( ), pointsCalculator.rulesFingerprint( ) );
+            return;
+        }
+        jobRepository.save( run.finish( RewardRecomputeJob.Status.COMPLETED ) );
+        rollupStateRepository.save( new RewardRollupState( RewardRollupServiceImpl.MONTHLY_ROLLUP,
+                run.rules.fingerprint( ), LocalDateTime.now( ) ) );
+        log.info( "Recomputed reward rollups under rules {}: {} transactions into {} months in {} ms",
+                run.rules.fingerprint( ), run.transactions.sum( ), run.months.sum( ), run.elapsedMs( ) );
+    }
+
+    /**
+     * Replaces the months of customers {@code (index * partitionSize, (index + 1) * partitionSize]} in one DB
+     * transaction, together with the partition's checkpoint. The range is deleted before it is read, so on InnoDB
+     * live writes into it wait for the commit instead of landing between the read and the write.
+     */
+    private void recomputePartition(Run run, int index) {
+        if ( run.checkpointed.get( index ) || run.superseded ) {
+            return;
+        }
+        if ( !run.rules.fingerprint( ).equals( pointsCalculator.rulesFingerprint( ) ) ) {
+            run.superseded = true;
+            return;
+        }
+        long afterId = (long) index * partitionSize;
+        long toId = afterId + partitionSize;
+
+        RewardRecomputePartition checkpoint = transactionTemplate.execute( status -> {
+            monthlyRewardBatchRepository.deleteCustomerRange( afterId, toId );
+            Map<MonthlyRewardId, MonthlyReward> months = new LinkedHashMap<>( );
+            long[] transactions = {0};
+            Consumer<TransactionRow> score = row -> {
+                LocalDate month = row.transactionDate( ).withDayOfMonth( 1 );
+                months.computeIfAbsent( new MonthlyRewardId( row.customerId( ), month ),
+                                id -> new MonthlyReward( row.customerId( ), month ) )
+                        .addTransaction( RewardPointsCalculator.calculatePoints( run.rules, row ), row.amount( ) );
+                transactions[0]++;
+            };
+            // Rows of archived months that are still in the table are also in their segment; count them once.
+            Set<Long> liveArchivedIds = new HashSet<>( );
+            transactionStreamRepository.streamCustomerRange( afterId, toId, row -> {
+                if ( transactionArchive.contains( YearMonth.from( row.transactionDate( ) ) ) ) {
+                    liveArchivedIds.add( row.id( ) );
+                }
+                score.accept( row );
+            } );
+            transactionArchive.forEachRow( afterId, toId, row -> {
+                if ( !liveArchivedIds.contains( row.id( ) ) ) {
+                    score.accept( row );
+                }
+            } );
+            monthlyRewardBatchRepository.upsertAll( new ArrayList<>( months.values( ) ) );
+            return partitionRepository.save( new RewardRecomputePartition( run.job.getId( ), index, transactions[0], months.size( ) ) );
+        } );
+        run.partitionDone( checkpoint );
+    }
+
+    /** Halves a range of partition indexes until a single partition is left, then recomputes it. */
+    private final class PartitionRange extends RecursiveAction {
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        PartitionRange(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from == 1 ) {
+                recomputePartition( run, from );
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll( new PartitionRange( run, from, mid ), new PartitionRange( run, mid, to ) );
+        }
+    }
+
+    /** Progress of one run, shared by its workers. */
+    private static final class Run {
+        private final RewardRecomputeJob job;
+        private final CompiledRewardRules rules;
+        private final BitSet checkpointed = new BitSet( );
+        private final int resumed;
+        private final AtomicInteger done = new AtomicInteger( );
+        private final LongAdder transactions = new LongAdder( );
+        private final LongAdder months = new LongAdder( );
+        private final long startNanos = System.nanoTime( );
+        private volatile long endNanos;
+        private volatile RewardRecomputeJob.Status status = RewardRecomputeJob.Status.RUNNING;
+        private volatile boolean superseded;
+
+        Run(RewardRecomputeJob job, CompiledRewardRules rules, List<RewardRecomputePartition> finished) {
+            this.job = job;
+            this.rules = rules;
+            for ( RewardRecomputePartition partition : finished ) {
+                checkpointed.set( partition.getPartitionIndex( ) );
+                transactions.add( partition.getTransactions( ) );
+                months.add( partition.getMonths( ) );
+            }
+            this.resumed = finished.size( );
+            this.done.set( resumed );
+        }
+
+        void partitionDone(RewardRecomputePartition checkpoint) {
+            transactions.add( checkpoint.getTransactions( ) );
+            months.add( checkpoint.getMonths( ) );
+            int total = job.getPartitions( );
+            int finished = done.incrementAndGet( );
+            if ( finished * 10L / total > (finished - 1) * 10L / total ) {
+                log.info( "Reward recomputation job {}: {}/{} partitions, {} transactions, about {} s remaining",
+                        job.getId( ), finished, total, transactions.sum( ), remainingMs( finished ) / 1000 );
+            }
+        }
+
+        RewardRecomputeJob finish(RewardRecomputeJob.Status outcome) {
+            endNanos = System.nanoTime( );
+            job.finish( outcome );
+            status = outcome;
+            return job;
+        }
+
+        /** Time spent by this run, not counting the interrupted run it may have resumed. */
+        long elapsedMs() {
+            long end = status == RewardRecomputeJob.Status.RUNNING ? System.nanoTime( ) : endNanos;
+            return TimeUnit.NANOSECONDS.toMillis( end - startNanos );
+        }
+
+        Long remainingMs(int finished) {
+            int processed = finished - resumed;
+            return processed == 0 ? null : elapsedMs( ) * (job.getPartitions( ) - finished) / processed;
+        }
+
+        RewardRecomputeProgressDTO toDTO() {
+            int finished = done.get( );
+            RewardRecomputeProgressDTO dto = new RewardRecomputeProgressDTO( );
+            dto.setJobId( job.getId( ) );
+            dto.setStatus( status.name( ) );
+            dto.setRulesFingerprint( rules.fingerprint( ) );
+            dto.setPartitions( job.getPartitions( ) );
+            dto.setPartitionsDone( finished );
+            dto.setPartitionsResumed( resumed );
+            dto.setTransactions( transactions.sum( ) );
+            dto.setMonths( months.sum( ) );
+            dto.setStartedAt( job.getStartedAt( ) );
+            dto.setElapsedMs( elapsedMs( ) );
+            if ( status == RewardRecomputeJob.Status.RUNNING ) {
+                dto.setEstimatedRemainingMs( remainingMs( finished ) );
+            }
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.rewards.service.impl;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.cache.PendingRollupMonths;
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.MonthlyRewardId;
+import com.rewards.model.Transaction;
+import com.rewards.repository.MonthlyRewardBatchRepository;
+import com.rewards.repository.MonthlyRewardRepository;
+import com.rewards.repository.RewardRollupStateRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.service.RewardRecomputeService;
+import com.rewards.service.RewardRollupService;
+import com.rewards.util.RewardPointsCalculator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class RewardRollupServiceImpl implements RewardRollupService {
+
+    static final String MONTHLY_ROLLUP = "monthly_rewards";
+    static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final Comparator<MonthlyRewardId> MONTH_ORDER =
+            Comparator.comparing( MonthlyRewardId::getCustomerId ).thenComparing( MonthlyRewardId::getRewardMonth );
+
+    private final MonthlyRewardRepository monthlyRewardRepository;
+    private final RewardRollupStateRepository rollupStateRepository;
+    private final RewardPointsCalculator pointsCalculator;
+    private final RewardRecomputeService rewardRecomputeService;
+    private final MonthlyRewardBatchRepository monthlyRewardBatchRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchive transactionArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final PendingRollupMonths pendingRollupMonths;
+    private final boolean writeBehind;
+    /** One flush at a time, so that two never take back the same snapshot. */
+    private final ReentrantLock flushing = new ReentrantLock( );
+
+    public RewardRollupServiceImpl(MonthlyRewardRepository monthlyRewardRepository,
+                                   RewardRollupStateRepository rollupStateRepository,
+                                   RewardPointsCalculator pointsCalculator,
+                                   RewardRecomputeService rewardRecomputeService,
+                                   MonthlyRewardBatchRepository monthlyRewardBatchRepository,
+                                   TransactionRepository transactionRepository,
+                                   TransactionArchive transactionArchive,
+                                   PlatformTransactionManager transactionManager,
+                                   PendingRollupMonths pendingRollupMonths,
+                                   @Value("${rewards.ledger.write-behind.enabled:false}") boolean writeBehind) {
+        this.monthlyRewardRepository = monthlyRewardRepository;
+        this.rollupStateRepository = rollupStateRepository;
+        this.pointsCalculator = pointsCalculator;
+        this.rewardRecomputeService = rewardRecomputeService;
+        this.monthlyRewardBatchRepository = monthlyRewardBatchRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionArchive = transactionArchive;
+        this.transactionTemplate = new TransactionTemplate( transactionManager );
+        this.pendingRollupMonths = pendingRollupMonths;
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Adds a newly saved transaction to its customer's monthly rollup, inside the caller's DB transaction. In
+     * write-behind mode the month is only marked as behind once the caller commits, and the next
+     * {@link #flushPendingMonths() flush} recomputes it, so writes do not queue on the customer's rollup row.
+     */
+    @Override
+    @Transactional
+    public void recordTransaction(Transaction transaction) {
+        if ( writeBehind ) {
+            markAfterCommit( Map.of( new MonthlyRewardId( transaction.getCustomer( ).getId( ),
+                    transaction.getTransactionDate( ).withDayOfMonth( 1 ) ), 1 ) );
+            return;
+        }
+        monthlyRewardRepository.addToMonth(
+                transaction.getCustomer( ).getId( ),
+                transaction.getTransactionDate( ).withDayOfMonth( 1 ),
+                pointsCalculator.calculatePoints( transaction ),
+                transaction.getAmount( ),
+                1 );
+    }
+
+    /**
+     * Adds a chunk of saved transactions to the rollups with one upsert per customer and month.
+     */
+    @Override
+    @Transactional
+    public void recordTransactions(List<Transaction> transactions) {
+        if ( writeBehind ) {
+            Map<MonthlyRewardId, Integer> counts = new HashMap<>( );
+            for ( Transaction tx : transactions ) {
+                counts.merge( new MonthlyRewardId( tx.getCustomer( ).getId( ), tx.getTransactionDate( ).withDayOfMonth( 1 ) ),
+                        1, Integer::sum );
+            }
+            markAfterCommit( counts );
+            return;
+        }
+        Map<MonthlyRewardId, MonthlyReward> months = new HashMap<>( );
+        for ( Transaction tx : transactions ) {
+            Long customerId = tx.getCustomer( ).getId( );
+            LocalDate month = tx.getTransactionDate( ).withDayOfMonth( 1 );
+            months.computeIfAbsent( new MonthlyRewardId( customerId, month ), id -> new MonthlyReward( customerId, month ) )
+                    .addTransaction( pointsCalculator.calculatePoints( tx ), tx.getAmount( ) );
+        }
+        months.values( ).forEach( m -> monthlyRewardRepository.addToMonth(
+                m.getCustomerId( ), m.getRewardMonth( ), m.getPoints( ), m.getTotalSpend( ), m.getTransactionCount( ) ) );
+    }
+
+    /**
+     * Recomputes the months marked behind in write-behind mode, {@value #FLUSH_BATCH_SIZE} customers per DB
+     * transaction. Each batch first deletes its months, in key order, and only then reads their transactions, so a
+     * recomputation of the same month elsewhere (another instance, or a rebuild) holds it back or waits for it
+     * instead of being overwritten with an older total. A batch's marks are taken back as it commits, so rollup
+     * reads wait only for that commit; a failed batch stays marked for the next flush.
+     *
+     * @return the number of customers whose months were recomputed
+     */
+    @Override
+    public long flushPendingMonths() {
+        flushing.lock( );
+        try {
+            List<Long> customerIds = pendingRollupMonths.customerIds( );
+            long flushed = 0;
+            for ( int from = 0; from < customerIds.size( ); from += FLUSH_BATCH_SIZE ) {
+                Map<Long, Map<LocalDate, Integer>> pending = pendingRollupMonths.snapshot(
+                        customerIds.subList( from, Math.min( from + FLUSH_BATCH_SIZE, customerIds.size( ) ) ) );
+                if ( pending.isEmpty( ) ) {
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult( status -> {
+                    recomputeMonths( pending );
+                    pendingRollupMonths.acknowledgeAtCommit( pending );
+                } );
+                flushed += pending.size( );
+            }
+            return flushed;
+        } finally {
+            flushing.unlock( );
+        }
+    }
+
+    /**
+     * Recomputes every customer's rollup from the raw transactions table with the partitioned recomputation job,
+     * which also records the rules the rollups were rebuilt under.
+     */
+    @Override
+    public void rebuildAll() {
+        rewardRecomputeService.recompute( );
+    }
+
+    /**
+     * Rebuilds the rollups only when they were last built under different reward rules, or never built.
+     */
+    @Override
+    public boolean rebuildIfRulesChanged() {
+        String fingerprint = pointsCalculator.rulesFingerprint( );
+        boolean upToDate = rollupStateRepository.findById( MONTHLY_ROLLUP )
+                .map( state -> fingerprint.equals( state.getRulesFingerprint( ) ) )
+                .orElse( false );
+        if ( upToDate ) {
+            return false;
+        }
+        rebuildAll( );
+        return true;
+    }
+
+    /**
+     * Registers the months to be marked behind once the current DB transaction commits, so that a rolled-back
+     * write never reaches a rollup.
+     */
+    private void markAfterCommit(Map<MonthlyRewardId, Integer> counts) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            counts.forEach( (id, count) -> pendingRollupMonths.add( id.getCustomerId( ), id.getRewardMonth( ), count ) );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+            @Override
+            public void afterCommit() {
+                counts.forEach( (id, count) -> pendingRollupMonths.add( id.getCustomerId( ), id.getRewardMonth( ), count ) );
+            }
+        } );
+    }
+
+    private void recomputeMonths(Map<Long, Map<LocalDate, Integer>> pending) {
+        List<MonthlyRewardId> ids = new ArrayList<>( );
+        pending.forEach( (customerId, months) -> months.keySet( ).forEach( month -> ids.add( new MonthlyRewardId( customerId, month ) ) ) );
+        ids.sort( MONTH_ORDER );
+        ids.forEach( id -> monthlyRewardRepository.deleteMonth( id.getCustomerId( ), id.getRewardMonth( ) ) );
+
+        List<MonthlyReward> recomputed = new ArrayList<>( );
+        for ( MonthlyRewardId id : ids ) {
+            LocalDate first = id.getRewardMonth( );
+            LocalDate last = first.plusMonths( 1 ).minusDays( 1 );
+            List<TransactionRow> rows = transactionArchive.merge( id.getCustomerId( ), first, last,
+                    transactionRepository.findRowsByCustomerIdAndTransactionDateBetween( id.getCustomerId( ), first, last ) );
+            if ( rows.isEmpty( ) ) {
+                continue;
+            }
+            MonthlyReward month = new MonthlyReward( id.getCustomerId( ), first );
+            rows.forEach( row -> month.addTransaction( pointsCalculator.calculatePoints( row ), row.amount( ) ) );
+            recomputed.add( month );
+        }
+        if ( !recomputed.isEmpty( ) ) {
+            monthlyRewardBatchRepository.upsertAll( recomputed );
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.rewards.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.dto.RewardRulesDTO;
+import com.rewards.model.RewardRuleVersion;
+import com.rewards.repository.RewardRuleVersionRepository;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.rules.RewardRuleDefinition;
+import com.rewards.service.RewardRollupService;
+import com.rewards.service.RewardRuleService;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+public class RewardRuleServiceImpl implements RewardRuleService, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger( RewardRuleServiceImpl.class );
+
+    private final RewardRuleVersionRepository ruleVersionRepository;
+    private final RewardProperties rewardProperties;
+    private final RewardPointsCalculator pointsCalculator;
+    private final RewardResponseCache rewardResponseCache;
+    private final RewardRollupService rewardRollupService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService rollupRebuilder = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform( ).name( "rollup-rebuild" ).daemon( ).factory( ) );
+
+    public RewardRuleServiceImpl(RewardRuleVersionRepository ruleVersionRepository,
+                                 RewardProperties rewardProperties,
+                                 RewardPointsCalculator pointsCalculator,
+                                 RewardResponseCache rewardResponseCache,
+                                 RewardRollupService rewardRollupService,
+                                 ObjectMapper objectMapper) {
+        this.ruleVersionRepository = ruleVersionRepository;
+        this.rewardProperties = rewardProperties;
+        this.pointsCalculator = pointsCalculator;
+        this.rewardResponseCache = rewardResponseCache;
+        this.rewardRollupService = rewardRollupService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Installs the configured and stored versions before any request or startup job scores a transaction.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        CompiledRewardRules rules = compile( loadVersions( ) );
+        pointsCalculator.install( rules );
+        log.info( "Loaded {} reward rule versions, fingerprint {}", rules.versions( ).size( ), rules.fingerprint( ) );
+    }
+
+    @Override
+    public void destroy() {
+        rollupRebuilder.shutdownNow( );
+    }
+
+    @Override
+    public RewardRulesDTO getRules() {
+        return toDTO( pointsCalculator.rules( ) );
+    }
+
+    /**
+     * Stores a version, replacing a stored one with the same {@code effectiveFrom}, and installs the result. The
+     * version is compiled together with the current ones first, so an invalid version is never stored.
+     */
+    @Override
+    public synchronized RewardRulesDTO saveVersion(RewardRuleDefinition version) {
+        if ( version.getEffectiveFrom( ) == null ) {
+            throw new IllegalArgumentException( "'effectiveFrom' is required" );
+        }
+        Map<LocalDate, RewardRuleDefinition> versions = loadVersions( );
+        versions.put( version.getEffectiveFrom( ), version );
+        compile( versions );
+
+        ruleVersionRepository.save( new RewardRuleVersion( version.getEffectiveFrom( ), toJson( version ), LocalDateTime.now( ) ) );
+        return reload( );
+    }
+
+    /**
+     * Recompiles the configured and stored versions and swaps them in. When the fingerprint changed, cached
+     * responses are dropped and the monthly rollups are rebuilt in the background.
+     */
+    @Override
+    public synchronized RewardRulesDTO reload() {
+        CompiledRewardRules previous = pointsCalculator.rules( );
+        CompiledRewardRules rules = compile( loadVersions( ) );
+        pointsCalculator.install( rules );
+
+        if ( !rules.fingerprint( ).equals( previous.fingerprint( ) ) ) {
+            rewardResponseCache.evictAll( );
+            rollupRebuilder.submit( ( ) -> {
+                try {
+                    rewardRollupService.rebuildIfRulesChanged( );
+                } catch ( RuntimeException ex ) {
+                    log.error( "Rebuilding monthly rollups after a rule change failed", ex );
+                }
+            } );
+            log.info( "Installed reward rules {} (was {})", rules.fingerprint( ), previous.fingerprint( ) );
+        }
+        return toDTO( rules );
+    }
+
+    /** Configured versions overlaid by stored versions, keyed by effective date. */
+    private Map<LocalDate, RewardRuleDefinition> loadVersions() {
+        Map<LocalDate, RewardRuleDefinition> versions = new TreeMap<>( );
+        for ( RewardRuleDefinition version : rewardProperties.getRuleVersions( ) ) {
+            if ( version.getEffectiveFrom( ) == null ) {
+                throw new IllegalArgumentException( "Every entry of rewards.rule-versions needs an 'effective-from' date" );
+            }
+            versions.put( version.getEffectiveFrom( ), version );
+        }
+        for ( RewardRuleVersion stored : ruleVersionRepository.findAll( ) ) {
+            RewardRuleDefinition version = fromJson( stored.getDefinition( ) );
+            version.setEffectiveFrom( stored.getEffectiveFrom( ) );
+            versions.put( stored.getEffectiveFrom( ), version );
+        }
+        return versions;
+    }
+
+    private CompiledRewardRules compile(Map<LocalDate, RewardRuleDefinition> versions) {
+        return CompiledRewardRules.compile( RewardRuleDefinition.fromProperties( rewardProperties ),
+                new ArrayList<>( versions.values( ) ) );
+    }
+
+    private static RewardRulesDTO toDTO(CompiledRewardRules rules) {
+        return new RewardRulesDTO( rules.fingerprint( ), rules.versions( ) );
+    }
+
+    private String toJson(RewardRuleDefinition version) {
+        try {
+            return objectMapper.writeValueAsString( version );
+        } catch ( JsonProcessingException e ) {
+            throw new IllegalArgumentException( "Rule version cannot be stored: " + e.getOriginalMessage( ), e );
+        }
+    }
+
+    private RewardRuleDefinition fromJson(String json) {
+        try {
+            return objectMapper.readValue( json, RewardRuleDefinition.class );
+        } catch ( JsonProcessingException e ) {
+            throw new IllegalStateException( "Stored reward rule version is unreadable: " + e.getOriginalMessage( ), e );
+        }
+    }
+}
@@ -1,153 +1,557 @@
 package com.rewards.service.impl;
 
+import com.rewards.archive.TransactionArchive;
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.PendingRollupMonths;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
 import com.rewards.dto.RewardResponseDTO;
 import com.rewards.dto.TransactionResponseDTO;
 import com.rewards.mapper.RewardMapper;
+import com.rewards.metrics.RewardCalculationLog;
+import com.rewards.metrics.RewardMetrics;
+import com.rewards.metrics.RewardMetrics.Stage;
 import com.rewards.model.Customer;
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.RewardRollupState;
 import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.MonthlyRewardRepository;
+import com.rewards.repository.RewardRollupStateRepository;
 import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionSpendGroup;
 import com.rewards.service.RewardService;
-import com.rewards.util.RewardProperties;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.MonthlyRewardAggregator;
+import com.rewards.util.RewardDateRange;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProjection;
+import com.rewards.util.TransactionCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class RewardServiceImpl implements RewardService {
 
     private static final Logger log = LoggerFactory.getLogger( RewardServiceImpl.class );
+
+    /** Customer ids per {@code IN} query of {@link #calculateRewardsBulk}. */
+    public static final int BULK_CHUNK_SIZE = 1000;
 	
 
     private final CustomerRepository customerRepository;
     private final TransactionRepository transactionRepository;
+    private final MonthlyRewardRepository monthlyRewardRepository;
     private final RewardMapper rewardMapper;
-    private final RewardProperties rewardProperties;
+    private final RewardPointsCalculator pointsCalculator;
+    private final RewardResponseCache rewardResponseCache;
+    private final RewardMetrics rewardMetrics;
+    private final RewardCalculationLog rewardCalculationLog;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final TransactionArchive transactionArchive;
+    private final CustomerIdentityCache customerIdentityCache;
+    private final TransactionStore transactionStore;
+    private final PendingRollupMonths pendingRollupMonths;
+    private final RewardRollupStateRepository rollupStateRepository;
 	
     public RewardServiceImpl(CustomerRepository customerRepository,
                              TransactionRepository transactionRepository,
+                             MonthlyRewardRepository monthlyRewardRepository,
                              RewardMapper rewardMapper,
-                             RewardProperties rewardProperties) {
+                             RewardPointsCalculator pointsCalculator,
+                             RewardResponseCache rewardResponseCache,
+                             RewardMetrics rewardMetrics,
+                             RewardCalculationLog rewardCalculationLog,
+                             ReplicaStalenessGuard stalenessGuard,
+                             TransactionArchive transactionArchive,
+                             CustomerIdentityCache customerIdentityCache,
+                             TransactionStore transactionStore,
+                             PendingRollupMonths pendingRollupMonths,
+                             RewardRollupStateRepository rollupStateRepository) {
         this.customerRepository = customerRepository;
         this.transactionRepository = transactionRepository;
+        this.monthlyRewardRepository = monthlyRewardRepository;
         this.rewardMapper = rewardMapper;
-        this.rewardProperties = rewardProperties;
+        this.pointsCalculator = pointsCalculator;
+        this.rewardResponseCache = rewardResponseCache;
+        this.rewardMetrics = rewardMetrics;
+        this.rewardCalculationLog = rewardCalculationLog;
+        this.stalenessGuard = stalenessGuard;
+        this.transactionArchive = transactionArchive;
+        this.customerIdentityCache = customerIdentityCache;
+        this.transactionStore = transactionStore;
+        this.pendingRollupMonths = pendingRollupMonths;
+        this.rollupStateRepository = rollupStateRepository;
     }
 	
-    private record LocalDateRange(LocalDate start, LocalDate end) {
+    /**
+     * Finds a customer by ID or throws NoSuchElementException if not found. While transactions are read from
+     * memory, so is the customer.
+     */
+    private Customer findCustomer(Long customerId) {
+        return (transactionStore.isReady( ) ? customerIdentityCache.findById( customerId ) : customerRepository.findById( customerId ))
+                .orElseThrow( () -> new NoSuchElementException( "Customer not found with id: " + customerId ) );
     }
-	
+
     /**
-     * Resolves a date range either from the given months or from explicit from-to values.
+     * Changes whenever a transaction of the customer is added: the in-memory store's row count for customers it
+     * holds, else the rollup's transaction count plus, in write-behind mode, this instance's transactions not yet
+     * flushed into it. Rows inserted outside the services only count once a rollup recompute has read them.
      */
-    private LocalDateRange resolveDateRange(Integer months, LocalDate from, LocalDate to) {
-        if ( months != null ) {
-            LocalDate end = LocalDate.now( );
-            return new LocalDateRange( end.minusMonths( months ), end );
-        }
-        return new LocalDateRange( from, to );
+    private long version(Long customerId) {
+        Long stored = transactionStore.read( c -> {
+            int size = c.size( customerId );
+            return size == 0 ? null : TransactionStore.VERSION_BASE + size;
+        }, () -> null );
+        return stored != null ? stored : pendingRollupMonths.read( ( ) ->
+                monthlyRewardRepository.sumTransactionCountByCustomerId( customerId )
+                        + pendingRollupMonths.pendingTransactions( customerId ) );
     }
 
     /**
-     * Finds a customer by ID or throws NoSuchElementException if not found.
+     * Month buckets over the requested range. An open-ended range is closed with the earliest or latest
+     * transaction date; null when it stays open because there are no transactions.
      */
-    private Customer findCustomer(Long customerId) {
-        return customerRepository.findById( customerId )
-                .orElseThrow( () -> new NoSuchElementException( "Customer not found with id: " + customerId ) );
+    private static MonthlyRewardAggregator aggregatorFor(RewardDateRange range, List<TransactionRow> transactions) {
+        LocalDate start = range.start( );
+        LocalDate end = range.end( );
+        for ( TransactionRow tx : transactions ) {
+            if ( range.start( ) == null && (start == null || tx.transactionDate( ).isBefore( start )) ) {
+                start = tx.transactionDate( );
+            }
+            if ( range.end( ) == null && (end == null || tx.transactionDate( ).isAfter( end )) ) {
+                end = tx.transactionDate( );
+            }
+        }
+        return start == null || end == null ? null : new MonthlyRewardAggregator( start, end );
     }
 
     /**
-     * Fetches all transactions for the given customer in a date range and maps them into DTOs with calculated points.
+     * Calculates rewards for a customer within a date range.
+     *
+     * @param customerId ID of the customer
+     * @param months     optional number of months to look back;
+     * @param from       start date (used only if months is null)
+     * @param to         end date (used only if months is null)
+     * @param includeEmptyMonths whether months of the range without transactions appear with 0 points
+     * @return RewardResponseDTO containing transactions, monthly and total reward summary
      */
-    private List<TransactionResponseDTO> fetchAndMapTransactions(Long customerId, LocalDateRange range) {
-        return transactionRepository.findByCustomerIdAndTransactionDateBetween( customerId, range.start( ), range.end( ) )
-                .stream( )
-                .map( tx -> rewardMapper.maptoTransactionDTO( tx, calculatePoints( tx.getAmount( ) ) ) )
-                .toList( );
+    @Override
+    @Transactional(readOnly = true)
+    public RewardResponseDTO calculateRewards(Long customerId, Integer months, LocalDate from, LocalDate to,
+                                              boolean includeEmptyMonths) {
+        stalenessGuard.readFor( customerId );
+        RewardDateRange range = RewardDateRange.resolve( months, from, to );
+        long version = version( customerId );
+        return rewardResponseCache.get( customerId, range, includeEmptyMonths, version,
+                () -> computeRewards( customerId, range, includeEmptyMonths ) );
     }
 
     /**
-     * Calculates reward points for a given transaction amount based on configured thresholds and multipliers.
+     * Calculates the parts of the reward response the projection selects. Totals and monthly rewards always cover
+     * the whole range and come from the monthly rollup plus grouped counts of the edge months; transaction rows
+     * are only read for the selected page. The full, unpaged projection is the cached {@link #calculateRewards}.
+     *
+     * @param projection parts of the response to build and the page of transactions to embed
+     * @return the response with unselected parts left null, the range's transaction count and the next cursor
      */
-    private int calculatePoints(BigDecimal amount) {
-        if ( amount == null ) return 0;
+    @Override
+    @Transactional(readOnly = true)
+    public RewardResponseDTO calculateRewards(Long customerId, Integer months, LocalDate from, LocalDate to,
+                                              boolean includeEmptyMonths, RewardProjection projection) {
+        stalenessGuard.readFor( customerId );
+        if ( projection.isFull( ) ) {
+            return calculateRewards( customerId, months, from, to, includeEmptyMonths );
+        }
+        long start = System.nanoTime( );
+        RewardDateRange range = RewardDateRange.resolve( months, from, to );
+        Customer customer = findCustomer( customerId );
+        RewardDateRange closed = closeRange( customerId, range );
+
+        MonthlyRewardAggregator monthlyRewards = closed == null ? null : new MonthlyRewardAggregator( closed.start( ), closed.end( ) );
+        long transactionCount = closed == null ? 0 : addRangeRewards( customerId, closed, monthlyRewards );
+        int totalRewards = monthlyRewards == null ? 0 : monthlyRewards.totalPoints( );
+
+        List<TransactionResponseDTO> transactionDTOs = null;
+        String nextCursor = null;
+        if ( projection.transactions( ) ) {
+            List<TransactionRow> rows = closed == null ? List.of( ) : projection.isPaged( )
+                    ? transactionPage( customerId, closed, projection )
+                    : findRows( customerId, closed.start( ), closed.end( ) );
+            if ( projection.isPaged( ) && rows.size( ) > projection.pageSize( ) ) {
+                rows = rows.subList( 0, projection.pageSize( ) );
+                TransactionRow last = rows.get( rows.size( ) - 1 );
+                nextCursor = new TransactionCursor( last.transactionDate( ), last.id( ) ).encode( );
+            }
+            transactionDTOs = new ArrayList<>( rows.size( ) );
+            for ( TransactionRow row : rows ) {
+                transactionDTOs.add( rewardMapper.maptoTransactionDTO( row, pointsCalculator.calculatePoints( row ) ) );
+            }
+        }
+
+        Map<String, Integer> monthly = !projection.monthly( ) ? null : monthlyRewards == null
+                ? new LinkedHashMap<>( )
+                : monthlyRewards.toMonthlyRewards( includeEmptyMonths );
+        rewardCalculationLog.summaryCalculated( customerId, range, totalRewards, System.nanoTime( ) - start );
 
-        BigDecimal truncated = amount.setScale( 0, RoundingMode.DOWN );
-        int transactionAmount = truncated.intValueExact( );
+        RewardResponseDTO response = rewardMapper.maptoRewardResponse(
+                customer, range.start( ), range.end( ), transactionDTOs, monthly, totalRewards );
+        response.setTransactionCount( transactionCount );
+        response.setNextCursor( nextCursor );
+        return response;
+    }
 
-        int minSpendForPoints = rewardProperties.getMinAmtSpendForPoints( );
-        int minSpendForBonus = rewardProperties.getMinAmtSpendForBonus( );
-        int multiplier = rewardProperties.getMultiplier( );
+    /**
+     * The customer's rows in the range from the table, or its in-memory copy, and, for archived months, from the
+     * archive.
+     */
+    private List<TransactionRow> findRows(Long customerId, LocalDate from, LocalDate to) {
+        return transactionArchive.merge( customerId, from, to, transactionStore.read(
+                c -> c.findRows( customerId, from, to ),
+                () -> transactionRepository.findRowsByCustomerIdAndTransactionDateBetween( customerId, from, to ) ) );
+    }
 
-        if ( transactionAmount > minSpendForBonus ) {
-            int bonusPoints = (transactionAmount - minSpendForBonus) * multiplier;
-            int regularPoints = minSpendForBonus - minSpendForPoints;
-            return bonusPoints + regularPoints;
+    /**
+     * The projection's page of the range, plus one row to tell whether another page follows. When the range
+     * reaches into archived months, the table's page is merged with the archived rows after the cursor.
+     */
+    private List<TransactionRow> transactionPage(Long customerId, RewardDateRange range, RewardProjection projection) {
+        TransactionCursor after = projection.after( ) != null
+                ? projection.after( )
+                : new TransactionCursor( range.start( ).minusDays( 1 ), 0 );
+        int limit = projection.pageSize( ) + 1;
+        List<TransactionRow> page = transactionStore.read(
+                c -> c.findRowsAfter( customerId, range.start( ), range.end( ), after.afterDate( ), after.afterId( ), limit ),
+                () -> transactionRepository.findRowsAfter( customerId, range.start( ), range.end( ),
+                        after.afterDate( ), after.afterId( ), Limit.of( limit ) ) );
+        if ( !transactionArchive.covers( range.start( ), range.end( ) ) ) {
+            return page;
         }
+        return transactionArchive.merge( customerId, range.start( ), range.end( ), page ).stream( )
+                .filter( after::precedes )
+                .limit( limit )
+                .toList( );
+    }
 
-        if ( transactionAmount > minSpendForPoints ) {
-            return transactionAmount - minSpendForPoints;
+    /**
+     * Tags the response with the customer's rollup version and a hash of everything else it depends on: the
+     * resolved range, the output flag, the projection, the installed reward rules and, when the response may be
+     * read from the rollup, the rules the rollup was last built under. Costs one aggregate over the customer's
+     * rollup rows and one read of the rollup state, or nothing from the database while the in-memory store holds
+     * the customer and no archived month is in range, and no customer or transaction reads.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public String rewardsETag(Long customerId, Integer months, LocalDate from, LocalDate to,
+                              boolean includeEmptyMonths, RewardProjection projection) {
+        stalenessGuard.readFor( customerId );
+        RewardDateRange range = RewardDateRange.resolve( months, from, to );
+        long version = version( customerId );
+        if ( version == 0 ) {
+            return null;
+        }
+        String rollupRules = transactionStore.isReady( ) && !transactionArchive.covers( range.start( ), range.end( ) )
+                ? "" : rollupFingerprint( );
+        String inputs = pointsCalculator.rules( ).fingerprint( ) + '|' + rollupRules + '|' + range.start( )
+                + '|' + range.end( ) + '|' + includeEmptyMonths + '|' + projection;
+        try {
+            byte[] digest = MessageDigest.getInstance( "SHA-256" ).digest( inputs.getBytes( StandardCharsets.UTF_8 ) );
+            return "\"" + customerId + "-" + version + "-" + HexFormat.of( ).formatHex( digest, 0, 8 ) + "\"";
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
         }
+    }
 
-        return 0;
+    /**
+     * Reads the customer and their transactions in the range and builds the full reward response.
+     */
+    private RewardResponseDTO computeRewards(Long customerId, RewardDateRange range, boolean includeEmptyMonths) {
+        long start = System.nanoTime( );
+        Customer customer = findCustomer( customerId );
+        List<TransactionRow> transactions = findRows( customerId, range.start( ), range.end( ) );
+        rewardMetrics.recordStage( Stage.FETCH, System.nanoTime( ) - start );
+
+        RewardResponseDTO response = buildRewardResponse( customer, range, transactions, includeEmptyMonths );
+        long elapsed = System.nanoTime( ) - start;
+        rewardMetrics.recordCalculation( elapsed, transactions.size( ) );
+        rewardCalculationLog.rewardsCalculated( customerId, range, transactions.size( ),
+                (int) response.getTotalRewards( ), elapsed );
+        return response;
     }
 
     /**
-     * Groups transactions by Year-Month and sums their reward points.
+     * Calculates rewards for many customers with one customer query and one transaction query per chunk of
+     * {@value #BULK_CHUNK_SIZE} ids. Each response is the one {@link #calculateRewards} returns for that customer.
+     *
+     * @param customerIds ids to calculate for; duplicates and nulls are ignored
+     * @param months      optional number of months to look back;
+     * @param from        start date (used only if months is null)
+     * @param to          end date (used only if months is null)
+     * @param includeEmptyMonths whether months of the range without transactions appear with 0 points
+     * @return responses keyed by customer id in request order; ids without a customer are left out
      */
-    private Map<String, Integer> calculateMonthlyRewards(List<TransactionResponseDTO> transactionDTOs) {
-        return transactionDTOs.stream( )
-                .collect( Collectors.groupingBy(
-                        tx -> String.format( "%04d-%02d",
-                                tx.getTransactionDate( ).getYear( ),
-                                tx.getTransactionDate( ).getMonthValue( ) ),
-                        LinkedHashMap::new,
-                        Collectors.summingInt( TransactionResponseDTO::getPoints )
-                ) );
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, RewardResponseDTO> calculateRewardsBulk(Collection<Long> customerIds, Integer months,
+                                                             LocalDate from, LocalDate to, boolean includeEmptyMonths) {
+        stalenessGuard.readFor( customerIds );
+        RewardDateRange range = RewardDateRange.resolve( months, from, to );
+        List<Long> ids = customerIds.stream( ).filter( Objects::nonNull ).distinct( ).toList( );
+        Map<Long, RewardResponseDTO> responses = new LinkedHashMap<>( );
+
+        for ( int offset = 0; offset < ids.size( ); offset += BULK_CHUNK_SIZE ) {
+            List<Long> chunk = ids.subList( offset, Math.min( offset + BULK_CHUNK_SIZE, ids.size( ) ) );
+            long fetchStart = System.nanoTime( );
+            Map<Long, Customer> customers = new HashMap<>( );
+            if ( transactionStore.isReady( ) ) {
+                customers.putAll( customerIdentityCache.findAllById( chunk ) );
+            } else {
+                customerRepository.findAllById( chunk ).forEach( c -> customers.put( c.getId( ), c ) );
+            }
+            if ( customers.isEmpty( ) ) {
+                continue;
+            }
+
+            Map<Long, List<TransactionRow>> transactionsByCustomer = transactionStore.read( c -> {
+                Map<Long, List<TransactionRow>> stored = new HashMap<>( );
+                customers.keySet( ).forEach( id -> stored.put( id, c.findRows( id, range.start( ), range.end( ) ) ) );
+                return stored;
+            }, () -> {
+                Map<Long, List<TransactionRow>> queried = new HashMap<>( );
+                for ( TransactionRow row : transactionRepository.findRowsByCustomerIdInAndTransactionDateBetween(
+                        customers.keySet( ), range.start( ), range.end( ) ) ) {
+                    queried.computeIfAbsent( row.customerId( ), id -> new ArrayList<>( ) ).add( row );
+                }
+                return queried;
+            } );
+            rewardMetrics.recordStage( Stage.FETCH, System.nanoTime( ) - fetchStart );
+
+            for ( Long id : chunk ) {
+                Customer customer = customers.get( id );
+                if ( customer != null ) {
+                    List<TransactionRow> transactions = transactionArchive.merge( id, range.start( ), range.end( ),
+                            transactionsByCustomer.getOrDefault( id, List.of( ) ) );
+                    responses.put( id, buildRewardResponse( customer, range, transactions, includeEmptyMonths ) );
+                }
+            }
+        }
+
+        log.info( "Calculated bulk rewards for {} of {} requested customers from {} to {}",
+                responses.size( ), ids.size( ), range.start( ), range.end( ) );
+        return responses;
     }
 
     /**
-     * Sums up total reward points from all transactions.
+     * Scores the customer's transactions in the range and builds the full reward response.
      */
-    private int calculateTotalRewards(List<TransactionResponseDTO> transactionDTOs) {
-        return transactionDTOs.stream( )
-                .mapToInt( TransactionResponseDTO::getPoints )
-                .sum( );
+    private RewardResponseDTO buildRewardResponse(Customer customer, RewardDateRange range,
+                                                  List<TransactionRow> transactions, boolean includeEmptyMonths) {
+        long stageStart = System.nanoTime( );
+        int[] points = new int[transactions.size( )];
+        for ( int i = 0; i < points.length; i++ ) {
+            points[i] = pointsCalculator.calculatePoints( transactions.get( i ) );
+        }
+        long scored = System.nanoTime( );
+        rewardMetrics.recordStage( Stage.SCORE, scored - stageStart );
+
+        MonthlyRewardAggregator aggregator = aggregatorFor( range, transactions );
+        for ( int i = 0; i < points.length; i++ ) {
+            aggregator.add( transactions.get( i ).transactionDate( ), points[i] );
+        }
+        Map<String, Integer> monthlyRewards = aggregator == null
+                ? new LinkedHashMap<>( )
+                : aggregator.toMonthlyRewards( includeEmptyMonths );
+        int totalRewards = aggregator == null ? 0 : aggregator.totalPoints( );
+        long aggregated = System.nanoTime( );
+        rewardMetrics.recordStage( Stage.AGGREGATE, aggregated - scored );
+
+        List<TransactionResponseDTO> transactionDTOs = new ArrayList<>( transactions.size( ) );
+        for ( int i = 0; i < points.length; i++ ) {
+            transactionDTOs.add( rewardMapper.maptoTransactionDTO( transactions.get( i ), points[i] ) );
+        }
+        RewardResponseDTO response = rewardMapper.maptoRewardResponse(
+                customer, range.start( ), range.end( ), transactionDTOs, monthlyRewards, totalRewards
+        );
+        rewardMetrics.recordStage( Stage.MAP, System.nanoTime( ) - aggregated );
+        return response;
     }
 
     /**
-     * Calculates rewards for a customer within a date range.
+     * Calculates monthly and total rewards for a customer without listing transactions. Whole calendar months
+     * are read from the monthly rollup; only the partial months at either edge of the range touch raw rows.
      *
      * @param customerId ID of the customer
      * @param months     optional number of months to look back;
      * @param from       start date (used only if months is null)
      * @param to         end date (used only if months is null)
-     * @return RewardResponseDTO containing transactions, monthly and total reward summary
+     * @param includeEmptyMonths whether months of the range without transactions appear with 0 points
+     * @return RewardResponseDTO containing monthly and total reward summary, without transactions
      */
     @Override
-    public RewardResponseDTO calculateRewards(Long customerId, Integer months, LocalDate from, LocalDate to) {
-        LocalDateRange range = resolveDateRange( months, from, to );
+    @Transactional(readOnly = true)
+    public RewardResponseDTO calculateRewardSummary(Long customerId, Integer months, LocalDate from, LocalDate to,
+                                                    boolean includeEmptyMonths) {
+        stalenessGuard.readFor( customerId );
+        long start = System.nanoTime( );
+        RewardDateRange range = RewardDateRange.resolveBounded( months, from, to );
         Customer customer = findCustomer( customerId );
-        List<TransactionResponseDTO> transactionDTOs = fetchAndMapTransactions( customerId, range );
 
-        Map<String, Integer> monthlyRewards = calculateMonthlyRewards( transactionDTOs );
-        int totalRewards = calculateTotalRewards( transactionDTOs );
+        MonthlyRewardAggregator monthlyRewards = new MonthlyRewardAggregator( range.start( ), range.end( ) );
+        long transactionCount = addRangeRewards( customerId, range, monthlyRewards );
+        int totalRewards = monthlyRewards.totalPoints( );
 
-        log.info( "Calculated rewards for customer {} from {} to {} => total {} points",
-                customerId, range.start( ), range.end( ), totalRewards );
+        rewardCalculationLog.summaryCalculated( customerId, range, totalRewards, System.nanoTime( ) - start );
 
-        return rewardMapper.maptoRewardResponse(
-                customer, range.start( ), range.end( ), transactionDTOs, monthlyRewards, totalRewards
+        RewardResponseDTO response = rewardMapper.maptoRewardResponse(
+                customer, range.start( ), range.end( ), null, monthlyRewards.toMonthlyRewards( includeEmptyMonths ), totalRewards
         );
+        response.setTransactionCount( transactionCount );
+        return response;
+    }
+
+    /**
+     * Adds the points of a closed range to the monthly totals and returns the number of transactions in it. While
+     * the in-memory store is ready and no archived month is in range, its rows are scored directly; otherwise the
+     * rollup is read.
+     */
+    private long addRangeRewards(Long customerId, RewardDateRange range, MonthlyRewardAggregator monthlyRewards) {
+        if ( transactionArchive.covers( range.start( ), range.end( ) ) ) {
+            return addRollupRewards( customerId, range, monthlyRewards );
+        }
+        return transactionStore.read(
+                c -> c.addPoints( customerId, range.start( ), range.end( ), pointsCalculator.rules( ), monthlyRewards ),
+                () -> addRollupRewards( customerId, range, monthlyRewards ) );
+    }
+
+    /**
+     * Whole calendar months are read from the monthly rollup; the partial months at either edge, months the
+     * rollup is still behind on in write-behind mode and whole months it has no row for are scored per
+     * {@link TransactionSpendGroup}, so no transaction row is read. Months without a row cost one grouped query per
+     * run of them, an index probe when they are empty, and keep rows inserted outside the services into months the
+     * rollup never saw from being dropped. While the rollup was last built under other rules than the installed
+     * ones, e.g. until the rebuild after a rule change completes, the whole range is scored per group instead.
+     */
+    private long addRollupRewards(Long customerId, RewardDateRange range, MonthlyRewardAggregator monthlyRewards) {
+        if ( !pointsCalculator.rulesFingerprint( ).equals( rollupFingerprint( ) ) ) {
+            return addGroupedRewards( customerId, range.start( ), range.end( ), monthlyRewards );
+        }
+        YearMonth startMonth = YearMonth.from( range.start( ) );
+        YearMonth endMonth = YearMonth.from( range.end( ) );
+        YearMonth firstFullMonth = range.start( ).getDayOfMonth( ) == 1 ? startMonth : startMonth.plusMonths( 1 );
+        YearMonth lastFullMonth = range.end( ).equals( endMonth.atEndOfMonth( ) ) ? endMonth : endMonth.minusMonths( 1 );
+
+        if ( firstFullMonth.isAfter( lastFullMonth ) ) {
+            return addGroupedRewards( customerId, range.start( ), range.end( ), monthlyRewards );
+        }
+        long transactionCount = 0;
+        LocalDate fullStart = firstFullMonth.atDay( 1 );
+        LocalDate fullEnd = lastFullMonth.atEndOfMonth( );
+        if ( range.start( ).isBefore( fullStart ) ) {
+            transactionCount += addGroupedRewards( customerId, range.start( ), fullStart.minusDays( 1 ), monthlyRewards );
+        }
+        List<LocalDate> pendingMonths = pendingRollupMonths.pendingMonths( customerId );
+        Set<YearMonth> rolledUp = new HashSet<>( );
+        for ( MonthlyReward month : monthlyRewardRepository.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                customerId, fullStart, lastFullMonth.atDay( 1 ) ) ) {
+            if ( !pendingMonths.contains( month.getRewardMonth( ) ) ) {
+                monthlyRewards.add( month.getRewardMonth( ), Math.toIntExact( month.getPoints( ) ) );
+                transactionCount += month.getTransactionCount( );
+                rolledUp.add( YearMonth.from( month.getRewardMonth( ) ) );
+            }
+        }
+        YearMonth runStart = null;
+        for ( YearMonth month = firstFullMonth; !month.isAfter( lastFullMonth.plusMonths( 1 ) ); month = month.plusMonths( 1 ) ) {
+            boolean grouped = !month.isAfter( lastFullMonth ) && !rolledUp.contains( month );
+            if ( grouped && runStart == null ) {
+                runStart = month;
+            } else if ( !grouped && runStart != null ) {
+                transactionCount += addGroupedRewards( customerId, runStart.atDay( 1 ),
+                        month.minusMonths( 1 ).atEndOfMonth( ), monthlyRewards );
+                runStart = null;
+            }
+        }
+        if ( range.end( ).isAfter( fullEnd ) ) {
+            transactionCount += addGroupedRewards( customerId, fullEnd.plusDays( 1 ), range.end( ), monthlyRewards );
+        }
+        return transactionCount;
+    }
+
+    /** The rules the monthly rollup was last built under; null before its first build. */
+    private String rollupFingerprint() {
+        return rollupStateRepository.findById( RewardRollupServiceImpl.MONTHLY_ROLLUP )
+                .map( RewardRollupState::getRulesFingerprint )
+                .orElse( null );
+    }
+
+    /**
+     * Adds the points of a (partial-month) date range to the monthly totals, scoring each group of transactions
+     * with the same day, category and whole-dollar amount once. A range in archived months is scored row by row,
+     * as rows still in the table have to be told apart from their archived copies by id.
+     */
+    private long addGroupedRewards(Long customerId, LocalDate start, LocalDate end, MonthlyRewardAggregator monthlyRewards) {
+        if ( transactionArchive.covers( start, end ) ) {
+            List<TransactionRow> rows = findRows( customerId, start, end );
+            for ( TransactionRow row : rows ) {
+                monthlyRewards.add( row.transactionDate( ), pointsCalculator.calculatePoints( row ) );
+            }
+            return rows.size( );
+        }
+        long transactionCount = 0;
+        for ( TransactionSpendGroup group : transactionRepository.countSpendGroups( customerId, start, end ) ) {
+            int points = group.wholeDollars( ) == null ? 0 : pointsCalculator.calculatePoints(
+                    group.wholeDollars( ).longValue( ) * 100, null, group.transactionDate( ), group.category( ) );
+            monthlyRewards.add( group.transactionDate( ), Math.toIntExact( points * group.transactions( ) ) );
+            transactionCount += group.transactions( );
+        }
+        return transactionCount;
+    }
+
+    /**
+     * Closes the open ends of a range with the customer's first and last rollup months, or months the rollup is
+     * still behind on; null when there is nothing in the range.
+     */
+    private RewardDateRange closeRange(Long customerId, RewardDateRange range) {
+        LocalDate start = range.start( );
+        LocalDate end = range.end( );
+        List<LocalDate> pendingMonths = start == null || end == null ? pendingRollupMonths.pendingMonths( customerId ) : List.of( );
+        if ( start == null ) {
+            start = monthlyRewardRepository.findFirstByCustomerIdOrderByRewardMonthAsc( customerId )
+                    .map( MonthlyReward::getRewardMonth ).orElse( null );
+            if ( !pendingMonths.isEmpty( ) && (start == null || pendingMonths.get( 0 ).isBefore( start )) ) {
+                start = pendingMonths.get( 0 );
+            }
+        }
+        if ( end == null ) {
+            end = monthlyRewardRepository.findFirstByCustomerIdOrderByRewardMonthDesc( customerId )
+                    .map( m -> YearMonth.from( m.getRewardMonth( ) ).atEndOfMonth( ) ).orElse( null );
+            if ( !pendingMonths.isEmpty( ) ) {
+                LocalDate lastPending = YearMonth.from( pendingMonths.get( pendingMonths.size( ) - 1 ) ).atEndOfMonth( );
+                if ( end == null || lastPending.isAfter( end ) ) {
+                    end = lastPending;
+                }
+            }
+        }
+        return start == null || end == null || start.isAfter( end ) ? null : new RewardDateRange( start, end );
     }
 
-   
 }
@@ -0,0 +1,112 @@
+package com.rewards.service.impl;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.archive.TransactionSegmentWriter;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionStreamRepository;
+import com.rewards.service.TransactionArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class TransactionArchiveServiceImpl implements TransactionArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionArchiveServiceImpl.class );
+
+    /** Archived ids deleted per DB transaction. */
+    static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionStreamRepository transactionStreamRepository;
+    private final TransactionArchive transactionArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final int afterMonths;
+
+    public TransactionArchiveServiceImpl(TransactionRepository transactionRepository,
+                                         TransactionStreamRepository transactionStreamRepository,
+                                         TransactionArchive transactionArchive,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${rewards.archive.after-months:24}") int afterMonths) {
+        if ( afterMonths < 1 ) {
+            throw new IllegalArgumentException( "rewards.archive.after-months must be at least 1" );
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionStreamRepository = transactionStreamRepository;
+        this.transactionArchive = transactionArchive;
+        this.transactionTemplate = new TransactionTemplate( transactionManager );
+        this.afterMonths = afterMonths;
+    }
+
+    /**
+     * Moves the rows of every month that ended more than {@code after-months} ago from the table into the
+     * archive. A month's segment is written and installed before its rows are deleted, so a run that stops in
+     * between leaves rows in both places, which readers count once, and the next run finishes the month.
+     */
+    @Override
+    public synchronized List<YearMonth> archiveAgedMonths() {
+        YearMonth cutoff = YearMonth.now( ).minusMonths( afterMonths );
+        List<YearMonth> archived = new ArrayList<>( );
+        Optional<LocalDate> earliest = transactionRepository.findEarliestTransactionDate( );
+        if ( earliest.isEmpty( ) ) {
+            return archived;
+        }
+        for ( YearMonth month = YearMonth.from( earliest.get( ) ); month.isBefore( cutoff ); month = month.plusMonths( 1 ) ) {
+            if ( archiveMonth( month ) ) {
+                archived.add( month );
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Rewrites the month's segment with its table rows added and deletes those rows. Rows the segment cannot hold
+     * stay in the table. Returns false when the table had no rows of the month.
+     */
+    private boolean archiveMonth(YearMonth month) {
+        LocalDate from = month.atDay( 1 );
+        LocalDate to = month.atEndOfMonth( );
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( month );
+        transactionArchive.segment( month ).ifPresent( segment -> segment.forEachRow( writer::add ) );
+
+        List<Long> moved = new ArrayList<>( );
+        int[] kept = {0};
+        transactionStreamRepository.streamDateRange( from, to, row -> {
+            if ( writer.add( row ) ) {
+                moved.add( row.id( ) );
+            } else {
+                kept[0]++;
+            }
+        } );
+        if ( moved.isEmpty( ) ) {
+            return false;
+        }
+        try {
+            transactionArchive.install( writer );
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( "Writing the archive segment for " + month + " failed", e );
+        }
+        for ( int offset = 0; offset < moved.size( ); offset += DELETE_CHUNK_SIZE ) {
+            List<Long> chunk = moved.subList( offset, Math.min( offset + DELETE_CHUNK_SIZE, moved.size( ) ) );
+            transactionTemplate.executeWithoutResult( status -> transactionRepository.deleteArchived( from, to, chunk ) );
+        }
+        if ( kept[0] > 0 ) {
+            log.warn( "Archived {} transactions of {}; {} stay in the table as the segment cannot hold them",
+                    moved.size( ), month, kept[0] );
+        } else {
+            log.info( "Archived {} transactions of {}", moved.size( ), month );
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+package com.rewards.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
+import com.rewards.dto.BatchIngestResponseDTO;
+import com.rewards.dto.BatchRowErrorDTO;
+import com.rewards.dto.TransactionRequestDTO;
+import com.rewards.model.Customer;
+import com.rewards.model.Transaction;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.service.PointsLedgerService;
+import com.rewards.service.RewardRollupService;
+import com.rewards.service.TransactionBatchService;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.OptimisticRetryTemplate;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class TransactionBatchServiceImpl implements TransactionBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionBatchServiceImpl.class );
+
+    private final TransactionRepository txRepo;
+    private final CustomerIdentityCache customerIdentityCache;
+    private final RewardRollupService rewardRollupService;
+    private final RewardResponseCache rewardResponseCache;
+    private final PointsLedgerService pointsLedgerService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final OptimisticRetryTemplate retryTemplate;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final TransactionStore transactionStore;
+    private final int chunkSize;
+
+    public TransactionBatchServiceImpl(TransactionRepository txRepo,
+                                       CustomerIdentityCache customerIdentityCache,
+                                       RewardRollupService rewardRollupService,
+                                       RewardResponseCache rewardResponseCache,
+                                       PointsLedgerService pointsLedgerService,
+                                       ObjectMapper objectMapper,
+                                       Validator validator,
+                                       OptimisticRetryTemplate retryTemplate,
+                                       ReplicaStalenessGuard stalenessGuard,
+                                       TransactionStore transactionStore,
+                                       @Value("${rewards.ingest.chunk-size:1000}") int chunkSize) {
+        this.txRepo = txRepo;
+        this.customerIdentityCache = customerIdentityCache;
+        this.rewardRollupService = rewardRollupService;
+        this.rewardResponseCache = rewardResponseCache;
+        this.pointsLedgerService = pointsLedgerService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.retryTemplate = retryTemplate;
+        this.stalenessGuard = stalenessGuard;
+        this.transactionStore = transactionStore;
+        this.chunkSize = chunkSize;
+    }
+
+    private record IndexedRequest(int index, TransactionRequestDTO request) {
+    }
+
+    /**
+     * Streams a JSON array or NDJSON body of transaction requests and saves them chunk by chunk. Each chunk
+     * resolves its customers through the identity cache (at most one IN query by id and one by email for the
+     * customers it does not hold yet), and commits in its own DB transaction, re-run if it loses a race on a
+     * customer's ledger balance, so a malformed payload only loses the rows after the point where parsing failed.
+     */
+    @Override
+    public BatchIngestResponseDTO createTransactions(InputStream body) {
+        BatchIngestResponseDTO result = new BatchIngestResponseDTO( );
+        List<IndexedRequest> chunk = new ArrayList<>( chunkSize );
+        int index = 0;
+
+        try ( MappingIterator<JsonNode> rows = objectMapper.readerFor( JsonNode.class ).readValues( body ) ) {
+            while ( rows.hasNextValue( ) ) {
+                JsonNode row = rows.nextValue( );
+                int rowIndex = index++;
+                try {
+                    chunk.add( new IndexedRequest( rowIndex, objectMapper.treeToValue( row, TransactionRequestDTO.class ) ) );
+                } catch ( IOException | IllegalArgumentException ex ) {
+                    result.reject( rowIndex, "Unreadable transaction: " + ex.getMessage( ) );
+                }
+                if ( chunk.size( ) == chunkSize ) {
+                    saveChunk( chunk, result );
+                    chunk.clear( );
+                }
+            }
+        } catch ( IOException ex ) {
+            result.setCompleted( false );
+            result.setError( "Malformed batch payload after row " + index + ": " + ex.getMessage( ) );
+        }
+
+        if ( !chunk.isEmpty( ) ) {
+            saveChunk( chunk, result );
+        }
+        result.setReceived( index );
+
+        log.info( "Batch ingestion received {} rows => accepted {}, rejected {}",
+                result.getReceived( ), result.getAccepted( ), result.getRejected( ) );
+        return result;
+    }
+
+    /**
+     * Validates, resolves customers for and saves one chunk in a single DB transaction.
+     */
+    private void saveChunk(List<IndexedRequest> chunk, BatchIngestResponseDTO result) {
+        List<IndexedRequest> valid = new ArrayList<>( chunk.size( ) );
+        for ( IndexedRequest row : chunk ) {
+            String violations = validate( row.request( ) );
+            if ( violations != null ) {
+                result.reject( row.index( ), violations );
+            } else {
+                valid.add( row );
+            }
+        }
+        if ( valid.isEmpty( ) ) {
+            return;
+        }
+
+        List<BatchRowErrorDTO> unresolved = new ArrayList<>( );
+        int accepted;
+        try {
+            accepted = retryTemplate.execute( status -> {
+                unresolved.clear( );
+                return saveResolved( valid, unresolved );
+            } );
+        } catch ( DataAccessException ex ) {
+            log.warn( "Batch chunk starting at row {} failed", valid.get( 0 ).index( ), ex );
+            valid.forEach( row -> result.reject( row.index( ), "Chunk could not be saved: " + ex.getMostSpecificCause( ).getMessage( ) ) );
+            return;
+        }
+        unresolved.forEach( error -> result.reject( error.getIndex( ), error.getReason( ) ) );
+        result.setAccepted( result.getAccepted( ) + accepted );
+    }
+
+    /**
+     * Attaches each row to its customer and saves the chunk; rows without a known customer go to {@code unresolved}.
+     */
+    private int saveResolved(List<IndexedRequest> rows, List<BatchRowErrorDTO> unresolved) {
+        Map<Long, Customer> customersById = findCustomersById( rows );
+        Map<String, Customer> customersByEmail = findCustomersByEmail( rows, customersById );
+
+        List<Transaction> transactions = new ArrayList<>( rows.size( ) );
+        for ( IndexedRequest row : rows ) {
+            TransactionRequestDTO req = row.request( );
+            Customer customer = req.getCustomerId( ) != null ? customersById.get( req.getCustomerId( ) ) : null;
+            if ( customer == null && req.getCustomerEmail( ) != null ) {
+                customer = customersByEmail.get( req.getCustomerEmail( ) );
+            }
+            if ( customer == null ) {
+                unresolved.add( new BatchRowErrorDTO( row.index( ), "Customer not found. Please register first." ) );
+                continue;
+            }
+            Transaction transaction = new Transaction( req.getAmount( ), req.getTransactionDate( ), customer );
+            transaction.setCategory( req.getCategory( ) );
+            transactions.add( transaction );
+        }
+
+        txRepo.saveAll( transactions );
+        rewardRollupService.recordTransactions( transactions );
+        pointsLedgerService.recordTransactions( transactions );
+        transactionStore.recordAfterCommit( transactions );
+        transactions.stream( )
+                .map( tx -> tx.getCustomer( ).getId( ) )
+                .distinct( )
+                .forEach( customerId -> {
+                    rewardResponseCache.evictCustomerAfterCommit( customerId );
+                    stalenessGuard.pinAfterWrite( customerId );
+                } );
+        return transactions.size( );
+    }
+
+    private Map<Long, Customer> findCustomersById(List<IndexedRequest> rows) {
+        Set<Long> ids = rows.stream( )
+                .map( row -> row.request( ).getCustomerId( ) )
+                .filter( id -> id != null )
+                .collect( Collectors.toSet( ) );
+        if ( ids.isEmpty( ) ) {
+            return Map.of( );
+        }
+        return customerIdentityCache.findAllById( ids );
+    }
+
+    /**
+     * Looks up by email only the rows whose id was missing or unknown, mirroring the single-row fallback.
+     */
+    private Map<String, Customer> findCustomersByEmail(List<IndexedRequest> rows, Map<Long, Customer> customersById) {
+        Set<String> emails = new HashSet<>( );
+        for ( IndexedRequest row : rows ) {
+            TransactionRequestDTO req = row.request( );
+            if ( req.getCustomerEmail( ) != null
+                    && (req.getCustomerId( ) == null || !customersById.containsKey( req.getCustomerId( ) )) ) {
+                emails.add( req.getCustomerEmail( ) );
+            }
+        }
+        if ( emails.isEmpty( ) ) {
+            return Map.of( );
+        }
+        return customerIdentityCache.findAllByEmail( emails );
+    }
+
+    private String validate(TransactionRequestDTO req) {
+        Set<ConstraintViolation<TransactionRequestDTO>> violations = validator.validate( req );
+        if ( violations.isEmpty( ) ) {
+            return null;
+        }
+        return violations.stream( )
+                .map( v -> v.getPropertyPath( ) + " " + v.getMessage( ) )
+                .sorted( )
+                .collect( Collectors.joining( ", " ) );
+    }
+}
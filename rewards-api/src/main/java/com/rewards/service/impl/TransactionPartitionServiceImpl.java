@@ -0,0 +1,74 @@
+package com.rewards.service.impl;
+
+import com.rewards.repository.TransactionPartitionRepository;
+import com.rewards.service.TransactionPartitionService;
+import com.rewards.util.TransactionPartitionPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class TransactionPartitionServiceImpl implements TransactionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionPartitionServiceImpl.class );
+
+    private final TransactionPartitionRepository partitionRepository;
+    private final int lookaheadMonths;
+    private final int retentionMonths;
+
+    public TransactionPartitionServiceImpl(TransactionPartitionRepository partitionRepository,
+                                           @Value("${rewards.partitioning.lookahead-months:3}") int lookaheadMonths,
+                                           @Value("${rewards.partitioning.retention-months:0}") int retentionMonths) {
+        if ( lookaheadMonths < 0 || retentionMonths < 0 ) {
+            throw new IllegalArgumentException( "rewards.partitioning.lookahead-months and retention-months cannot be negative" );
+        }
+        this.partitionRepository = partitionRepository;
+        this.lookaheadMonths = lookaheadMonths;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Partitions the transactions table by month on the first run, then keeps {@code lookahead-months} empty
+     * months ahead of the current one and archives months past {@code retention-months}. Each step is one DDL
+     * statement, so a run that fails half-way leaves a consistent table and the next run carries on from there.
+     */
+    @Override
+    public synchronized TransactionPartitionPlan maintainPartitions() {
+        String product = partitionRepository.databaseProductName( );
+        if ( !product.toLowerCase( ).contains( "mysql" ) ) {
+            throw new IllegalStateException( "Transaction partitioning needs MySQL, not " + product );
+        }
+        List<YearMonth> existing = partitionRepository.partitionNames( ).stream( )
+                .map( TransactionPartitionPlan::month )
+                .filter( Objects::nonNull )
+                .toList( );
+        YearMonth earliest = existing.isEmpty( )
+                ? partitionRepository.earliestTransactionDate( ).map( YearMonth::from ).orElse( null )
+                : null;
+        TransactionPartitionPlan plan = TransactionPartitionPlan.plan( existing, earliest,
+                YearMonth.from( LocalDate.now( ) ), lookaheadMonths, retentionMonths );
+
+        if ( !plan.create( ).isEmpty( ) ) {
+            if ( existing.isEmpty( ) ) {
+                log.info( "Partitioning the transactions table into {} monthly partitions from {}",
+                        plan.create( ).size( ), plan.create( ).getFirst( ) );
+                partitionRepository.partitionByMonth( plan.create( ) );
+            } else {
+                partitionRepository.addMonths( plan.create( ) );
+            }
+        }
+        for ( YearMonth month : plan.archive( ) ) {
+            partitionRepository.archive( month );
+        }
+        if ( !plan.isEmpty( ) ) {
+            log.info( "Transaction partitions: created {}, archived {}", plan.create( ), plan.archive( ) );
+        }
+        return plan;
+    }
+}
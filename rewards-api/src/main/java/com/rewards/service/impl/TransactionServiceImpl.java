@@ -1,46 +1,93 @@
 package com.rewards.service.impl;
 
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
 import com.rewards.dto.TransactionRequestDTO;
+import com.rewards.metrics.RewardMetrics;
 import com.rewards.model.Customer;
 import com.rewards.model.Transaction;
-import com.rewards.repository.CustomerRepository;
 import com.rewards.repository.TransactionRepository;
+import com.rewards.service.PointsLedgerService;
+import com.rewards.service.RewardRollupService;
 import com.rewards.service.TransactionService;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.OptimisticRetryTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository txRepo;
-    private final CustomerRepository customerRepo;
+    private final CustomerIdentityCache customerIdentityCache;
+    private final RewardRollupService rewardRollupService;
+    private final RewardResponseCache rewardResponseCache;
+    private final RewardMetrics rewardMetrics;
+    private final PointsLedgerService pointsLedgerService;
+    private final OptimisticRetryTemplate retryTemplate;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final TransactionStore transactionStore;
 
-    public TransactionServiceImpl(TransactionRepository txRepo, CustomerRepository customerRepo) {
+    public TransactionServiceImpl(TransactionRepository txRepo, CustomerIdentityCache customerIdentityCache,
+                                  RewardRollupService rewardRollupService,
+                                  RewardResponseCache rewardResponseCache,
+                                  RewardMetrics rewardMetrics,
+                                  PointsLedgerService pointsLedgerService,
+                                  OptimisticRetryTemplate retryTemplate,
+                                  ReplicaStalenessGuard stalenessGuard,
+                                  TransactionStore transactionStore) {
         this.txRepo = txRepo;
-        this.customerRepo = customerRepo;
+        this.customerIdentityCache = customerIdentityCache;
+        this.rewardRollupService = rewardRollupService;
+        this.rewardResponseCache = rewardResponseCache;
+        this.rewardMetrics = rewardMetrics;
+        this.pointsLedgerService = pointsLedgerService;
+        this.retryTemplate = retryTemplate;
+        this.stalenessGuard = stalenessGuard;
+        this.transactionStore = transactionStore;
     }
 
+    /**
+     * Saves the transaction together with its rollup and ledger entry in one DB transaction, which is re-run
+     * when a concurrent write to the same customer's balance wins the optimistic lock. With
+     * {@code rewards.ledger.write-behind.enabled} the balance is not written here but accumulated after commit,
+     * so concurrent writes for one customer no longer queue on its row.
+     */
     @Override
     public Transaction createTransaction(TransactionRequestDTO req) {
+        return rewardMetrics.timeCreateTransaction( () -> retryTemplate.execute( status -> saveTransaction( req ) ) );
+    }
+
+    private Transaction saveTransaction(TransactionRequestDTO req) {
         Customer customer = null;
 
         // 1. Try by ID
         if ( req.getCustomerId( ) != null ) {
-            customer = customerRepo.findById( req.getCustomerId( ) ).orElse( null );
+            customer = customerIdentityCache.findById( req.getCustomerId( ) ).orElse( null );
         }
 
         // 2. Try by Email
         if ( customer == null && req.getCustomerEmail( ) != null ) {
-            customer = customerRepo.findByCustomerEmail( req.getCustomerEmail( ) ).orElse( null );
+            customer = customerIdentityCache.findByEmail( req.getCustomerEmail( ) ).orElse( null );
         }
         // 3. Throw if not found
         if ( customer == null ) {
             throw new NoSuchElementException( "Customer not found. Please register first." );
         }
 
-        // 4. Save transaction
-        Transaction tx = new Transaction( req.getAmount( ), req.getTransactionDate( ), customer );
-        return txRepo.save( tx );
+        // 4. Save transaction, roll it into the customer's month, ledger and in-memory store (the month and ledger
+        //    only after commit in write-behind mode), and drop their cached rewards on commit
+        Transaction transaction = new Transaction( req.getAmount( ), req.getTransactionDate( ), customer );
+        transaction.setCategory( req.getCategory( ) );
+        Transaction saved = txRepo.save( transaction );
+        rewardRollupService.recordTransaction( saved );
+        pointsLedgerService.recordTransaction( saved );
+        transactionStore.recordAfterCommit( List.of( saved ) );
+        rewardResponseCache.evictCustomerAfterCommit( customer.getId( ) );
+        stalenessGuard.pinAfterWrite( customer.getId( ) );
+        return saved;
     }
 }
@@ -0,0 +1,372 @@
+package com.rewards.store;
+
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.model.Customer;
+import com.rewards.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * The in-memory reward state in one local file: the {@link TransactionStore}'s columns, the highest transaction id
+ * and the {@code recorded_at} watermark they include, and the {@link CustomerIdentityCache}'s customers, i.e. the
+ * email index. With {@code rewards.store.snapshot.enabled}, it is written on shutdown and restored at startup, so a
+ * restart maps one file instead of scanning the transactions table; the store then only catches up on transactions
+ * committed since.
+ * <p>
+ * Layout; the header is big-endian, everything after it in the byte order the header names:
+ * <pre>
+ * header     magic, version, byte order (1 little-endian, 0 big), rows, index length, 0       6 ints
+ *            highest transaction id, written at (epoch millis), tail bytes, CRC32 of the body,
+ *            recorded through (epoch micros)                                                  5 longs
+ * columns    ids (longs), cents (longs), days (ints), categories (shorts), customer by customer; padded to 8
+ * runs       per customer id from 0 to the index length: its number of rows (int); padded to 8
+ * tail       category count, names; customer count, then per customer its id and name, email and contact
+ *            number; strings are a UTF-8 length (int, -1 for null) and bytes
+ * </pre>
+ * A snapshot is only valid for the database it was taken from, which is assumed when that database's highest
+ * transaction id is not below the snapshot's.
+ */
+@Component
+public class RewardStateSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger( RewardStateSnapshot.class );
+
+    static final int MAGIC = 0x52535453;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 6 * Integer.BYTES + 5 * Long.BYTES;
+    private static final int STAGING_BYTES = 1 << 20;
+
+    /** What {@link #read} found: columns ready for {@link TransactionStore#load(TransactionColumns, long, Instant)}. */
+    public record Restored(TransactionColumns columns, long highestId, Instant recordedThrough, List<Customer> customers,
+                           Instant writtenAt) {
+    }
+
+    private final TransactionStore transactionStore;
+    private final TransactionRepository transactionRepository;
+    private final CustomerIdentityCache customerIdentityCache;
+    private final boolean enabled;
+    private final Path path;
+
+    public RewardStateSnapshot(TransactionStore transactionStore,
+                               TransactionRepository transactionRepository,
+                               CustomerIdentityCache customerIdentityCache,
+                               @Value("${rewards.store.snapshot.enabled:false}") boolean enabled,
+                               @Value("${rewards.store.snapshot.path:snapshot/reward-state.bin}") Path path) {
+        this.transactionStore = transactionStore;
+        this.transactionRepository = transactionRepository;
+        this.customerIdentityCache = customerIdentityCache;
+        this.enabled = enabled;
+        this.path = path;
+    }
+
+    /**
+     * Reads the snapshot and puts its customers into the identity cache. Returns null, leaving the store to a full
+     * load, when there is none or it cannot be used: unreadable, corrupt, or ahead of the database.
+     */
+    public Restored restore() {
+        if ( !enabled || !Files.exists( path ) ) {
+            return null;
+        }
+        long start = System.nanoTime( );
+        try {
+            Restored restored = read( path );
+            Long maxId = transactionRepository.findMaxId( );
+            if ( restored.highestId( ) > (maxId == null ? 0 : maxId) ) {
+                log.warn( "Ignoring the reward state snapshot {}: it includes transaction {}, the database ends at {}",
+                        path, restored.highestId( ), maxId );
+                return null;
+            }
+            restored.customers( ).forEach( customerIdentityCache::put );
+            log.info( "Restored {} transactions and {} customers from the reward state snapshot {}, written {} ago, in {} ms",
+                    restored.columns( ).rows( ), restored.customers( ).size( ), path,
+                    Duration.between( restored.writtenAt( ), Instant.now( ) ).withNanos( 0 ),
+                    TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start ) );
+            return restored;
+        } catch ( IOException | RuntimeException | OutOfMemoryError e ) {
+            log.warn( "Cannot restore the reward state snapshot {}; loading from the database", path, e );
+            return null;
+        }
+    }
+
+    /**
+     * Writes the current state, replacing the previous snapshot. Holds the store's read lock meanwhile; does nothing
+     * while the store is not loaded. Failures are logged and leave the previous snapshot, which is still valid.
+     */
+    public void save() {
+        if ( !enabled ) {
+            return;
+        }
+        long start = System.nanoTime( );
+        List<Customer> customers = customerIdentityCache.customers( );
+        try {
+            Long rows = transactionStore.read( c -> {
+                try {
+                    write( path, c, transactionStore.highestId( ), transactionStore.recordedThrough( ), customers );
+                    return c.rows( );
+                } catch ( IOException e ) {
+                    throw new UncheckedIOException( e );
+                }
+            }, ( ) -> null );
+            if ( rows == null ) {
+                log.info( "The in-memory transaction store is not loaded, so no reward state snapshot was written" );
+                return;
+            }
+            log.info( "Wrote {} transactions and {} customers to the reward state snapshot {} in {} ms", rows,
+                    customers.size( ), path, TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start ) );
+        } catch ( RuntimeException e ) {
+            log.warn( "Writing the reward state snapshot {} failed", path, e );
+        }
+    }
+
+    /** Writes the snapshot next to {@code target}, forces it to disk and moves it into place atomically. */
+    static void write(Path target, TransactionColumns columns, long highestId, Instant recordedThrough,
+                      Collection<Customer> customers) throws IOException {
+        Path absolute = target.toAbsolutePath( );
+        Files.createDirectories( absolute.getParent( ) );
+        Path temporary = absolute.resolveSibling( absolute.getFileName( ) + ".tmp" );
+        try ( FileChannel channel = FileChannel.open( temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING ) ) {
+            channel.position( HEADER_BYTES );
+            Output out = new Output( channel );
+            columns.writeTo( out );
+            long tailStart = out.size( );
+            out.putInt( columns.categoryNames( ).size( ) );
+            for ( String name : columns.categoryNames( ) ) {
+                out.putString( name );
+            }
+            out.putInt( customers.size( ) );
+            for ( Customer customer : customers ) {
+                out.putLong( customer.getId( ) );
+                out.putString( customer.getCustomerName( ) );
+                out.putString( customer.getCustomerEmail( ) );
+                out.putString( customer.getCustomerContactNumber( ) );
+            }
+            out.flush( );
+
+            ByteBuffer header = ByteBuffer.allocate( HEADER_BYTES );
+            header.putInt( MAGIC ).putInt( VERSION ).putInt( ByteOrder.nativeOrder( ) == ByteOrder.LITTLE_ENDIAN ? 1 : 0 )
+                    .putInt( Math.toIntExact( columns.rows( ) ) ).putInt( columns.indexLength( ) ).putInt( 0 )
+                    .putLong( highestId ).putLong( System.currentTimeMillis( ) ).putLong( out.size( ) - tailStart )
+                    .putLong( out.checksum( ) ).putLong( ChronoUnit.MICROS.between( Instant.EPOCH, recordedThrough ) ).flip( );
+            for ( long position = 0; header.hasRemaining( ); ) {
+                position += channel.write( header, position );
+            }
+            channel.force( true );
+        }
+        Files.move( temporary, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+    }
+
+    /**
+     * Maps the snapshot section by section, verifies its checksum, which reads it once, and copies the columns
+     * into new off-heap columns. Throws {@link IllegalStateException} for a file that is not a complete snapshot
+     * of this format and byte order.
+     */
+    static Restored read(Path path) throws IOException {
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.READ ) ) {
+            if ( channel.size( ) < HEADER_BYTES ) {
+                throw new IllegalStateException( "Not a reward state snapshot: " + path );
+            }
+            ByteBuffer header = channel.map( FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES );
+            if ( header.getInt( 0 ) != MAGIC ) {
+                throw new IllegalStateException( "Not a reward state snapshot: " + path );
+            }
+            if ( header.getInt( 4 ) != VERSION ) {
+                throw new IllegalStateException( "Unsupported reward state snapshot version " + header.getInt( 4 ) + ": " + path );
+            }
+            ByteOrder order = header.getInt( 8 ) == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            if ( order != ByteOrder.nativeOrder( ) ) {
+                throw new IllegalStateException( "Reward state snapshot written with another byte order: " + path );
+            }
+            int rows = header.getInt( 12 );
+            int indexLength = header.getInt( 16 );
+            long highestId = header.getLong( 24 );
+            Instant writtenAt = Instant.ofEpochMilli( header.getLong( 32 ) );
+            long tailBytes = header.getLong( 40 );
+            Instant recordedThrough = Instant.EPOCH.plus( header.getLong( 56 ), ChronoUnit.MICROS );
+            long columnBytes = (long) rows * TransactionColumns.BYTES_PER_ROW;
+            if ( rows < 0 || rows > TransactionColumns.MAX_ROWS || indexLength < 0 || tailBytes < 0 || tailBytes > Integer.MAX_VALUE
+                    || channel.size( ) != HEADER_BYTES + padded( columnBytes ) + padded( (long) indexLength * Integer.BYTES ) + tailBytes ) {
+                throw new IllegalStateException( "Truncated reward state snapshot: " + path );
+            }
+
+            CRC32 crc = new CRC32( );
+            long position = HEADER_BYTES;
+            LongBuffer ids = section( channel, position, (long) rows * Long.BYTES, crc ).asLongBuffer( );
+            position += (long) rows * Long.BYTES;
+            LongBuffer cents = section( channel, position, (long) rows * Long.BYTES, crc ).asLongBuffer( );
+            position += (long) rows * Long.BYTES;
+            IntBuffer days = section( channel, position, (long) rows * Integer.BYTES, crc ).asIntBuffer( );
+            position += (long) rows * Integer.BYTES;
+            long categoryBytes = padded( columnBytes ) - (columnBytes - (long) rows * Short.BYTES);
+            ShortBuffer categories = section( channel, position, categoryBytes, crc ).asShortBuffer( );
+            position += categoryBytes;
+            IntBuffer runSizes = section( channel, position, padded( (long) indexLength * Integer.BYTES ), crc )
+                    .asIntBuffer( ).limit( indexLength );
+            position += padded( (long) indexLength * Integer.BYTES );
+            ByteBuffer tail = section( channel, position, tailBytes, crc );
+            if ( crc.getValue( ) != header.getLong( 48 ) ) {
+                throw new IllegalStateException( "Corrupt reward state snapshot, checksum mismatch: " + path );
+            }
+
+            List<String> categoryNames = new ArrayList<>( );
+            for ( int i = tail.getInt( ); i > 0; i-- ) {
+                categoryNames.add( getString( tail ) );
+            }
+            List<Customer> customers = new ArrayList<>( );
+            for ( int i = tail.getInt( ); i > 0; i-- ) {
+                Customer customer = new Customer( );
+                customer.setId( tail.getLong( ) );
+                customer.setCustomerName( getString( tail ) );
+                customer.setCustomerEmail( getString( tail ) );
+                customer.setCustomerContactNumber( getString( tail ) );
+                customers.add( customer );
+            }
+            TransactionColumns columns = TransactionColumns.restore( rows, ids, cents, days, categories, runSizes, categoryNames );
+            return new Restored( columns, highestId, recordedThrough, customers, writtenAt );
+        }
+    }
+
+    private static ByteBuffer section(FileChannel channel, long position, long bytes, CRC32 crc) throws IOException {
+        ByteBuffer section = channel.map( FileChannel.MapMode.READ_ONLY, position, bytes ).order( ByteOrder.nativeOrder( ) );
+        crc.update( section.duplicate( ) );
+        return section;
+    }
+
+    private static long padded(long bytes) {
+        return (bytes + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt( );
+        if ( length < 0 ) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+    /** The body of a snapshot being written, staged in a direct buffer and checksummed as it is flushed. */
+    static final class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer staging = ByteBuffer.allocateDirect( STAGING_BYTES ).order( ByteOrder.nativeOrder( ) );
+        private final CRC32 crc = new CRC32( );
+        private long flushed;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long size() {
+            return flushed + staging.position( );
+        }
+
+        long checksum() {
+            return crc.getValue( );
+        }
+
+        void putLongs(LongBuffer source, int from, int length) throws IOException {
+            while ( length > 0 ) {
+                int n = Math.min( length, room( Long.BYTES ) );
+                staging.asLongBuffer( ).put( 0, source, from, n );
+                staging.position( staging.position( ) + n * Long.BYTES );
+                from += n;
+                length -= n;
+            }
+        }
+
+        void putInts(IntBuffer source, int from, int length) throws IOException {
+            while ( length > 0 ) {
+                int n = Math.min( length, room( Integer.BYTES ) );
+                staging.asIntBuffer( ).put( 0, source, from, n );
+                staging.position( staging.position( ) + n * Integer.BYTES );
+                from += n;
+                length -= n;
+            }
+        }
+
+        void putShorts(ShortBuffer source, int from, int length) throws IOException {
+            while ( length > 0 ) {
+                int n = Math.min( length, room( Short.BYTES ) );
+                staging.asShortBuffer( ).put( 0, source, from, n );
+                staging.position( staging.position( ) + n * Short.BYTES );
+                from += n;
+                length -= n;
+            }
+        }
+
+        void putInt(int value) throws IOException {
+            room( Integer.BYTES );
+            staging.putInt( value );
+        }
+
+        void putLong(long value) throws IOException {
+            room( Long.BYTES );
+            staging.putLong( value );
+        }
+
+        void putString(String value) throws IOException {
+            if ( value == null ) {
+                putInt( -1 );
+                return;
+            }
+            byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+            putInt( bytes.length );
+            for ( int offset = 0; offset < bytes.length; ) {
+                int n = Math.min( bytes.length - offset, room( 1 ) );
+                staging.put( bytes, offset, n );
+                offset += n;
+            }
+        }
+
+        /** Zero bytes up to the next multiple of 8. */
+        void pad() throws IOException {
+            while ( size( ) % Long.BYTES != 0 ) {
+                room( 1 );
+                staging.put( (byte) 0 );
+            }
+        }
+
+        /** Number of values of {@code bytes} each that fit the staging buffer, after flushing it if none does. */
+        private int room(int bytes) throws IOException {
+            if ( staging.remaining( ) < bytes ) {
+                flush( );
+            }
+            return staging.remaining( ) / bytes;
+        }
+
+        void flush() throws IOException {
+            staging.flip( );
+            crc.update( staging.duplicate( ) );
+            while ( staging.hasRemaining( ) ) {
+                flushed += channel.write( staging );
+            }
+            staging.clear( );
+        }
+    }
+}
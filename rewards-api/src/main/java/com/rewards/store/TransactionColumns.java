@@ -0,0 +1,429 @@
+package com.rewards.store;
+
+import com.rewards.repository.TransactionRow;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.util.MonthlyRewardAggregator;
+import com.rewards.util.RewardPointsCalculator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactions in off-heap columns (id, epoch day, whole cents, category code) clustered by customer. Each
+ * customer owns one run of consecutive slots, sorted by date and id, and an index by customer id gives the run's
+ * offset and size, so a range lookup is a binary search for its first day plus a sequential scan.
+ * <p>
+ * A run that is full moves to the end of the columns with twice its capacity, or just grows when it already is
+ * the last run, as during a load in customer order. When the columns are full, every run is copied tightly into
+ * columns twice the needed size. The index is on heap and indexed by customer id, which suits the dense ids of
+ * the customers table.
+ * <p>
+ * Not thread-safe; {@link TransactionStore} guards it.
+ */
+public final class TransactionColumns {
+
+    /** Most rows the columns can hold: a direct buffer is limited to 2 GB, and ids take 8 bytes. */
+    public static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+    /** Off-heap bytes per row slot: id, day, cents and category. */
+    public static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Long.BYTES + Short.BYTES;
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MIN_RUN_CAPACITY = 4;
+    /** Category codes are unsigned shorts, 0 meaning none. */
+    private static final int MAX_CATEGORIES = 0xFFFF;
+
+    private static final class Block {
+        final int capacity;
+        final LongBuffer ids;
+        final IntBuffer days;
+        final LongBuffer cents;
+        final ShortBuffer categories;
+
+        Block(int capacity) {
+            this.capacity = capacity;
+            this.ids = direct( capacity * Long.BYTES ).asLongBuffer( );
+            this.days = direct( capacity * Integer.BYTES ).asIntBuffer( );
+            this.cents = direct( capacity * Long.BYTES ).asLongBuffer( );
+            this.categories = direct( capacity * Short.BYTES ).asShortBuffer( );
+        }
+
+        private static ByteBuffer direct(int bytes) {
+            return ByteBuffer.allocateDirect( bytes ).order( ByteOrder.nativeOrder( ) );
+        }
+
+        void copy(int from, Block target, int to) {
+            target.ids.put( to, ids.get( from ) );
+            target.days.put( to, days.get( from ) );
+            target.cents.put( to, cents.get( from ) );
+            target.categories.put( to, categories.get( from ) );
+        }
+    }
+
+    private Block block;
+    private int top;
+    private long rows;
+    private int customers;
+    private int[] offsets = new int[0];
+    private int[] sizes = new int[0];
+    private int[] capacities = new int[0];
+    private final List<String> categoryNames = new ArrayList<>( );
+    private final Map<String, Integer> categoryCodes = new HashMap<>( );
+
+    /** Allocates room for {@code expectedRows}, capped at {@link #MAX_ROWS}. */
+    public TransactionColumns(long expectedRows) {
+        this.block = new Block( (int) Math.min( Math.max( expectedRows, MIN_CAPACITY ), MAX_ROWS ) );
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public int customers() {
+        return customers;
+    }
+
+    public long offHeapBytes() {
+        return (long) block.capacity * BYTES_PER_ROW;
+    }
+
+    /** Length of the index by customer id: one more than the highest customer id seen. */
+    int indexLength() {
+        return sizes.length;
+    }
+
+    List<String> categoryNames() {
+        return categoryNames;
+    }
+
+    /** Number of the customer's transactions; grows with every added row, so it versions the customer. */
+    public int size(long customerId) {
+        return customerId >= 0 && customerId < sizes.length ? sizes[(int) customerId] : 0;
+    }
+
+    /**
+     * Adds a row at its place in the customer's run. Returns false when the run already holds its id. Throws
+     * {@link IllegalArgumentException} for a customer id the index cannot hold and {@link IllegalStateException}
+     * when the columns are full.
+     */
+    public boolean add(TransactionRow row) {
+        if ( row.customerId( ) < 0 || row.customerId( ) >= MAX_ROWS ) {
+            throw new IllegalArgumentException( "Customer id " + row.customerId( ) + " is outside the store's index" );
+        }
+        int customer = row.customerId( ).intValue( );
+        int day = Math.toIntExact( row.transactionDate( ).toEpochDay( ) );
+        long id = row.id( );
+        long amountCents = row.amountCents( ) != null ? row.amountCents( ) : row.amount( ) == null ? 0L
+                : row.amount( ).movePointRight( 2 ).setScale( 0, RoundingMode.DOWN ).longValueExact( );
+        ensureIndexed( customer );
+
+        int size = sizes[customer];
+        int position = firstAfter( offsets[customer], size, day, id );
+        if ( position > 0 ) {
+            int previous = offsets[customer] + position - 1;
+            if ( block.days.get( previous ) == day && block.ids.get( previous ) == id ) {
+                return false;
+            }
+        }
+        short category = categoryCode( row.category( ) );
+        if ( size == capacities[customer] ) {
+            makeRoom( customer );
+        }
+        int offset = offsets[customer];
+        for ( int slot = offset + size; slot > offset + position; slot-- ) {
+            block.copy( slot - 1, block, slot );
+        }
+        int slot = offset + position;
+        block.ids.put( slot, id );
+        block.days.put( slot, day );
+        block.cents.put( slot, amountCents );
+        block.categories.put( slot, category );
+        if ( size == 0 ) {
+            customers++;
+        }
+        sizes[customer] = size + 1;
+        rows++;
+        return true;
+    }
+
+    private void ensureIndexed(int customer) {
+        if ( customer < sizes.length ) {
+            return;
+        }
+        int length = (int) Math.min( Math.max( (long) customer + 1, sizes.length * 2L ), MAX_ROWS );
+        offsets = Arrays.copyOf( offsets, length );
+        sizes = Arrays.copyOf( sizes, length );
+        capacities = Arrays.copyOf( capacities, length );
+    }
+
+    private short categoryCode(String category) {
+        if ( category == null ) {
+            return 0;
+        }
+        Integer code = categoryCodes.get( category );
+        if ( code == null ) {
+            if ( categoryNames.size( ) == MAX_CATEGORIES ) {
+                throw new IllegalStateException( "The transaction store holds at most " + MAX_CATEGORIES + " categories" );
+            }
+            categoryNames.add( category );
+            code = categoryNames.size( );
+            categoryCodes.put( category, code );
+        }
+        return (short) (int) code;
+    }
+
+    /**
+     * Gives a full run one more slot: the last run grows in place, any other moves to the end with twice its
+     * capacity. Compacts first when the end has no room.
+     */
+    private void makeRoom(int customer) {
+        int size = sizes[customer];
+        boolean last = capacities[customer] == 0 || offsets[customer] + capacities[customer] == top;
+        int grown = last ? 1 : Math.max( MIN_RUN_CAPACITY, size * 2 );
+        if ( top + grown > block.capacity ) {
+            compact( customer, size + grown );
+            return;
+        }
+        if ( last ) {
+            if ( capacities[customer] == 0 ) {
+                offsets[customer] = top;
+            }
+            capacities[customer] += grown;
+            top += grown;
+            return;
+        }
+        int from = offsets[customer];
+        for ( int i = 0; i < size; i++ ) {
+            block.copy( from + i, block, top + i );
+        }
+        offsets[customer] = top;
+        capacities[customer] = grown;
+        top += grown;
+    }
+
+    /**
+     * Copies every run tightly, in customer order, into columns with twice the room they need, and places
+     * {@code customer}'s run last with {@code capacity} slots.
+     */
+    private void compact(int customer, int capacity) {
+        long needed = rows - sizes[customer] + capacity;
+        if ( needed > MAX_ROWS ) {
+            throw new IllegalStateException( "The transaction store is full at " + rows + " rows" );
+        }
+        Block target = new Block( (int) Math.min( Math.max( needed * 2, MIN_CAPACITY ), MAX_ROWS ) );
+        int next = 0;
+        for ( int c = 0; c < sizes.length; c++ ) {
+            if ( c == customer || capacities[c] == 0 ) {
+                continue;
+            }
+            for ( int i = 0; i < sizes[c]; i++ ) {
+                block.copy( offsets[c] + i, target, next + i );
+            }
+            offsets[c] = next;
+            capacities[c] = sizes[c];
+            next += sizes[c];
+        }
+        for ( int i = 0; i < sizes[customer]; i++ ) {
+            block.copy( offsets[customer] + i, target, next + i );
+        }
+        offsets[customer] = next;
+        capacities[customer] = capacity;
+        top = next + capacity;
+        block = target;
+    }
+
+    /**
+     * Writes the runs tightly in customer order, column by column (ids, cents, days, categories), then the run
+     * size of every indexed customer id.
+     */
+    void writeTo(RewardStateSnapshot.Output out) throws IOException {
+        for ( int c = 0; c < sizes.length; c++ ) {
+            out.putLongs( block.ids, offsets[c], sizes[c] );
+        }
+        for ( int c = 0; c < sizes.length; c++ ) {
+            out.putLongs( block.cents, offsets[c], sizes[c] );
+        }
+        for ( int c = 0; c < sizes.length; c++ ) {
+            out.putInts( block.days, offsets[c], sizes[c] );
+        }
+        for ( int c = 0; c < sizes.length; c++ ) {
+            out.putShorts( block.categories, offsets[c], sizes[c] );
+        }
+        out.pad( );
+        out.putInts( IntBuffer.wrap( sizes ), 0, sizes.length );
+        out.pad( );
+    }
+
+    /**
+     * Columns holding what {@link #writeTo} wrote, with room for as many rows again. Throws
+     * {@link IllegalStateException} when the run sizes do not add up to {@code rows}.
+     */
+    static TransactionColumns restore(int rows, LongBuffer ids, LongBuffer cents, IntBuffer days, ShortBuffer categories,
+                                      IntBuffer runSizes, List<String> categoryNames) {
+        TransactionColumns columns = new TransactionColumns( rows * 2L );
+        Block block = columns.block;
+        block.ids.put( 0, ids, 0, rows );
+        block.cents.put( 0, cents, 0, rows );
+        block.days.put( 0, days, 0, rows );
+        block.categories.put( 0, categories, 0, rows );
+        int length = runSizes.remaining( );
+        columns.offsets = new int[length];
+        columns.sizes = new int[length];
+        columns.capacities = new int[length];
+        int next = 0;
+        for ( int c = 0; c < length; c++ ) {
+            int size = runSizes.get( c );
+            if ( size < 0 || size > rows - next ) {
+                throw new IllegalStateException( "Run sizes exceed the " + rows + " rows of the snapshot" );
+            }
+            columns.offsets[c] = next;
+            columns.sizes[c] = size;
+            columns.capacities[c] = size;
+            columns.customers += size > 0 ? 1 : 0;
+            next += size;
+        }
+        if ( next != rows ) {
+            throw new IllegalStateException( "Run sizes add up to " + next + " of the " + rows + " rows of the snapshot" );
+        }
+        columns.top = rows;
+        columns.rows = rows;
+        categoryNames.forEach( columns::categoryCode );
+        return columns;
+    }
+
+    /** Index within the run of the first row ordered after {@code (day, id)}. */
+    private int firstAfter(int offset, int size, int day, long id) {
+        int low = 0;
+        int high = size;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            int midDay = block.days.get( offset + mid );
+            if ( midDay < day || (midDay == day && block.ids.get( offset + mid ) <= id) ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Index within the run of the first row dated on or after {@code day}. */
+    private int firstFrom(int offset, int size, int day) {
+        int low = 0;
+        int high = size;
+        while ( low < high ) {
+            int mid = (low + high) >>> 1;
+            if ( block.days.get( offset + mid ) < day ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * The customer's rows in {@code [from, to]}, as {@code TransactionRepository} returns them. Like the table's
+     * {@code between}, a null end matches nothing.
+     */
+    public List<TransactionRow> findRows(long customerId, LocalDate from, LocalDate to) {
+        int size = size( customerId );
+        if ( from == null || to == null || size == 0 ) {
+            return new ArrayList<>( );
+        }
+        int offset = offsets[(int) customerId];
+        int first = offset + firstFrom( offset, size, Math.toIntExact( from.toEpochDay( ) ) );
+        int end = offset + firstFrom( offset, size, Math.toIntExact( to.toEpochDay( ) + 1 ) );
+        List<TransactionRow> found = new ArrayList<>( Math.max( 0, end - first ) );
+        LocalDate date = null;
+        for ( int slot = first; slot < end; slot++ ) {
+            date = dateOf( slot, date );
+            found.add( toRow( customerId, slot, date ) );
+        }
+        return found;
+    }
+
+    /**
+     * Up to {@code limit} of the customer's rows in {@code [from, to]} ordered after {@code (afterDate, afterId)},
+     * like {@code TransactionRepository#findRowsAfter}.
+     */
+    public List<TransactionRow> findRowsAfter(long customerId, LocalDate from, LocalDate to, LocalDate afterDate,
+                                              long afterId, int limit) {
+        List<TransactionRow> found = new ArrayList<>( );
+        int size = size( customerId );
+        if ( size == 0 ) {
+            return found;
+        }
+        int offset = offsets[(int) customerId];
+        long fromDay = from.toEpochDay( );
+        long toDay = to.toEpochDay( );
+        LocalDate date = null;
+        for ( int slot = offset + firstAfter( offset, size, Math.toIntExact( afterDate.toEpochDay( ) ), afterId );
+              slot < offset + size && found.size( ) < limit; slot++ ) {
+            int day = block.days.get( slot );
+            if ( day > toDay ) {
+                break;
+            }
+            if ( day >= fromDay ) {
+                date = dateOf( slot, date );
+                found.add( toRow( customerId, slot, date ) );
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Scores the customer's rows in {@code [from, to]} under {@code rules} into the monthly totals and returns
+     * how many there were. Allocates once per month, not per row.
+     */
+    public long addPoints(long customerId, LocalDate from, LocalDate to, CompiledRewardRules rules,
+                          MonthlyRewardAggregator monthlyRewards) {
+        int size = size( customerId );
+        if ( size == 0 ) {
+            return 0;
+        }
+        int offset = offsets[(int) customerId];
+        int end = offset + size;
+        long toDay = to.toEpochDay( );
+        int slot = offset + firstFrom( offset, size, Math.toIntExact( from.toEpochDay( ) ) );
+        int first = slot;
+        while ( slot < end && block.days.get( slot ) <= toDay ) {
+            YearMonth month = YearMonth.from( LocalDate.ofEpochDay( block.days.get( slot ) ) );
+            long monthEnd = Math.min( month.atEndOfMonth( ).toEpochDay( ), toDay );
+            int points = 0;
+            for ( ; slot < end && block.days.get( slot ) <= monthEnd; slot++ ) {
+                points += RewardPointsCalculator.calculatePoints( rules, block.cents.get( slot ), block.days.get( slot ), category( slot ) );
+            }
+            monthlyRewards.add( month.atDay( 1 ), points );
+        }
+        return slot - first;
+    }
+
+    /** The slot's date, reusing {@code previous} for rows of the same day. */
+    private LocalDate dateOf(int slot, LocalDate previous) {
+        int day = block.days.get( slot );
+        return previous != null && previous.toEpochDay( ) == day ? previous : LocalDate.ofEpochDay( day );
+    }
+
+    private TransactionRow toRow(long customerId, int slot, LocalDate date) {
+        long cents = block.cents.get( slot );
+        return new TransactionRow( block.ids.get( slot ), customerId, BigDecimal.valueOf( cents, 2 ), cents, date, category( slot ) );
+    }
+
+    private String category(int slot) {
+        int category = Short.toUnsignedInt( block.categories.get( slot ) );
+        return category == 0 ? null : categoryNames.get( category - 1 );
+    }
+}
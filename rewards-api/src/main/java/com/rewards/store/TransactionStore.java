@@ -0,0 +1,254 @@
+package com.rewards.store;
+
+import com.rewards.model.Transaction;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-memory copy of the transactions table for the reward read paths, held in {@link TransactionColumns}.
+ * With {@code rewards.store.enabled}, {@link #load} fills it at startup; until then, and for good once it fails or
+ * fills up, {@link #read} runs the caller's database query instead.
+ * <p>
+ * Rows this instance commits are added right after their commit. Rows written elsewhere, by other instances or
+ * straight into the database, are added by {@link #catchUp}, which re-reads the rows recorded from
+ * {@code catch-up-lag} before the latest {@code recorded_at} seen. Ids are no watermark: each instance draws them
+ * in blocks of {@link Transaction#ID_ALLOCATION_SIZE}, so a quiet instance commits ids far below a busy one's. The
+ * database stamps {@code recorded_at} at insert, so a row is found as long as it commits within {@code catch-up-lag}
+ * of being inserted. Rows are never removed: the archive job's deletes leave them here, and readers that merge the
+ * archive drop the duplicates by id.
+ * <p>
+ * A {@link RewardStateSnapshot} written at shutdown lets the next start skip the full load.
+ */
+@Component
+public class TransactionStore implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger( TransactionStore.class );
+
+    /** Store versions start here, so a customer's version never equals a rollup transaction count. */
+    public static final long VERSION_BASE = 1L << 62;
+    /** Customer ids per streamed range of the load. */
+    static final long LOAD_RANGE_CUSTOMERS = 10_000;
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionStreamRepository transactionStreamRepository;
+    private final CustomerRepository customerRepository;
+    private final boolean enabled;
+    private final Duration catchUpLag;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock( );
+    private volatile TransactionColumns columns;
+    private volatile long highestId;
+    private volatile Instant recordedThrough = Instant.EPOCH;
+
+    public TransactionStore(TransactionRepository transactionRepository,
+                            TransactionStreamRepository transactionStreamRepository,
+                            CustomerRepository customerRepository,
+                            @Value("${rewards.store.enabled:false}") boolean enabled,
+                            @Value("${rewards.store.catch-up-lag:10s}") Duration catchUpLag) {
+        if ( catchUpLag.isNegative( ) || catchUpLag.isZero( ) ) {
+            throw new IllegalArgumentException( "rewards.store.catch-up-lag must be positive" );
+        }
+        this.transactionRepository = transactionRepository;
+        this.transactionStreamRepository = transactionStreamRepository;
+        this.customerRepository = customerRepository;
+        this.enabled = enabled;
+        this.catchUpLag = catchUpLag;
+    }
+
+    /** Whether reads are served from memory. */
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    /**
+     * Applies {@code reader} to the columns under the read lock, or returns {@code fallback}'s result, computed
+     * without the lock, while the store is not ready.
+     */
+    public <T> T read(Function<TransactionColumns, T> reader, Supplier<T> fallback) {
+        if ( columns != null ) {
+            lock.readLock( ).lock( );
+            try {
+                TransactionColumns current = columns;
+                if ( current != null ) {
+                    return reader.apply( current );
+                }
+            } finally {
+                lock.readLock( ).unlock( );
+            }
+        }
+        return fallback.get( );
+    }
+
+    /**
+     * Streams every transaction into new columns, customer range by customer range, adds what was committed
+     * meanwhile and starts serving reads. Failures are logged and leave the store off.
+     */
+    public void load() {
+        if ( !enabled ) {
+            return;
+        }
+        long start = System.nanoTime( );
+        try {
+            Long maxId = transactionRepository.findMaxId( );
+            Instant maxRecordedAt = transactionStreamRepository.findMaxRecordedAt( );
+            Long maxCustomerId = customerRepository.findMaxId( );
+            TransactionColumns loaded = new TransactionColumns( transactionRepository.count( ) );
+            for ( long afterId = 0; maxCustomerId != null && afterId < maxCustomerId; afterId += LOAD_RANGE_CUSTOMERS ) {
+                transactionStreamRepository.streamCustomerRange( afterId, afterId + LOAD_RANGE_CUSTOMERS, loaded::add );
+            }
+            highestId = maxId == null ? 0 : maxId;
+            recordedThrough = maxRecordedAt == null ? Instant.EPOCH : maxRecordedAt;
+            add( loaded, recentRows( ) );
+            columns = loaded;
+            log.info( "Loaded {} transactions of {} customers into memory in {} ms, {} MB off-heap", loaded.rows( ),
+                    loaded.customers( ), TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start ), loaded.offHeapBytes( ) >> 20 );
+        } catch ( RuntimeException | OutOfMemoryError e ) {
+            log.error( "Loading the in-memory transaction store failed; rewards are read from the database", e );
+        }
+    }
+
+    /**
+     * Starts from columns restored by {@link RewardStateSnapshot}: adds what was recorded from {@code catch-up-lag}
+     * before {@code restoredRecordedThrough} on, and starts serving reads. Falls back to the full {@link #load} when
+     * that fails.
+     */
+    public void load(TransactionColumns restored, long restoredHighestId, Instant restoredRecordedThrough) {
+        if ( !enabled ) {
+            return;
+        }
+        long start = System.nanoTime( );
+        try {
+            highestId = restoredHighestId;
+            recordedThrough = restoredRecordedThrough;
+            int added = add( restored, recentRows( ) );
+            columns = restored;
+            log.info( "Caught up the restored transaction store with {} transactions in {} ms", added,
+                    TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start ) );
+        } catch ( RuntimeException | OutOfMemoryError e ) {
+            log.warn( "Catching up the restored transaction store failed; loading it from the database", e );
+            load( );
+        }
+    }
+
+    /** Highest transaction id added so far; consistent with the columns under the read lock. */
+    long highestId() {
+        return highestId;
+    }
+
+    /**
+     * Latest {@code recorded_at} read back from the database; every row recorded {@code catch-up-lag} before it is
+     * in the columns. Consistent with them under the read lock.
+     */
+    Instant recordedThrough() {
+        return recordedThrough;
+    }
+
+    /** Adds rows other writers committed since the last catch-up and returns how many were new. */
+    public int catchUp() {
+        TransactionColumns current = columns;
+        return current == null ? 0 : addOrSwitchOff( current, recentRows( ) );
+    }
+
+    private Rows recentRows() {
+        List<TransactionRow> rows = new ArrayList<>( );
+        Instant since = recordedThrough.minus( catchUpLag );
+        Instant latest = transactionStreamRepository.streamRecordedSince(
+                since.isBefore( Instant.EPOCH ) ? Instant.EPOCH : since, rows::add );
+        return new Rows( rows, latest );
+    }
+
+    /**
+     * Rows to add and, when they were read back from the database, the latest {@code recorded_at} among them;
+     * otherwise null.
+     */
+    private record Rows(List<TransactionRow> rows, Instant latestRecordedAt) {
+    }
+
+    /**
+     * Adds the transactions once the current DB transaction commits, or immediately when none is active. Does
+     * nothing while the store is not ready; {@link #catchUp} finds them then.
+     */
+    public void recordAfterCommit(Collection<Transaction> transactions) {
+        TransactionColumns ready = columns;
+        if ( ready == null || transactions.isEmpty( ) ) {
+            return;
+        }
+        List<TransactionRow> rows = transactions.stream( )
+                .map( t -> new TransactionRow( t.getId( ), t.getCustomer( ).getId( ), t.getAmount( ), t.getAmountCents( ),
+                        t.getTransactionDate( ), t.getCategory( ) ) )
+                .toList( );
+        if ( !TransactionSynchronizationManager.isSynchronizationActive( ) ) {
+            addOrSwitchOff( ready, new Rows( rows, null ) );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization( ) {
+            @Override
+            public void afterCommit() {
+                TransactionColumns current = columns;
+                if ( current != null ) {
+                    addOrSwitchOff( current, new Rows( rows, null ) );
+                }
+            }
+        } );
+    }
+
+    /** Adds the rows; a row the columns cannot take, e.g. once they are full, switches the store off. */
+    private int addOrSwitchOff(TransactionColumns target, Rows rows) {
+        try {
+            return add( target, rows );
+        } catch ( RuntimeException | OutOfMemoryError e ) {
+            if ( columns == target ) {
+                columns = null;
+                log.error( "The in-memory transaction store is off; rewards are read from the database", e );
+            }
+            return 0;
+        }
+    }
+
+    /** Adds the rows and only then moves the watermark, so a snapshot never holds one ahead of its columns. */
+    private int add(TransactionColumns target, Rows rows) {
+        lock.writeLock( ).lock( );
+        try {
+            int added = 0;
+            for ( TransactionRow row : rows.rows( ) ) {
+                added += target.add( row ) ? 1 : 0;
+                highestId = Math.max( highestId, row.id( ) );
+            }
+            if ( rows.latestRecordedAt( ) != null && rows.latestRecordedAt( ).isAfter( recordedThrough ) ) {
+                recordedThrough = rows.latestRecordedAt( );
+            }
+            return added;
+        } finally {
+            lock.writeLock( ).unlock( );
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder( "rewards.store.transactions", this, s -> s.read( c -> (double) c.rows( ), ( ) -> 0.0 ) )
+                .register( registry );
+        Gauge.builder( "rewards.store.bytes", this, s -> s.read( c -> (double) c.offHeapBytes( ), ( ) -> 0.0 ) )
+                .baseUnit( "bytes" ).register( registry );
+    }
+}
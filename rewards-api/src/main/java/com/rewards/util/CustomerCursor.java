@@ -0,0 +1,33 @@
+package com.rewards.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset-paginated customer listings. Clients pass it back unchanged; only this
+ * class knows it wraps the last returned customer id.
+ */
+public final class CustomerCursor {
+
+    private static final String PREFIX = "customer:";
+
+    private CustomerCursor() {
+    }
+
+    public static String encode(long afterId) {
+        return Base64.getUrlEncoder( ).withoutPadding( )
+                .encodeToString( (PREFIX + afterId).getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    public static long decode(String cursor) {
+        try {
+            String value = new String( Base64.getUrlDecoder( ).decode( cursor ), StandardCharsets.UTF_8 );
+            if ( value.startsWith( PREFIX ) ) {
+                return Long.parseLong( value.substring( PREFIX.length( ) ) );
+            }
+        } catch ( IllegalArgumentException ex ) {
+            // falls through to the error below; NumberFormatException is an IllegalArgumentException too
+        }
+        throw new IllegalArgumentException( "Invalid 'cursor': " + cursor );
+    }
+}
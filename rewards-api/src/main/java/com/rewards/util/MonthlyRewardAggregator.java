@@ -0,0 +1,78 @@
+package com.rewards.util;
+
+import com.rewards.mapper.RewardMapper;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sums reward points per calendar month into primitive buckets indexed by month offset from the start of a
+ * range, so adding a transaction allocates nothing. The Year-Month keyed map is built once, in chronological
+ * order, when the result is requested.
+ */
+public final class MonthlyRewardAggregator {
+
+    private final int firstMonth;
+    private final int[] points;
+    private final boolean[] present;
+    private int totalPoints;
+
+    /**
+     * Creates buckets for every month touched by the inclusive range {@code start}-{@code end}.
+     */
+    public MonthlyRewardAggregator(LocalDate start, LocalDate end) {
+        if ( start.isAfter( end ) ) {
+            throw new IllegalArgumentException( "'from' date cannot be after 'to' date" );
+        }
+        this.firstMonth = monthIndex( start );
+        int months = monthIndex( end ) - firstMonth + 1;
+        this.points = new int[months];
+        this.present = new boolean[months];
+    }
+
+    /**
+     * Adds points to the month of {@code date}: one transaction's points, or a pre-aggregated month such as a
+     * rollup row.
+     */
+    public void add(LocalDate date, int monthPoints) {
+        int offset = monthIndex( date ) - firstMonth;
+        if ( offset < 0 || offset >= points.length ) {
+            throw new IllegalArgumentException( "Date " + date + " is outside the aggregated range" );
+        }
+        points[offset] += monthPoints;
+        present[offset] = true;
+        totalPoints += monthPoints;
+    }
+
+    public int totalPoints() {
+        return totalPoints;
+    }
+
+    /** Clears all buckets so the aggregator can be reused for the next customer over the same range. */
+    public void reset() {
+        Arrays.fill( points, 0 );
+        Arrays.fill( present, false );
+        totalPoints = 0;
+    }
+
+    /**
+     * Monthly totals keyed by Year-Month, oldest first. Months without transactions are left out unless
+     * {@code includeEmptyMonths} is set, in which case every month of the range appears, with 0 if empty.
+     */
+    public Map<String, Integer> toMonthlyRewards(boolean includeEmptyMonths) {
+        Map<String, Integer> monthlyRewards = new LinkedHashMap<>( );
+        for ( int offset = 0; offset < points.length; offset++ ) {
+            if ( includeEmptyMonths || present[offset] ) {
+                int month = firstMonth + offset;
+                monthlyRewards.put( RewardMapper.monthKey( LocalDate.of( month / 12, month % 12 + 1, 1 ) ), points[offset] );
+            }
+        }
+        return monthlyRewards;
+    }
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear( ) * 12 + date.getMonthValue( ) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.rewards.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a unit of work in its own DB transaction and re-runs it from scratch when it loses an optimistic-lock race,
+ * up to {@code rewards.ledger.max-attempts} times with a short jittered pause between attempts.
+ */
+@Component
+public class OptimisticRetryTemplate {
+
+    private static final Logger log = LoggerFactory.getLogger( OptimisticRetryTemplate.class );
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public OptimisticRetryTemplate(PlatformTransactionManager transactionManager,
+                                   @Value("${rewards.ledger.max-attempts:5}") int maxAttempts) {
+        if ( maxAttempts < 1 ) {
+            throw new IllegalArgumentException( "rewards.ledger.max-attempts must be at least 1" );
+        }
+        this.transactionTemplate = new TransactionTemplate( transactionManager );
+        this.maxAttempts = maxAttempts;
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        for ( int attempt = 1; ; attempt++ ) {
+            try {
+                return transactionTemplate.execute( action );
+            } catch ( OptimisticLockingFailureException ex ) {
+                if ( attempt >= maxAttempts ) {
+                    throw ex;
+                }
+                log.debug( "Optimistic lock conflict on attempt {} of {}, retrying", attempt, maxAttempts );
+                backOff( attempt );
+            }
+        }
+    }
+
+    private static void backOff(int attempt) {
+        long bound = Math.min( MAX_BACKOFF_MILLIS, 1L << attempt );
+        try {
+            TimeUnit.MILLISECONDS.sleep( ThreadLocalRandom.current( ).nextLong( 1, bound + 1 ) );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread( ).interrupt( );
+            throw new IllegalStateException( "Interrupted while retrying an optimistic lock conflict", e );
+        }
+    }
+}
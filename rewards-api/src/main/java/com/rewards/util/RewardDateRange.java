@@ -0,0 +1,31 @@
+package com.rewards.util;
+
+import java.time.LocalDate;
+
+/**
+ * Inclusive date range a reward calculation covers.
+ */
+public record RewardDateRange(LocalDate start, LocalDate end) {
+
+    /**
+     * Resolves a date range either from the given months or from explicit from-to values.
+     */
+    public static RewardDateRange resolve(Integer months, LocalDate from, LocalDate to) {
+        if ( months != null ) {
+            LocalDate end = LocalDate.now( );
+            return new RewardDateRange( end.minusMonths( months ), end );
+        }
+        return new RewardDateRange( from, to );
+    }
+
+    /**
+     * Resolves a range that must have both ends, for callers that cannot fall back to an empty result.
+     */
+    public static RewardDateRange resolveBounded(Integer months, LocalDate from, LocalDate to) {
+        RewardDateRange range = resolve( months, from, to );
+        if ( range.start( ) == null || range.end( ) == null ) {
+            throw new IllegalArgumentException( "Provide either 'months' or both 'from' and 'to'." );
+        }
+        return range;
+    }
+}
@@ -0,0 +1,123 @@
+package com.rewards.util;
+
+import com.rewards.model.Transaction;
+import com.rewards.repository.TransactionRow;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.rules.RewardRuleDefinition;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Scores transactions against the current {@link CompiledRewardRules}. Starts with the fixed tiers of
+ * {@link RewardProperties}; {@link #install} swaps in a new rule set atomically, so a calculation in flight
+ * finishes under the rules it started with and the next one sees the new set.
+ * <p>
+ * Amounts without a date (the {@code BigDecimal} and cents overloads) are scored under the rules in force today
+ * (UTC), without a category.
+ */
+@Component
+public class RewardPointsCalculator {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private volatile CompiledRewardRules rules;
+
+    public RewardPointsCalculator(RewardProperties rewardProperties) {
+        this.rules = CompiledRewardRules.compile( RewardRuleDefinition.fromProperties( rewardProperties ), List.of( ) );
+    }
+
+    /** Replaces the rules used by every calculation that starts after this call. */
+    public void install(CompiledRewardRules rules) {
+        this.rules = rules;
+    }
+
+    public CompiledRewardRules rules() {
+        return rules;
+    }
+
+    /**
+     * Calculates reward points for a given transaction amount based on configured thresholds and multipliers.
+     */
+    public int calculatePoints(BigDecimal amount) {
+        if ( amount == null ) return 0;
+
+        BigDecimal truncated = amount.setScale( 0, RoundingMode.DOWN );
+        return rules.points( truncated.intValueExact( ), today( ), null );
+    }
+
+    /**
+     * Same result as {@link #calculatePoints(BigDecimal)} for the equivalent amount, computed on whole cents.
+     * Throws {@link ArithmeticException} exactly where {@code intValueExact} would.
+     */
+    public int calculatePointsFromCents(long amountCents) {
+        return rules.points( dollars( amountCents ), today( ), null );
+    }
+
+    /**
+     * Scores an amount from its cents column, falling back to the decimal amount for rows written before
+     * that column existed, under the rules in force on the transaction date.
+     */
+    public int calculatePoints(Long amountCents, BigDecimal amount, LocalDate transactionDate, String category) {
+        return calculatePoints( rules, amountCents, amount, transactionDate, category );
+    }
+
+    /**
+     * Scores a row under the given rules instead of the installed ones, for jobs that must score a whole history
+     * under a single rule set even if another is installed meanwhile.
+     */
+    public static int calculatePoints(CompiledRewardRules rules, TransactionRow row) {
+        return calculatePoints( rules, row.amountCents( ), row.amount( ), row.transactionDate( ), row.category( ) );
+    }
+
+    /** Scores a row held as primitives, such as a column scan, without allocating. */
+    public static int calculatePoints(CompiledRewardRules rules, long amountCents, int epochDay, String category) {
+        return rules.points( dollars( amountCents ), epochDay, category );
+    }
+
+    private static int calculatePoints(CompiledRewardRules rules, Long amountCents, BigDecimal amount,
+                                       LocalDate transactionDate, String category) {
+        int dollars;
+        if ( amountCents != null ) {
+            dollars = dollars( amountCents );
+        } else if ( amount != null ) {
+            dollars = amount.setScale( 0, RoundingMode.DOWN ).intValueExact( );
+        } else {
+            return 0;
+        }
+        int epochDay = transactionDate != null ? (int) transactionDate.toEpochDay( ) : today( );
+        return rules.points( dollars, epochDay, category );
+    }
+
+    public int calculatePoints(Transaction transaction) {
+        return calculatePoints( transaction.getAmountCents( ), transaction.getAmount( ),
+                transaction.getTransactionDate( ), transaction.getCategory( ) );
+    }
+
+    public int calculatePoints(TransactionRow row) {
+        return calculatePoints( row.amountCents( ), row.amount( ), row.transactionDate( ), row.category( ) );
+    }
+
+    /**
+     * Identifies the currently installed rules, so that persisted aggregates can tell when they were
+     * computed under different thresholds or multipliers.
+     */
+    public String rulesFingerprint() {
+        return rules.fingerprint( );
+    }
+
+    private static int dollars(long amountCents) {
+        long dollars = amountCents / 100;
+        if ( (int) dollars != dollars ) {
+            throw new ArithmeticException( "Overflow" );
+        }
+        return (int) dollars;
+    }
+
+    private static int today() {
+        return (int) Math.floorDiv( System.currentTimeMillis( ), MILLIS_PER_DAY );
+    }
+}
@@ -0,0 +1,58 @@
+package com.rewards.util;
+
+import java.util.Locale;
+
+/**
+ * Parts of a reward response a caller asked for with {@code fields=}, and the page of embedded transactions.
+ * The customer, the range and {@code totalRewards} ({@code summary}) are always returned; {@code monthly} adds
+ * {@code monthlyRewards} and {@code transactions} the transaction list, paged when {@code pageSize} is set.
+ */
+public record RewardProjection(boolean monthly, boolean transactions, Integer pageSize, TransactionCursor after) {
+
+    /** Page size when a cursor is passed without a limit. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Everything, unpaged: the response callers got before fields and paging existed. */
+    public static final RewardProjection FULL = new RewardProjection( true, true, null, null );
+
+    /**
+     * Parses the request parameters; a missing {@code fields} selects every part.
+     */
+    public static RewardProjection parse(String fields, String cursor, Integer limit) {
+        boolean monthly = true;
+        boolean transactions = true;
+        if ( fields != null && !fields.isBlank( ) ) {
+            monthly = false;
+            transactions = false;
+            for ( String field : fields.split( "," ) ) {
+                switch ( field.trim( ).toLowerCase( Locale.ROOT ) ) {
+                    case "summary" -> { }
+                    case "monthly" -> monthly = true;
+                    case "transactions" -> transactions = true;
+                    default -> throw new IllegalArgumentException(
+                            "Unknown field '" + field.trim( ) + "'; use summary, monthly or transactions" );
+                }
+            }
+        }
+        if ( limit == null && cursor == null ) {
+            return new RewardProjection( monthly, transactions, null, null );
+        }
+        if ( !transactions ) {
+            throw new IllegalArgumentException( "'limit' and 'cursor' page the transactions; add them to 'fields'" );
+        }
+        if ( limit != null && (limit < 1 || limit > MAX_PAGE_SIZE) ) {
+            throw new IllegalArgumentException( "'limit' must be between 1 and " + MAX_PAGE_SIZE );
+        }
+        return new RewardProjection( monthly, true, limit != null ? limit : DEFAULT_PAGE_SIZE,
+                cursor != null ? TransactionCursor.decode( cursor ) : null );
+    }
+
+    public boolean isFull() {
+        return equals( FULL );
+    }
+
+    public boolean isPaged() {
+        return pageSize != null;
+    }
+}
@@ -1,10 +1,14 @@
 package com.rewards.util;
 
+import com.rewards.rules.RewardRuleDefinition;
 import jakarta.validation.constraints.Min;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Validated
 @ConfigurationProperties(prefix = "rewards")
@@ -28,6 +32,11 @@ public class RewardProperties {
     @Min(1)
     private int multiplier;
 
+    /**
+     * Dated rule versions; the three properties above remain the rules for transactions before the first one
+     */
+    private List<RewardRuleDefinition> ruleVersions = new ArrayList<>( );
+
     public int getMinAmtSpendForPoints() {
         return minAmtSpendForPoints;
     }
@@ -51,4 +60,12 @@ public class RewardProperties {
     public void setMultiplier(int multiplier) {
         this.multiplier = multiplier;
     }
+
+    public List<RewardRuleDefinition> getRuleVersions() {
+        return ruleVersions;
+    }
+
+    public void setRuleVersions(List<RewardRuleDefinition> ruleVersions) {
+        this.ruleVersions = ruleVersions;
+    }
 }
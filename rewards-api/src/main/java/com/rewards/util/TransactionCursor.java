@@ -0,0 +1,42 @@
+package com.rewards.util;
+
+import com.rewards.repository.TransactionRow;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for the transactions embedded in a reward response, which are ordered by date and
+ * id. Like {@link CustomerCursor}, clients pass it back unchanged.
+ */
+public record TransactionCursor(LocalDate afterDate, long afterId) {
+
+    private static final String PREFIX = "transaction:";
+
+    /** Whether the row comes after this cursor in date and id order. */
+    public boolean precedes(TransactionRow row) {
+        int byDate = row.transactionDate( ).compareTo( afterDate );
+        return byDate > 0 || (byDate == 0 && row.id( ) > afterId);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder( ).withoutPadding( )
+                .encodeToString( (PREFIX + afterDate + "/" + afterId).getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String value = new String( Base64.getUrlDecoder( ).decode( cursor ), StandardCharsets.UTF_8 );
+            int slash = value.indexOf( '/' );
+            if ( value.startsWith( PREFIX ) && slash > 0 ) {
+                return new TransactionCursor( LocalDate.parse( value.substring( PREFIX.length( ), slash ) ),
+                        Long.parseLong( value.substring( slash + 1 ) ) );
+            }
+        } catch ( IllegalArgumentException | DateTimeException ex ) {
+            // falls through to the error below
+        }
+        throw new IllegalArgumentException( "Invalid 'cursor': " + cursor );
+    }
+}
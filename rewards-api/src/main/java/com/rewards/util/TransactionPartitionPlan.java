@@ -0,0 +1,77 @@
+package com.rewards.util;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The monthly partitions of the transactions table to create and to archive in one maintenance run. Month
+ * {@code m} lives in partition {@code pYYYYMM}, bounded by {@code VALUES LESS THAN} the first day of the next
+ * month; dates past the last month fall into the {@value #FUTURE} catch-all, which new months are split from.
+ */
+public record TransactionPartitionPlan(List<YearMonth> create, List<YearMonth> archive) {
+
+    public static final String FUTURE = "p_future";
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern( "'p'yyyyMM" );
+
+    /**
+     * Plans a run. Without {@code existing} months the table is not partitioned yet and gets every month from its
+     * earliest transaction on; otherwise months are only appended after the last one, as range partitions must
+     * stay in order. Months older than {@code retentionMonths} before {@code current} are archived, none when it
+     * is 0.
+     */
+    public static TransactionPartitionPlan plan(Collection<YearMonth> existing, YearMonth earliestData,
+                                                YearMonth current, int lookaheadMonths, int retentionMonths) {
+        if ( lookaheadMonths < 0 || retentionMonths < 0 ) {
+            throw new IllegalArgumentException( "Partition lookahead and retention cannot be negative" );
+        }
+        TreeSet<YearMonth> months = new TreeSet<>( existing );
+        YearMonth last = current.plusMonths( lookaheadMonths );
+        YearMonth first = months.isEmpty( )
+                ? (earliestData != null && earliestData.isBefore( current ) ? earliestData : current)
+                : months.last( ).plusMonths( 1 );
+
+        List<YearMonth> create = new ArrayList<>( );
+        for ( YearMonth month = first; !month.isAfter( last ); month = month.plusMonths( 1 ) ) {
+            create.add( month );
+        }
+        months.addAll( create );
+
+        List<YearMonth> archive = new ArrayList<>( );
+        if ( retentionMonths > 0 ) {
+            archive.addAll( months.headSet( current.minusMonths( retentionMonths ) ) );
+        }
+        return new TransactionPartitionPlan( List.copyOf( create ), List.copyOf( archive ) );
+    }
+
+    public boolean isEmpty() {
+        return create.isEmpty( ) && archive.isEmpty( );
+    }
+
+    public static String partitionName(YearMonth month) {
+        return NAME.format( month );
+    }
+
+    /** The month of a monthly partition, or null for {@value #FUTURE} and partitions this class did not name. */
+    public static YearMonth month(String partitionName) {
+        if ( partitionName == null || partitionName.length( ) != 7 ) {
+            return null;
+        }
+        try {
+            return YearMonth.parse( partitionName, NAME );
+        } catch ( DateTimeParseException ex ) {
+            return null;
+        }
+    }
+
+    /** Exclusive upper bound of the month's partition. */
+    public static LocalDate upperBound(YearMonth month) {
+        return month.plusMonths( 1 ).atDay( 1 );
+    }
+}
@@ -0,0 +1,119 @@
+package com.rewards.archive;
+
+import com.rewards.repository.TransactionRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionSegmentTest {
+
+    private static final YearMonth MONTH = YearMonth.of( 2023, 3 );
+
+    @TempDir
+    Path directory;
+
+    private static TransactionRow row(long id, long customerId, String amount, int day, String category) {
+        return new TransactionRow( id, customerId, new BigDecimal( amount ), null, MONTH.atDay( day ), category );
+    }
+
+    private TransactionSegment write(TransactionSegmentWriter writer) throws IOException {
+        Path file = directory.resolve( "segment.seg" );
+        writer.write( file );
+        return TransactionSegment.open( file );
+    }
+
+    private static List<TransactionRow> rows(TransactionSegment segment, long customerId, LocalDate from, LocalDate to) {
+        List<TransactionRow> rows = new ArrayList<>( );
+        segment.forEachRow( customerId, from, to, rows::add );
+        return rows;
+    }
+
+    @Test
+    void write_thenOpen_returnsEachCustomersRowsInDateAndIdOrder() throws IOException {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( MONTH );
+        writer.add( row( 9, 2, "120.50", 20, "grocery" ) );
+        writer.add( row( 3, 1, "70.00", 28, null ) );
+        writer.add( row( 1000000, 2, "-5.25", 2, null ) );
+        writer.add( row( 4, 1, "45.99", 2, "fuel" ) );
+        writer.add( row( 2, 1, "12.00", 2, "grocery" ) );
+
+        TransactionSegment segment = write( writer );
+
+        assertThat( segment.month( ) ).isEqualTo( MONTH );
+        assertThat( segment.rows( ) ).isEqualTo( 5 );
+        assertThat( segment.customers( ) ).isEqualTo( 2 );
+        assertThat( rows( segment, 1, null, null ) ).containsExactly(
+                new TransactionRow( 2L, 1L, new BigDecimal( "12.00" ), 1200L, MONTH.atDay( 2 ), "grocery" ),
+                new TransactionRow( 4L, 1L, new BigDecimal( "45.99" ), 4599L, MONTH.atDay( 2 ), "fuel" ),
+                new TransactionRow( 3L, 1L, new BigDecimal( "70.00" ), 7000L, MONTH.atDay( 28 ), null ) );
+        assertThat( rows( segment, 2, null, null ) ).extracting( TransactionRow::id ).containsExactly( 1000000L, 9L );
+        assertThat( rows( segment, 2, null, null ).get( 0 ).amountCents( ) ).isEqualTo( -525L );
+        assertThat( rows( segment, 3, null, null ) ).isEmpty( );
+        assertThat( rows( segment, 0, null, null ) ).isEmpty( );
+    }
+
+    @Test
+    void forEachRow_limitsToTheDateRangeAndCustomerRange() throws IOException {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( MONTH );
+        for ( long customer = 1; customer <= 5; customer++ ) {
+            for ( int day = 1; day <= 31; day += 10 ) {
+                writer.add( row( customer * 100 + day, customer, "60.00", day, null ) );
+            }
+        }
+        TransactionSegment segment = write( writer );
+
+        assertThat( rows( segment, 3, MONTH.atDay( 5 ), MONTH.atDay( 21 ) ) )
+                .extracting( TransactionRow::transactionDate )
+                .containsExactly( MONTH.atDay( 11 ), MONTH.atDay( 21 ) );
+
+        List<TransactionRow> range = new ArrayList<>( );
+        segment.forEachRow( 1, 3, range::add );
+        assertThat( range ).extracting( TransactionRow::customerId ).containsOnly( 2L, 3L ).hasSize( 8 );
+    }
+
+    @Test
+    void write_keepsOneRowPerId() throws IOException {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( MONTH );
+        writer.add( row( 7, 1, "60.00", 4, null ) );
+        writer.add( row( 8, 1, "80.00", 4, null ) );
+        writer.add( row( 7, 1, "60.00", 4, null ) );
+
+        assertThat( rows( write( writer ), 1, null, null ) ).extracting( TransactionRow::id ).containsExactly( 7L, 8L );
+    }
+
+    @Test
+    void add_rejectsRowsOfOtherMonths_andLeavesOutAmountsWithoutALongCentValue() {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( MONTH );
+
+        assertThatThrownBy( () -> writer.add( new TransactionRow( 1L, 1L, BigDecimal.TEN, 1000L, LocalDate.of( 2023, 4, 1 ) ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThat( writer.add( row( 1, 1, "1e30", 1, null ) ) ).isFalse( );
+        assertThat( writer.size( ) ).isZero( );
+    }
+
+    @Test
+    void open_rejectsACorruptFile() throws IOException {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( MONTH );
+        writer.add( row( 1, 1, "60.00", 1, null ) );
+        Path file = directory.resolve( "segment.seg" );
+        writer.write( file );
+        byte[] bytes = Files.readAllBytes( file );
+        bytes[TransactionSegment.HEADER_BYTES + 3] ^= 1;
+        Files.write( file, bytes );
+
+        assertThatThrownBy( () -> TransactionSegment.open( file ) )
+                .isInstanceOf( IllegalStateException.class )
+                .hasMessageContaining( "checksum" );
+    }
+}
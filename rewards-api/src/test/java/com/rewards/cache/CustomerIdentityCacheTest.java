@@ -0,0 +1,101 @@
+package com.rewards.cache;
+
+import com.rewards.model.Customer;
+import com.rewards.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerIdentityCacheTest {
+
+    private CustomerRepository customerRepo;
+    private CustomerIdentityCache cache;
+
+    @BeforeEach
+    void setup() {
+        customerRepo = mock( CustomerRepository.class );
+        cache = new CustomerIdentityCache( customerRepo, 2 );
+    }
+
+    private static Customer customer(long id, String email) {
+        Customer customer = new Customer( );
+        customer.setId( id );
+        customer.setCustomerName( "Customer " + id );
+        customer.setCustomerEmail( email );
+        customer.setCustomerContactNumber( "1234567890" );
+        return customer;
+    }
+
+    @Test
+    void findById_loadsOnceThenServesCopies() {
+        Customer alice = customer( 1L, "alice@test.com" );
+        when( customerRepo.findById( 1L ) ).thenReturn( Optional.of( alice ) );
+
+        Customer first = cache.findById( 1L ).orElseThrow( );
+        Customer second = cache.findById( 1L ).orElseThrow( );
+
+        assertThat( second.getCustomerName( ) ).isEqualTo( "Customer 1" );
+        assertThat( second ).isNotSameAs( first ).isNotSameAs( alice );
+        verify( customerRepo, times( 1 ) ).findById( 1L );
+    }
+
+    @Test
+    void put_makesNewCustomerResolvableByEmail() {
+        cache.put( customer( 5L, "new@test.com" ) );
+
+        assertThat( cache.findByEmail( "new@test.com" ) ).map( Customer::getId ).contains( 5L );
+        verify( customerRepo, never( ) ).findByCustomerEmail( anyString( ) );
+    }
+
+    @Test
+    void findAllById_queriesOnlyMissingIds() {
+        cache.put( customer( 1L, "alice@test.com" ) );
+        when( customerRepo.findAllById( Set.of( 2L, 3L ) ) ).thenReturn( List.of( customer( 2L, "bob@test.com" ) ) );
+
+        Map<Long, Customer> found = cache.findAllById( List.of( 1L, 2L, 3L ) );
+
+        assertThat( found ).containsOnlyKeys( 1L, 2L );
+        verify( customerRepo, times( 1 ) ).findAllById( Set.of( 2L, 3L ) );
+    }
+
+    @Test
+    void warm_stopsAtMaximumSize() {
+        when( customerRepo.findByIdGreaterThanOrderByIdAsc( eq( 0L ), any( Limit.class ) ) ).thenReturn(
+                List.of( customer( 1L, "a@test.com" ), customer( 2L, "b@test.com" ), customer( 3L, "c@test.com" ) ) );
+
+        cache.warm( );
+
+        assertThat( cache.findByEmail( "a@test.com" ) ).isPresent( );
+        assertThat( cache.findByEmail( "b@test.com" ) ).isPresent( );
+        verify( customerRepo, never( ) ).findByCustomerEmail( anyString( ) );
+        verify( customerRepo, times( 1 ) ).findByIdGreaterThanOrderByIdAsc( anyLong( ), any( Limit.class ) );
+    }
+
+    @Test
+    void warm_continuesAfterCustomersAlreadyCached() {
+        cache.put( customer( 1L, "a@test.com" ) );
+        when( customerRepo.findByIdGreaterThanOrderByIdAsc( eq( 1L ), any( Limit.class ) ) ).thenReturn(
+                List.of( customer( 2L, "b@test.com" ), customer( 3L, "c@test.com" ) ) );
+
+        cache.warm( );
+
+        assertThat( cache.customers( ) ).extracting( Customer::getId ).containsExactlyInAnyOrder( 1L, 2L );
+        verify( customerRepo, never( ) ).findByIdGreaterThanOrderByIdAsc( eq( 0L ), any( Limit.class ) );
+    }
+}
@@ -0,0 +1,86 @@
+package com.rewards.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PendingRollupMonthsTest {
+
+    private static final LocalDate AUGUST = LocalDate.of( 2025, 8, 1 );
+    private static final LocalDate SEPTEMBER = LocalDate.of( 2025, 9, 1 );
+
+    @Test
+    void acknowledge_takesBackWhatWasRecomputed_andKeepsLaterMarks() {
+        PendingRollupMonths pending = new PendingRollupMonths( );
+        pending.add( 1L, SEPTEMBER, 1 );
+        pending.add( 1L, AUGUST, 2 );
+        Map<Long, Map<LocalDate, Integer>> snapshot = pending.snapshot( List.of( 1L, 2L ) );
+        pending.add( 1L, SEPTEMBER, 1 );
+
+        pending.acknowledgeAtCommit( snapshot );
+
+        assertThat( snapshot ).isEqualTo( Map.of( 1L, Map.of( AUGUST, 2, SEPTEMBER, 1 ) ) );
+        assertThat( pending.pendingMonths( 1L ) ).containsExactly( SEPTEMBER );
+        assertThat( pending.pendingTransactions( 1L ) ).isEqualTo( 1 );
+
+        pending.acknowledgeAtCommit( pending.snapshot( pending.customerIds( ) ) );
+        assertThat( pending.customerIds( ) ).isEmpty( );
+        assertThat( pending.pendingMonths( 1L ) ).isEmpty( );
+    }
+
+    @Test
+    void rolledBackRecomputation_takesBackNothing() {
+        PendingRollupMonths pending = new PendingRollupMonths( );
+        pending.add( 1L, AUGUST, 1 );
+
+        TransactionSynchronizationManager.initSynchronization( );
+        try {
+            pending.acknowledgeAtCommit( pending.snapshot( List.of( 1L ) ) );
+            TransactionSynchronizationUtils.triggerBeforeCompletion( );
+            TransactionSynchronizationUtils.invokeAfterCompletion( TransactionSynchronizationManager.getSynchronizations( ),
+                    TransactionSynchronization.STATUS_ROLLED_BACK );
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization( );
+        }
+
+        assertThat( pending.pendingMonths( 1L ) ).containsExactly( AUGUST );
+        assertThat( pending.read( ( ) -> pending.pendingTransactions( 1L ) ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void reads_waitOnlyForTheCommit() throws Exception {
+        PendingRollupMonths pending = new PendingRollupMonths( );
+        pending.add( 1L, AUGUST, 1 );
+
+        TransactionSynchronizationManager.initSynchronization( );
+        try ( ExecutorService reader = Executors.newSingleThreadExecutor( ) ) {
+            pending.acknowledgeAtCommit( pending.snapshot( List.of( 1L ) ) );
+            assertThat( reader.submit( ( ) -> pending.read( ( ) -> pending.pendingTransactions( 1L ) ) )
+                    .get( 5, TimeUnit.SECONDS ) ).isEqualTo( 1 );
+
+            TransactionSynchronizationUtils.triggerBeforeCompletion( );
+            Future<Integer> duringCommit = reader.submit( ( ) -> pending.read( ( ) -> pending.pendingTransactions( 1L ) ) );
+            assertThatThrownBy( ( ) -> duringCommit.get( 200, TimeUnit.MILLISECONDS ) )
+                    .isInstanceOf( TimeoutException.class );
+
+            TransactionSynchronizationUtils.invokeAfterCompletion( TransactionSynchronizationManager.getSynchronizations( ),
+                    TransactionSynchronization.STATUS_COMMITTED );
+            assertThat( duringCommit.get( 5, TimeUnit.SECONDS ) ).isZero( );
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization( );
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.rewards.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointsAccumulatorTest {
+
+    @Test
+    void drain_takesPendingPointsAndDropsIdleCounters() {
+        PointsAccumulator accumulator = new PointsAccumulator( 4 );
+        accumulator.add( 1L, 90 );
+        accumulator.add( 1L, 20 );
+        accumulator.add( 2L, 0 );
+
+        assertThat( accumulator.customerIds( ) ).containsExactly( 1L );
+        assertThat( accumulator.drain( List.of( 1L, 2L ) ) ).isEqualTo( Map.of( 1L, 110L ) );
+        assertThat( accumulator.pending( 1L ) ).isZero( );
+
+        assertThat( accumulator.drain( List.of( 1L ) ) ).isEmpty( );
+        assertThat( accumulator.customerIds( ) ).isEmpty( );
+    }
+
+    @Test
+    void concurrentAddsAndDrains_loseNothing() throws InterruptedException {
+        PointsAccumulator accumulator = new PointsAccumulator( 8 );
+        int writers = 8;
+        int addsPerWriter = 100_000;
+        AtomicLong drained = new AtomicLong( );
+        AtomicBoolean writing = new AtomicBoolean( true );
+        CountDownLatch done = new CountDownLatch( writers );
+
+        try ( ExecutorService threads = Executors.newFixedThreadPool( writers + 1 ) ) {
+            for ( int w = 0; w < writers; w++ ) {
+                threads.submit( ( ) -> {
+                    for ( int i = 0; i < addsPerWriter; i++ ) {
+                        accumulator.add( (long) (i % 3), 1 );
+                    }
+                    done.countDown( );
+                } );
+            }
+            threads.submit( ( ) -> {
+                while ( writing.get( ) ) {
+                    accumulator.drain( accumulator.customerIds( ) ).values( ).forEach( drained::addAndGet );
+                }
+            } );
+            done.await( );
+            writing.set( false );
+        }
+        accumulator.drain( accumulator.customerIds( ) ).values( ).forEach( drained::addAndGet );
+
+        assertThat( drained.get( ) ).isEqualTo( (long) writers * addsPerWriter );
+    }
+}
@@ -0,0 +1,81 @@
+package com.rewards.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BoundedDataSourceTest {
+
+    private DataSource target;
+    private BoundedDataSource dataSource;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        target = mock( DataSource.class );
+        when( target.getConnection( ) ).thenAnswer( inv -> mock( Connection.class ) );
+        dataSource = new BoundedDataSource( target, 2, Duration.ofMillis( 50 ) );
+    }
+
+    @Test
+    void blocksBeyondLimit_untilAConnectionIsClosed() throws SQLException {
+        Connection first = dataSource.getConnection( );
+        dataSource.getConnection( );
+        assertThat( dataSource.getAvailablePermits( ) ).isZero( );
+
+        assertThatThrownBy( dataSource::getConnection )
+                .isInstanceOf( SQLTransientConnectionException.class )
+                .hasMessageContaining( "one of 2 database connections" );
+        verify( target, times( 2 ) ).getConnection( );
+
+        first.close( );
+        assertThat( dataSource.getConnection( ) ).isNotNull( );
+    }
+
+    @Test
+    void repeatedClose_releasesOnce() throws SQLException {
+        Connection connection = dataSource.getConnection( );
+        connection.close( );
+        connection.close( );
+
+        assertThat( dataSource.getAvailablePermits( ) ).isEqualTo( 2 );
+    }
+
+    @Test
+    void failedCheckoutOrClose_stillReleasesPermit() throws SQLException {
+        when( target.getConnection( ) ).thenThrow( new SQLException( "pool exhausted" ) );
+        assertThatThrownBy( dataSource::getConnection ).hasMessage( "pool exhausted" );
+        assertThat( dataSource.getAvailablePermits( ) ).isEqualTo( 2 );
+
+        Connection broken = mock( Connection.class );
+        doThrow( new SQLException( "close failed" ) ).when( broken ).close( );
+        doReturn( broken ).when( target ).getConnection( );
+        Connection connection = dataSource.getConnection( );
+        assertThatThrownBy( connection::close ).hasMessage( "close failed" );
+        assertThat( dataSource.getAvailablePermits( ) ).isEqualTo( 2 );
+    }
+
+    @Test
+    void otherCallsReachTheConnection() throws SQLException {
+        Connection underlying = mock( Connection.class );
+        when( target.getConnection( ) ).thenReturn( underlying );
+        Connection connection = dataSource.getConnection( );
+        connection.setAutoCommit( false );
+
+        verify( underlying ).setAutoCommit( false );
+        assertThat( connection ).isEqualTo( connection ).isNotEqualTo( underlying );
+    }
+}
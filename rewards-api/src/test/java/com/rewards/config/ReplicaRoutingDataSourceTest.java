@@ -0,0 +1,102 @@
+package com.rewards.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and the replica; each knows which one it is.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong( );
+    private ReplicaStalenessGuard guard;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setup() {
+        guard = new ReplicaStalenessGuard( Duration.ofSeconds( 5 ), nanos::get );
+        DataSource dataSource = new ReadReplicaConfig( ).dataSource( database( "primary" ), database( "replica" ), guard );
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager( dataSource );
+
+        jdbc = new JdbcTemplate( dataSource );
+        readWrite = new TransactionTemplate( transactionManager );
+        readOnly = new TransactionTemplate( transactionManager );
+        readOnly.setReadOnly( true );
+    }
+
+    @Test
+    void readOnlyTransactionsThatOptIn_useTheReplica() {
+        assertThat( readOnlyNode( ( ) -> guard.readFor( 8L ) ) ).isEqualTo( "replica" );
+        assertThat( readOnlyNode( ( ) -> guard.readFor( List.of( 8L, 9L ) ) ) ).isEqualTo( "replica" );
+    }
+
+    @Test
+    void writesImplicitReadOnlyTransactionsAndReadsOutsideTransactions_useThePrimary() {
+        String write = readWrite.execute( status -> {
+            guard.readFor( 8L );
+            return node( );
+        } );
+
+        assertThat( write ).isEqualTo( "primary" );
+        assertThat( readOnlyNode( ( ) -> { } ) ).isEqualTo( "primary" );
+        assertThat( node( ) ).isEqualTo( "primary" );
+    }
+
+    @Test
+    void customerReadsStayOnThePrimary_forThePinWindowAfterTheirWrite() {
+        readWrite.executeWithoutResult( status -> guard.pinAfterWrite( 7L ) );
+
+        assertThat( readOnlyNode( ( ) -> guard.readFor( 7L ) ) ).isEqualTo( "primary" );
+        assertThat( readOnlyNode( ( ) -> guard.readFor( 8L ) ) ).isEqualTo( "replica" );
+
+        nanos.addAndGet( TimeUnit.SECONDS.toNanos( 6 ) );
+        assertThat( readOnlyNode( ( ) -> guard.readFor( 7L ) ) ).isEqualTo( "replica" );
+    }
+
+    @Test
+    void pinWindow_startsAgainWhenTheWriteCommits() {
+        readWrite.executeWithoutResult( status -> {
+            guard.pinAfterWrite( 7L );
+            nanos.addAndGet( TimeUnit.SECONDS.toNanos( 6 ) );
+        } );
+
+        assertThat( guard.isPinned( 7L ) ).isTrue( );
+        assertThat( readOnlyNode( ( ) -> guard.readFor( List.of( 8L, 7L ) ) ) ).isEqualTo( "primary" );
+    }
+
+    /** Runs {@code beforeFirstQuery} in a read-only transaction, then asks which database serves it. */
+    private String readOnlyNode(Runnable beforeFirstQuery) {
+        return readOnly.execute( status -> {
+            beforeFirstQuery.run( );
+            return node( );
+        } );
+    }
+
+    private String node() {
+        return jdbc.queryForObject( "select name from node", String.class );
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource( );
+        dataSource.setURL( "jdbc:h2:mem:" + name + "-" + UUID.randomUUID( ) + ";DB_CLOSE_DELAY=-1" );
+        JdbcTemplate jdbc = new JdbcTemplate( dataSource );
+        jdbc.execute( "create table node (name varchar(16))" );
+        jdbc.update( "insert into node values (?)", name );
+        return dataSource;
+    }
+}
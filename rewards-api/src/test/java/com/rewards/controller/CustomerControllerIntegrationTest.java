@@ -13,7 +13,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -80,6 +84,68 @@ public class CustomerControllerIntegrationTest {
                 .andExpect( jsonPath( "$[0].customerEmail" ).value( "test@example.com" ) );
     }
 
+    private Customer saveCustomer(String name) {
+        Customer c = new Customer( );
+        c.setCustomerName( name );
+        c.setCustomerEmail( name.toLowerCase( ) + "@test.com" );
+        c.setCustomerContactNumber( "9876543210" );
+        return customerRepo.save( c );
+    }
+
+    @Test
+    void getCustomers_defaultPage_lastPageSendsNoCursor() throws Exception {
+        saveCustomer( "Bob" );
+
+        mockMvc.perform( get( "/api/customers/get" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$", hasSize( 2 ) ) )
+                .andExpect( header( ).doesNotExist( CustomerController.NEXT_CURSOR_HEADER ) )
+                .andExpect( header( ).doesNotExist( "Link" ) );
+    }
+
+    @Test
+    void getCustomers_after_startsPastThatId() throws Exception {
+        saveCustomer( "Bob" );
+
+        mockMvc.perform( get( "/api/customers/get" ).param( "after", String.valueOf( customer.getId( ) ) ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$", hasSize( 1 ) ) )
+                .andExpect( jsonPath( "$[0].customerName" ).value( "Bob" ) );
+    }
+
+    @Test
+    void getCustomers_fullPage_sendsCursorAndLinkToTheNextPage() throws Exception {
+        saveCustomer( "Bob" );
+        saveCustomer( "Carol" );
+
+        MvcResult first = mockMvc.perform( get( "/api/customers/get" ).param( "limit", "2" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$", hasSize( 2 ) ) )
+                .andExpect( jsonPath( "$[1].customerName" ).value( "Bob" ) )
+                .andExpect( header( ).exists( CustomerController.NEXT_CURSOR_HEADER ) )
+                .andReturn( );
+        String cursor = first.getResponse( ).getHeader( CustomerController.NEXT_CURSOR_HEADER );
+
+        mockMvc.perform( get( "/api/customers/get" ).param( "limit", "2" ) )
+                .andExpect( header( ).string( "Link", allOf(
+                        containsString( "/api/customers/get?cursor=" + cursor + "&limit=2" ),
+                        containsString( "rel=\"next\"" ) ) ) );
+        mockMvc.perform( get( "/api/customers/get" ).param( "cursor", cursor ).param( "limit", "2" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$", hasSize( 1 ) ) )
+                .andExpect( jsonPath( "$[0].customerName" ).value( "Carol" ) )
+                .andExpect( header( ).doesNotExist( CustomerController.NEXT_CURSOR_HEADER ) );
+    }
+
+    @Test
+    void getCustomers_badCursor_isRejected() throws Exception {
+        mockMvc.perform( get( "/api/customers/get" ).param( "cursor", "not-a-cursor" ) )
+                .andExpect( status( ).isUnprocessableEntity( ) )
+                .andExpect( jsonPath( "$.message" ).value( "Invalid 'cursor': not-a-cursor" ) );
+        mockMvc.perform( get( "/api/customers/get" ).param( "cursor", "not-a-cursor" ).param( "after", "1" ) )
+                .andExpect( status( ).isUnprocessableEntity( ) );
+    }
+
     @Test
     void getCustomerById_shouldReturnCustomer() throws Exception {
         Customer c = new Customer( );
@@ -1,17 +1,21 @@
 package com.rewards.controller;
 
 
+import com.rewards.dto.TransactionRequestDTO;
 import com.rewards.model.Customer;
 import com.rewards.model.Transaction;
 import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.MonthlyRewardRepository;
 import com.rewards.repository.TransactionRepository;
 import com.rewards.service.RewardService;
+import com.rewards.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,6 +24,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -32,15 +38,30 @@ class RewardControllerIntegrationTest {
     @Autowired private MockMvc mockMvc;
     @Autowired private CustomerRepository customerRepo;
     @Autowired private TransactionRepository txRepo;
+    @Autowired private MonthlyRewardRepository monthlyRewardRepo;
+    @Autowired private TransactionService transactionService;
     @Autowired
     private RewardService rewardService;
 
     private Customer c;
     private Customer customer;
 
+    /**
+     * Fixtures are written through the service, as the API would, so the monthly rollup that summaries and ETags
+     * read reflects them.
+     */
+    private void record(Customer customer, double amount, LocalDate date) {
+        TransactionRequestDTO request = new TransactionRequestDTO( );
+        request.setCustomerId( customer.getId( ) );
+        request.setAmount( BigDecimal.valueOf( amount ) );
+        request.setTransactionDate( date );
+        transactionService.createTransaction( request );
+    }
+
     @BeforeEach
     void setup() {
         txRepo.deleteAll();
+        monthlyRewardRepo.deleteAll( );
         customerRepo.deleteAll();
 
         c = new Customer();
@@ -49,8 +70,8 @@ class RewardControllerIntegrationTest {
         c.setCustomerContactNumber("1234567890");
         c = customerRepo.save(c);
 
-        txRepo.save(new Transaction(BigDecimal.valueOf(120.0), LocalDate.now().minusDays(10), c));
-        txRepo.save(new Transaction(BigDecimal.valueOf(70.0), LocalDate.now().minusMonths(5), c));
+        record( c, 120.0, LocalDate.now( ).minusDays( 10 ) );
+        record( c, 70.0, LocalDate.now( ).minusMonths( 5 ) );
 
         customer = new Customer( );
         customer.setCustomerName( "test1" );
@@ -58,7 +79,7 @@ class RewardControllerIntegrationTest {
         customer.setCustomerContactNumber( "1134567890" );
         customer = customerRepo.save( customer );
 
-        txRepo.save( new Transaction( BigDecimal.valueOf( 70.0 ), LocalDate.now( ), customer ) );
+        record( customer, 70.0, LocalDate.now( ) );
     }
 
     @Test
@@ -82,6 +103,42 @@ class RewardControllerIntegrationTest {
     }
 
 
+    @Test
+    void getRewards_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        String eTag = mockMvc.perform( get( "/api/rewards/customer/" + c.getId( ) ).param( "months", "1" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( header( ).exists( HttpHeaders.ETAG ) )
+                .andReturn( ).getResponse( ).getHeader( HttpHeaders.ETAG );
+
+        mockMvc.perform( get( "/api/rewards/customer/" + c.getId( ) ).param( "months", "1" )
+                        .header( HttpHeaders.IF_NONE_MATCH, eTag ) )
+                .andExpect( status( ).isNotModified( ) )
+                .andExpect( header( ).string( HttpHeaders.ETAG, eTag ) );
+    }
+
+    @Test
+    void getRewards_summaryField_omitsTransactionsAndPagesWithCursor() throws Exception {
+        mockMvc.perform( get( "/api/rewards/customer/" + c.getId( ) ).param( "months", "6" ).param( "fields", "summary" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$.transactions" ).doesNotExist( ) )
+                .andExpect( jsonPath( "$.monthlyRewards" ).doesNotExist( ) )
+                .andExpect( jsonPath( "$.transactionCount" ).value( 2 ) );
+
+        mockMvc.perform( get( "/api/rewards/customer/" + c.getId( ) ).param( "months", "6" ).param( "limit", "1" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$.transactions.length()" ).value( 1 ) )
+                .andExpect( header( ).exists( "X-Next-Cursor" ) );
+    }
+
+    @Test
+    void getRewards_summaryField_countsMonthsTheRollupHasNoRowFor() throws Exception {
+        txRepo.save( new Transaction( BigDecimal.valueOf( 120.0 ), LocalDate.now( ).minusMonths( 3 ), c ) );
+
+        mockMvc.perform( get( "/api/rewards/customer/" + c.getId( ) ).param( "months", "6" ).param( "fields", "summary" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$.transactionCount" ).value( 3 ) );
+    }
+
     @Test
     void getRewards_withFromTo_shouldReturnOk() throws Exception {
         mockMvc.perform( get( "/api/rewards/customer/" + c.getId( ) )
@@ -144,4 +201,25 @@ class RewardControllerIntegrationTest {
                 .andExpect( jsonPath( "$.message" ).value( "No rewards found" ) );
     }
 
+    @Test
+    void getRewardsBatch_returnsRewardsInRequestOrder_andListsUnknownIds() throws Exception {
+        mockMvc.perform( post( "/api/rewards/batch" )
+                        .contentType( MediaType.APPLICATION_JSON )
+                        .content( "{\"customerIds\":[" + customer.getId( ) + ",-1," + c.getId( ) + "],\"months\":1}" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$.rewards[0].customerName" ).value( "test1" ) )
+                .andExpect( jsonPath( "$.rewards[0].totalRewards" ).value( 20 ) )
+                .andExpect( jsonPath( "$.rewards[1].customerName" ).value( "test" ) )
+                .andExpect( jsonPath( "$.rewards[1].totalRewards" ).value( 90 ) )
+                .andExpect( jsonPath( "$.notFound[0]" ).value( -1 ) );
+    }
+
+    @Test
+    void getRewardsBatch_withoutCustomerIds_shouldReturn422() throws Exception {
+        mockMvc.perform( post( "/api/rewards/batch" )
+                        .contentType( MediaType.APPLICATION_JSON )
+                        .content( "{\"customerIds\":[],\"months\":1}" ) )
+                .andExpect( status( ).isUnprocessableEntity( ) );
+    }
+
 }
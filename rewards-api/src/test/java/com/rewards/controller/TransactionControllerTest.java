@@ -1,11 +1,13 @@
 package com.rewards.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewards.dto.BatchIngestResponseDTO;
 import com.rewards.dto.TransactionRequestDTO;
 import com.rewards.model.Customer;
 import com.rewards.model.Transaction;
 import com.rewards.repository.CustomerRepository;
 import com.rewards.repository.TransactionRepository;
+import com.rewards.service.TransactionBatchService;
 import com.rewards.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,6 +43,8 @@ public class TransactionControllerTest {
     private MockMvc mockMvc;
     @MockitoBean
     private TransactionService transactionService;
+    @MockitoBean
+    private TransactionBatchService transactionBatchService;
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -83,4 +87,22 @@ public class TransactionControllerTest {
                 .andExpect( jsonPath( "$.amount" ).value( 150 ) )
                 .andExpect( jsonPath( "$.customer.id" ).value( 1 ) );
     }
+
+    @Test
+    void createTransactions_ndjson_shouldReturnIngestReport() throws Exception {
+        BatchIngestResponseDTO report = new BatchIngestResponseDTO( );
+        report.setReceived( 2 );
+        report.setAccepted( 1 );
+        report.reject( 1, "Customer not found. Please register first." );
+
+        when( transactionBatchService.createTransactions( any( ) ) ).thenReturn( report );
+
+        mockMvc.perform( post( "/api/transactions/batch" )
+                        .contentType( MediaType.APPLICATION_NDJSON )
+                        .content( "{\"customerId\":1,\"amount\":120,\"transactionDate\":\"2025-08-01\"}\n"
+                                + "{\"customerId\":9,\"amount\":80,\"transactionDate\":\"2025-08-02\"}\n" ) )
+                .andExpect( status( ).isOk( ) )
+                .andExpect( jsonPath( "$.accepted" ).value( 1 ) )
+                .andExpect( jsonPath( "$.rejectedRows[0].index" ).value( 1 ) );
+    }
 }
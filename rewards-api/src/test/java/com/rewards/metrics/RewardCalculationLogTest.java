@@ -0,0 +1,83 @@
+package com.rewards.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.rewards.util.RewardDateRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RewardCalculationLogTest {
+
+    private static final RewardDateRange RANGE = new RewardDateRange( LocalDate.of( 2025, 7, 1 ), LocalDate.of( 2025, 9, 30 ) );
+    private static final long FAST = Duration.ofMillis( 5 ).toNanos( );
+    private static final long SLOW = Duration.ofSeconds( 1 ).toNanos( );
+
+    private Logger logger;
+    private ListAppender<ILoggingEvent> events;
+
+    @BeforeEach
+    void setup() {
+        logger = (Logger) LoggerFactory.getLogger( RewardCalculationLog.class );
+        logger.setLevel( Level.INFO );
+        events = new ListAppender<>( );
+        events.start( );
+        logger.addAppender( events );
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender( events );
+        logger.setLevel( null );
+    }
+
+    @Test
+    void fullSampleRate_logsEveryCalculation_withKeyValues() {
+        new RewardCalculationLog( 1.0, Duration.ofMillis( 500 ) ).rewardsCalculated( 7L, RANGE, 3, 120, FAST );
+
+        assertThat( events.list ).hasSize( 1 );
+        ILoggingEvent event = events.list.get( 0 );
+        assertThat( event.getLevel( ) ).isEqualTo( Level.INFO );
+        assertThat( event.getFormattedMessage( ) )
+                .isEqualTo( "Calculated rewards for customer 7 from 2025-07-01 to 2025-09-30 => total 120 points" );
+        assertThat( keyValues( event ) )
+                .containsEntry( "event", "reward.calculated" )
+                .containsEntry( "customerId", 7L )
+                .containsEntry( "transactions", 3 )
+                .containsEntry( "totalRewards", 120 )
+                .containsEntry( "sampleRate", 1.0 );
+    }
+
+    @Test
+    void zeroSampleRate_logsOnlySlowCalculations_atWarn() {
+        RewardCalculationLog log = new RewardCalculationLog( 0.0, Duration.ofMillis( 500 ) );
+        log.rewardsCalculated( 7L, RANGE, 3, 120, FAST );
+        log.summaryCalculated( 7L, RANGE, 120, SLOW );
+
+        assertThat( events.list ).singleElement( ).satisfies( event -> {
+            assertThat( event.getLevel( ) ).isEqualTo( Level.WARN );
+            assertThat( keyValues( event ) ).containsEntry( "event", "reward.summary.calculated" );
+        } );
+    }
+
+    @Test
+    void rejectsSampleRateOutsideZeroToOne() {
+        assertThatThrownBy( () -> new RewardCalculationLog( 1.5, Duration.ofMillis( 500 ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    private static Map<String, Object> keyValues(ILoggingEvent event) {
+        return event.getKeyValuePairs( ).stream( ).collect( Collectors.toMap( kv -> kv.key, kv -> kv.value ) );
+    }
+}
@@ -0,0 +1,136 @@
+package com.rewards.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledRewardRulesTest {
+
+    private static final LocalDate JUNE = LocalDate.of( 2025, 6, 1 );
+    private static final int TODAY = (int) LocalDate.of( 2025, 1, 15 ).toEpochDay( );
+
+    private static RewardRuleDefinition version(LocalDate effectiveFrom, RewardRuleDefinition.Tier... tiers) {
+        RewardRuleDefinition version = new RewardRuleDefinition( );
+        version.setEffectiveFrom( effectiveFrom );
+        version.setTiers( List.of( tiers ) );
+        return version;
+    }
+
+    private static RewardRuleDefinition legacy() {
+        return version( null, new RewardRuleDefinition.Tier( 50, 1 ), new RewardRuleDefinition.Tier( 100, 2 ) );
+    }
+
+    private static RewardRuleDefinition.Promotion promotion(LocalDate from, LocalDate to, String category, int multiplier) {
+        RewardRuleDefinition.Promotion promotion = new RewardRuleDefinition.Promotion( );
+        promotion.setName( "promo" );
+        promotion.setFrom( from );
+        promotion.setTo( to );
+        promotion.setCategory( category );
+        promotion.setMultiplier( multiplier );
+        return promotion;
+    }
+
+    /** The fixed formula the calculator used before rules were compiled. */
+    private static int legacyPoints(int dollars) {
+        if ( dollars > 100 ) {
+            return (dollars - 100) * 2 + (100 - 50);
+        } else if ( dollars > 50 ) {
+            return dollars - 50;
+        }
+        return 0;
+    }
+
+    @Test
+    void compile_legacyTiersMatchTheFixedFormulaIncludingOverflow() {
+        CompiledRewardRules rules = CompiledRewardRules.compile( legacy( ), List.of( ) );
+
+        for ( int dollars : new int[]{Integer.MIN_VALUE, -1, 0, 50, 51, 100, 101, 120, Integer.MAX_VALUE} ) {
+            assertThat( rules.points( dollars, TODAY, null ) ).as( "$%d", dollars ).isEqualTo( legacyPoints( dollars ) );
+        }
+        Random random = new Random( 7 );
+        for ( int i = 0; i < 100_000; i++ ) {
+            int dollars = random.nextInt( );
+            assertThat( rules.points( dollars, TODAY, "grocery" ) ).isEqualTo( legacyPoints( dollars ) );
+        }
+        assertThat( rules.fingerprint( ) ).isEqualTo( "50:100:2" );
+    }
+
+    @Test
+    void compile_evaluatesAnyNumberOfTiers() {
+        RewardRuleDefinition base = version( null, new RewardRuleDefinition.Tier( 0, 1 ),
+                new RewardRuleDefinition.Tier( 100, 2 ), new RewardRuleDefinition.Tier( 500, 5 ) );
+        CompiledRewardRules rules = CompiledRewardRules.compile( base, List.of( ) );
+
+        assertThat( rules.points( 0, TODAY, null ) ).isZero( );
+        assertThat( rules.points( 100, TODAY, null ) ).isEqualTo( 100 );
+        assertThat( rules.points( 200, TODAY, null ) ).isEqualTo( 100 + 200 );
+        assertThat( rules.points( 600, TODAY, null ) ).isEqualTo( 100 + 800 + 500 );
+        assertThat( rules.fingerprint( ) ).startsWith( "v1:" );
+    }
+
+    @Test
+    void compile_appliesVersionsByTransactionDate() {
+        RewardRuleDefinition june = version( JUNE, new RewardRuleDefinition.Tier( 25, 3 ) );
+        CompiledRewardRules rules = CompiledRewardRules.compile( legacy( ), List.of( june ) );
+
+        assertThat( rules.points( 120, (int) JUNE.minusDays( 1 ).toEpochDay( ), null ) ).isEqualTo( 90 );
+        assertThat( rules.points( 120, (int) JUNE.toEpochDay( ), null ) ).isEqualTo( 285 );
+        assertThat( rules.points( 120, Integer.MAX_VALUE, null ) ).isEqualTo( 285 );
+        assertThat( rules.versions( ) ).hasSize( 2 );
+    }
+
+    @Test
+    void compile_appliesVersionsCenturiesApart() {
+        RewardRuleDefinition far = version( LocalDate.of( 2500, 1, 1 ), new RewardRuleDefinition.Tier( 0, 10 ) );
+        RewardRuleDefinition june = version( JUNE, new RewardRuleDefinition.Tier( 25, 3 ) );
+        CompiledRewardRules rules = CompiledRewardRules.compile( legacy( ), List.of( far, june ) );
+
+        assertThat( rules.points( 120, TODAY, null ) ).isEqualTo( 90 );
+        assertThat( rules.points( 120, (int) LocalDate.of( 2499, 12, 31 ).toEpochDay( ), null ) ).isEqualTo( 285 );
+        assertThat( rules.points( 120, (int) LocalDate.of( 2500, 1, 1 ).toEpochDay( ), null ) ).isEqualTo( 1200 );
+    }
+
+    @Test
+    void compile_multipliesByCategoryAndRunningPromotions() {
+        RewardRuleDefinition base = legacy( );
+        base.setCategoryMultipliers( Map.of( "travel", 3 ) );
+        base.setPromotions( List.of(
+                promotion( JUNE, JUNE.plusDays( 9 ), null, 2 ),
+                promotion( JUNE.plusDays( 5 ), JUNE.plusDays( 5 ), "travel", 10 ) ) );
+        CompiledRewardRules rules = CompiledRewardRules.compile( base, List.of( ) );
+
+        int before = (int) JUNE.minusDays( 1 ).toEpochDay( );
+        assertThat( rules.points( 120, before, null ) ).isEqualTo( 90 );
+        assertThat( rules.points( 120, before, "travel" ) ).isEqualTo( 270 );
+        assertThat( rules.points( 120, before, "unknown" ) ).isEqualTo( 90 );
+
+        assertThat( rules.points( 120, (int) JUNE.toEpochDay( ), null ) ).isEqualTo( 180 );
+        assertThat( rules.points( 120, (int) JUNE.plusDays( 5 ).toEpochDay( ), "travel" ) ).isEqualTo( 90 * 3 * 2 * 10 );
+        assertThat( rules.points( 120, (int) JUNE.plusDays( 9 ).toEpochDay( ), "travel" ) ).isEqualTo( 540 );
+        assertThat( rules.points( 120, (int) JUNE.plusDays( 10 ).toEpochDay( ), "travel" ) ).isEqualTo( 270 );
+    }
+
+    @Test
+    void compile_rejectsDefinitionsThatCannotBeEvaluated() {
+        RewardRuleDefinition unordered = version( JUNE, new RewardRuleDefinition.Tier( 100, 2 ), new RewardRuleDefinition.Tier( 50, 1 ) );
+        assertThatThrownBy( () -> CompiledRewardRules.compile( legacy( ), List.of( unordered ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+
+        assertThatThrownBy( () -> CompiledRewardRules.compile( legacy( ), List.of( version( null ) ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+
+        assertThatThrownBy( () -> CompiledRewardRules.compile( legacy( ), List.of( version( JUNE ), version( JUNE ) ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+
+        RewardRuleDefinition backwards = version( JUNE );
+        backwards.setPromotions( List.of( promotion( JUNE.plusDays( 1 ), JUNE, null, 2 ) ) );
+        assertThatThrownBy( () -> CompiledRewardRules.compile( legacy( ), List.of( backwards ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+}
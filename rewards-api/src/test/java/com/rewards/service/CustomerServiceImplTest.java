@@ -1,11 +1,17 @@
 package com.rewards.service;
 
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.config.ReplicaStalenessGuard;
+import com.rewards.dto.CustomerPage;
 import com.rewards.model.Customer;
 import com.rewards.repository.CustomerRepository;
 import com.rewards.service.impl.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -16,12 +22,15 @@ import static org.mockito.Mockito.*;
 
 class CustomerServiceImplTest {
     private CustomerRepository customerRepository;
+    private CustomerIdentityCache customerIdentityCache;
     private CustomerServiceImpl service;
 
     @BeforeEach
     void setUp() {
         customerRepository = mock( CustomerRepository.class );
-        service = new CustomerServiceImpl(customerRepository);
+        customerIdentityCache = mock( CustomerIdentityCache.class );
+        service = new CustomerServiceImpl(customerRepository, customerIdentityCache,
+                new ReplicaStalenessGuard( Duration.ofSeconds( 5 ) ));
     }
 
     @Test
@@ -39,6 +48,7 @@ class CustomerServiceImplTest {
         assertNotNull( result );
         assertEquals( "John", result.getCustomerName( ) );
         verify( customerRepository, times( 1 ) ).save( customer );
+        verify( customerIdentityCache, times( 1 ) ).put( customer );
     }
 
     @Test
@@ -55,9 +65,11 @@ class CustomerServiceImplTest {
 
         assertEquals( "Customer with email already exists", ex.getMessage( ) );
         verify( customerRepository, never( ) ).save( any( Customer.class ) );
+        verify( customerIdentityCache, never( ) ).put( any( Customer.class ) );
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void getAllCustomers_shouldReturnList() {
 
         Customer c1 = new Customer( );
@@ -133,4 +145,52 @@ class CustomerServiceImplTest {
 
         assertEquals( "Customer not found with email ghost@example.com", ex.getMessage( ) );
     }
+
+    @Test
+    void getCustomersAfter_returnsPageAndContinuationId() {
+        Customer c1 = new Customer( );
+        c1.setId( 11L );
+        Customer c2 = new Customer( );
+        c2.setId( 12L );
+        Customer c3 = new Customer( );
+        c3.setId( 13L );
+        when( customerRepository.findByIdGreaterThanOrderByIdAsc( 10L, Limit.of( 3 ) ) ).thenReturn( List.of( c1, c2, c3 ) );
+
+        CustomerPage page = service.getCustomersAfter( 10L, 2 );
+
+        assertEquals( List.of( c1, c2 ), page.customers( ) );
+        assertEquals( 12L, page.nextAfterId( ) );
+    }
+
+    @Test
+    void getCustomersAfter_lastPage_hasNoContinuation() {
+        Customer c1 = new Customer( );
+        c1.setId( 1L );
+        when( customerRepository.findByIdGreaterThanOrderByIdAsc( 0L, Limit.of( 3 ) ) ).thenReturn( List.of( c1 ) );
+
+        CustomerPage page = service.getCustomersAfter( null, 2 );
+
+        assertEquals( List.of( c1 ), page.customers( ) );
+        assertFalse( page.hasNext( ) );
+    }
+
+    @Test
+    void forEachCustomer_walksAllKeysetPages() {
+        List<Customer> firstPage = new ArrayList<>( );
+        for ( long id = 1; id <= 1001; id++ ) {
+            Customer c = new Customer( );
+            c.setId( id );
+            firstPage.add( c );
+        }
+        Customer last = new Customer( );
+        last.setId( 1001L );
+        when( customerRepository.findByIdGreaterThanOrderByIdAsc( 0L, Limit.of( 1001 ) ) ).thenReturn( firstPage );
+        when( customerRepository.findByIdGreaterThanOrderByIdAsc( 1000L, Limit.of( 1001 ) ) ).thenReturn( List.of( last ) );
+
+        List<Long> visited = new ArrayList<>( );
+        service.forEachCustomer( c -> visited.add( c.getId( ) ) );
+
+        assertEquals( 1001, visited.size( ) );
+        assertEquals( 1001L, visited.get( 1000 ) );
+    }
 }
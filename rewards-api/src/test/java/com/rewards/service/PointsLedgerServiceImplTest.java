@@ -0,0 +1,235 @@
+package com.rewards.service;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.cache.PointsAccumulator;
+import com.rewards.dto.LedgerReconciliationDTO;
+import com.rewards.model.Customer;
+import com.rewards.model.PointsLedgerEntry;
+import com.rewards.model.Transaction;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.LedgerTotal;
+import com.rewards.repository.PointsLedgerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.service.impl.PointsLedgerServiceImpl;
+import com.rewards.util.OptimisticRetryTemplate;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PointsLedgerServiceImplTest {
+
+    private PointsLedgerRepository ledgerRepo;
+    private CustomerRepository customerRepo;
+    private TransactionRepository txRepo;
+    private PointsAccumulator accumulator;
+    private PlatformTransactionManager transactionManager;
+    private RewardPointsCalculator calculator;
+    private PointsLedgerServiceImpl service;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        ledgerRepo = mock( PointsLedgerRepository.class );
+        customerRepo = mock( CustomerRepository.class );
+        txRepo = mock( TransactionRepository.class );
+
+        RewardProperties rewardProperties = new RewardProperties( );
+        rewardProperties.setMinAmtSpendForPoints( 50 );
+        rewardProperties.setMinAmtSpendForBonus( 100 );
+        rewardProperties.setMultiplier( 2 );
+
+        transactionManager = mock( PlatformTransactionManager.class );
+        calculator = new RewardPointsCalculator( rewardProperties );
+        accumulator = new PointsAccumulator( 4 );
+        service = service( false );
+
+        customer = new Customer( );
+        customer.setId( 1L );
+        customer.setPointsBalance( 10 );
+    }
+
+    @Test
+    void recordTransaction_movesBalanceAndAppendsEarnEntry() {
+        when( customerRepo.findById( 1L ) ).thenReturn( Optional.of( customer ) );
+
+        service.recordTransaction( new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 20 ), customer ) );
+
+        ArgumentCaptor<PointsLedgerEntry> entry = ArgumentCaptor.forClass( PointsLedgerEntry.class );
+        verify( ledgerRepo ).save( entry.capture( ) );
+        assertEquals( PointsLedgerEntry.EntryType.EARN, entry.getValue( ).getEntryType( ) );
+        assertEquals( 90, entry.getValue( ).getPoints( ) );
+        assertEquals( 100, entry.getValue( ).getBalanceAfter( ) );
+        assertEquals( 100, customer.getPointsBalance( ) );
+    }
+
+    @Test
+    void recordTransactions_keepsARunningBalancePerCustomer() {
+        Customer other = new Customer( );
+        other.setId( 2L );
+        when( customerRepo.findAllById( any( ) ) ).thenReturn( List.of( customer, other ) );
+
+        service.recordTransactions( List.of(
+                new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 1 ), customer ),
+                new Transaction( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 8, 2 ), other ),
+                new Transaction( BigDecimal.valueOf( 60 ), LocalDate.of( 2025, 8, 3 ), customer ) ) );
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PointsLedgerEntry>> entries = ArgumentCaptor.forClass( List.class );
+        verify( ledgerRepo ).saveAll( entries.capture( ) );
+        assertEquals( List.of( 100L, 110L, 20L ),
+                entries.getValue( ).stream( ).map( PointsLedgerEntry::getBalanceAfter ).toList( ) );
+        assertEquals( 110, customer.getPointsBalance( ) );
+        assertEquals( 20, other.getPointsBalance( ) );
+    }
+
+    @Test
+    void getBalance_unknownCustomer_throwsNotFound() {
+        when( customerRepo.findPointsBalanceById( 9L ) ).thenReturn( Optional.empty( ) );
+
+        assertThrows( NoSuchElementException.class, () -> service.getBalance( 9L ) );
+    }
+
+    @Test
+    void reconcile_reportsMismatchesWithoutRepair() {
+        when( customerRepo.findIdsAfter( eq( 0L ), any( Limit.class ) ) ).thenReturn( List.of( 1L, 2L ) );
+        when( ledgerRepo.findTotalsByCustomerIdIn( anyCollection( ) ) ).thenReturn( List.of(
+                new LedgerTotal( 1L, 90, 90 ),
+                new LedgerTotal( 2L, 0, 0 ) ) );
+        when( txRepo.findRowsByCustomerIdIn( anyCollection( ) ) ).thenReturn( List.of(
+                row( 1L, 12000 ),
+                row( 2L, 7000 ) ) );
+
+        LedgerReconciliationDTO result = service.reconcile( false );
+
+        assertEquals( 2, result.getCustomersChecked( ) );
+        assertEquals( 1, result.getMismatches( ) );
+        assertEquals( List.of( 2L ), result.getMismatchedCustomerIds( ) );
+        assertEquals( 0, result.getRepaired( ) );
+        verify( ledgerRepo, never( ) ).save( any( ) );
+    }
+
+    @Test
+    void reconcile_withRepair_postsAdjustmentAndResetsBalance() {
+        customer.setPointsBalance( 0 );
+        when( customerRepo.findIdsAfter( eq( 0L ), any( Limit.class ) ) ).thenReturn( List.of( 1L ) );
+        when( ledgerRepo.findTotalsByCustomerIdIn( anyCollection( ) ) ).thenReturn( List.of( new LedgerTotal( 1L, 0, 0 ) ) );
+        when( txRepo.findRowsByCustomerIdIn( anyCollection( ) ) ).thenReturn( List.of( row( 1L, 12000 ), row( 1L, 7000 ) ) );
+        when( customerRepo.findById( 1L ) ).thenReturn( Optional.of( customer ) );
+        when( ledgerRepo.sumPointsByCustomerId( 1L ) ).thenReturn( 0L );
+
+        LedgerReconciliationDTO result = service.reconcile( true );
+
+        assertEquals( 1, result.getMismatches( ) );
+        assertEquals( 1, result.getRepaired( ) );
+        ArgumentCaptor<PointsLedgerEntry> entry = ArgumentCaptor.forClass( PointsLedgerEntry.class );
+        verify( ledgerRepo ).save( entry.capture( ) );
+        assertEquals( PointsLedgerEntry.EntryType.ADJUSTMENT, entry.getValue( ).getEntryType( ) );
+        assertEquals( 110, entry.getValue( ).getPoints( ) );
+        assertEquals( 110, customer.getPointsBalance( ) );
+        verify( ledgerRepo, never( ) ).saveAll( anyList( ) );
+    }
+
+    @Test
+    void writeBehind_recordTransaction_accumulatesWithoutTouchingTheCustomer() {
+        service = service( true );
+        when( customerRepo.findPointsBalanceById( 1L ) ).thenReturn( Optional.of( 10L ) );
+
+        service.recordTransaction( new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 20 ), customer ) );
+        service.recordTransactions( List.of( new Transaction( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 8, 21 ), customer ) ) );
+
+        verify( customerRepo, never( ) ).findById( any( ) );
+        verify( ledgerRepo, never( ) ).save( any( ) );
+        assertEquals( 110, accumulator.pending( 1L ) );
+        assertEquals( 120, service.getBalance( 1L ).getPointsBalance( ) );
+    }
+
+    @Test
+    void writeBehind_flush_writesOneCoalescedEntryPerCustomer() {
+        service = service( true );
+        when( customerRepo.findAllById( any( ) ) ).thenReturn( List.of( customer ) );
+        accumulator.add( 1L, 90 );
+        accumulator.add( 1L, 20 );
+
+        assertEquals( 1, service.flushPendingPoints( ) );
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PointsLedgerEntry>> entries = ArgumentCaptor.forClass( List.class );
+        verify( ledgerRepo ).saveAll( entries.capture( ) );
+        assertEquals( 1, entries.getValue( ).size( ) );
+        assertNull( entries.getValue( ).get( 0 ).getTransactionId( ) );
+        assertEquals( 110, entries.getValue( ).get( 0 ).getPoints( ) );
+        assertEquals( 120, customer.getPointsBalance( ) );
+        assertEquals( 0, accumulator.pending( 1L ) );
+    }
+
+    @Test
+    void writeBehind_failedFlush_keepsPointsPending() {
+        service = service( true );
+        when( customerRepo.findAllById( any( ) ) ).thenThrow( new IllegalStateException( "database down" ) );
+
+        when( customerRepo.findPointsBalanceById( 1L ) ).thenReturn( Optional.of( 10L ) );
+        accumulator.add( 1L, 90 );
+
+        assertThrows( IllegalStateException.class, ( ) -> service.flushPendingPoints( ) );
+        assertEquals( 90, accumulator.pending( 1L ) );
+        assertEquals( 100, service.getBalance( 1L ).getPointsBalance( ) );
+    }
+
+    @Test
+    void writeBehind_balanceRead_duringFlush_countsThePointsBeingWritten() {
+        service = service( true );
+        when( customerRepo.findPointsBalanceById( 1L ) ).thenReturn( Optional.of( 10L ) );
+        long[] duringFlush = new long[1];
+        when( customerRepo.findAllById( any( ) ) ).thenAnswer( invocation -> {
+            duringFlush[0] = service.getBalance( 1L ).getPointsBalance( );
+            return List.of( customer );
+        } );
+        accumulator.add( 1L, 90 );
+
+        service.flushPendingPoints( );
+
+        assertEquals( 100, duringFlush[0] );
+        assertEquals( 10, service.getBalance( 1L ).getPointsBalance( ) );
+        verify( customerRepo ).flush( );
+    }
+
+    @Test
+    void writeBehind_reconcileWithRepair_isRefused() {
+        service = service( true );
+        accumulator.add( 1L, 90 );
+
+        assertThrows( IllegalStateException.class, ( ) -> service.reconcile( true ) );
+        assertEquals( 90, accumulator.pending( 1L ) );
+        verify( ledgerRepo, never( ) ).save( any( ) );
+        verify( customerRepo, never( ) ).findIdsAfter( anyLong( ), any( Limit.class ) );
+    }
+
+    private PointsLedgerServiceImpl service(boolean writeBehind) {
+        return new PointsLedgerServiceImpl( ledgerRepo, customerRepo, txRepo, new TransactionArchive( Path.of( "target/no-archive" ) ), calculator,
+                new OptimisticRetryTemplate( transactionManager, 3 ), transactionManager, 2, accumulator, writeBehind );
+    }
+
+    private static TransactionRow row(Long customerId, long cents) {
+        return new TransactionRow( null, customerId, BigDecimal.valueOf( cents, 2 ), cents, LocalDate.of( 2025, 8, 1 ) );
+    }
+}
@@ -0,0 +1,142 @@
+package com.rewards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rewards.archive.TransactionArchive;
+import com.rewards.archive.TransactionSegmentWriter;
+import com.rewards.mapper.RewardMapper;
+import com.rewards.repository.TransactionStreamRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository.CustomerTransactionRow;
+import com.rewards.service.impl.RewardExportServiceImpl;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RewardExportServiceImplTest {
+
+    private static final LocalDate FROM = LocalDate.of( 2025, 6, 1 );
+    private static final LocalDate TO = LocalDate.of( 2025, 7, 31 );
+
+    private TransactionStreamRepository streamRepo;
+    private ObjectMapper objectMapper;
+    private TransactionArchive transactionArchive;
+    private RewardExportServiceImpl service;
+
+    @TempDir
+    Path archiveDirectory;
+
+    @BeforeEach
+    void setup() {
+        streamRepo = mock(TransactionStreamRepository.class);
+        RewardProperties rewardProperties = mock(RewardProperties.class);
+        when( rewardProperties.getMinAmtSpendForPoints( ) ).thenReturn( 50 );
+        when( rewardProperties.getMinAmtSpendForBonus( ) ).thenReturn( 100 );
+        when( rewardProperties.getMultiplier( ) ).thenReturn( 2 );
+
+        objectMapper = new ObjectMapper( ).registerModule( new JavaTimeModule( ) );
+        transactionArchive = new TransactionArchive( archiveDirectory );
+        service = new RewardExportServiceImpl( streamRepo, new RewardMapper( ),
+                new RewardPointsCalculator( rewardProperties ), objectMapper, transactionArchive );
+    }
+
+    private void streamRows(CustomerTransactionRow... rows) {
+        doAnswer( invocation -> {
+            Consumer<CustomerTransactionRow> consumer = invocation.getArgument( 2 );
+            for ( CustomerTransactionRow row : rows ) {
+                consumer.accept( row );
+            }
+            return null;
+        } ).when( streamRepo ).streamCustomerTransactions( eq( FROM ), eq( TO ), any( ) );
+    }
+
+    @Test
+    void exportRewards_writesOneLinePerCustomer() throws Exception {
+        streamRows(
+                new CustomerTransactionRow( 1L, "Alice", "alice@test.com", 10L, new BigDecimal( "120" ), 12000L, LocalDate.of( 2025, 6, 5 ), null ),
+                new CustomerTransactionRow( 1L, "Alice", "alice@test.com", 11L, new BigDecimal( "75" ), null, LocalDate.of( 2025, 7, 9 ), null ),
+                new CustomerTransactionRow( 2L, "Bob", "bob@test.com", null, null, null, null, null ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream( );
+        service.exportRewards( null, FROM, TO, out );
+
+        List<String> lines = out.toString( StandardCharsets.UTF_8 ).lines( ).toList( );
+        assertThat( lines ).hasSize( 2 );
+        assertThat( out.toString( StandardCharsets.UTF_8 ) ).endsWith( "\n" );
+
+        JsonNode alice = objectMapper.readTree( lines.get( 0 ) );
+        assertThat( alice.get( "customerId" ).asLong( ) ).isEqualTo( 1L );
+        assertThat( alice.get( "totalRewards" ).asInt( ) ).isEqualTo( 115 );
+        assertThat( alice.get( "monthlyRewards" ).get( "2025-06" ).asInt( ) ).isEqualTo( 90 );
+        assertThat( alice.get( "monthlyRewards" ).get( "2025-07" ).asInt( ) ).isEqualTo( 25 );
+        assertThat( alice.has( "transactions" ) ).isFalse( );
+
+        JsonNode bob = objectMapper.readTree( lines.get( 1 ) );
+        assertThat( bob.get( "customerId" ).asLong( ) ).isEqualTo( 2L );
+        assertThat( bob.get( "totalRewards" ).asInt( ) ).isZero( );
+        assertThat( bob.get( "monthlyRewards" ).size( ) ).isZero( );
+    }
+
+    @Test
+    void exportRewards_archivedMonths_areMergedCountingRowsInBothOnce() throws Exception {
+        TransactionSegmentWriter segment = new TransactionSegmentWriter( YearMonth.of( 2025, 6 ) );
+        segment.add( new TransactionRow( 5L, 1L, new BigDecimal( "120" ), 12000L, LocalDate.of( 2025, 6, 4 ) ) );
+        segment.add( new TransactionRow( 6L, 1L, new BigDecimal( "70" ), 7000L, LocalDate.of( 2025, 6, 20 ) ) );
+        segment.add( new TransactionRow( 8L, 2L, new BigDecimal( "200" ), 20000L, LocalDate.of( 2025, 6, 20 ) ) );
+        transactionArchive.install( segment );
+        streamRows(
+                new CustomerTransactionRow( 1L, "Alice", "alice@test.com", 6L, new BigDecimal( "70" ), 7000L, LocalDate.of( 2025, 6, 20 ), null ),
+                new CustomerTransactionRow( 1L, "Alice", "alice@test.com", 10L, new BigDecimal( "70" ), 7000L, LocalDate.of( 2025, 7, 2 ), null ),
+                new CustomerTransactionRow( 2L, "Bob", "bob@test.com", null, null, null, null, null ) );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream( );
+        service.exportRewards( null, FROM, TO, out );
+
+        List<String> lines = out.toString( StandardCharsets.UTF_8 ).lines( ).toList( );
+        JsonNode alice = objectMapper.readTree( lines.get( 0 ) );
+        assertThat( alice.get( "totalRewards" ).asInt( ) ).isEqualTo( 130 );
+        assertThat( alice.get( "monthlyRewards" ).get( "2025-06" ).asInt( ) ).isEqualTo( 110 );
+        assertThat( alice.get( "monthlyRewards" ).get( "2025-07" ).asInt( ) ).isEqualTo( 20 );
+        JsonNode bob = objectMapper.readTree( lines.get( 1 ) );
+        assertThat( bob.get( "totalRewards" ).asInt( ) ).isEqualTo( 250 );
+    }
+
+    @Test
+    void exportRewards_noCustomers_writesNothing() {
+        streamRows( );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream( );
+        service.exportRewards( null, FROM, TO, out );
+
+        assertThat( out.size( ) ).isZero( );
+    }
+
+    @Test
+    void exportRewards_requiresBoundedRange() {
+        assertThatThrownBy( () -> service.exportRewards( null, FROM, null, new ByteArrayOutputStream( ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        verifyNoInteractions( streamRepo );
+    }
+}
@@ -0,0 +1,233 @@
+package com.rewards.service;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.archive.TransactionSegmentWriter;
+import com.rewards.dto.RewardRecomputeProgressDTO;
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.RewardRecomputeJob;
+import com.rewards.model.RewardRecomputePartition;
+import com.rewards.model.RewardRollupState;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.MonthlyRewardBatchRepository;
+import com.rewards.repository.RewardRecomputeJobRepository;
+import com.rewards.repository.RewardRecomputePartitionRepository;
+import com.rewards.repository.RewardRollupStateRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.rules.RewardRuleDefinition;
+import com.rewards.service.impl.RewardRecomputeServiceImpl;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RewardRecomputeServiceImplTest {
+
+    private TransactionStreamRepository streamRepo;
+    private MonthlyRewardBatchRepository batchRepo;
+    private CustomerRepository customerRepo;
+    private RewardRecomputeJobRepository jobRepo;
+    private RewardRecomputePartitionRepository partitionRepo;
+    private RewardRollupStateRepository stateRepo;
+    private RewardPointsCalculator calculator;
+    private TransactionArchive archive;
+    private RewardRecomputeServiceImpl service;
+
+    private final List<MonthlyReward> written = new ArrayList<>( );
+
+    @TempDir
+    Path archiveDirectory;
+
+    @BeforeEach
+    void setUp() {
+        streamRepo = mock( TransactionStreamRepository.class );
+        batchRepo = mock( MonthlyRewardBatchRepository.class );
+        customerRepo = mock( CustomerRepository.class );
+        jobRepo = mock( RewardRecomputeJobRepository.class );
+        partitionRepo = mock( RewardRecomputePartitionRepository.class );
+        stateRepo = mock( RewardRollupStateRepository.class );
+        archive = new TransactionArchive( archiveDirectory );
+
+        RewardProperties rewardProperties = new RewardProperties( );
+        rewardProperties.setMinAmtSpendForPoints( 50 );
+        rewardProperties.setMinAmtSpendForBonus( 100 );
+        rewardProperties.setMultiplier( 2 );
+        calculator = new RewardPointsCalculator( rewardProperties );
+
+        when( jobRepo.findFirstByOrderByIdDesc( ) ).thenReturn( Optional.empty( ) );
+        when( jobRepo.save( any( RewardRecomputeJob.class ) ) ).thenAnswer( inv -> {
+            RewardRecomputeJob job = inv.getArgument( 0 );
+            if ( job.getId( ) == null ) {
+                ReflectionTestUtils.setField( job, "id", 7L );
+            }
+            return job;
+        } );
+        when( partitionRepo.save( any( RewardRecomputePartition.class ) ) ).thenAnswer( inv -> inv.getArgument( 0 ) );
+        doAnswer( inv -> written.addAll( inv.getArgument( 0 ) ) ).when( batchRepo ).upsertAll( anyList( ) );
+
+        service = new RewardRecomputeServiceImpl( streamRepo, archive, batchRepo, customerRepo, jobRepo, partitionRepo, stateRepo,
+                calculator, mock( PlatformTransactionManager.class ), 2, 2 );
+    }
+
+    private static TransactionRow row(long customerId, String amount, LocalDate date) {
+        return new TransactionRow( 1L, customerId, new BigDecimal( amount ),
+                new BigDecimal( amount ).movePointRight( 2 ).longValueExact( ), date );
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stream(long afterId, long toId, TransactionRow... rows) {
+        doAnswer( inv -> {
+            Consumer<TransactionRow> consumer = inv.getArgument( 2 );
+            List.of( rows ).forEach( consumer );
+            return null;
+        } ).when( streamRepo ).streamCustomerRange( eq( afterId ), eq( toId ), any( Consumer.class ) );
+    }
+
+    private MonthlyReward month(long customerId, LocalDate month) {
+        return written.stream( )
+                .filter( m -> m.getCustomerId( ) == customerId && m.getRewardMonth( ).equals( month ) )
+                .findFirst( ).orElseThrow( );
+    }
+
+    @Test
+    void recompute_rewritesEveryPartitionFromStreamedTransactions() {
+        when( customerRepo.findMaxId( ) ).thenReturn( 3L );
+        stream( 0, 2,
+                row( 1, "120", LocalDate.of( 2025, 8, 2 ) ),
+                row( 1, "70", LocalDate.of( 2025, 8, 28 ) ),
+                row( 1, "40", LocalDate.of( 2025, 9, 1 ) ),
+                row( 2, "200", LocalDate.of( 2025, 8, 5 ) ) );
+        stream( 2, 4, row( 3, "60", LocalDate.of( 2024, 1, 31 ) ) );
+
+        RewardRecomputeProgressDTO progress = service.recompute( );
+
+        verify( batchRepo ).deleteCustomerRange( 0, 2 );
+        verify( batchRepo ).deleteCustomerRange( 2, 4 );
+        assertEquals( 4, written.size( ) );
+        assertEquals( 110, month( 1, LocalDate.of( 2025, 8, 1 ) ).getPoints( ) );
+        assertEquals( 2, month( 1, LocalDate.of( 2025, 8, 1 ) ).getTransactionCount( ) );
+        assertEquals( 0, month( 1, LocalDate.of( 2025, 9, 1 ) ).getPoints( ) );
+        assertEquals( 250, month( 2, LocalDate.of( 2025, 8, 1 ) ).getPoints( ) );
+        assertEquals( 10, month( 3, LocalDate.of( 2024, 1, 1 ) ).getPoints( ) );
+        verify( partitionRepo, times( 2 ) ).save( any( RewardRecomputePartition.class ) );
+
+        ArgumentCaptor<RewardRollupState> state = ArgumentCaptor.forClass( RewardRollupState.class );
+        verify( stateRepo ).save( state.capture( ) );
+        assertEquals( "50:100:2", state.getValue( ).getRulesFingerprint( ) );
+        assertEquals( "COMPLETED", progress.getStatus( ) );
+        assertEquals( 2, progress.getPartitionsDone( ) );
+        assertEquals( 5, progress.getTransactions( ) );
+        assertEquals( 4, progress.getMonths( ) );
+    }
+
+    @Test
+    void recompute_includesArchivedMonths_countingRowsStillInTheTableOnce() throws IOException {
+        TransactionSegmentWriter segment = new TransactionSegmentWriter( YearMonth.of( 2023, 3 ) );
+        segment.add( new TransactionRow( 5L, 1L, new BigDecimal( "120.00" ), 12000L, LocalDate.of( 2023, 3, 4 ) ) );
+        segment.add( new TransactionRow( 6L, 1L, new BigDecimal( "60.00" ), 6000L, LocalDate.of( 2023, 3, 9 ) ) );
+        segment.add( new TransactionRow( 7L, 3L, new BigDecimal( "200.00" ), 20000L, LocalDate.of( 2023, 3, 9 ) ) );
+        archive.install( segment );
+        when( customerRepo.findMaxId( ) ).thenReturn( 2L );
+        stream( 0, 2,
+                new TransactionRow( 5L, 1L, new BigDecimal( "120.00" ), 12000L, LocalDate.of( 2023, 3, 4 ) ),
+                row( 1, "70", LocalDate.of( 2025, 8, 28 ) ) );
+
+        RewardRecomputeProgressDTO progress = service.recompute( );
+
+        assertEquals( 2, written.size( ) );
+        assertEquals( 100, month( 1, LocalDate.of( 2023, 3, 1 ) ).getPoints( ) );
+        assertEquals( 2, month( 1, LocalDate.of( 2023, 3, 1 ) ).getTransactionCount( ) );
+        assertEquals( 3, progress.getTransactions( ) );
+    }
+
+    @Test
+    void recompute_resumesAnUnfinishedJobUnderTheSameRules() {
+        RewardRecomputeJob failed = new RewardRecomputeJob( "50:100:2", 2, 4 );
+        ReflectionTestUtils.setField( failed, "id", 3L );
+        failed.finish( RewardRecomputeJob.Status.FAILED );
+        when( jobRepo.findFirstByOrderByIdDesc( ) ).thenReturn( Optional.of( failed ) );
+        when( partitionRepo.findByJobId( 3L ) ).thenReturn( List.of( new RewardRecomputePartition( 3L, 0, 4, 3 ) ) );
+        stream( 2, 4, row( 3, "60", LocalDate.of( 2024, 1, 31 ) ) );
+
+        RewardRecomputeProgressDTO progress = service.recompute( );
+
+        verify( batchRepo, never( ) ).deleteCustomerRange( 0, 2 );
+        verify( batchRepo ).deleteCustomerRange( 2, 4 );
+        verify( customerRepo, never( ) ).findMaxId( );
+        assertEquals( 3L, progress.getJobId( ) );
+        assertEquals( "COMPLETED", progress.getStatus( ) );
+        assertEquals( 1, progress.getPartitionsResumed( ) );
+        assertEquals( 2, progress.getPartitionsDone( ) );
+        assertEquals( 5, progress.getTransactions( ) );
+    }
+
+    @Test
+    void recompute_startsOverWhenTheUnfinishedJobUsedOtherRules() {
+        RewardRecomputeJob stale = new RewardRecomputeJob( "50:100:3", 2, 4 );
+        ReflectionTestUtils.setField( stale, "id", 3L );
+        when( jobRepo.findFirstByOrderByIdDesc( ) ).thenReturn( Optional.of( stale ) );
+        when( customerRepo.findMaxId( ) ).thenReturn( 2L );
+
+        RewardRecomputeProgressDTO progress = service.recompute( );
+
+        assertEquals( 7L, progress.getJobId( ) );
+        verify( partitionRepo, never( ) ).findByJobId( any( ) );
+        verify( batchRepo ).deleteCustomerRange( 0, 2 );
+    }
+
+    @Test
+    void recompute_stopsWhenOtherRulesAreInstalledMidway() {
+        when( customerRepo.findMaxId( ) ).thenReturn( 4L );
+        RewardRuleDefinition flat = new RewardRuleDefinition( );
+        flat.setTiers( List.of( new RewardRuleDefinition.Tier( 0, 1 ) ) );
+        doAnswer( inv -> {
+            calculator.install( CompiledRewardRules.compile( flat, List.of( ) ) );
+            return null;
+        } ).when( streamRepo ).streamCustomerRange( anyLong( ), anyLong( ), any( ) );
+
+        // one worker, so the second partition starts after the first installed the new rules
+        RewardRecomputeServiceImpl sequential = new RewardRecomputeServiceImpl( streamRepo, archive, batchRepo, customerRepo,
+                jobRepo, partitionRepo, stateRepo, calculator, mock( PlatformTransactionManager.class ), 1, 2 );
+
+        RewardRecomputeProgressDTO progress = sequential.recompute( );
+
+        assertEquals( "SUPERSEDED", progress.getStatus( ) );
+        assertEquals( 1, progress.getPartitionsDone( ) );
+        verify( stateRepo, never( ) ).save( any( ) );
+    }
+
+    @Test
+    void recompute_recordsAFailedJob() {
+        when( customerRepo.findMaxId( ) ).thenReturn( 2L );
+        doThrow( new IllegalStateException( "connection lost" ) )
+                .when( streamRepo ).streamCustomerRange( anyLong( ), anyLong( ), any( ) );
+
+        assertThrows( IllegalStateException.class, ( ) -> service.recompute( ) );
+
+        assertEquals( "FAILED", service.getProgress( ).getStatus( ) );
+        verify( partitionRepo, never( ) ).save( any( ) );
+        verify( stateRepo, never( ) ).save( any( ) );
+    }
+}
@@ -0,0 +1,155 @@
+package com.rewards.service;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.cache.PendingRollupMonths;
+import com.rewards.model.Customer;
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.RewardRollupState;
+import com.rewards.model.Transaction;
+import com.rewards.repository.MonthlyRewardBatchRepository;
+import com.rewards.repository.MonthlyRewardRepository;
+import com.rewards.repository.RewardRollupStateRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.service.impl.RewardRollupServiceImpl;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RewardRollupServiceImplTest {
+
+    private MonthlyRewardRepository monthlyRewardRepo;
+    private RewardRollupStateRepository stateRepo;
+    private RewardRecomputeService recomputeService;
+    private MonthlyRewardBatchRepository batchRepo;
+    private TransactionRepository txRepo;
+    private PendingRollupMonths pendingRollupMonths;
+    private RewardProperties rewardProperties;
+    private RewardRollupServiceImpl service;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        monthlyRewardRepo = mock( MonthlyRewardRepository.class );
+        stateRepo = mock( RewardRollupStateRepository.class );
+        recomputeService = mock( RewardRecomputeService.class );
+        batchRepo = mock( MonthlyRewardBatchRepository.class );
+        txRepo = mock( TransactionRepository.class );
+        pendingRollupMonths = new PendingRollupMonths( );
+
+        rewardProperties = new RewardProperties( );
+        rewardProperties.setMinAmtSpendForPoints( 50 );
+        rewardProperties.setMinAmtSpendForBonus( 100 );
+        rewardProperties.setMultiplier( 2 );
+
+        service = serviceWith( false );
+
+        customer = new Customer( );
+        customer.setId( 1L );
+    }
+
+    @Test
+    void recordTransaction_addsPointsToFirstDayOfMonth() {
+        Transaction tx = new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 20 ), customer );
+
+        service.recordTransaction( tx );
+
+        verify( monthlyRewardRepo ).addToMonth( 1L, LocalDate.of( 2025, 8, 1 ), 90, BigDecimal.valueOf( 120 ), 1 );
+    }
+
+    @Test
+    void writeBehind_recordTransaction_onlyMarksTheMonth() {
+        service = serviceWith( true );
+
+        service.recordTransaction( new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 20 ), customer ) );
+        service.recordTransactions( List.of(
+                new Transaction( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 8, 2 ), customer ),
+                new Transaction( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 9, 2 ), customer ) ) );
+
+        verify( monthlyRewardRepo, never( ) ).addToMonth( any( ), any( ), anyInt( ), any( ), anyInt( ) );
+        assertEquals( 3, pendingRollupMonths.pendingTransactions( 1L ) );
+        assertEquals( List.of( LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 1 ) ), pendingRollupMonths.pendingMonths( 1L ) );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushPendingMonths_recomputesMarkedMonthsFromTransactions() {
+        service = serviceWith( true );
+        service.recordTransaction( new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 20 ), customer ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( 1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ) ) )
+                .thenReturn( List.of(
+                        new TransactionRow( 1L, 1L, BigDecimal.valueOf( 70 ), 7000L, LocalDate.of( 2025, 8, 2 ), null ),
+                        new TransactionRow( 2L, 1L, BigDecimal.valueOf( 120 ), 12000L, LocalDate.of( 2025, 8, 20 ), null ) ) );
+
+        assertEquals( 1, service.flushPendingMonths( ) );
+
+        ArgumentCaptor<List<MonthlyReward>> upserted = ArgumentCaptor.forClass( List.class );
+        verify( monthlyRewardRepo ).deleteMonth( 1L, LocalDate.of( 2025, 8, 1 ) );
+        verify( batchRepo ).upsertAll( upserted.capture( ) );
+        MonthlyReward august = upserted.getValue( ).get( 0 );
+        assertEquals( 110, august.getPoints( ) );
+        assertEquals( 2, august.getTransactionCount( ) );
+        assertEquals( 0, pendingRollupMonths.pendingTransactions( 1L ) );
+        assertEquals( 0, service.flushPendingMonths( ) );
+    }
+
+    @Test
+    void flushPendingMonths_failedWrite_keepsTheMonthsMarked() {
+        service = serviceWith( true );
+        service.recordTransaction( new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 20 ), customer ) );
+        doThrow( new IllegalStateException( "lock wait timeout" ) ).when( monthlyRewardRepo ).deleteMonth( any( ), any( ) );
+
+        assertThrows( IllegalStateException.class, () -> service.flushPendingMonths( ) );
+
+        assertEquals( List.of( LocalDate.of( 2025, 8, 1 ) ), pendingRollupMonths.pendingMonths( 1L ) );
+    }
+
+    @Test
+    void rebuildAll_runsTheRecomputationJob() {
+        service.rebuildAll( );
+
+        verify( recomputeService ).recompute( );
+    }
+
+    @Test
+    void rebuildIfRulesChanged_skipsWhenFingerprintMatches() {
+        when( stateRepo.findById( "monthly_rewards" ) )
+                .thenReturn( Optional.of( new RewardRollupState( "monthly_rewards", "50:100:2", LocalDateTime.now( ) ) ) );
+
+        assertFalse( service.rebuildIfRulesChanged( ) );
+        verify( recomputeService, never( ) ).recompute( );
+    }
+
+    @Test
+    void rebuildIfRulesChanged_rebuildsWhenRulesDiffer() {
+        when( stateRepo.findById( "monthly_rewards" ) )
+                .thenReturn( Optional.of( new RewardRollupState( "monthly_rewards", "50:100:3", LocalDateTime.now( ) ) ) );
+
+        assertTrue( service.rebuildIfRulesChanged( ) );
+        verify( recomputeService ).recompute( );
+    }
+
+    private RewardRollupServiceImpl serviceWith(boolean writeBehind) {
+        return new RewardRollupServiceImpl( monthlyRewardRepo, stateRepo, new RewardPointsCalculator( rewardProperties ),
+                recomputeService, batchRepo, txRepo, new TransactionArchive( archiveDirectory ),
+                mock( PlatformTransactionManager.class ), pendingRollupMonths, writeBehind );
+    }
+}
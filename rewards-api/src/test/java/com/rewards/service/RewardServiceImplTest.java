@@ -1,37 +1,80 @@
 package com.rewards.service;
 
+import com.rewards.archive.TransactionArchive;
+import com.rewards.archive.TransactionSegmentWriter;
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.PendingRollupMonths;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
 import com.rewards.dto.RewardResponseDTO;
 import com.rewards.dto.TransactionResponseDTO;
 import com.rewards.mapper.RewardMapper;
+import com.rewards.metrics.RewardCalculationLog;
+import com.rewards.metrics.RewardMetrics;
 import com.rewards.model.Customer;
+import com.rewards.model.MonthlyReward;
+import com.rewards.model.RewardRollupState;
 import com.rewards.model.Transaction;
 import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.MonthlyRewardRepository;
+import com.rewards.repository.RewardRollupStateRepository;
 import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionSpendGroup;
+import com.rewards.repository.TransactionStreamRepository;
 import com.rewards.service.impl.RewardServiceImpl;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProjection;
 import com.rewards.util.RewardProperties;
+import com.rewards.util.TransactionCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class RewardServiceImplTest {
 
     private CustomerRepository customerRepo;
     private TransactionRepository txRepo;
+    private MonthlyRewardRepository monthlyRewardRepo;
     private RewardMapper rewardMapper;
     private RewardProperties rewardProperties;
+    private RewardResponseCache rewardResponseCache;
     private RewardServiceImpl service;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionArchive transactionArchive;
+    private PendingRollupMonths pendingRollupMonths;
+    private RewardRollupStateRepository rollupStateRepo;
+
+    @TempDir
+    Path archiveDirectory;
 
     private Customer customer;
 
@@ -39,6 +82,7 @@ class RewardServiceImplTest {
     void setup() {
         customerRepo = mock(CustomerRepository.class);
         txRepo = mock(TransactionRepository.class);
+        monthlyRewardRepo = mock(MonthlyRewardRepository.class);
         rewardMapper = mock(RewardMapper.class);
         rewardProperties = mock(RewardProperties.class);
 
@@ -47,7 +91,13 @@ class RewardServiceImplTest {
         when( rewardProperties.getMinAmtSpendForBonus( ) ).thenReturn( 100 );
         when( rewardProperties.getMultiplier( ) ).thenReturn( 2 );
 
-        service = new RewardServiceImpl(customerRepo, txRepo, rewardMapper, rewardProperties);
+        meterRegistry = new SimpleMeterRegistry( );
+        rewardResponseCache = new RewardResponseCache( 100, 8, Duration.ofMinutes( 5 ) );
+        transactionArchive = new TransactionArchive( archiveDirectory );
+        pendingRollupMonths = new PendingRollupMonths( );
+        rollupStateRepo = mock( RewardRollupStateRepository.class );
+        when( rollupStateRepo.findById( "monthly_rewards" ) ).thenReturn( Optional.of( rollupState( "50:100:2" ) ) );
+        service = serviceWith( new TransactionStore( txRepo, mock( TransactionStreamRepository.class ), customerRepo, false, Duration.ofSeconds( 10 ) ) );
 
         customer = new Customer( );
         customer.setId(1L);
@@ -57,22 +107,23 @@ class RewardServiceImplTest {
 
         when(customerRepo.findById(1L)).thenReturn(Optional.of(customer));
 
-        when( rewardMapper.maptoTransactionDTO( any( Transaction.class ), anyInt( ) ) )
+        when( rewardMapper.maptoTransactionDTO( any( TransactionRow.class ), anyInt( ) ) )
                 .thenAnswer( inv -> {
-                    Transaction tx = inv.getArgument( 0 );
+                    TransactionRow tx = inv.getArgument( 0 );
                     int points = inv.getArgument( 1 );
                     TransactionResponseDTO dto = new TransactionResponseDTO( );
-                    dto.setTransactionDate( tx.getTransactionDate( ) );
-                    dto.setTransactionAmount( tx.getAmount( ) );
+                    dto.setTransactionDate( tx.transactionDate( ) );
+                    dto.setTransactionAmount( tx.amount( ) );
                     dto.setPoints( points );
                     return dto;
                 } );
 
-        when( rewardMapper.maptoRewardResponse( any( ), any( ), any( ), anyList( ), anyMap( ), anyInt( ) ) )
+        when( rewardMapper.maptoRewardResponse( any( ), any( ), any( ), any( ), any( ), anyInt( ) ) )
                 .thenAnswer( inv -> {
                     RewardResponseDTO dto = new RewardResponseDTO( );
                     dto.setCustomerName( ((Customer) inv.getArgument( 0 )).getCustomerName( ) );
                     dto.setTotalRewards( (Integer) inv.getArgument( 5 ) );
+                    dto.setTransactions( inv.getArgument( 3 ) );
                     dto.setMonthlyRewards( inv.getArgument( 4 ) );
                     return dto;
                 } );
@@ -82,17 +133,17 @@ class RewardServiceImplTest {
     void throwsException_whenCustomerNotFound() {
         when( customerRepo.findById( 99L ) ).thenReturn( Optional.empty( ) );
 
-        assertThatThrownBy( () -> service.calculateRewards( 99L, 1, null, null ) )
+        assertThatThrownBy( () -> service.calculateRewards( 99L, 1, null, null, false ) )
                 .isInstanceOf( NoSuchElementException.class )
                 .hasMessageContaining( "Customer not found" );
     }
 
     @Test
     void noTransactions_returnsZero() {
-        when( txRepo.findByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
                 .thenReturn( Collections.emptyList( ) );
 
-        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null );
+        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null, false );
 
         assertThat( result.getTotalRewards( ) ).isZero( );
         assertThat( result.getMonthlyRewards( ) ).isEmpty( );
@@ -100,44 +151,44 @@ class RewardServiceImplTest {
 
     @Test
     void transactionBelowThreshold_returnsZeroPoints() {
-        Transaction t = new Transaction( BigDecimal.valueOf( 40 ), LocalDate.now( ), customer );
-        when( txRepo.findByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+        TransactionRow t = row( BigDecimal.valueOf( 40 ), LocalDate.now( ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
                 .thenReturn( List.of( t ) );
 
-        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null );
+        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null, false );
         assertThat( result.getTotalRewards( ) ).isEqualTo( 0 );
     }
 
     @Test
     void transactionAbovePointsThresholdButBelowBonus_calculatesCorrectPoints() {
-        Transaction t = new Transaction( BigDecimal.valueOf( 70 ), LocalDate.now( ), customer );
-        when( txRepo.findByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+        TransactionRow t = row( BigDecimal.valueOf( 70 ), LocalDate.now( ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
                 .thenReturn( List.of( t ) );
 
-        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null );
+        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null, false );
         assertThat( result.getTotalRewards( ) ).isEqualTo( 20 );
     }
 
     @Test
     void transactionAboveBonusThreshold() {
-        Transaction t = new Transaction( BigDecimal.valueOf( 120 ), LocalDate.now( ), customer );
-        when( txRepo.findByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+        TransactionRow t = row( BigDecimal.valueOf( 120 ), LocalDate.now( ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
                 .thenReturn( List.of( t ) );
 
-        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null );
+        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null, false );
         assertThat( result.getTotalRewards( ) ).isEqualTo( 90 );
     }
 
     @Test
     void multipleTransactions_groupedByMonth() {
-        Transaction t1 = new Transaction( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 15 ), customer );
-        Transaction t2 = new Transaction( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 9, 5 ), customer );
+        TransactionRow t1 = row( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 15 ) );
+        TransactionRow t2 = row( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 9, 5 ) );
 
-        when( txRepo.findByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
                 .thenReturn(List.of(t1, t2));
 
         RewardResponseDTO result = service.calculateRewards( 1L, null,
-                LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ) );
+                LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ), false );
 
         assertThat( result.getTotalRewards( ) ).isEqualTo( 110 ); 
         assertThat(result.getMonthlyRewards())
@@ -145,13 +196,442 @@ class RewardServiceImplTest {
                 .containsEntry( "2025-09", 20 );
     }
 
+    @Test
+    void archivedMonths_areMergedWithTableRows_countingRowsInBothOnce() throws IOException {
+        TransactionSegmentWriter segment = new TransactionSegmentWriter( YearMonth.of( 2023, 3 ) );
+        segment.add( new TransactionRow( 5L, 1L, BigDecimal.valueOf( 120 ), 12000L, LocalDate.of( 2023, 3, 4 ) ) );
+        segment.add( new TransactionRow( 6L, 1L, BigDecimal.valueOf( 70 ), 7000L, LocalDate.of( 2023, 3, 20 ) ) );
+        segment.add( new TransactionRow( 8L, 2L, BigDecimal.valueOf( 200 ), 20000L, LocalDate.of( 2023, 3, 20 ) ) );
+        transactionArchive.install( segment );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween(
+                1L, LocalDate.of( 2023, 3, 1 ), LocalDate.of( 2023, 4, 30 ) ) )
+                .thenReturn( List.of(
+                        new TransactionRow( 6L, 1L, BigDecimal.valueOf( 70 ), 7000L, LocalDate.of( 2023, 3, 20 ) ),
+                        new TransactionRow( 10L, 1L, BigDecimal.valueOf( 70 ), 7000L, LocalDate.of( 2023, 4, 2 ) ) ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, null,
+                LocalDate.of( 2023, 3, 1 ), LocalDate.of( 2023, 4, 30 ), false );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 130 );
+        assertThat( result.getMonthlyRewards( ) )
+                .containsEntry( "2023-03", 110 )
+                .containsEntry( "2023-04", 20 );
+        assertThat( result.getTransactions( ) ).extracting( TransactionResponseDTO::getTransactionDate )
+                .containsExactly( LocalDate.of( 2023, 3, 4 ), LocalDate.of( 2023, 3, 20 ), LocalDate.of( 2023, 4, 2 ) );
+    }
+
     @Test
     void decimalAmount_isTruncated() {
-        Transaction t = new Transaction( BigDecimal.valueOf( 120.75 ), LocalDate.now( ), customer );
-        when( txRepo.findByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+        TransactionRow t = row( BigDecimal.valueOf( 120.75 ), LocalDate.now( ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
                 .thenReturn( List.of( t ) );
 
-        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null );
+        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null, false );
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 90 );
+    }
+
+    @Test
+    void monthlyRewards_areChronologicalRegardlessOfRowOrder() {
+        TransactionRow september = row( BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 9, 5 ) );
+        TransactionRow july = row( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 7, 15 ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( september, july ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, null,
+                LocalDate.of( 2025, 7, 1 ), LocalDate.of( 2025, 9, 30 ), false );
+
+        assertThat( result.getMonthlyRewards( ) ).containsExactly(
+                java.util.Map.entry( "2025-07", 90 ),
+                java.util.Map.entry( "2025-09", 20 ) );
+    }
+
+    @Test
+    void monthlyRewards_includeEmptyMonths_zeroFillsTheRange() {
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( row( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 15 ) ) ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, null,
+                LocalDate.of( 2025, 7, 20 ), LocalDate.of( 2025, 9, 10 ), true );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 90 );
+        assertThat( result.getMonthlyRewards( ) ).containsExactly(
+                java.util.Map.entry( "2025-07", 0 ),
+                java.util.Map.entry( "2025-08", 90 ),
+                java.util.Map.entry( "2025-09", 0 ) );
+    }
+
+    @Test
+    void calculateRewards_repeatedRequest_isServedFromCache() {
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( row( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 15 ) ) ) );
+
+        RewardResponseDTO first = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        RewardResponseDTO second = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+
+        assertThat( second ).isSameAs( first );
+        verify( txRepo, times( 1 ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+        assertThat( rewardResponseCache.stats( ).getHitCount( ) ).isEqualTo( 1 );
+        assertThat( rewardResponseCache.stats( ).getMissCount( ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void calculateRewards_afterCustomerEviction_isRecomputed() {
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( row( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 15 ) ) ) );
+
+        service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        rewardResponseCache.evictCustomerAfterCommit( 1L );
+        service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+
+        verify( txRepo, times( 2 ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+        assertThat( rewardResponseCache.stats( ).getInvalidationCount( ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void calculateRewards_newerRollupVersion_bypassesStaleEntryBeforeEviction() {
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( row( BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 8, 15 ) ) ) );
+        when( monthlyRewardRepo.sumTransactionCountByCustomerId( 1L ) ).thenReturn( 1L, 2L, 2L, 1L );
+
+        service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        RewardResponseDTO newer = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        RewardResponseDTO cached = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+
+        assertThat( cached ).isSameAs( newer );
+        verify( txRepo, times( 3 ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+        assertThat( rewardResponseCache.stats( ).getHitCount( ) ).isEqualTo( 1 );
+    }
+
+    @Test
+    void rewardsETag_changesWithVersionAndRange_withoutLoadingCustomerOrTransactions() {
+        when( monthlyRewardRepo.sumTransactionCountByCustomerId( 1L ) ).thenReturn( 3L, 3L, 3L, 4L );
+
+        String eTag = service.rewardsETag( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false, RewardProjection.FULL );
+        String same = service.rewardsETag( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false, RewardProjection.FULL );
+        String otherRange = service.rewardsETag( 1L, null, LocalDate.of( 2025, 7, 1 ), LocalDate.of( 2025, 8, 31 ), false, RewardProjection.FULL );
+        String newer = service.rewardsETag( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false, RewardProjection.FULL );
+
+        assertThat( eTag ).startsWith( "\"1-3-" ).endsWith( "\"" ).isEqualTo( same );
+        assertThat( otherRange ).isNotEqualTo( eTag );
+        assertThat( newer ).startsWith( "\"1-4-" );
+        verify( customerRepo, never( ) ).findById( anyLong( ) );
+        verify( txRepo, never( ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+    }
+
+    @Test
+    void rewardsETag_changesWhenTheRollupIsRebuiltUnderTheInstalledRules() {
+        when( monthlyRewardRepo.sumTransactionCountByCustomerId( 1L ) ).thenReturn( 3L );
+        when( rollupStateRepo.findById( "monthly_rewards" ) )
+                .thenReturn( Optional.of( rollupState( "50:100:3" ) ), Optional.of( rollupState( "50:100:2" ) ) );
+
+        String duringRebuild = service.rewardsETag( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false, RewardProjection.FULL );
+        String rebuilt = service.rewardsETag( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ), false, RewardProjection.FULL );
+
+        assertThat( rebuilt ).startsWith( "\"1-3-" ).isNotEqualTo( duringRebuild );
+    }
+
+    @Test
+    void rewardsETag_customerWithoutTransactions_isNull() {
+        assertThat( service.rewardsETag( 1L, 3, null, null, false, RewardProjection.FULL ) ).isNull( );
+    }
+
+    @Test
+    void summary_wholeMonths_servedFromRollupOnly() {
+        MonthlyReward august = rollup( LocalDate.of( 2025, 8, 1 ), 90 );
+        MonthlyReward september = rollup( LocalDate.of( 2025, 9, 1 ), 20 );
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 1 ) ) )
+                .thenReturn( List.of( august, september ) );
+
+        RewardResponseDTO result = service.calculateRewardSummary( 1L, null,
+                LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ), false );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 110 );
+        assertThat( result.getMonthlyRewards( ) )
+                .containsEntry( "2025-08", 90 )
+                .containsEntry( "2025-09", 20 );
+        verify( txRepo, never( ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+    }
+
+    @Test
+    void summary_partialEdgeMonths_mergeRawTransactionsWithRollup() {
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 1 ) ) )
+                .thenReturn( List.of( rollup( LocalDate.of( 2025, 8, 1 ), 40 ) ) );
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 7, 15 ), LocalDate.of( 2025, 7, 31 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 7, 20 ), 120, 1 ) ) );
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 9, 1 ), LocalDate.of( 2025, 9, 10 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 9, 5 ), 70, 1 ) ) );
+
+        RewardResponseDTO result = service.calculateRewardSummary( 1L, null,
+                LocalDate.of( 2025, 7, 15 ), LocalDate.of( 2025, 9, 10 ), false );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 150 );
+        assertThat( result.getMonthlyRewards( ) ).containsExactly(
+                java.util.Map.entry( "2025-07", 90 ),
+                java.util.Map.entry( "2025-08", 40 ),
+                java.util.Map.entry( "2025-09", 20 ) );
+    }
+
+    @Test
+    void summary_monthsTheRollupIsBehindOn_areScoredFromGroupedTransactions() {
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 1 ) ) )
+                .thenReturn( List.of( rollup( LocalDate.of( 2025, 8, 1 ), 90 ), rollup( LocalDate.of( 2025, 9, 1 ), 20 ) ) );
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 9, 1 ), LocalDate.of( 2025, 9, 30 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 9, 5 ), 70, 1 ), group( LocalDate.of( 2025, 9, 9 ), 120, 1 ) ) );
+        when( monthlyRewardRepo.sumTransactionCountByCustomerId( 1L ) ).thenReturn( 2L );
+        pendingRollupMonths.add( 1L, LocalDate.of( 2025, 9, 1 ), 1 );
+
+        RewardResponseDTO result = service.calculateRewardSummary( 1L, null,
+                LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ), false );
+        String eTag = service.rewardsETag( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ), false, RewardProjection.FULL );
+
+        assertThat( result.getMonthlyRewards( ) ).containsExactly(
+                Map.entry( "2025-08", 90 ),
+                Map.entry( "2025-09", 110 ) );
+        assertThat( result.getTransactionCount( ) ).isEqualTo( 2 );
+        assertThat( eTag ).startsWith( "\"1-3-" );
+    }
+
+    @Test
+    void summary_wholeMonthsWithoutRollupRows_areScoredFromGroupedTransactionsPerRun() {
+        MonthlyReward august = rollup( LocalDate.of( 2025, 8, 1 ), 40 );
+        august.setTransactionCount( 1 );
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 6, 1 ), LocalDate.of( 2025, 9, 1 ) ) )
+                .thenReturn( List.of( august ) );
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 6, 1 ), LocalDate.of( 2025, 7, 31 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 7, 20 ), 120, 1 ) ) );
+
+        RewardResponseDTO result = service.calculateRewardSummary( 1L, null,
+                LocalDate.of( 2025, 6, 1 ), LocalDate.of( 2025, 9, 30 ), false );
+
+        assertThat( result.getMonthlyRewards( ) ).containsExactly(
+                Map.entry( "2025-07", 90 ),
+                Map.entry( "2025-08", 40 ) );
+        assertThat( result.getTransactionCount( ) ).isEqualTo( 2 );
+        verify( txRepo ).countSpendGroups( 1L, LocalDate.of( 2025, 9, 1 ), LocalDate.of( 2025, 9, 30 ) );
+        verify( txRepo, times( 2 ) ).countSpendGroups( anyLong( ), any( ), any( ) );
+    }
+
+    @Test
+    void summary_rollupBuiltUnderOtherRules_isBypassedForGroupedTransactions() {
+        when( rollupStateRepo.findById( "monthly_rewards" ) ).thenReturn( Optional.of( rollupState( "50:100:3" ) ) );
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 8, 5 ), 120, 1 ), group( LocalDate.of( 2025, 9, 5 ), 70, 1 ) ) );
+
+        RewardResponseDTO result = service.calculateRewardSummary( 1L, null,
+                LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 9, 30 ), false );
+
+        assertThat( result.getMonthlyRewards( ) ).containsExactly(
+                Map.entry( "2025-08", 90 ),
+                Map.entry( "2025-09", 20 ) );
+        verify( monthlyRewardRepo, never( ) ).findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth( anyLong( ), any( ), any( ) );
+    }
+
+    @Test
+    void summary_rangeWithinOneMonth_usesGroupedTransactions() {
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 8, 5 ), LocalDate.of( 2025, 8, 20 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 8, 10 ), 120, 3 ) ) );
+
+        RewardResponseDTO result = service.calculateRewardSummary( 1L, null,
+                LocalDate.of( 2025, 8, 5 ), LocalDate.of( 2025, 8, 20 ), false );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 270 );
+        assertThat( result.getTransactionCount( ) ).isEqualTo( 3 );
+        verify( txRepo, never( ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+        verify( monthlyRewardRepo, never( ) ).findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth( anyLong( ), any( ), any( ) );
+    }
+
+    @Test
+    void projected_summaryOnly_readsRollupAndGroupsButNoRows() {
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 1 ) ) )
+                .thenReturn( List.of( rollup( LocalDate.of( 2025, 8, 1 ), 40 ) ) );
+        when( txRepo.countSpendGroups( 1L, LocalDate.of( 2025, 9, 1 ), LocalDate.of( 2025, 9, 10 ) ) )
+                .thenReturn( List.of( group( LocalDate.of( 2025, 9, 5 ), 70, 2 ) ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ),
+                LocalDate.of( 2025, 9, 10 ), false, RewardProjection.parse( "summary", null, null ) );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 80 );
+        assertThat( result.getMonthlyRewards( ) ).isNull( );
+        assertThat( result.getTransactions( ) ).isNull( );
+        verify( txRepo, never( ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+        verify( txRepo, never( ) ).findRowsAfter( anyLong( ), any( ), any( ), any( ), anyLong( ), any( ) );
+    }
+
+    @Test
+    void projected_openRange_isClosedWithRollupMonths() {
+        MonthlyReward august = rollup( LocalDate.of( 2025, 8, 1 ), 90 );
+        when( monthlyRewardRepo.findFirstByCustomerIdOrderByRewardMonthAsc( 1L ) ).thenReturn( Optional.of( august ) );
+        when( monthlyRewardRepo.findFirstByCustomerIdOrderByRewardMonthDesc( 1L ) ).thenReturn( Optional.of( august ) );
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 1 ) ) )
+                .thenReturn( List.of( august ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, null, null, null, false,
+                RewardProjection.parse( "monthly", null, null ) );
+
         assertThat( result.getTotalRewards( ) ).isEqualTo( 90 );
+        assertThat( result.getMonthlyRewards( ) ).containsExactly( java.util.Map.entry( "2025-08", 90 ) );
+    }
+
+    @Test
+    void projected_transactionPage_returnsCursorForTheNextPage() {
+        when( monthlyRewardRepo.findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth(
+                1L, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 1 ) ) )
+                .thenReturn( List.of( rollup( LocalDate.of( 2025, 8, 1 ), 90 ) ) );
+        TransactionRow first = new TransactionRow( 7L, 1L, BigDecimal.valueOf( 120 ), 12000L, LocalDate.of( 2025, 8, 3 ) );
+        TransactionRow second = new TransactionRow( 9L, 1L, BigDecimal.valueOf( 20 ), 2000L, LocalDate.of( 2025, 8, 4 ) );
+        when( txRepo.findRowsAfter( eq( 1L ), eq( LocalDate.of( 2025, 8, 1 ) ), eq( LocalDate.of( 2025, 8, 31 ) ),
+                eq( LocalDate.of( 2025, 7, 31 ) ), eq( 0L ), any( ) ) )
+                .thenReturn( List.of( first, second ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ),
+                LocalDate.of( 2025, 8, 31 ), false, RewardProjection.parse( "transactions", null, 1 ) );
+
+        assertThat( result.getTransactions( ) ).hasSize( 1 );
+        assertThat( result.getTransactions( ).get( 0 ).getPoints( ) ).isEqualTo( 90 );
+        assertThat( TransactionCursor.decode( result.getNextCursor( ) ) )
+                .isEqualTo( new TransactionCursor( LocalDate.of( 2025, 8, 3 ), 7L ) );
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 90 );
+    }
+
+    @Test
+    void calculateRewards_recordsStagesAndTransactionCount_onCacheMissOnly() {
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( row( BigDecimal.valueOf( 120 ), LocalDate.now( ) ),
+                        row( BigDecimal.valueOf( 70 ), LocalDate.now( ) ) ) );
+
+        service.calculateRewards( 1L, 1, null, null, false );
+        service.calculateRewards( 1L, 1, null, null, false );
+
+        for ( String stage : List.of( "fetch", "score", "aggregate", "map" ) ) {
+            assertThat( meterRegistry.get( "rewards.calculate.stage" ).tag( "stage", stage ).timer( ).count( ) )
+                    .as( stage ).isEqualTo( 1 );
+        }
+        assertThat( meterRegistry.get( "rewards.calculate" ).timer( ).count( ) ).isEqualTo( 1 );
+        assertThat( meterRegistry.get( "rewards.calculate.transactions" ).summary( ).totalAmount( ) ).isEqualTo( 2 );
+    }
+
+    @Test
+    void rowWithoutCentsColumn_fallsBackToDecimalAmount() {
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) ) )
+                .thenReturn( List.of( new TransactionRow( 1L, 1L, BigDecimal.valueOf( 120 ), null, LocalDate.now( ) ) ) );
+
+        RewardResponseDTO result = service.calculateRewards( 1L, 1, null, null, false );
+
+        assertThat( result.getTotalRewards( ) ).isEqualTo( 90 );
+    }
+
+    @Test
+    void bulk_matchesPerCustomerResponses_inRequestOrder() {
+        Customer other = new Customer( );
+        other.setId( 2L );
+        other.setCustomerName( "Other" );
+        LocalDate from = LocalDate.of( 2025, 7, 1 );
+        LocalDate to = LocalDate.of( 2025, 9, 30 );
+        List<TransactionRow> customerRows = List.of(
+                row( 1L, BigDecimal.valueOf( 120 ), LocalDate.of( 2025, 7, 15 ) ),
+                row( 1L, BigDecimal.valueOf( 70 ), LocalDate.of( 2025, 9, 5 ) ) );
+        when( customerRepo.findAllById( anyIterable( ) ) ).thenReturn( List.of( customer, other ) );
+        when( txRepo.findRowsByCustomerIdInAndTransactionDateBetween( anyCollection( ), eq( from ), eq( to ) ) )
+                .thenReturn( List.of( customerRows.get( 0 ), customerRows.get( 1 ),
+                        row( 2L, BigDecimal.valueOf( 60 ), LocalDate.of( 2025, 8, 1 ) ) ) );
+        when( txRepo.findRowsByCustomerIdAndTransactionDateBetween( 1L, from, to ) ).thenReturn( customerRows );
+
+        Map<Long, RewardResponseDTO> result = service.calculateRewardsBulk(
+                Arrays.asList( 2L, 99L, null, 1L, 2L ), null, from, to, true );
+        RewardResponseDTO single = service.calculateRewards( 1L, null, from, to, true );
+
+        assertThat( result ).containsOnlyKeys( 2L, 1L );
+        assertThat( result.keySet( ) ).containsExactly( 2L, 1L );
+        assertThat( result.get( 1L ).getTotalRewards( ) ).isEqualTo( single.getTotalRewards( ) ).isEqualTo( 110 );
+        assertThat( result.get( 1L ).getMonthlyRewards( ) ).isEqualTo( single.getMonthlyRewards( ) );
+        assertThat( result.get( 2L ).getTotalRewards( ) ).isEqualTo( 10 );
+        assertThat( result.get( 2L ).getMonthlyRewards( ) ).containsEntry( "2025-07", 0 ).containsEntry( "2025-08", 10 );
+    }
+
+    @Test
+    void bulk_queriesInChunks() {
+        List<Long> ids = LongStream.rangeClosed( 1, 2 * RewardServiceImpl.BULK_CHUNK_SIZE + 1 )
+                .boxed( ).toList( );
+        when( customerRepo.findAllById( anyIterable( ) ) ).thenReturn( List.of( ) );
+
+        assertThat( service.calculateRewardsBulk( ids, 3, null, null, false ) ).isEmpty( );
+        verify( customerRepo, times( 3 ) ).findAllById( anyIterable( ) );
+        verify( txRepo, never( ) ).findRowsByCustomerIdInAndTransactionDateBetween( anyCollection( ), any( ), any( ) );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storeLoaded_servesRewardsWithoutTransactionOrRollupQueries() {
+        TransactionRow july = new TransactionRow( 3L, 1L, BigDecimal.valueOf( 120 ), 12000L, LocalDate.of( 2025, 7, 20 ) );
+        TransactionRow august = new TransactionRow( 7L, 1L, BigDecimal.valueOf( 75.5 ), 7550L, LocalDate.of( 2025, 8, 3 ) );
+        TransactionStreamRepository streamRepo = mock( TransactionStreamRepository.class );
+        doAnswer( inv -> {
+            ((Consumer<TransactionRow>) inv.getArgument( 2 )).accept( july );
+            ((Consumer<TransactionRow>) inv.getArgument( 2 )).accept( august );
+            return null;
+        } ).when( streamRepo ).streamCustomerRange( eq( 0L ), anyLong( ), any( ) );
+        when( customerRepo.findMaxId( ) ).thenReturn( 1L );
+        when( txRepo.findMaxId( ) ).thenReturn( 7L );
+        when( txRepo.count( ) ).thenReturn( 2L );
+        TransactionStore store = new TransactionStore( txRepo, streamRepo, customerRepo, true, Duration.ofSeconds( 10 ) );
+        store.load( );
+        service = serviceWith( store );
+
+        RewardResponseDTO full = service.calculateRewards( 1L, null, LocalDate.of( 2025, 7, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        RewardResponseDTO summary = service.calculateRewardSummary( 1L, null, LocalDate.of( 2025, 7, 1 ), LocalDate.of( 2025, 8, 31 ), false );
+        RewardResponseDTO page = service.calculateRewards( 1L, null, LocalDate.of( 2025, 8, 1 ), LocalDate.of( 2025, 8, 31 ),
+                false, RewardProjection.parse( "transactions", null, 5 ) );
+
+        assertThat( full.getTotalRewards( ) ).isEqualTo( 115 );
+        assertThat( full.getMonthlyRewards( ) ).containsExactly( Map.entry( "2025-07", 90 ), Map.entry( "2025-08", 25 ) );
+        assertThat( summary.getTotalRewards( ) ).isEqualTo( 115 );
+        assertThat( summary.getTransactionCount( ) ).isEqualTo( 2 );
+        assertThat( page.getTransactions( ) ).extracting( TransactionResponseDTO::getPoints ).containsExactly( 25 );
+        assertThat( service.rewardsETag( 1L, null, null, null, false, RewardProjection.parse( null, null, null ) ) ).isNotNull( );
+        verify( txRepo, never( ) ).findRowsByCustomerIdAndTransactionDateBetween( anyLong( ), any( ), any( ) );
+        verify( txRepo, never( ) ).findRowsAfter( anyLong( ), any( ), any( ), any( ), anyLong( ), any( ) );
+        verify( txRepo, never( ) ).countSpendGroups( anyLong( ), any( ), any( ) );
+        verify( monthlyRewardRepo, never( ) ).sumTransactionCountByCustomerId( anyLong( ) );
+        verify( monthlyRewardRepo, never( ) ).findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth( anyLong( ), any( ), any( ) );
+        verify( customerRepo, times( 1 ) ).findById( 1L );
+    }
+
+    private RewardServiceImpl serviceWith(TransactionStore transactionStore) {
+        return new RewardServiceImpl( customerRepo, txRepo, monthlyRewardRepo, rewardMapper,
+                new RewardPointsCalculator( rewardProperties ), rewardResponseCache, new RewardMetrics( meterRegistry ),
+                new RewardCalculationLog( 1.0, Duration.ofMillis( 500 ) ),
+                new ReplicaStalenessGuard( Duration.ofSeconds( 5 ) ), transactionArchive,
+                new CustomerIdentityCache( customerRepo, 100 ), transactionStore, pendingRollupMonths,
+                rollupStateRepo );
+    }
+
+    private TransactionRow row(BigDecimal amount, LocalDate date) {
+        return row( 1L, amount, date );
+    }
+
+    private TransactionRow row(Long customerId, BigDecimal amount, LocalDate date) {
+        Transaction tx = new Transaction( amount, date, customer );
+        return new TransactionRow( null, customerId, amount, tx.getAmountCents( ), date );
+    }
+
+    private static TransactionSpendGroup group(LocalDate date, long wholeDollars, long transactions) {
+        return new TransactionSpendGroup( date, null, wholeDollars, transactions );
+    }
+
+    private static RewardRollupState rollupState(String rulesFingerprint) {
+        return new RewardRollupState( "monthly_rewards", rulesFingerprint, LocalDateTime.now( ) );
+    }
+
+    private MonthlyReward rollup(LocalDate month, long points) {
+        MonthlyReward reward = new MonthlyReward( 1L, month );
+        reward.setPoints( points );
+        return reward;
     }
 }
@@ -0,0 +1,121 @@
+package com.rewards.service;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+import com.rewards.service.impl.TransactionArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionArchiveServiceImplTest {
+
+    private static final YearMonth OLD = YearMonth.now( ).minusMonths( 25 );
+
+    private TransactionRepository txRepo;
+    private TransactionStreamRepository streamRepo;
+    private TransactionArchive archive;
+    private TransactionArchiveServiceImpl service;
+
+    @TempDir
+    Path archiveDirectory;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock( TransactionRepository.class );
+        streamRepo = mock( TransactionStreamRepository.class );
+        archive = new TransactionArchive( archiveDirectory );
+        service = new TransactionArchiveServiceImpl( txRepo, streamRepo, archive, mock( PlatformTransactionManager.class ), 24 );
+    }
+
+    private static TransactionRow row(long id, long customerId, String amount, LocalDate date) {
+        return new TransactionRow( id, customerId, new BigDecimal( amount ), null, date );
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stream(YearMonth month, List<TransactionRow> rows) {
+        doAnswer( inv -> {
+            Consumer<TransactionRow> consumer = inv.getArgument( 2 );
+            rows.forEach( consumer );
+            return null;
+        } ).when( streamRepo ).streamDateRange( eq( month.atDay( 1 ) ), eq( month.atEndOfMonth( ) ), any( Consumer.class ) );
+    }
+
+    private List<TransactionRow> archived(long customerId) {
+        List<TransactionRow> rows = new ArrayList<>( );
+        archive.forEachRow( customerId, null, null, rows::add );
+        return rows;
+    }
+
+    @Test
+    void archiveAgedMonths_writesEachAgedMonthThenDeletesItsRowsInChunks() {
+        when( txRepo.findEarliestTransactionDate( ) ).thenReturn( Optional.of( OLD.atDay( 10 ) ) );
+        List<TransactionRow> rows = new ArrayList<>( );
+        LongStream.rangeClosed( 1, 1500 ).forEach( id -> rows.add( row( id, id % 3 + 1, "60.00", OLD.atDay( 10 ) ) ) );
+        stream( OLD, rows );
+
+        List<YearMonth> months = service.archiveAgedMonths( );
+
+        assertEquals( List.of( OLD ), months );
+        assertTrue( archive.contains( OLD ) );
+        assertEquals( 1500, archive.segment( OLD ).orElseThrow( ).rows( ) );
+        assertEquals( 500, archived( 1 ).size( ) );
+        verify( txRepo, times( 2 ) ).deleteArchived( eq( OLD.atDay( 1 ) ), eq( OLD.atEndOfMonth( ) ), anyCollection( ) );
+        verify( streamRepo, never( ) ).streamDateRange( eq( OLD.plusMonths( 1 ).atDay( 1 ) ), any( ), any( ) );
+    }
+
+    @Test
+    void archiveAgedMonths_addsRowsLeftInTheTableToTheExistingSegment() {
+        when( txRepo.findEarliestTransactionDate( ) ).thenReturn( Optional.of( OLD.atDay( 1 ) ) );
+        stream( OLD, List.of( row( 1, 1, "60.00", OLD.atDay( 1 ) ), row( 2, 1, "80.00", OLD.atDay( 2 ) ) ) );
+        service.archiveAgedMonths( );
+        stream( OLD, List.of( row( 2, 1, "80.00", OLD.atDay( 2 ) ), row( 3, 1, "120.00", OLD.atDay( 3 ) ) ) );
+
+        service.archiveAgedMonths( );
+
+        assertEquals( List.of( 1L, 2L, 3L ), archived( 1 ).stream( ).map( TransactionRow::id ).toList( ) );
+        verify( txRepo, times( 2 ) ).deleteArchived( any( ), any( ), anyCollection( ) );
+    }
+
+    @Test
+    void archiveAgedMonths_keepsRowsTheSegmentCannotHold() {
+        when( txRepo.findEarliestTransactionDate( ) ).thenReturn( Optional.of( OLD.atDay( 1 ) ) );
+        stream( OLD, List.of( row( 1, 1, "60.00", OLD.atDay( 1 ) ), row( 2, 1, "1e30", OLD.atDay( 2 ) ) ) );
+
+        service.archiveAgedMonths( );
+
+        verify( txRepo ).deleteArchived( OLD.atDay( 1 ), OLD.atEndOfMonth( ), List.of( 1L ) );
+    }
+
+    @Test
+    void archiveAgedMonths_withoutTransactions_archivesNothing() {
+        when( txRepo.findEarliestTransactionDate( ) ).thenReturn( Optional.empty( ) );
+
+        assertTrue( service.archiveAgedMonths( ).isEmpty( ) );
+        verifyNoInteractions( streamRepo );
+    }
+
+    @Test
+    void rejectsAnArchiveAgeBelowOneMonth() {
+        assertThrows( IllegalArgumentException.class, () -> new TransactionArchiveServiceImpl( txRepo, streamRepo, archive,
+                mock( PlatformTransactionManager.class ), 0 ) );
+    }
+}
@@ -0,0 +1,130 @@
+package com.rewards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
+import com.rewards.dto.BatchIngestResponseDTO;
+import com.rewards.model.Customer;
+import com.rewards.model.Transaction;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.service.impl.TransactionBatchServiceImpl;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.OptimisticRetryTemplate;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionBatchServiceImplTest {
+
+    private TransactionRepository txRepo;
+    private CustomerRepository customerRepo;
+    private RewardRollupService rewardRollupService;
+    private PointsLedgerService pointsLedgerService;
+    private TransactionBatchServiceImpl service;
+
+    private Customer alice;
+    private Customer bob;
+
+    @BeforeEach
+    void setUp() {
+        txRepo = mock( TransactionRepository.class );
+        customerRepo = mock( CustomerRepository.class );
+        rewardRollupService = mock( RewardRollupService.class );
+        pointsLedgerService = mock( PointsLedgerService.class );
+        service = new TransactionBatchServiceImpl( txRepo, new CustomerIdentityCache( customerRepo, 100 ), rewardRollupService,
+                mock( RewardResponseCache.class ), pointsLedgerService,
+                new ObjectMapper( ).findAndRegisterModules( ),
+                Validation.buildDefaultValidatorFactory( ).getValidator( ),
+                new OptimisticRetryTemplate( mock( PlatformTransactionManager.class ), 3 ),
+                new ReplicaStalenessGuard( Duration.ofSeconds( 5 ) ), mock( TransactionStore.class ), 2 );
+
+        alice = new Customer( );
+        alice.setId( 1L );
+        alice.setCustomerEmail( "alice@example.com" );
+        bob = new Customer( );
+        bob.setId( 2L );
+        bob.setCustomerEmail( "bob@example.com" );
+
+        when( customerRepo.findAllById( any( ) ) ).thenReturn( List.of( alice ) );
+        when( customerRepo.findByCustomerEmailIn( any( ) ) ).thenReturn( List.of( bob ) );
+        when( txRepo.saveAll( anyList( ) ) ).thenAnswer( inv -> inv.getArgument( 0 ) );
+    }
+
+    @Test
+    void jsonArray_savesResolvedRowsAndReportsRejectedIndexes() {
+        String body = """
+                [
+                  {"customerId": 1, "amount": 120, "transactionDate": "2025-08-01"},
+                  {"customerEmail": "bob@example.com", "amount": 70, "transactionDate": "2025-08-02"},
+                  {"customerId": 99, "amount": 60, "transactionDate": "2025-08-03"},
+                  {"customerId": 1, "amount": 0, "transactionDate": "2025-08-04"},
+                  {"customerId": 1, "amount": 75, "transactionDate": "not-a-date"}
+                ]
+                """;
+
+        BatchIngestResponseDTO result = service.createTransactions( stream( body ) );
+
+        assertTrue( result.isCompleted( ) );
+        assertEquals( 5, result.getReceived( ) );
+        assertEquals( 2, result.getAccepted( ) );
+        assertEquals( 3, result.getRejected( ) );
+        assertEquals( Set.of( 2, 3, 4 ), result.getRejectedRows( ).stream( ).map( r -> r.getIndex( ) ).collect( java.util.stream.Collectors.toSet( ) ) );
+        verify( rewardRollupService, times( 2 ) ).recordTransactions( anyList( ) );
+        verify( pointsLedgerService, times( 2 ) ).recordTransactions( anyList( ) );
+    }
+
+    @Test
+    void ndjson_resolvesCustomersOncePerChunk() {
+        String body = """
+                {"customerId": 1, "amount": 120, "transactionDate": "2025-08-01"}
+                {"customerId": 1, "amount": 130, "transactionDate": "2025-08-02"}
+                {"customerEmail": "bob@example.com", "amount": 70, "transactionDate": "2025-08-03"}
+                """;
+
+        BatchIngestResponseDTO result = service.createTransactions( stream( body ) );
+
+        assertEquals( 3, result.getAccepted( ) );
+        assertEquals( 0, result.getRejected( ) );
+        verify( customerRepo, times( 1 ) ).findAllById( Set.of( 1L ) );
+        verify( customerRepo, times( 1 ) ).findByCustomerEmailIn( Set.of( "bob@example.com" ) );
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass( List.class );
+        verify( txRepo, times( 2 ) ).saveAll( saved.capture( ) );
+        assertEquals( bob.getId( ), saved.getAllValues( ).get( 1 ).get( 0 ).getCustomer( ).getId( ) );
+    }
+
+    @Test
+    void malformedPayload_keepsEarlierChunksAndReportsIncomplete() {
+        String body = """
+                {"customerId": 1, "amount": 120, "transactionDate": "2025-08-01"}
+                {"customerId": 1, "amount": 130, "transactionDate": "2025-08-02"}
+                {"customerId": 1, "amount":
+                """;
+
+        BatchIngestResponseDTO result = service.createTransactions( stream( body ) );
+
+        assertFalse( result.isCompleted( ) );
+        assertNotNull( result.getError( ) );
+        assertEquals( 2, result.getAccepted( ) );
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream( body.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
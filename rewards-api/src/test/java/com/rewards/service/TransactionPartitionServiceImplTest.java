@@ -0,0 +1,73 @@
+package com.rewards.service;
+
+import com.rewards.repository.TransactionPartitionRepository;
+import com.rewards.service.impl.TransactionPartitionServiceImpl;
+import com.rewards.util.TransactionPartitionPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionPartitionServiceImplTest {
+
+    private static final YearMonth NOW = YearMonth.now( );
+
+    private TransactionPartitionRepository partitionRepo;
+    private TransactionPartitionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        partitionRepo = mock( TransactionPartitionRepository.class );
+        when( partitionRepo.databaseProductName( ) ).thenReturn( "MySQL" );
+        service = new TransactionPartitionServiceImpl( partitionRepo, 1, 2 );
+    }
+
+    @Test
+    void maintainPartitions_partitionsAFlatTableFromItsEarliestMonth() {
+        when( partitionRepo.partitionNames( ) ).thenReturn( List.of( ) );
+        when( partitionRepo.earliestTransactionDate( ) ).thenReturn( Optional.of( NOW.minusMonths( 1 ).atDay( 15 ) ) );
+
+        service.maintainPartitions( );
+
+        verify( partitionRepo ).partitionByMonth( List.of( NOW.minusMonths( 1 ), NOW, NOW.plusMonths( 1 ) ) );
+        verify( partitionRepo, never( ) ).addMonths( any( ) );
+        verify( partitionRepo, never( ) ).archive( any( ) );
+    }
+
+    @Test
+    void maintainPartitions_addsMonthsAndArchivesExpiredOnes() {
+        when( partitionRepo.partitionNames( ) ).thenReturn( List.of(
+                TransactionPartitionPlan.partitionName( NOW.minusMonths( 3 ) ),
+                TransactionPartitionPlan.partitionName( NOW.minusMonths( 2 ) ),
+                TransactionPartitionPlan.partitionName( NOW.minusMonths( 1 ) ),
+                TransactionPartitionPlan.partitionName( NOW ),
+                TransactionPartitionPlan.FUTURE ) );
+
+        TransactionPartitionPlan plan = service.maintainPartitions( );
+
+        assertEquals( List.of( NOW.plusMonths( 1 ) ), plan.create( ) );
+        verify( partitionRepo ).addMonths( List.of( NOW.plusMonths( 1 ) ) );
+        verify( partitionRepo ).archive( NOW.minusMonths( 3 ) );
+        verify( partitionRepo, never( ) ).partitionByMonth( any( ) );
+        verify( partitionRepo, never( ) ).earliestTransactionDate( );
+    }
+
+    @Test
+    void maintainPartitions_refusesOtherDatabases() {
+        when( partitionRepo.databaseProductName( ) ).thenReturn( "H2" );
+
+        assertThrows( IllegalStateException.class, ( ) -> service.maintainPartitions( ) );
+        verify( partitionRepo, never( ) ).partitionNames( );
+    }
+
+    @Test
+    void constructor_rejectsNegativeRetention() {
+        assertThrows( IllegalArgumentException.class, ( ) -> new TransactionPartitionServiceImpl( partitionRepo, 1, -1 ) );
+    }
+}
@@ -1,15 +1,25 @@
 package com.rewards.service;
 
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
 import com.rewards.dto.TransactionRequestDTO;
+import com.rewards.metrics.RewardMetrics;
 import com.rewards.model.Customer;
 import com.rewards.model.Transaction;
 import com.rewards.repository.CustomerRepository;
 import com.rewards.repository.TransactionRepository;
 import com.rewards.service.impl.TransactionServiceImpl;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.OptimisticRetryTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -21,13 +31,24 @@ public class TransactionServiceImplTest {
 
     private TransactionRepository txRepo;
     private CustomerRepository customerRepo;
+    private RewardRollupService rewardRollupService;
+    private RewardResponseCache rewardResponseCache;
+    private PointsLedgerService pointsLedgerService;
+    private PlatformTransactionManager transactionManager;
     private TransactionServiceImpl service;
 
     @BeforeEach
     void setUp() {
         txRepo = mock( TransactionRepository.class );
         customerRepo = mock( CustomerRepository.class );
-        service = new TransactionServiceImpl( txRepo, customerRepo );
+        rewardRollupService = mock( RewardRollupService.class );
+        rewardResponseCache = mock( RewardResponseCache.class );
+        pointsLedgerService = mock( PointsLedgerService.class );
+        transactionManager = mock( PlatformTransactionManager.class );
+        service = new TransactionServiceImpl( txRepo, new CustomerIdentityCache( customerRepo, 100 ),
+                rewardRollupService, rewardResponseCache, new RewardMetrics( new SimpleMeterRegistry( ) ),
+                pointsLedgerService, new OptimisticRetryTemplate( transactionManager, 3 ),
+                new ReplicaStalenessGuard( Duration.ofSeconds( 5 ) ), mock( TransactionStore.class ) );
     }
 
     @Test
@@ -50,9 +71,56 @@ public class TransactionServiceImplTest {
 
 
         assertNotNull( result );
-        assertEquals( customer, result.getCustomer( ) );
+        assertEquals( customer.getId( ), result.getCustomer( ).getId( ) );
         assertEquals( BigDecimal.valueOf( 100 ), result.getAmount( ) );
         verify( txRepo, times( 1 ) ).save( any( Transaction.class ) );
+        verify( rewardRollupService, times( 1 ) ).recordTransaction( result );
+        verify( pointsLedgerService, times( 1 ) ).recordTransaction( result );
+        verify( rewardResponseCache, times( 1 ) ).evictCustomerAfterCommit( 1L );
+    }
+
+    @Test
+    void createTransaction_lostBalanceRace_isRetriedInANewTransaction() {
+        Customer customer = new Customer( );
+        customer.setId( 1L );
+
+        TransactionRequestDTO req = new TransactionRequestDTO( );
+        req.setCustomerId( 1L );
+        req.setAmount( BigDecimal.valueOf( 120 ) );
+        req.setTransactionDate( LocalDate.now( ) );
+
+        when( customerRepo.findById( 1L ) ).thenReturn( Optional.of( customer ) );
+        when( txRepo.save( any( Transaction.class ) ) ).thenAnswer( inv -> inv.getArgument( 0 ) );
+        doThrow( new OptimisticLockingFailureException( "stale customer version" ) )
+                .doNothing( )
+                .when( pointsLedgerService ).recordTransaction( any( Transaction.class ) );
+
+        Transaction result = service.createTransaction( req );
+
+        assertEquals( BigDecimal.valueOf( 120 ), result.getAmount( ) );
+        verify( txRepo, times( 2 ) ).save( any( Transaction.class ) );
+        verify( transactionManager, times( 1 ) ).rollback( any( ) );
+        verify( transactionManager, times( 1 ) ).commit( any( ) );
+    }
+
+    @Test
+    void createTransaction_persistentBalanceConflict_givesUpAfterMaxAttempts() {
+        Customer customer = new Customer( );
+        customer.setId( 1L );
+
+        TransactionRequestDTO req = new TransactionRequestDTO( );
+        req.setCustomerId( 1L );
+        req.setAmount( BigDecimal.valueOf( 120 ) );
+        req.setTransactionDate( LocalDate.now( ) );
+
+        when( customerRepo.findById( 1L ) ).thenReturn( Optional.of( customer ) );
+        when( txRepo.save( any( Transaction.class ) ) ).thenAnswer( inv -> inv.getArgument( 0 ) );
+        doThrow( new OptimisticLockingFailureException( "stale customer version" ) )
+                .when( pointsLedgerService ).recordTransaction( any( Transaction.class ) );
+
+        assertThrows( OptimisticLockingFailureException.class, () -> service.createTransaction( req ) );
+        verify( txRepo, times( 3 ) ).save( any( Transaction.class ) );
+        verify( transactionManager, never( ) ).commit( any( ) );
     }
 
     @Test
@@ -76,7 +144,7 @@ public class TransactionServiceImplTest {
 
 
         assertNotNull( result );
-        assertEquals( customer, result.getCustomer( ) );
+        assertEquals( customer.getId( ), result.getCustomer( ).getId( ) );
         assertEquals( BigDecimal.valueOf( 200 ), result.getAmount( ) );
         verify( txRepo, times( 1 ) ).save( any( Transaction.class ) );
     }
@@ -98,7 +166,33 @@ public class TransactionServiceImplTest {
         );
         assertEquals( "Customer not found. Please register first.", ex.getMessage( ) );
         verify( txRepo, never( ) ).save( any( Transaction.class ) );
+        verify( rewardRollupService, never( ) ).recordTransaction( any( Transaction.class ) );
+        verify( rewardResponseCache, never( ) ).evictCustomerAfterCommit( anyLong( ) );
     }
 
 
+
+    @Test
+    void createTransaction_repeatedCustomer_isResolvedWithoutSecondLookup() {
+        Customer customer = new Customer( );
+        customer.setId( 1L );
+        customer.setCustomerEmail( "test@example.com" );
+
+        TransactionRequestDTO req = new TransactionRequestDTO( );
+        req.setCustomerId( 1L );
+        req.setAmount( BigDecimal.valueOf( 100 ) );
+        req.setTransactionDate( LocalDate.now( ) );
+
+        when( customerRepo.findById( 1L ) ).thenReturn( Optional.of( customer ) );
+        when( txRepo.save( any( Transaction.class ) ) ).thenAnswer( inv -> inv.getArgument( 0 ) );
+
+        service.createTransaction( req );
+        req.setCustomerId( null );
+        req.setCustomerEmail( "test@example.com" );
+        Transaction result = service.createTransaction( req );
+
+        assertEquals( 1L, result.getCustomer( ).getId( ) );
+        verify( customerRepo, times( 1 ) ).findById( 1L );
+        verify( customerRepo, never( ) ).findByCustomerEmail( anyString( ) );
+    }
 }
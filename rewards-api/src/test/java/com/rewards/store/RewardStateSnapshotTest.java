@@ -0,0 +1,173 @@
+package com.rewards.store;
+
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.model.Customer;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RewardStateSnapshotTest {
+
+    private static final LocalDate DAY = LocalDate.of( 2025, 8, 1 );
+    private static final Instant RECORDED = Instant.parse( "2025-08-10T12:00:00.123456Z" );
+    private static final Duration LAG = Duration.ofSeconds( 10 );
+
+    @TempDir
+    Path directory;
+
+    private TransactionRepository transactionRepository;
+    private TransactionStreamRepository streamRepository;
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void setup() {
+        transactionRepository = mock( TransactionRepository.class );
+        streamRepository = mock( TransactionStreamRepository.class );
+        customerRepository = mock( CustomerRepository.class );
+    }
+
+    private static TransactionRow row(long id, long customerId, String amount, int plusDays, String category) {
+        return new TransactionRow( id, customerId, new BigDecimal( amount ), null, DAY.plusDays( plusDays ), category );
+    }
+
+    private static Customer customer(long id, String email) {
+        Customer customer = new Customer( );
+        customer.setId( id );
+        customer.setCustomerName( "Customer " + id );
+        customer.setCustomerEmail( email );
+        customer.setCustomerContactNumber( id == 1 ? null : "1234567890" );
+        return customer;
+    }
+
+    private static TransactionColumns columns() {
+        TransactionColumns columns = new TransactionColumns( 0 );
+        columns.add( row( 1, 3, "120.00", 4, "dining" ) );
+        columns.add( row( 2, 1, "45.99", 2, null ) );
+        columns.add( row( 3, 3, "60.00", 1, "grocery" ) );
+        columns.add( row( 4, 1, "200.10", 2, "dining" ) );
+        columns.add( row( 5, 3, "10.00", 1, null ) );
+        return columns;
+    }
+
+    private RewardStateSnapshot snapshot(TransactionStore store, CustomerIdentityCache cache, Path path) {
+        return new RewardStateSnapshot( store, transactionRepository, cache, true, path );
+    }
+
+    @Test
+    void write_thenRead_restoresRowsWatermarksAndCustomers() throws IOException {
+        TransactionColumns columns = columns( );
+        Path path = directory.resolve( "state.bin" );
+
+        RewardStateSnapshot.write( path, columns, 5, RECORDED, List.of( customer( 1, "a@test.com" ), customer( 3, "c@test.com" ) ) );
+        RewardStateSnapshot.Restored restored = RewardStateSnapshot.read( path );
+
+        assertThat( restored.highestId( ) ).isEqualTo( 5 );
+        assertThat( restored.recordedThrough( ) ).isEqualTo( RECORDED );
+        assertThat( restored.columns( ).rows( ) ).isEqualTo( 5 );
+        assertThat( restored.columns( ).customers( ) ).isEqualTo( 2 );
+        for ( long customerId = 0; customerId <= 4; customerId++ ) {
+            assertThat( restored.columns( ).findRows( customerId, DAY, DAY.plusDays( 9 ) ) )
+                    .isEqualTo( columns.findRows( customerId, DAY, DAY.plusDays( 9 ) ) );
+        }
+        assertThat( restored.customers( ) ).usingRecursiveFieldByFieldElementComparator( )
+                .containsExactly( customer( 1, "a@test.com" ), customer( 3, "c@test.com" ) );
+        assertThat( restored.columns( ).add( row( 6, 1, "1.00", 0, "dining" ) ) ).isTrue( );
+        assertThat( restored.columns( ).findRows( 1, DAY, DAY.plusDays( 9 ) ) ).extracting( TransactionRow::id )
+                .containsExactly( 6L, 2L, 4L );
+    }
+
+    @Test
+    void read_corruptOrTruncatedFile_isRejected() throws IOException {
+        Path path = directory.resolve( "state.bin" );
+        RewardStateSnapshot.write( path, columns( ), 5, RECORDED, List.of( ) );
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.WRITE ) ) {
+            channel.write( ByteBuffer.wrap( new byte[]{42} ), RewardStateSnapshot.HEADER_BYTES + 3 );
+        }
+
+        assertThatThrownBy( () -> RewardStateSnapshot.read( path ) )
+                .isInstanceOf( IllegalStateException.class ).hasMessageContaining( "checksum" );
+
+        try ( FileChannel channel = FileChannel.open( path, StandardOpenOption.WRITE ) ) {
+            channel.truncate( channel.size( ) - 1 );
+        }
+        assertThatThrownBy( () -> RewardStateSnapshot.read( path ) )
+                .isInstanceOf( IllegalStateException.class ).hasMessageContaining( "Truncated" );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void save_thenRestore_fillsTheIdentityCache_andTheStoreCatchesUpFromTheSnapshotsRecordedAt() {
+        Path path = directory.resolve( "snapshot/state.bin" );
+        doAnswer( inv -> {
+            columns( ).findRows( 1, DAY, DAY.plusDays( 9 ) ).forEach( inv.<Consumer<TransactionRow>>getArgument( 2 ) );
+            return null;
+        } ).when( streamRepository ).streamCustomerRange( eq( 0L ), anyLong( ), any( ) );
+        when( customerRepository.findMaxId( ) ).thenReturn( 1L );
+        when( transactionRepository.findMaxId( ) ).thenReturn( 4L );
+        when( streamRepository.findMaxRecordedAt( ) ).thenReturn( RECORDED );
+        TransactionStore running = new TransactionStore( transactionRepository, streamRepository, customerRepository, true, LAG );
+        running.load( );
+        CustomerIdentityCache runningCache = new CustomerIdentityCache( customerRepository, 10 );
+        runningCache.put( customer( 1, "a@test.com" ) );
+        snapshot( running, runningCache, path ).save( );
+
+        doAnswer( inv -> {
+            inv.<Consumer<TransactionRow>>getArgument( 1 ).accept( row( 7, 1, "130.00", 3, null ) );
+            return RECORDED.plusSeconds( 30 );
+        } ).when( streamRepository ).streamRecordedSince( eq( RECORDED.minus( LAG ) ), any( ) );
+        when( transactionRepository.findMaxId( ) ).thenReturn( 7L );
+        TransactionStore restarted = new TransactionStore( transactionRepository, streamRepository, customerRepository, true, LAG );
+        CustomerIdentityCache restartedCache = new CustomerIdentityCache( customerRepository, 10 );
+        RewardStateSnapshot.Restored restored = snapshot( restarted, restartedCache, path ).restore( );
+        restarted.load( restored.columns( ), restored.highestId( ), restored.recordedThrough( ) );
+
+        assertThat( restartedCache.findByEmail( "a@test.com" ) ).isPresent( );
+        verify( customerRepository, never( ) ).findByCustomerEmail( any( ) );
+        List<TransactionRow> rows = restarted.read( c -> c.findRows( 1, DAY, DAY.plusDays( 9 ) ), List::of );
+        assertThat( rows ).extracting( TransactionRow::id ).containsExactly( 2L, 4L, 7L );
+        assertThat( restored.recordedThrough( ) ).isEqualTo( RECORDED );
+        assertThat( restarted.recordedThrough( ) ).isEqualTo( RECORDED.plusSeconds( 30 ) );
+        verify( streamRepository ).streamCustomerRange( anyLong( ), anyLong( ), any( ) );
+    }
+
+    @Test
+    void restore_snapshotAheadOfTheDatabase_isIgnored() throws IOException {
+        Path path = directory.resolve( "state.bin" );
+        RewardStateSnapshot.write( path, columns( ), 5, RECORDED, List.of( customer( 1, "a@test.com" ) ) );
+        when( transactionRepository.findMaxId( ) ).thenReturn( 3L );
+        CustomerIdentityCache cache = new CustomerIdentityCache( customerRepository, 10 );
+        TransactionStore store = new TransactionStore( transactionRepository, streamRepository, customerRepository, true, LAG );
+
+        assertThat( snapshot( store, cache, path ).restore( ) ).isNull( );
+        assertThat( cache.size( ) ).isZero( );
+        assertThat( Files.exists( path ) ).isTrue( );
+    }
+}
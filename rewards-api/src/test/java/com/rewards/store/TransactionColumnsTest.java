@@ -0,0 +1,139 @@
+package com.rewards.store;
+
+import com.rewards.repository.TransactionRow;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.rules.RewardRuleDefinition;
+import com.rewards.util.MonthlyRewardAggregator;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionColumnsTest {
+
+    private static final LocalDate START = LocalDate.of( 2025, 1, 1 );
+
+    private static TransactionRow row(long id, long customerId, String amount, LocalDate date, String category) {
+        return new TransactionRow( id, customerId, new BigDecimal( amount ), null, date, category );
+    }
+
+    private static CompiledRewardRules rules() {
+        RewardProperties properties = new RewardProperties( );
+        properties.setMinAmtSpendForPoints( 50 );
+        properties.setMinAmtSpendForBonus( 100 );
+        properties.setMultiplier( 2 );
+        RewardRuleDefinition dining = new RewardRuleDefinition( );
+        dining.setEffectiveFrom( LocalDate.of( 2025, 3, 1 ) );
+        dining.setTiers( List.of( new RewardRuleDefinition.Tier( 0, 1 ) ) );
+        dining.setCategoryMultipliers( Map.of( "dining", 2 ) );
+        return CompiledRewardRules.compile( RewardRuleDefinition.fromProperties( properties ), List.of( dining ) );
+    }
+
+    @Test
+    void add_keepsEachCustomersRowsInDateAndIdOrder_andSkipsDuplicateIds() {
+        TransactionColumns columns = new TransactionColumns( 0 );
+
+        assertThat( columns.add( row( 9, 2, "120.50", START.plusDays( 20 ), "grocery" ) ) ).isTrue( );
+        assertThat( columns.add( row( 3, 1, "70.00", START.plusDays( 28 ), null ) ) ).isTrue( );
+        assertThat( columns.add( row( 4, 1, "45.99", START.plusDays( 2 ), "fuel" ) ) ).isTrue( );
+        assertThat( columns.add( row( 2, 1, "12.00", START.plusDays( 2 ), "grocery" ) ) ).isTrue( );
+        assertThat( columns.add( row( 4, 1, "45.99", START.plusDays( 2 ), "fuel" ) ) ).isFalse( );
+
+        assertThat( columns.rows( ) ).isEqualTo( 4 );
+        assertThat( columns.customers( ) ).isEqualTo( 2 );
+        assertThat( columns.size( 1 ) ).isEqualTo( 3 );
+        assertThat( columns.size( 7 ) ).isZero( );
+        assertThat( columns.findRows( 1, START, START.plusDays( 30 ) ) ).containsExactly(
+                new TransactionRow( 2L, 1L, new BigDecimal( "12.00" ), 1200L, START.plusDays( 2 ), "grocery" ),
+                new TransactionRow( 4L, 1L, new BigDecimal( "45.99" ), 4599L, START.plusDays( 2 ), "fuel" ),
+                new TransactionRow( 3L, 1L, new BigDecimal( "70.00" ), 7000L, START.plusDays( 28 ), null ) );
+        assertThat( columns.findRows( 1, START.plusDays( 3 ), START.plusDays( 28 ) ) ).extracting( TransactionRow::id ).containsExactly( 3L );
+        assertThat( columns.findRows( 1, null, START.plusDays( 28 ) ) ).isEmpty( );
+    }
+
+    @Test
+    void add_interleavedAcrossManyCustomers_survivesRelocationAndCompaction() {
+        TransactionColumns columns = new TransactionColumns( 0 );
+        Random random = new Random( 42 );
+        List<List<Long>> expected = new ArrayList<>( );
+        for ( int c = 0; c <= 300; c++ ) {
+            expected.add( new ArrayList<>( ) );
+        }
+        for ( long id = 1; id <= 20_000; id++ ) {
+            int customer = 1 + random.nextInt( 300 );
+            columns.add( row( id, customer, "10.00", START, null ) );
+            expected.get( customer ).add( id );
+        }
+
+        assertThat( columns.rows( ) ).isEqualTo( 20_000 );
+        assertThat( columns.offHeapBytes( ) ).isGreaterThanOrEqualTo( 20_000L * TransactionColumns.BYTES_PER_ROW );
+        for ( int c = 1; c <= 300; c++ ) {
+            assertThat( columns.findRows( c, START, START ) ).extracting( TransactionRow::id ).isEqualTo( expected.get( c ) );
+        }
+    }
+
+    @Test
+    void findRowsAfter_pagesLikeTheRepository() {
+        TransactionColumns columns = new TransactionColumns( 16 );
+        for ( long id = 1; id <= 6; id++ ) {
+            columns.add( row( id, 5, "20.00", START.plusDays( id / 2 ), null ) );
+        }
+
+        assertThat( columns.findRowsAfter( 5, START, START.plusDays( 2 ), START.minusDays( 1 ), 0, 2 ) )
+                .extracting( TransactionRow::id ).containsExactly( 1L, 2L );
+        assertThat( columns.findRowsAfter( 5, START, START.plusDays( 2 ), START.plusDays( 1 ), 2, 10 ) )
+                .extracting( TransactionRow::id ).containsExactly( 3L, 4L, 5L );
+        assertThat( columns.findRowsAfter( 5, START.plusDays( 1 ), START.plusDays( 3 ), START.minusDays( 1 ), 0, 10 ) )
+                .extracting( TransactionRow::id ).containsExactly( 2L, 3L, 4L, 5L, 6L );
+        assertThat( columns.findRowsAfter( 8, START, START, START, 0, 10 ) ).isEmpty( );
+    }
+
+    @Test
+    void addPoints_matchesScoringEachRow() {
+        CompiledRewardRules rules = rules( );
+        TransactionColumns columns = new TransactionColumns( 0 );
+        Random random = new Random( 7 );
+        List<TransactionRow> rows = new ArrayList<>( );
+        for ( long id = 1; id <= 500; id++ ) {
+            TransactionRow row = row( id, 3, random.nextInt( 20_000 ) / 100 + "." + random.nextInt( 10 ) + "5",
+                    START.plusDays( random.nextInt( 150 ) ), random.nextBoolean( ) ? "dining" : null );
+            rows.add( row );
+            columns.add( row );
+        }
+        LocalDate from = LocalDate.of( 2025, 1, 20 );
+        LocalDate to = LocalDate.of( 2025, 4, 10 );
+
+        MonthlyRewardAggregator scanned = new MonthlyRewardAggregator( from, to );
+        long count = columns.addPoints( 3, from, to, rules, scanned );
+
+        MonthlyRewardAggregator scored = new MonthlyRewardAggregator( from, to );
+        long expectedCount = 0;
+        for ( TransactionRow row : rows ) {
+            if ( !row.transactionDate( ).isBefore( from ) && !row.transactionDate( ).isAfter( to ) ) {
+                scored.add( row.transactionDate( ), RewardPointsCalculator.calculatePoints( rules, row ) );
+                expectedCount++;
+            }
+        }
+        assertThat( count ).isEqualTo( expectedCount );
+        assertThat( scanned.toMonthlyRewards( true ) ).isEqualTo( scored.toMonthlyRewards( true ) );
+        assertThat( scanned.totalPoints( ) ).isEqualTo( scored.totalPoints( ) ).isPositive( );
+    }
+
+    @Test
+    void add_customerIdOutsideTheIndex_isRejected() {
+        TransactionColumns columns = new TransactionColumns( 0 );
+
+        assertThatThrownBy( () -> columns.add( row( 1, -1, "1.00", START, null ) ) )
+                .isInstanceOf( IllegalArgumentException.class );
+        assertThat( columns.rows( ) ).isZero( );
+    }
+}
@@ -0,0 +1,170 @@
+package com.rewards.store;
+
+import com.rewards.model.Customer;
+import com.rewards.model.Transaction;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of( 2025, 8, 1 );
+    private static final Instant T0 = Instant.parse( "2025-08-10T12:00:00Z" );
+
+    /** A row of the table with the {@code recorded_at} the database stamped on insert. */
+    private record Recorded(TransactionRow row, Instant recordedAt) {
+    }
+
+    private TransactionRepository transactionRepository;
+    private TransactionStreamRepository streamRepository;
+    private CustomerRepository customerRepository;
+    private final List<Recorded> table = new ArrayList<>( );
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        transactionRepository = mock( TransactionRepository.class );
+        streamRepository = mock( TransactionStreamRepository.class );
+        customerRepository = mock( CustomerRepository.class );
+        when( customerRepository.findMaxId( ) ).thenReturn( 2L );
+        when( transactionRepository.findMaxId( ) ).thenAnswer( inv -> table.stream( ).mapToLong( r -> r.row( ).id( ) ).max( ).orElse( 0 ) );
+        when( transactionRepository.count( ) ).thenAnswer( inv -> (long) table.size( ) );
+        doAnswer( inv -> {
+            long after = inv.getArgument( 0 );
+            long to = inv.getArgument( 1 );
+            List.copyOf( table ).stream( ).map( Recorded::row ).filter( r -> r.customerId( ) > after && r.customerId( ) <= to )
+                    .forEach( inv.<Consumer<TransactionRow>>getArgument( 2 ) );
+            return null;
+        } ).when( streamRepository ).streamCustomerRange( anyLong( ), anyLong( ), any( ) );
+        when( streamRepository.findMaxRecordedAt( ) ).thenAnswer( inv ->
+                table.stream( ).map( Recorded::recordedAt ).max( Comparator.naturalOrder( ) ).orElse( null ) );
+        when( streamRepository.streamRecordedSince( any( ), any( ) ) ).thenAnswer( inv -> {
+            Instant since = inv.getArgument( 0 );
+            Instant latest = null;
+            for ( Recorded recorded : table.stream( ).sorted( Comparator.comparing( Recorded::recordedAt ) ).toList( ) ) {
+                if ( !recorded.recordedAt( ).isBefore( since ) ) {
+                    inv.<Consumer<TransactionRow>>getArgument( 1 ).accept( recorded.row( ) );
+                    latest = recorded.recordedAt( );
+                }
+            }
+            return latest;
+        } );
+    }
+
+    private void insert(int secondsAfterT0, TransactionRow... rows) {
+        for ( TransactionRow row : rows ) {
+            table.add( new Recorded( row, T0.plusSeconds( secondsAfterT0 ) ) );
+        }
+    }
+
+    private static TransactionRow row(long id, long customerId) {
+        return new TransactionRow( id, customerId, new BigDecimal( "60.00" ), 6000L, DAY.plusDays( id % 7 ), null );
+    }
+
+    private TransactionStore store(boolean enabled) {
+        return new TransactionStore( transactionRepository, streamRepository, customerRepository, enabled, Duration.ofSeconds( 10 ) );
+    }
+
+    private static List<Long> ids(TransactionStore store, long customerId) {
+        return store.read( c -> c.findRows( customerId, DAY, DAY.plusDays( 7 ) ).stream( ).map( TransactionRow::id ).toList( ),
+                ( ) -> null );
+    }
+
+    @Test
+    void disabled_neverLoads_andReadsFallBack() {
+        insert( 0, row( 1, 1 ) );
+        TransactionStore store = store( false );
+
+        store.load( );
+
+        assertThat( store.isReady( ) ).isFalse( );
+        assertThat( store.read( c -> "memory", ( ) -> "database" ) ).isEqualTo( "database" );
+    }
+
+    @Test
+    void load_thenCatchUp_addsRowsCommittedElsewhereOnce() {
+        insert( 0, row( 1, 1 ), row( 2, 2 ), row( 3, 1 ) );
+        TransactionStore store = store( true );
+        store.load( );
+        insert( 5, row( 5, 1 ), row( 4, 2 ) );
+
+        int added = store.catchUp( );
+
+        assertThat( store.isReady( ) ).isTrue( );
+        assertThat( added ).isEqualTo( 2 );
+        assertThat( store.catchUp( ) ).isZero( );
+        assertThat( ids( store, 1 ) ).containsExactlyInAnyOrder( 1L, 3L, 5L );
+        assertThat( ids( store, 2 ) ).containsExactlyInAnyOrder( 2L, 4L );
+    }
+
+    @Test
+    void catchUp_rowsWithLowerIdsOrEarlierRecordedAt_areStillAdded() {
+        insert( 0, row( 101, 1 ) );
+        TransactionStore store = store( true );
+        store.load( );
+        insert( 20, row( 102, 1 ) );
+        assertThat( store.catchUp( ) ).isEqualTo( 1 );
+
+        insert( 21, row( 3, 2 ) );
+        insert( 14, row( 4, 2 ) );
+
+        assertThat( store.catchUp( ) ).isEqualTo( 2 );
+        assertThat( store.recordedThrough( ) ).isEqualTo( T0.plusSeconds( 21 ) );
+        assertThat( ids( store, 1 ) ).containsExactlyInAnyOrder( 101L, 102L );
+        assertThat( ids( store, 2 ) ).containsExactlyInAnyOrder( 3L, 4L );
+    }
+
+    @Test
+    void nonPositiveCatchUpLag_isRejected() {
+        assertThatThrownBy( () -> new TransactionStore( transactionRepository, streamRepository, customerRepository, true, Duration.ZERO ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void recordAfterCommit_withoutTransaction_addsImmediately() {
+        TransactionStore store = store( true );
+        store.load( );
+        Customer customer = new Customer( );
+        customer.setId( 2L );
+        Transaction transaction = new Transaction( new BigDecimal( "130.00" ), DAY, customer );
+        transaction.setId( 11L );
+
+        store.recordAfterCommit( List.of( transaction ) );
+
+        List<TransactionRow> rows = store.read( c -> c.findRows( 2, DAY, DAY ), List::of );
+        assertThat( rows ).containsExactly(
+                new TransactionRow( 11L, 2L, new BigDecimal( "130.00" ), 13000L, DAY, null ) );
+    }
+
+    @Test
+    void failedLoad_leavesTheStoreOff() {
+        doThrow( new IllegalStateException( "connection lost" ) ).when( streamRepository ).streamCustomerRange( anyLong( ), anyLong( ), any( ) );
+        TransactionStore store = store( true );
+
+        store.load( );
+
+        assertThat( store.isReady( ) ).isFalse( );
+        assertThat( store.catchUp( ) ).isZero( );
+    }
+}
@@ -0,0 +1,23 @@
+package com.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerCursorTest {
+
+    @Test
+    void decode_returnsEncodedId() {
+        String cursor = CustomerCursor.encode( 123456789L );
+
+        assertThat( cursor ).doesNotContain( "123456789" );
+        assertThat( CustomerCursor.decode( cursor ) ).isEqualTo( 123456789L );
+    }
+
+    @Test
+    void decode_rejectsForeignTokens() {
+        assertThatThrownBy( () -> CustomerCursor.decode( "not-a-cursor!" ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> CustomerCursor.decode( "MTIz" ) ).isInstanceOf( IllegalArgumentException.class );
+    }
+}
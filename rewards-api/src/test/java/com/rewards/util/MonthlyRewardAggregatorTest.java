@@ -0,0 +1,62 @@
+package com.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MonthlyRewardAggregatorTest {
+
+    @Test
+    void toMonthlyRewards_sumsPerMonthInChronologicalOrder() {
+        MonthlyRewardAggregator aggregator = new MonthlyRewardAggregator( LocalDate.of( 2024, 11, 15 ), LocalDate.of( 2025, 2, 3 ) );
+        aggregator.add( LocalDate.of( 2025, 2, 1 ), 5 );
+        aggregator.add( LocalDate.of( 2024, 11, 20 ), 90 );
+        aggregator.add( LocalDate.of( 2024, 11, 30 ), 20 );
+
+        assertThat( aggregator.totalPoints( ) ).isEqualTo( 115 );
+        assertThat( aggregator.toMonthlyRewards( false ) ).containsExactly(
+                Map.entry( "2024-11", 110 ),
+                Map.entry( "2025-02", 5 ) );
+    }
+
+    @Test
+    void toMonthlyRewards_keepsMonthsWhoseTransactionsEarnedNothing() {
+        MonthlyRewardAggregator aggregator = new MonthlyRewardAggregator( LocalDate.of( 2025, 1, 1 ), LocalDate.of( 2025, 3, 31 ) );
+        aggregator.add( LocalDate.of( 2025, 2, 10 ), 0 );
+
+        assertThat( aggregator.toMonthlyRewards( false ) ).containsExactly( Map.entry( "2025-02", 0 ) );
+    }
+
+    @Test
+    void toMonthlyRewards_includeEmptyMonths_coversWholeRange() {
+        MonthlyRewardAggregator aggregator = new MonthlyRewardAggregator( LocalDate.of( 2024, 12, 31 ), LocalDate.of( 2025, 2, 1 ) );
+        aggregator.add( LocalDate.of( 2025, 1, 15 ), 25 );
+
+        assertThat( aggregator.toMonthlyRewards( true ) ).containsExactly(
+                Map.entry( "2024-12", 0 ),
+                Map.entry( "2025-01", 25 ),
+                Map.entry( "2025-02", 0 ) );
+    }
+
+    @Test
+    void reset_clearsBuckets() {
+        MonthlyRewardAggregator aggregator = new MonthlyRewardAggregator( LocalDate.of( 2025, 1, 1 ), LocalDate.of( 2025, 1, 31 ) );
+        aggregator.add( LocalDate.of( 2025, 1, 15 ), 25 );
+        aggregator.reset( );
+
+        assertThat( aggregator.totalPoints( ) ).isZero( );
+        assertThat( aggregator.toMonthlyRewards( false ) ).isEmpty( );
+    }
+
+    @Test
+    void add_outsideRange_isRejected() {
+        MonthlyRewardAggregator aggregator = new MonthlyRewardAggregator( LocalDate.of( 2025, 1, 10 ), LocalDate.of( 2025, 2, 10 ) );
+
+        assertThatThrownBy( () -> aggregator.add( LocalDate.of( 2025, 3, 1 ), 1 ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+}
@@ -0,0 +1,121 @@
+package com.rewards.util;
+
+import com.rewards.model.Transaction;
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.rules.RewardRuleDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RewardPointsCalculatorTest {
+
+    private RewardPointsCalculator calculator;
+
+    @BeforeEach
+    void setup() {
+        calculator = new RewardPointsCalculator( rewardProperties( ) );
+    }
+
+    private static RewardProperties rewardProperties() {
+        RewardProperties rewardProperties = new RewardProperties( );
+        rewardProperties.setMinAmtSpendForPoints( 50 );
+        rewardProperties.setMinAmtSpendForBonus( 100 );
+        rewardProperties.setMultiplier( 2 );
+        return rewardProperties;
+    }
+
+    private static long cents(String amount) {
+        return new BigDecimal( amount ).movePointRight( 2 ).longValueExact( );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.01", "49.99", "50", "50.99", "51", "99.99", "100", "100.99", "101", "120.75",
+            "-0.99", "-1", "-150.50", "1073741873", "1073741874", "2147483647", "2147483647.99", "-2147483648",
+            "-2147483648.99"})
+    void calculatePointsFromCents_matchesBigDecimalPath(String amount) {
+        assertThat( calculator.calculatePointsFromCents( cents( amount ) ) )
+                .isEqualTo( calculator.calculatePoints( new BigDecimal( amount ) ) );
+    }
+
+    @Test
+    void calculatePointsFromCents_matchesBigDecimalPathAcrossRandomAmounts() {
+        Random random = new Random( 42 );
+        for ( int i = 0; i < 100_000; i++ ) {
+            long amountCents = random.nextLong( -214_748_364_800L, 214_748_364_800L );
+            BigDecimal amount = BigDecimal.valueOf( amountCents, 2 );
+            assertThat( calculator.calculatePointsFromCents( amountCents ) )
+                    .as( "amount %s", amount )
+                    .isEqualTo( calculator.calculatePoints( amount ) );
+        }
+    }
+
+    @Test
+    void calculatePoints_intOverflowWrapsTheSameOnBothPaths() {
+        // (2147483647 - 100) * 2 + 50 overflows int; both paths must keep the original wraparound
+        int expected = (Integer.MAX_VALUE - 100) * 2 + 50;
+
+        assertThat( calculator.calculatePoints( new BigDecimal( "2147483647" ) ) ).isEqualTo( expected );
+        assertThat( calculator.calculatePointsFromCents( 214_748_364_700L ) ).isEqualTo( expected );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2147483648", "2147483648.01", "-2147483649", "99999999999999"})
+    void calculatePoints_outsideIntRangeThrowsOnBothPaths(String amount) {
+        assertThatThrownBy( () -> calculator.calculatePoints( new BigDecimal( amount ) ) )
+                .isInstanceOf( ArithmeticException.class );
+        assertThatThrownBy( () -> calculator.calculatePointsFromCents( cents( amount ) ) )
+                .isInstanceOf( ArithmeticException.class );
+    }
+
+    @Test
+    void calculatePoints_transactionUsesCentsAndTruncatesSubCentDigits() {
+        Transaction tx = new Transaction( new BigDecimal( "120.759" ), LocalDate.now( ), null );
+
+        assertThat( tx.getAmountCents( ) ).isEqualTo( 12075L );
+        assertThat( calculator.calculatePoints( tx ) ).isEqualTo( 90 );
+    }
+
+    @Test
+    void calculatePoints_transactionWithoutCentsFallsBackToAmount() {
+        Transaction tx = new Transaction( new BigDecimal( "1E+30" ), LocalDate.now( ), null );
+
+        assertThat( tx.getAmountCents( ) ).isNull( );
+        assertThatThrownBy( () -> calculator.calculatePoints( tx ) ).isInstanceOf( ArithmeticException.class );
+    }
+
+    @Test
+    void calculatePoints_nullAmountIsZero() {
+        assertThat( calculator.calculatePoints( (BigDecimal) null ) ).isZero( );
+        assertThat( calculator.calculatePoints( new Transaction( ) ) ).isZero( );
+    }
+
+    @Test
+    void install_scoresTransactionsUnderTheVersionAndCategoryOfTheirDate() {
+        RewardRuleDefinition july = new RewardRuleDefinition( );
+        july.setEffectiveFrom( LocalDate.of( 2025, 7, 1 ) );
+        july.setTiers( List.of( new RewardRuleDefinition.Tier( 0, 1 ) ) );
+        july.setCategoryMultipliers( Map.of( "dining", 2 ) );
+        CompiledRewardRules rules = CompiledRewardRules.compile(
+                RewardRuleDefinition.fromProperties( rewardProperties( ) ), List.of( july ) );
+
+        calculator.install( rules );
+
+        Transaction june = new Transaction( new BigDecimal( "120" ), LocalDate.of( 2025, 6, 30 ), null );
+        june.setCategory( "dining" );
+        Transaction dining = new Transaction( new BigDecimal( "120" ), LocalDate.of( 2025, 7, 1 ), null );
+        dining.setCategory( "dining" );
+        assertThat( calculator.calculatePoints( june ) ).isEqualTo( 90 );
+        assertThat( calculator.calculatePoints( dining ) ).isEqualTo( 240 );
+        assertThat( calculator.rulesFingerprint( ) ).isEqualTo( rules.fingerprint( ) ).isNotEqualTo( "50:100:2" );
+    }
+}
@@ -0,0 +1,52 @@
+package com.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RewardProjectionTest {
+
+    @Test
+    void parse_withoutParameters_isFull() {
+        assertThat( RewardProjection.parse( null, null, null ).isFull( ) ).isTrue( );
+        assertThat( RewardProjection.parse( "summary,monthly,transactions", null, null ).isFull( ) ).isTrue( );
+    }
+
+    @Test
+    void parse_selectsFields() {
+        RewardProjection summary = RewardProjection.parse( "summary", null, null );
+        RewardProjection monthly = RewardProjection.parse( " Monthly ", null, null );
+
+        assertThat( summary.monthly( ) ).isFalse( );
+        assertThat( summary.transactions( ) ).isFalse( );
+        assertThat( monthly.monthly( ) ).isTrue( );
+        assertThat( monthly.transactions( ) ).isFalse( );
+        assertThatThrownBy( () -> RewardProjection.parse( "summary,points", null, null ) )
+                .isInstanceOf( IllegalArgumentException.class )
+                .hasMessageContaining( "points" );
+    }
+
+    @Test
+    void parse_pagesTransactionsOnly() {
+        String cursor = new TransactionCursor( LocalDate.of( 2025, 8, 15 ), 42 ).encode( );
+
+        RewardProjection page = RewardProjection.parse( null, cursor, null );
+
+        assertThat( page.isPaged( ) ).isTrue( );
+        assertThat( page.pageSize( ) ).isEqualTo( RewardProjection.DEFAULT_PAGE_SIZE );
+        assertThat( page.after( ) ).isEqualTo( new TransactionCursor( LocalDate.of( 2025, 8, 15 ), 42 ) );
+        assertThatThrownBy( () -> RewardProjection.parse( "summary", null, 10 ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> RewardProjection.parse( null, null, 0 ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> RewardProjection.parse( null, null, RewardProjection.MAX_PAGE_SIZE + 1 ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void transactionCursor_rejectsForeignTokens() {
+        assertThatThrownBy( () -> TransactionCursor.decode( "not-a-cursor!" ) ).isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> TransactionCursor.decode( CustomerCursor.encode( 5 ) ) ).isInstanceOf( IllegalArgumentException.class );
+    }
+}
@@ -0,0 +1,66 @@
+package com.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionPartitionPlanTest {
+
+    private static final YearMonth NOW = YearMonth.of( 2025, 10 );
+
+    @Test
+    void plan_forAFlatTable_coversEveryMonthFromTheEarliestTransaction() {
+        TransactionPartitionPlan plan = TransactionPartitionPlan.plan( List.of( ), YearMonth.of( 2025, 7 ), NOW, 2, 0 );
+
+        assertThat( plan.create( ) ).containsExactly( YearMonth.of( 2025, 7 ), YearMonth.of( 2025, 8 ),
+                YearMonth.of( 2025, 9 ), NOW, YearMonth.of( 2025, 11 ), YearMonth.of( 2025, 12 ) );
+        assertThat( plan.archive( ) ).isEmpty( );
+    }
+
+    @Test
+    void plan_forAnEmptyTable_startsAtTheCurrentMonth() {
+        assertThat( TransactionPartitionPlan.plan( List.of( ), null, NOW, 1, 0 ).create( ) )
+                .containsExactly( NOW, YearMonth.of( 2025, 11 ) );
+        assertThat( TransactionPartitionPlan.plan( List.of( ), YearMonth.of( 2026, 3 ), NOW, 0, 0 ).create( ) )
+                .containsExactly( NOW );
+    }
+
+    @Test
+    void plan_onlyAppendsAfterTheLastPartition() {
+        List<YearMonth> existing = List.of( YearMonth.of( 2025, 9 ), NOW, YearMonth.of( 2025, 11 ) );
+
+        assertThat( TransactionPartitionPlan.plan( existing, null, NOW, 3, 0 ).create( ) )
+                .containsExactly( YearMonth.of( 2025, 12 ), YearMonth.of( 2026, 1 ) );
+        assertThat( TransactionPartitionPlan.plan( existing, null, NOW, 1, 0 ).isEmpty( ) ).isTrue( );
+    }
+
+    @Test
+    void plan_archivesMonthsPastTheRetention() {
+        List<YearMonth> existing = List.of( YearMonth.of( 2025, 6 ), YearMonth.of( 2025, 7 ), YearMonth.of( 2025, 8 ),
+                YearMonth.of( 2025, 9 ), NOW, YearMonth.of( 2025, 11 ) );
+
+        TransactionPartitionPlan plan = TransactionPartitionPlan.plan( existing, null, NOW, 1, 3 );
+
+        assertThat( plan.archive( ) ).containsExactly( YearMonth.of( 2025, 6 ) );
+        assertThat( plan.create( ) ).isEmpty( );
+    }
+
+    @Test
+    void plan_rejectsNegativeSettings() {
+        assertThatThrownBy( () -> TransactionPartitionPlan.plan( List.of( ), null, NOW, -1, 0 ) )
+                .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    void partitionNames_roundTrip() {
+        assertThat( TransactionPartitionPlan.partitionName( YearMonth.of( 2025, 3 ) ) ).isEqualTo( "p202503" );
+        assertThat( TransactionPartitionPlan.month( "p202503" ) ).isEqualTo( YearMonth.of( 2025, 3 ) );
+        assertThat( TransactionPartitionPlan.month( TransactionPartitionPlan.FUTURE ) ).isNull( );
+        assertThat( TransactionPartitionPlan.upperBound( YearMonth.of( 2025, 12 ) ) ).isEqualTo( LocalDate.of( 2026, 1, 1 ) );
+    }
+}
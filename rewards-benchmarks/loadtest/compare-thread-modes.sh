@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Runs RewardLoadTest against rewards-api started once on platform threads and once with the virtual-threads
+# profile, against the same MySQL database. Requires Java 21+, a built rewards-api exec jar and benchmarks.jar:
+#   mvn -pl rewards-benchmarks -am package -DskipTests
+# Extra arguments are passed to RewardLoadTest, e.g. concurrency=2000 duration=PT120S customers=5000.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+APP_JAR=../rewards-api/target/rewards-api-1.0.0-exec.jar
+PORT=${PORT:-8080}
+OUT=jmh-results/loadtest-$(date +%Y%m%d-%H%M%S).txt
+mkdir -p jmh-results
+
+run_mode() {
+  local label=$1 profile=$2
+  java -jar "$APP_JAR" --server.port="$PORT" ${profile:+--spring.profiles.active=$profile} \
+       --rewards.rollup.rebuild-on-startup=false --spring.jpa.show-sql=false > "jmh-results/$label-app.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -sf "http://localhost:$PORT/api/customers/get?limit=1" > /dev/null; do
+    kill -0 $pid 2>/dev/null || { echo "rewards-api ($label) failed to start, see jmh-results/$label-app.log"; exit 1; }
+    sleep 1
+  done
+  java -cp target/benchmarks.jar com.rewards.benchmarks.RewardLoadTest \
+       baseUrl="http://localhost:$PORT" label="$label" "${@:3}" | tee -a "$OUT"
+  kill $pid
+  wait $pid 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform-threads "" "$@"
+run_mode virtual-threads virtual-threads "$@"
+echo "Results appended to $OUT"
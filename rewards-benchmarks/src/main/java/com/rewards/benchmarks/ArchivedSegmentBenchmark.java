@@ -0,0 +1,76 @@
+package com.rewards.benchmarks;
+
+import com.rewards.archive.TransactionSegment;
+import com.rewards.archive.TransactionSegmentWriter;
+import com.rewards.repository.TransactionRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One customer's month read from an archived {@link TransactionSegment} of {@link #rows} transactions, the archive's
+ * side of a reward query that reaches into archived months. Compare with one month of
+ * {@link TransactionRangeQueryBenchmark}. The segment's size per row is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ArchivedSegmentBenchmark extends BenchmarkDefaults {
+
+    static final YearMonth MONTH = YearMonth.of( 2023, 3 );
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"100000"})
+    public int customers;
+
+    private Path directory;
+    private TransactionSegment segment;
+
+    /** Rows in id order, round-robin over the customers and evenly over the month, amounts from $1 to $500. */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SplittableRandom random = new SplittableRandom( 42 );
+        TransactionSegmentWriter writer = new TransactionSegmentWriter( MONTH );
+        int days = MONTH.lengthOfMonth( );
+        for ( int i = 0; i < rows; i++ ) {
+            long cents = random.nextLong( 100, 50_001 );
+            writer.add( new TransactionRow( i + 1L, i % customers + 1L, BigDecimal.valueOf( cents, 2 ), cents,
+                    MONTH.atDay( (int) ((long) i * days / rows) + 1 ) ) );
+        }
+        directory = Files.createTempDirectory( "rewards-archive-bench" );
+        Path file = directory.resolve( "transactions-" + MONTH + ".seg" );
+        writer.write( file );
+        segment = TransactionSegment.open( file );
+        System.out.printf( "Segment of %d rows: %d bytes, %.1f bytes per row%n",
+                segment.rows( ), segment.sizeBytes( ), (double) segment.sizeBytes( ) / segment.rows( ) );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists( segment.path( ) );
+        Files.deleteIfExists( directory );
+    }
+
+    @Benchmark
+    public void customerMonth(Blackhole blackhole) {
+        segment.forEachRow( ThreadLocalRandom.current( ).nextLong( 1, customers + 1L ), null, null, blackhole::consume );
+    }
+}
@@ -0,0 +1,30 @@
+package com.rewards.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH, writing JSON results to {@code jmh-results/<timestamp>.json} unless {@code -rf}/{@code -rff} are
+ * given, so runs from different commits can be compared side by side.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>( Arrays.asList( args ) );
+        if ( !jmhArgs.contains( "-rf" ) && !jmhArgs.contains( "-rff" ) ) {
+            String stamp = LocalDateTime.now( ).format( DateTimeFormatter.ofPattern( "yyyyMMdd-HHmmss" ) );
+            new File( "jmh-results" ).mkdirs( );
+            jmhArgs.addAll( List.of( "-rf", "json", "-rff", "jmh-results/" + stamp + ".json" ) );
+        }
+        Main.main( jmhArgs.toArray( String[]::new ) );
+    }
+}
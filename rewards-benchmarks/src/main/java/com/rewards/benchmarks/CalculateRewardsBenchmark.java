@@ -0,0 +1,74 @@
+package com.rewards.benchmarks;
+
+import com.rewards.archive.TransactionArchive;
+import com.rewards.cache.CustomerIdentityCache;
+import com.rewards.cache.PendingRollupMonths;
+import com.rewards.cache.RewardResponseCache;
+import com.rewards.config.ReplicaStalenessGuard;
+import com.rewards.dto.RewardResponseDTO;
+import com.rewards.mapper.RewardMapper;
+import com.rewards.metrics.RewardCalculationLog;
+import com.rewards.metrics.RewardMetrics;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.service.impl.RewardServiceImpl;
+import com.rewards.store.TransactionStore;
+import com.rewards.util.RewardPointsCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * End-to-end {@link RewardServiceImpl#calculateRewards} for one customer, with repositories served from memory
+ * and the response cache disabled so every call computes. Stage timers record into a simple registry, so their
+ * overhead is part of the measurement as it is in production. {@code source=store} loads the history into the
+ * in-memory transaction store first, so rows come from its columns instead of the repository's list.
+ */
+@State(Scope.Benchmark)
+public class CalculateRewardsBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"repository", "store"})
+    public String source;
+
+    private RewardServiceImpl service;
+
+    @Setup
+    public void setup() {
+        SyntheticHistory history = SyntheticHistory.of( size );
+        CustomerRepository customers = InMemoryRepositories.customers( history.customer );
+        TransactionRepository transactions = InMemoryRepositories.transactions( history.transactions );
+        TransactionStore transactionStore = new TransactionStore( transactions,
+                InMemoryRepositories.stream( history.transactions ), customers, source.equals( "store" ), Duration.ofSeconds( 10 ) );
+        transactionStore.load( );
+        RewardPointsCalculator calculator = SyntheticHistory.defaultCalculator( );
+        service = new RewardServiceImpl(
+                customers,
+                transactions,
+                InMemoryRepositories.monthlyRewards( ),
+                new RewardMapper( ),
+                calculator,
+                new RewardResponseCache( 0, 0, Duration.ofMinutes( 5 ) ),
+                new RewardMetrics( new SimpleMeterRegistry( ) ),
+                new RewardCalculationLog( 1.0, Duration.ofMillis( 500 ) ),
+                new ReplicaStalenessGuard( Duration.ofSeconds( 5 ) ),
+                new TransactionArchive( Path.of( "target/no-archive" ) ),
+                new CustomerIdentityCache( customers, 1 ),
+                transactionStore,
+                new PendingRollupMonths( ),
+                InMemoryRepositories.rollupStates( calculator.rulesFingerprint( ) ) );
+    }
+
+    @Benchmark
+    public RewardResponseDTO calculateRewards() {
+        return service.calculateRewards( SyntheticHistory.CUSTOMER_ID, null, SyntheticHistory.FROM, SyntheticHistory.TO, false );
+    }
+}
@@ -0,0 +1,114 @@
+package com.rewards.benchmarks;
+
+import com.rewards.model.Customer;
+import com.rewards.model.RewardRollupState;
+import com.rewards.model.Transaction;
+import com.rewards.repository.CustomerRepository;
+import com.rewards.repository.MonthlyRewardRepository;
+import com.rewards.repository.RewardRollupStateRepository;
+import com.rewards.repository.TransactionRepository;
+import com.rewards.repository.TransactionRow;
+import com.rewards.repository.TransactionStreamRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Repository stand-ins that answer the reward service's queries from memory, so benchmarks measure the service
+ * rather than a database. Only the methods the reward path calls are implemented.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static CustomerRepository customers(Customer customer) {
+        return stub( CustomerRepository.class, (method, args) -> switch ( method ) {
+            case "findById" -> Optional.of( customer ).filter( c -> c.getId( ).equals( args[0] ) );
+            case "findMaxId" -> customer.getId( );
+            default -> null;
+        } );
+    }
+
+    /** Returns the whole history for any range; synthetic histories always lie inside the benchmarked range. */
+    static TransactionRepository transactions(List<Transaction> history) {
+        List<TransactionRow> rows = rows( history );
+        return stub( TransactionRepository.class, (method, args) -> switch ( method ) {
+            case "findByCustomerIdAndTransactionDateBetween", "findByCustomerId" -> history;
+            case "findRowsByCustomerIdAndTransactionDateBetween" -> rows;
+            case "count" -> (long) rows.size( );
+            case "findMaxId" -> rows.stream( ).mapToLong( TransactionRow::id ).max( ).orElse( 0 );
+            default -> null;
+        } );
+    }
+
+    /** Streams the whole history as the in-memory store's load reads it; nothing is committed after it. */
+    static TransactionStreamRepository stream(List<Transaction> history) {
+        List<TransactionRow> rows = rows( history );
+        return new TransactionStreamRepository( null ) {
+            @Override
+            public void streamCustomerRange(long afterCustomerId, long toCustomerId, Consumer<TransactionRow> consumer) {
+                rows.stream( ).filter( row -> row.customerId( ) > afterCustomerId && row.customerId( ) <= toCustomerId )
+                        .forEach( consumer );
+            }
+
+            @Override
+            public Instant streamRecordedSince(Instant since, Consumer<TransactionRow> consumer) {
+                return null;
+            }
+
+            @Override
+            public Instant findMaxRecordedAt() {
+                return null;
+            }
+        };
+    }
+
+    private static List<TransactionRow> rows(List<Transaction> history) {
+        return history.stream( )
+                .map( tx -> new TransactionRow( tx.getId( ), tx.getCustomer( ).getId( ), tx.getAmount( ), tx.getAmountCents( ), tx.getTransactionDate( ), tx.getCategory( ) ) )
+                .toList( );
+    }
+
+    static MonthlyRewardRepository monthlyRewards() {
+        return stub( MonthlyRewardRepository.class, (method, args) -> switch ( method ) {
+            case "findByCustomerIdAndRewardMonthBetweenOrderByRewardMonth" -> List.of( );
+            case "sumTransactionCountByCustomerId" -> 0L;
+            default -> null;
+        } );
+    }
+
+    /** A monthly rollup last rebuilt under the given rules, so reads take the rollup path as in steady state. */
+    static RewardRollupStateRepository rollupStates(String rulesFingerprint) {
+        return stub( RewardRollupStateRepository.class, (method, args) -> switch ( method ) {
+            case "findById" -> Optional.of( new RewardRollupState( (String) args[0], rulesFingerprint, null ) );
+            default -> null;
+        } );
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    private static <T> T stub(Class<T> repository, Handler handler) {
+        Object proxy = Proxy.newProxyInstance( repository.getClassLoader( ), new Class<?>[]{repository},
+                (self, method, args) -> {
+                    if ( method.getDeclaringClass( ) == Object.class ) {
+                        return switch ( method.getName( ) ) {
+                            case "hashCode" -> System.identityHashCode( self );
+                            case "equals" -> self == args[0];
+                            default -> repository.getSimpleName( ) + " stub";
+                        };
+                    }
+                    Object result = handler.handle( method.getName( ), args );
+                    if ( result == null ) {
+                        throw new UnsupportedOperationException( repository.getSimpleName( ) + "." + method.getName( ) );
+                    }
+                    return result;
+                } );
+        return repository.cast( proxy );
+    }
+}
@@ -0,0 +1,53 @@
+package com.rewards.benchmarks;
+
+import com.rewards.dto.TransactionResponseDTO;
+import com.rewards.mapper.RewardMapper;
+import com.rewards.util.MonthlyRewardAggregator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Grouping already-scored transactions into Year-Month totals.
+ */
+@State(Scope.Benchmark)
+public class MonthlyGroupingBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private List<TransactionResponseDTO> dtos;
+
+    @Setup
+    public void setup() {
+        dtos = SyntheticHistory.of( size ).toDTOs( new RewardMapper( ), SyntheticHistory.defaultCalculator( ) );
+    }
+
+    /** The collector RewardServiceImpl used before MonthlyRewardAggregator: a formatted String key and a boxed sum per row. */
+    @Benchmark
+    public Map<String, Integer> formattedKeyGroupingBy() {
+        return dtos.stream( )
+                .collect( Collectors.groupingBy(
+                        tx -> RewardMapper.monthKey( tx.getTransactionDate( ) ),
+                        LinkedHashMap::new,
+                        Collectors.summingInt( TransactionResponseDTO::getPoints )
+                ) );
+    }
+
+    /** Primitive month buckets, with the keyed map built once at the end. */
+    @Benchmark
+    public Map<String, Integer> monthlyRewardAggregator() {
+        MonthlyRewardAggregator aggregator = new MonthlyRewardAggregator( SyntheticHistory.FROM, SyntheticHistory.TO );
+        for ( TransactionResponseDTO tx : dtos ) {
+            aggregator.add( tx.getTransactionDate( ), tx.getPoints( ) );
+        }
+        return aggregator.toMonthlyRewards( false );
+    }
+}
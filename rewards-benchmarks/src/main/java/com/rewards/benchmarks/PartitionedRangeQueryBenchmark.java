@@ -0,0 +1,198 @@
+package com.rewards.benchmarks;
+
+import com.rewards.util.TransactionPartitionPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TransactionRangeQueryBenchmark}'s range query against {@link #rows} transactions spread over five years,
+ * in a flat table and in one partitioned by month like {@code TransactionPartitionRepository} does. Needs MySQL:
+ * pass {@code -Dbench.jdbc.url=jdbc:mysql://localhost:3306/rewards_bench}, {@code bench.jdbc.user} and
+ * {@code bench.jdbc.password}.
+ * <p>
+ * The rows are generated inside MySQL, which still takes a while at 100M, so both tables are kept after the run
+ * and reused by later runs with the same {@link #rows} and {@link #customers}; {@code -Dbench.reload=true}
+ * rebuilds them.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PartitionedRangeQueryBenchmark extends BenchmarkDefaults {
+
+    static final LocalDate FROM = LocalDate.of( 2020, 1, 1 );
+    static final LocalDate TO = LocalDate.of( 2024, 12, 31 );
+
+    private static final String QUERY_SQL = "select t.id, t.amount, t.amount_cents, t.transaction_date "
+            + "from %s t where t.customer_id = ? and t.transaction_date between ? and ? "
+            + "order by t.transaction_date, t.id";
+    /** Ids per generator chunk; the generator cross-joins a 0..9999 sequence with itself. */
+    private static final int SEQUENCE = 10_000;
+    private static final int CHUNK_ROWS = 1_000_000;
+
+    @Param({"100000000"})
+    public int rows;
+
+    @Param({"1000000"})
+    public int customers;
+
+    @Param({"flat", "partitioned"})
+    public String layout;
+
+    private Connection connection;
+    private PreparedStatement query;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        if ( rows > SEQUENCE * SEQUENCE ) {
+            throw new IllegalArgumentException( "At most " + SEQUENCE * SEQUENCE + " rows" );
+        }
+        String url = System.getProperty( "bench.jdbc.url", "" );
+        if ( !url.startsWith( "jdbc:mysql:" ) ) {
+            throw new IllegalStateException( "PartitionedRangeQueryBenchmark needs -Dbench.jdbc.url=jdbc:mysql://..." );
+        }
+        connection = DriverManager.getConnection( url, System.getProperty( "bench.jdbc.user", "root" ),
+                System.getProperty( "bench.jdbc.password", "" ) );
+        String shape = "rows=" + rows + ",customers=" + customers;
+        if ( Boolean.getBoolean( "bench.reload" ) || !shape.equals( tableComment( ) ) ) {
+            load( shape );
+        }
+        printPlan( );
+        query = connection.prepareStatement( QUERY_SQL.formatted( table( ) ) );
+    }
+
+    private String table() {
+        return "bench_transactions_" + layout;
+    }
+
+    private String tableComment() throws SQLException {
+        try ( PreparedStatement ps = connection.prepareStatement( "select table_comment from information_schema.tables "
+                + "where table_schema = database() and table_name = ?" ) ) {
+            ps.setString( 1, table( ) );
+            try ( ResultSet rs = ps.executeQuery( ) ) {
+                return rs.next( ) ? rs.getString( 1 ) : null;
+            }
+        }
+    }
+
+    /**
+     * Row {@code i} belongs to customer {@code i % customers}, has a pseudo-random amount from $1 to $500 and a date
+     * proportional to {@code i}, so ids follow dates like an append-only table. The index is built after the load.
+     */
+    private void load(String shape) throws SQLException {
+        long days = ChronoUnit.DAYS.between( FROM, TO ) + 1;
+        try ( Statement ddl = connection.createStatement( ) ) {
+            ddl.execute( "drop table if exists " + table( ) );
+            ddl.execute( "create table " + table( ) + " (id bigint not null, customer_id bigint not null, "
+                    + "amount decimal(10,2) not null, amount_cents bigint, transaction_date date not null, "
+                    + ("partitioned".equals( layout )
+                    ? "primary key (id, transaction_date)) partition by range columns (transaction_date) (" + partitions( ) + ")"
+                    : "primary key (id))") );
+            ddl.execute( "drop table if exists bench_sequence" );
+            ddl.execute( "create table bench_sequence (n int not null primary key)" );
+            ddl.execute( "set session cte_max_recursion_depth = " + SEQUENCE );
+            ddl.execute( "insert into bench_sequence with recursive s (n) as "
+                    + "(select 0 union all select n + 1 from s where n < " + (SEQUENCE - 1) + ") select n from s" );
+        }
+        String insert = "insert into " + table( ) + " (id, customer_id, amount, amount_cents, transaction_date) "
+                + "select i + 1, mod(i, " + customers + ") + 1, cents / 100, cents, "
+                + "date_add('" + FROM + "', interval floor(i * " + days + " / " + rows + ") day) "
+                + "from (select a.n * " + SEQUENCE + " + b.n as i, 100 + mod((a.n * " + SEQUENCE + " + b.n) * 7919, 49901) as cents "
+                + "from bench_sequence a cross join bench_sequence b where a.n >= ? and a.n < ?) g where i < " + rows;
+        try ( PreparedStatement ps = connection.prepareStatement( insert ) ) {
+            int step = CHUNK_ROWS / SEQUENCE;
+            for ( int from = 0; (long) from * SEQUENCE < rows; from += step ) {
+                ps.setInt( 1, from );
+                ps.setInt( 2, from + step );
+                ps.executeUpdate( );
+            }
+        }
+        try ( Statement ddl = connection.createStatement( ) ) {
+            ddl.execute( "drop table bench_sequence" );
+            ddl.execute( "create index idx_" + table( ) + "_customer_date on " + table( ) + " (customer_id, transaction_date)" );
+            ddl.execute( "analyze table " + table( ) );
+            ddl.execute( "alter table " + table( ) + " comment = '" + shape + "'" );
+        }
+    }
+
+    private static String partitions() {
+        List<String> definitions = new ArrayList<>( );
+        for ( YearMonth month = YearMonth.from( FROM ); !month.isAfter( YearMonth.from( TO ) ); month = month.plusMonths( 1 ) ) {
+            definitions.add( "partition " + TransactionPartitionPlan.partitionName( month )
+                    + " values less than ('" + TransactionPartitionPlan.upperBound( month ) + "')" );
+        }
+        definitions.add( "partition " + TransactionPartitionPlan.FUTURE + " values less than (maxvalue)" );
+        return String.join( ", ", definitions );
+    }
+
+    /** Writes the plan of a three-month lookup, including the partitions MySQL kept, to stdout. */
+    private void printPlan() throws SQLException {
+        String explain = "explain " + QUERY_SQL.formatted( table( ) ).replaceFirst( "\\?", "1" )
+                .replaceFirst( "\\?", "DATE '" + TO.minusMonths( 3 ) + "'" )
+                .replaceFirst( "\\?", "DATE '" + TO + "'" );
+        StringBuilder plan = new StringBuilder( "Plan with layout=" ).append( layout ).append( ':' );
+        try ( Statement statement = connection.createStatement( ); ResultSet rs = statement.executeQuery( explain ) ) {
+            ResultSetMetaData meta = rs.getMetaData( );
+            while ( rs.next( ) ) {
+                plan.append( System.lineSeparator( ) );
+                for ( int column = 1; column <= meta.getColumnCount( ); column++ ) {
+                    plan.append( column == 1 ? "" : " | " ).append( meta.getColumnLabel( column ) ).append( '=' ).append( rs.getString( column ) );
+                }
+            }
+        }
+        System.out.println( plan );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close( );
+    }
+
+    /** The {@code months=3} lookup of a customer at the end of the history. */
+    @Benchmark
+    public void threeMonths(Blackhole blackhole) throws SQLException {
+        run( TO.minusMonths( 3 ), TO, blackhole );
+    }
+
+    @Benchmark
+    public void oneYear(Blackhole blackhole) throws SQLException {
+        run( TO.minusYears( 1 ), TO, blackhole );
+    }
+
+    private void run(LocalDate from, LocalDate to, Blackhole blackhole) throws SQLException {
+        query.setLong( 1, ThreadLocalRandom.current( ).nextLong( 1, customers + 1L ) );
+        query.setDate( 2, Date.valueOf( from ) );
+        query.setDate( 3, Date.valueOf( to ) );
+        try ( ResultSet rs = query.executeQuery( ) ) {
+            while ( rs.next( ) ) {
+                blackhole.consume( rs.getLong( 1 ) );
+                blackhole.consume( rs.getBigDecimal( 2 ) );
+                blackhole.consume( rs.getLong( 3 ) );
+                blackhole.consume( rs.getDate( 4 ) );
+            }
+        }
+    }
+}
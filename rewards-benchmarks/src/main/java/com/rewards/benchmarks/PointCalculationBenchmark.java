@@ -0,0 +1,66 @@
+package com.rewards.benchmarks;
+
+import com.rewards.model.Transaction;
+import com.rewards.util.RewardPointsCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cost of scoring a whole history, on the decimal amount and on the cents column.
+ */
+@State(Scope.Benchmark)
+public class PointCalculationBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private RewardPointsCalculator calculator;
+    private BigDecimal[] amounts;
+    private long[] amountCents;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setup() {
+        calculator = SyntheticHistory.defaultCalculator( );
+        transactions = SyntheticHistory.of( size ).transactions;
+        amounts = new BigDecimal[size];
+        amountCents = new long[size];
+        for ( int i = 0; i < size; i++ ) {
+            amounts[i] = transactions.get( i ).getAmount( );
+            amountCents[i] = transactions.get( i ).getAmountCents( );
+        }
+    }
+
+    @Benchmark
+    public long bigDecimalAmount() {
+        long total = 0;
+        for ( BigDecimal amount : amounts ) {
+            total += calculator.calculatePoints( amount );
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long centsAmount() {
+        long total = 0;
+        for ( long cents : amountCents ) {
+            total += calculator.calculatePointsFromCents( cents );
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long transactionEntity() {
+        long total = 0;
+        for ( Transaction tx : transactions ) {
+            total += calculator.calculatePoints( tx );
+        }
+        return total;
+    }
+}
@@ -0,0 +1,145 @@
+package com.rewards.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running rewards-api: {@code concurrency} clients each call
+ * {@code GET /api/rewards/customer/{id}?months=3} for a random id in {@code 1..customers}, back to back, for
+ * {@code duration}. Prints throughput, status codes and latency percentiles so the platform-thread and
+ * virtual-thread modes can be compared on the same database.
+ * <p>
+ * Usage: {@code java -cp target/benchmarks.jar com.rewards.benchmarks.RewardLoadTest
+ * [baseUrl=http://localhost:8080] [concurrency=1000] [duration=PT60S] [warmup=PT15S] [customers=1000] [label=...]}
+ */
+public final class RewardLoadTest {
+
+    private final URI baseUri;
+    private final int concurrency;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int customers;
+    private final String label;
+    private final HttpClient client;
+
+    private RewardLoadTest(Map<String, String> options) {
+        this.baseUri = URI.create( options.getOrDefault( "baseUrl", "http://localhost:8080" ) );
+        this.concurrency = Integer.parseInt( options.getOrDefault( "concurrency", "1000" ) );
+        this.duration = Duration.parse( options.getOrDefault( "duration", "PT60S" ) );
+        this.warmup = Duration.parse( options.getOrDefault( "warmup", "PT15S" ) );
+        this.customers = Integer.parseInt( options.getOrDefault( "customers", "1000" ) );
+        this.label = options.getOrDefault( "label", baseUri.toString( ) );
+        this.client = HttpClient.newBuilder( )
+                .executor( Executors.newVirtualThreadPerTaskExecutor( ) )
+                .connectTimeout( Duration.ofSeconds( 10 ) )
+                .build( );
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new TreeMap<>( );
+        for ( String arg : args ) {
+            int eq = arg.indexOf( '=' );
+            if ( eq <= 0 ) {
+                throw new IllegalArgumentException( "Expected key=value, got: " + arg );
+            }
+            options.put( arg.substring( 0, eq ), arg.substring( eq + 1 ) );
+        }
+        RewardLoadTest test = new RewardLoadTest( options );
+        if ( !test.warmup.isZero( ) ) {
+            test.run( test.warmup );
+        }
+        test.run( test.duration ).print( test.label, test.concurrency, test.duration );
+    }
+
+    /** Runs the clients for the given time and returns what they observed. */
+    private Result run(Duration length) throws InterruptedException {
+        Result result = new Result( );
+        long deadline = System.nanoTime( ) + length.toNanos( );
+        try ( ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor( ) ) {
+            for ( int i = 0; i < concurrency; i++ ) {
+                clients.submit( ( ) -> {
+                    LatencyRecorder latencies = new LatencyRecorder( );
+                    while ( System.nanoTime( ) < deadline ) {
+                        call( result, latencies );
+                    }
+                    result.merge( latencies );
+                } );
+            }
+        }
+        return result;
+    }
+
+    private void call(Result result, LatencyRecorder latencies) {
+        long customerId = ThreadLocalRandom.current( ).nextLong( 1, customers + 1L );
+        HttpRequest request = HttpRequest.newBuilder( baseUri.resolve( "/api/rewards/customer/" + customerId + "?months=3" ) )
+                .timeout( Duration.ofSeconds( 60 ) )
+                .GET( )
+                .build( );
+        long start = System.nanoTime( );
+        try {
+            int status = client.send( request, HttpResponse.BodyHandlers.discarding( ) ).statusCode( );
+            latencies.record( System.nanoTime( ) - start );
+            result.statuses.computeIfAbsent( String.valueOf( status ), s -> new LongAdder( ) ).increment( );
+        } catch ( IOException e ) {
+            result.statuses.computeIfAbsent( e.getClass( ).getSimpleName( ), s -> new LongAdder( ) ).increment( );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread( ).interrupt( );
+        }
+    }
+
+    /** Latencies of one client, kept unsynchronized until the client finishes. */
+    private static final class LatencyRecorder {
+        private long[] nanos = new long[1024];
+        private int size;
+
+        void record(long latencyNanos) {
+            if ( size == nanos.length ) {
+                nanos = Arrays.copyOf( nanos, size * 2 );
+            }
+            nanos[size++] = latencyNanos;
+        }
+    }
+
+    private static final class Result {
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>( );
+        private long[] latencies = new long[0];
+
+        synchronized void merge(LatencyRecorder recorder) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf( latencies, offset + recorder.size );
+            System.arraycopy( recorder.nanos, 0, latencies, offset, recorder.size );
+        }
+
+        void print(String label, int concurrency, Duration duration) {
+            long[] sorted = latencies.clone( );
+            Arrays.sort( sorted );
+            System.out.printf( "%s: concurrency=%d duration=%s%n", label, concurrency, duration );
+            System.out.printf( "  completed=%d throughput=%.1f req/s%n",
+                    sorted.length, sorted.length / (duration.toMillis( ) / 1000.0) );
+            System.out.printf( "  latency ms: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+                    percentile( sorted, 0.50 ), percentile( sorted, 0.95 ), percentile( sorted, 0.99 ),
+                    percentile( sorted, 1.0 ) );
+            System.out.println( "  outcomes: " + new TreeMap<>( statuses ) );
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if ( sorted.length == 0 ) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil( p * sorted.length ) - 1;
+            return sorted[Math.max( index, 0 )] / 1_000_000.0;
+        }
+    }
+}
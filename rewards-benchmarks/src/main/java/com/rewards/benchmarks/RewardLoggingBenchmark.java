@@ -0,0 +1,130 @@
+package com.rewards.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.rolling.FixedWindowRollingPolicy;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeBasedTriggeringPolicy;
+import ch.qos.logback.core.util.FileSize;
+import com.rewards.metrics.RewardCalculationLog;
+import com.rewards.util.RewardDateRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caller-side throughput of {@link RewardCalculationLog} writing to a rolling file, as it runs in the app:
+ * synchronously with a flush per event (the default profile) or behind an {@link AsyncAppender} with buffered
+ * flushes (the async-logging profile), at full and 1% sampling. All modes use the same pattern encoder so only
+ * threading and flushing differ.
+ * <p>
+ * {@code async-never-block} drops events when the buffer is full, so its numbers include discarded events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class RewardLoggingBenchmark extends BenchmarkDefaults {
+
+    private static final RewardDateRange RANGE = new RewardDateRange( SyntheticHistory.FROM, SyntheticHistory.TO );
+    private static final String FILE_PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m %kvp%n";
+
+    @Param({"sync", "async", "async-never-block"})
+    public String appender;
+
+    @Param({"1.0", "0.01"})
+    public double sampleRate;
+
+    private Path directory;
+    private Logger logger;
+    private Appender<ILoggingEvent> attached;
+    private RewardCalculationLog calculationLog;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory( "reward-logging-bench" );
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory( );
+        boolean async = !appender.equals( "sync" );
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder( );
+        encoder.setContext( context );
+        encoder.setPattern( FILE_PATTERN );
+        encoder.start( );
+
+        RollingFileAppender<ILoggingEvent> file = new RollingFileAppender<>( );
+        file.setContext( context );
+        file.setFile( directory.resolve( "rewards.log" ).toString( ) );
+        file.setEncoder( encoder );
+        file.setImmediateFlush( !async );
+        if ( async ) {
+            file.setBufferSize( FileSize.valueOf( "64KB" ) );
+        }
+        FixedWindowRollingPolicy rolling = new FixedWindowRollingPolicy( );
+        rolling.setContext( context );
+        rolling.setParent( file );
+        rolling.setFileNamePattern( directory.resolve( "rewards.%i.log" ).toString( ) );
+        rolling.setMinIndex( 1 );
+        rolling.setMaxIndex( 1 );
+        rolling.start( );
+        SizeBasedTriggeringPolicy<ILoggingEvent> trigger = new SizeBasedTriggeringPolicy<>( );
+        trigger.setContext( context );
+        trigger.setMaxFileSize( FileSize.valueOf( "100MB" ) );
+        trigger.start( );
+        file.setRollingPolicy( rolling );
+        file.setTriggeringPolicy( trigger );
+        file.start( );
+
+        if ( async ) {
+            AsyncAppender asyncAppender = new AsyncAppender( );
+            asyncAppender.setContext( context );
+            asyncAppender.setQueueSize( 8192 );
+            asyncAppender.setNeverBlock( appender.equals( "async-never-block" ) );
+            asyncAppender.addAppender( file );
+            asyncAppender.start( );
+            attached = asyncAppender;
+        } else {
+            attached = file;
+        }
+
+        logger = context.getLogger( RewardCalculationLog.class );
+        logger.setLevel( Level.INFO );
+        logger.setAdditive( false );
+        logger.addAppender( attached );
+        calculationLog = new RewardCalculationLog( sampleRate, Duration.ofSeconds( 10 ) );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        logger.detachAppender( attached );
+        attached.stop( );
+        try ( Stream<Path> files = Files.walk( directory ) ) {
+            files.sorted( Comparator.reverseOrder( ) ).forEach( path -> path.toFile( ).delete( ) );
+        }
+    }
+
+    @Benchmark
+    public void rewardsCalculated() {
+        calculationLog.rewardsCalculated( SyntheticHistory.CUSTOMER_ID, RANGE, 42, 1_250, 1_500_000 );
+    }
+}
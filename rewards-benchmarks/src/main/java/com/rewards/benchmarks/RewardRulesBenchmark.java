@@ -0,0 +1,131 @@
+package com.rewards.benchmarks;
+
+import com.rewards.rules.CompiledRewardRules;
+import com.rewards.rules.RewardRuleDefinition;
+import com.rewards.util.RewardPointsCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds per transaction for scoring whole-dollar amounts: the fixed two-tier formula the calculator used
+ * before rule versions, the same rules compiled, and a rule set with four versions of up to five tiers, category
+ * multipliers and promotions. Amounts, dates and categories are random over 2024, so the tier and segment
+ * lookups cannot be predicted.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RewardRulesBenchmark extends BenchmarkDefaults {
+
+    private static final int TRANSACTIONS = 4096;
+    private static final String[] CATEGORIES = {null, "grocery", "dining", "travel", "fuel", "other"};
+
+    private int[] dollars;
+    private int[] epochDays;
+    private String[] categories;
+    private CompiledRewardRules legacy;
+    private CompiledRewardRules versioned;
+    private RewardPointsCalculator calculator;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom( 42 );
+        int days = (int) (SyntheticHistory.TO.toEpochDay( ) - SyntheticHistory.FROM.toEpochDay( )) + 1;
+        dollars = new int[TRANSACTIONS];
+        epochDays = new int[TRANSACTIONS];
+        categories = new String[TRANSACTIONS];
+        for ( int i = 0; i < TRANSACTIONS; i++ ) {
+            dollars[i] = random.nextInt( 1, 501 );
+            epochDays[i] = (int) SyntheticHistory.FROM.toEpochDay( ) + random.nextInt( days );
+            categories[i] = CATEGORIES[random.nextInt( CATEGORIES.length )];
+        }
+        calculator = SyntheticHistory.defaultCalculator( );
+        legacy = calculator.rules( );
+        versioned = CompiledRewardRules.compile( legacy.versions( ).get( 0 ), List.of(
+                version( LocalDate.of( 2024, 3, 1 ), 3 ),
+                version( LocalDate.of( 2024, 6, 1 ), 4 ),
+                version( LocalDate.of( 2024, 9, 1 ), 5 ) ) );
+    }
+
+    private static RewardRuleDefinition version(LocalDate effectiveFrom, int tiers) {
+        RewardRuleDefinition version = new RewardRuleDefinition( );
+        version.setEffectiveFrom( effectiveFrom );
+        for ( int t = 0; t < tiers; t++ ) {
+            version.getTiers( ).add( new RewardRuleDefinition.Tier( 25 + t * 75, t + 1 ) );
+        }
+        version.setCategoryMultipliers( Map.of( "dining", 2, "travel", 3 ) );
+        RewardRuleDefinition.Promotion month = new RewardRuleDefinition.Promotion( );
+        month.setName( "double-month" );
+        month.setFrom( effectiveFrom.plusDays( 10 ) );
+        month.setTo( effectiveFrom.plusDays( 40 ) );
+        month.setMultiplier( 2 );
+        RewardRuleDefinition.Promotion fuel = new RewardRuleDefinition.Promotion( );
+        fuel.setName( "fuel-week" );
+        fuel.setFrom( effectiveFrom.plusDays( 20 ) );
+        fuel.setTo( effectiveFrom.plusDays( 27 ) );
+        fuel.setCategory( "fuel" );
+        fuel.setMultiplier( 5 );
+        version.setPromotions( List.of( month, fuel ) );
+        return version;
+    }
+
+    /** The fixed formula of the calculator before rule versions, with the shipped 50/100/2 settings. */
+    private static int fixedFormula(int dollars) {
+        if ( dollars > 100 ) {
+            return (dollars - 100) * 2 + (100 - 50);
+        } else if ( dollars > 50 ) {
+            return dollars - 50;
+        }
+        return 0;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public long fixedTwoTierFormula() {
+        long total = 0;
+        for ( int i = 0; i < TRANSACTIONS; i++ ) {
+            total += fixedFormula( dollars[i] );
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public long compiledTwoTier() {
+        long total = 0;
+        for ( int i = 0; i < TRANSACTIONS; i++ ) {
+            total += legacy.points( dollars[i], epochDays[i], categories[i] );
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public long compiledVersioned() {
+        long total = 0;
+        for ( int i = 0; i < TRANSACTIONS; i++ ) {
+            total += versioned.points( dollars[i], epochDays[i], categories[i] );
+        }
+        return total;
+    }
+
+    /** The calculator's cents entry point, including the read of the installed rules. */
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public long calculatorFromCents() {
+        long total = 0;
+        for ( int i = 0; i < TRANSACTIONS; i++ ) {
+            total += calculator.calculatePointsFromCents( dollars[i] * 100L );
+        }
+        return total;
+    }
+}
@@ -0,0 +1,70 @@
+package com.rewards.benchmarks;
+
+import com.rewards.dto.TransactionResponseDTO;
+import com.rewards.mapper.RewardMapper;
+import com.rewards.model.Customer;
+import com.rewards.model.Transaction;
+import com.rewards.util.RewardPointsCalculator;
+import com.rewards.util.RewardProperties;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic transaction history for one customer, spread over the twelve months of {@link #FROM}-{@link #TO}
+ * with amounts between $1.00 and $500.00, ordered by date like the repository query returns them.
+ */
+final class SyntheticHistory {
+
+    static final LocalDate FROM = LocalDate.of( 2024, 1, 1 );
+    static final LocalDate TO = LocalDate.of( 2024, 12, 31 );
+    static final long CUSTOMER_ID = 1L;
+
+    final Customer customer;
+    final List<Transaction> transactions;
+
+    private SyntheticHistory(Customer customer, List<Transaction> transactions) {
+        this.customer = customer;
+        this.transactions = transactions;
+    }
+
+    static SyntheticHistory of(int size) {
+        Customer customer = new Customer( );
+        customer.setId( CUSTOMER_ID );
+        customer.setCustomerName( "Benchmark" );
+        customer.setCustomerEmail( "benchmark@example.com" );
+
+        SplittableRandom random = new SplittableRandom( 42 );
+        int days = (int) (TO.toEpochDay( ) - FROM.toEpochDay( )) + 1;
+        List<Transaction> transactions = new ArrayList<>( size );
+        for ( int i = 0; i < size; i++ ) {
+            LocalDate date = FROM.plusDays( (long) i * days / size );
+            BigDecimal amount = BigDecimal.valueOf( random.nextLong( 100, 50_001 ), 2 );
+            Transaction tx = new Transaction( amount, date, customer );
+            tx.setId( i + 1L );
+            transactions.add( tx );
+        }
+        return new SyntheticHistory( customer, transactions );
+    }
+
+    /** Transactions already mapped to DTOs with their points, as the service holds them before grouping. */
+    List<TransactionResponseDTO> toDTOs(RewardMapper mapper, RewardPointsCalculator calculator) {
+        List<TransactionResponseDTO> dtos = new ArrayList<>( transactions.size( ) );
+        for ( Transaction tx : transactions ) {
+            dtos.add( mapper.maptoTransactionDTO( tx, calculator.calculatePoints( tx ) ) );
+        }
+        return dtos;
+    }
+
+    /** Calculator with the rules shipped in application.yml. */
+    static RewardPointsCalculator defaultCalculator() {
+        RewardProperties properties = new RewardProperties( );
+        properties.setMinAmtSpendForPoints( 50 );
+        properties.setMinAmtSpendForBonus( 100 );
+        properties.setMultiplier( 2 );
+        return new RewardPointsCalculator( properties );
+    }
+}
@@ -0,0 +1,49 @@
+package com.rewards.benchmarks;
+
+import com.rewards.dto.TransactionResponseDTO;
+import com.rewards.mapper.RewardMapper;
+import com.rewards.model.Transaction;
+import com.rewards.util.RewardPointsCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+/**
+ * Mapping transactions to response DTOs, with and without scoring them.
+ */
+@State(Scope.Benchmark)
+public class TransactionMappingBenchmark extends BenchmarkDefaults {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private RewardMapper mapper;
+    private RewardPointsCalculator calculator;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setup() {
+        mapper = new RewardMapper( );
+        calculator = SyntheticHistory.defaultCalculator( );
+        transactions = SyntheticHistory.of( size ).transactions;
+    }
+
+    @Benchmark
+    public void mapOnly(Blackhole blackhole) {
+        for ( Transaction tx : transactions ) {
+            blackhole.consume( mapper.maptoTransactionDTO( tx, 0 ) );
+        }
+    }
+
+    @Benchmark
+    public List<TransactionResponseDTO> scoreAndMap() {
+        return transactions.stream( )
+                .map( tx -> mapper.maptoTransactionDTO( tx, calculator.calculatePoints( tx ) ) )
+                .toList( );
+    }
+}
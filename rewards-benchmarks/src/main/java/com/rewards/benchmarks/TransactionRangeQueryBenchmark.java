@@ -0,0 +1,157 @@
+package com.rewards.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SQL behind {@code TransactionRepository.findRowsByCustomerIdAndTransactionDateBetween} against a table of
+ * {@link #rows} transactions, with and without the {@code (customer_id, transaction_date)} index. Runs on an
+ * in-memory H2 database unless {@code bench.jdbc.url} points elsewhere (e.g. a local MySQL).
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TransactionRangeQueryBenchmark extends BenchmarkDefaults {
+
+    private static final String PROJECTION_SQL = "select t.id, t.amount, t.amount_cents, t.transaction_date "
+            + "from transactions t where t.customer_id = ? and t.transaction_date between ? and ? "
+            + "order by t.transaction_date, t.id";
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"10000000"})
+    public int rows;
+
+    @Param({"10000"})
+    public int customers;
+
+    @Param({"none", "customer_date"})
+    public String index;
+
+    private Connection connection;
+    private PreparedStatement query;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty( "bench.jdbc.url", "jdbc:h2:mem:rewards_bench;DB_CLOSE_DELAY=-1" ),
+                System.getProperty( "bench.jdbc.user", "sa" ),
+                System.getProperty( "bench.jdbc.password", "" ) );
+        try ( Statement ddl = connection.createStatement( ) ) {
+            ddl.execute( "drop table if exists transactions" );
+            ddl.execute( "create table transactions (id bigint not null primary key, customer_id bigint not null, "
+                    + "amount decimal(10,2) not null, amount_cents bigint, transaction_date date not null)" );
+        }
+        load( );
+        if ( "customer_date".equals( index ) ) {
+            try ( Statement ddl = connection.createStatement( ) ) {
+                ddl.execute( "create index idx_transactions_customer_date on transactions (customer_id, transaction_date)" );
+            }
+        }
+        printPlan( );
+        query = connection.prepareStatement( PROJECTION_SQL );
+    }
+
+    /**
+     * Spreads the rows round-robin over the customers and evenly over 2024, in id order like an append-only table.
+     */
+    private void load() throws SQLException {
+        boolean autoCommit = connection.getAutoCommit( );
+        connection.setAutoCommit( false );
+        SplittableRandom random = new SplittableRandom( 42 );
+        int days = (int) (SyntheticHistory.TO.toEpochDay( ) - SyntheticHistory.FROM.toEpochDay( )) + 1;
+        try ( PreparedStatement insert = connection.prepareStatement(
+                "insert into transactions (id, customer_id, amount, amount_cents, transaction_date) values (?, ?, ?, ?, ?)" ) ) {
+            for ( int i = 0; i < rows; i++ ) {
+                long cents = random.nextLong( 100, 50_001 );
+                insert.setLong( 1, i + 1L );
+                insert.setLong( 2, (i % customers) + 1L );
+                insert.setBigDecimal( 3, BigDecimal.valueOf( cents, 2 ) );
+                insert.setLong( 4, cents );
+                insert.setDate( 5, Date.valueOf( SyntheticHistory.FROM.plusDays( (long) i * days / rows ) ) );
+                insert.addBatch( );
+                if ( (i + 1) % INSERT_BATCH == 0 ) {
+                    insert.executeBatch( );
+                    connection.commit( );
+                }
+            }
+            insert.executeBatch( );
+            connection.commit( );
+        } finally {
+            connection.setAutoCommit( autoCommit );
+        }
+    }
+
+    /** Writes the database's plan for a one-year range to stdout, where JMH shows it with the trial output. */
+    private void printPlan() throws SQLException {
+        String explain = "explain " + PROJECTION_SQL.replaceFirst( "\\?", "1" )
+                .replaceFirst( "\\?", "DATE '" + SyntheticHistory.FROM + "'" )
+                .replaceFirst( "\\?", "DATE '" + SyntheticHistory.TO + "'" );
+        StringBuilder plan = new StringBuilder( "Plan with index=" ).append( index ).append( ':' );
+        try ( Statement statement = connection.createStatement( ); ResultSet rs = statement.executeQuery( explain ) ) {
+            ResultSetMetaData meta = rs.getMetaData( );
+            while ( rs.next( ) ) {
+                plan.append( System.lineSeparator( ) );
+                for ( int column = 1; column <= meta.getColumnCount( ); column++ ) {
+                    plan.append( column == 1 ? "" : " | " ).append( meta.getColumnLabel( column ) ).append( '=' ).append( rs.getString( column ) );
+                }
+            }
+        }
+        System.out.println( plan );
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try ( Statement ddl = connection.createStatement( ) ) {
+            ddl.execute( "drop table if exists transactions" );
+        } finally {
+            connection.close( );
+        }
+    }
+
+    @Benchmark
+    public void quarterRange(Blackhole blackhole) throws SQLException {
+        run( LocalDate.of( 2024, 4, 1 ), LocalDate.of( 2024, 6, 30 ), blackhole );
+    }
+
+    @Benchmark
+    public void yearRange(Blackhole blackhole) throws SQLException {
+        run( SyntheticHistory.FROM, SyntheticHistory.TO, blackhole );
+    }
+
+    /** Reads every projected column of a random customer's rows, as the constructor expression would. */
+    private void run(LocalDate from, LocalDate to, Blackhole blackhole) throws SQLException {
+        query.setLong( 1, ThreadLocalRandom.current( ).nextLong( 1, customers + 1L ) );
+        query.setDate( 2, Date.valueOf( from ) );
+        query.setDate( 3, Date.valueOf( to ) );
+        try ( ResultSet rs = query.executeQuery( ) ) {
+            while ( rs.next( ) ) {
+                blackhole.consume( rs.getLong( 1 ) );
+                blackhole.consume( rs.getBigDecimal( 2 ) );
+                blackhole.consume( rs.getLong( 3 ) );
+                blackhole.consume( rs.getDate( 4 ) );
+            }
+        }
+    }
+}